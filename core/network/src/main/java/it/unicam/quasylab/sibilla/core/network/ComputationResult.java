@@ -30,6 +30,7 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -49,6 +50,16 @@ public class ComputationResult<S extends State> implements Externalizable {
      */
     private List<Trajectory<S>> results;
 
+    /**
+     * Number of tasks whose data are described by the summary.
+     */
+    private int tasks;
+
+    /**
+     * Summary of the data collected by the slave server, or <code>null</code> if trajectories are sent.
+     */
+    private Serializable summary;
+
     public ComputationResult() {
     }
 
@@ -61,6 +72,18 @@ public class ComputationResult<S extends State> implements Externalizable {
         this.results = new LinkedList<>(results);
     }
 
+    /**
+     * Creates a new ComputationResult object with the summary of the data collected by a given number of tasks
+     *
+     * @param tasks   number of executed tasks
+     * @param summary summary of the data collected by the tasks
+     */
+    public ComputationResult(int tasks, Serializable summary) {
+        this.results = new LinkedList<>();
+        this.tasks = tasks;
+        this.summary = summary;
+    }
+
     /**
      * Returns the list of trajectories of a simulation
      *
@@ -70,6 +93,24 @@ public class ComputationResult<S extends State> implements Externalizable {
         return results;
     }
 
+    /**
+     * Returns the summary of the collected data, or <code>null</code> if this result contains trajectories
+     *
+     * @return the summary of the collected data
+     */
+    public Serializable getSummary() {
+        return summary;
+    }
+
+    /**
+     * Returns the number of tasks whose results are contained in this object
+     *
+     * @return the number of tasks whose results are contained in this object
+     */
+    public int getCompletedTasks() {
+        return (summary == null ? results.size() : tasks);
+    }
+
     public void add(ComputationResult<S> otherResults) {
         this.results.addAll(otherResults.results);
     }
@@ -80,6 +121,8 @@ public class ComputationResult<S extends State> implements Externalizable {
         for (Trajectory trajectoryToWrite : results) {
             out.writeObject(trajectoryToWrite);
         }
+        out.writeInt(tasks);
+        out.writeObject(summary);
     }
 
     @Override
@@ -90,5 +133,7 @@ public class ComputationResult<S extends State> implements Externalizable {
             trajectories.add((Trajectory) in.readObject());
         }
         this.results = trajectories;
+        this.tasks = in.readInt();
+        this.summary = (Serializable) in.readObject();
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The specification of a model written in one of the Sibilla languages. It contains the name of the module
+ * handling the language, the source code, the values of the parameters and the initial configuration.
+ * A source is identified by a hash of its content, so that servers that already compiled it do not need
+ * to receive it again.
+ */
+public final class ModelSource implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String moduleName;
+
+    private final String code;
+
+    private final TreeMap<String, Double> parameters;
+
+    private final String configurationName;
+
+    private final double[] configurationArgs;
+
+    private transient String hash;
+
+    /**
+     * Creates the source of a model that uses default parameters and the default initial configuration.
+     *
+     * @param moduleName name of the module handling the language
+     * @param code       source code of the model
+     */
+    public ModelSource(String moduleName, String code) {
+        this(moduleName, code, Map.of(), null);
+    }
+
+    /**
+     * Creates the source of a model.
+     *
+     * @param moduleName        name of the module handling the language
+     * @param code              source code of the model
+     * @param parameters        values assigned to the model parameters
+     * @param configurationName name of the initial configuration, or <code>null</code> for the default one
+     * @param configurationArgs arguments of the initial configuration
+     */
+    public ModelSource(String moduleName, String code, Map<String, Double> parameters, String configurationName,
+                       double... configurationArgs) {
+        this.moduleName = moduleName;
+        this.code = code;
+        this.parameters = new TreeMap<>(parameters);
+        this.configurationName = configurationName;
+        this.configurationArgs = configurationArgs.clone();
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Map<String, Double> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    public String getConfigurationName() {
+        return configurationName;
+    }
+
+    public double[] getConfigurationArgs() {
+        return configurationArgs.clone();
+    }
+
+    /**
+     * Returns the SHA-256 hash, in hexadecimal notation, of the content of this source.
+     *
+     * @return the hash of the content of this source
+     */
+    public String getHash() {
+        if (hash == null) {
+            hash = computeHash();
+        }
+        return hash;
+    }
+
+    private String computeHash() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeString(out, moduleName);
+            writeString(out, code);
+            out.writeInt(parameters.size());
+            for (Map.Entry<String, Double> parameter : parameters.entrySet()) {
+                writeString(out, parameter.getKey());
+                out.writeDouble(parameter.getValue());
+            }
+            out.writeBoolean(configurationName != null);
+            if (configurationName != null) {
+                writeString(out, configurationName);
+            }
+            out.writeInt(configurationArgs.length);
+            for (double arg : configurationArgs) {
+                out.writeDouble(arg);
+            }
+            out.flush();
+            StringBuilder result = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray())) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ModelSource that = (ModelSource) o;
+        return getHash().equals(that.getHash());
+    }
+
+    @Override
+    public int hashCode() {
+        return getHash().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s model [%s] - parameters: %s - configuration: %s%s", moduleName, getHash(), parameters,
+                configurationName, Arrays.toString(configurationArgs));
+    }
+}
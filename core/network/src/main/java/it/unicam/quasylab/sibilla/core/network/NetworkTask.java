@@ -25,6 +25,7 @@ package it.unicam.quasylab.sibilla.core.network;
 
 import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
 
 import java.io.Serializable;
 import java.util.List;
@@ -45,13 +46,31 @@ public class NetworkTask<S extends State> implements Serializable {
      */
     private final List<SimulationTask<S>> tasks;
 
+    /**
+     * Sampling function filled by the tasks, whose summary is sent back to the master server
+     */
+    private final SamplingFunction<? super S> samplingFunction;
+
     /**
      * Creates a NetworkTask object from a list of tasks
      *
      * @param tasks list of tasks to be executed by a slave server
      */
     public NetworkTask(List<SimulationTask<S>> tasks) {
+        this(tasks, null);
+    }
+
+    /**
+     * Creates a NetworkTask object from a list of tasks whose sampling handlers are provided by the given
+     * sampling function. Since the function and the tasks are serialized together, the slave server
+     * receives a single copy of the function shared by all the tasks.
+     *
+     * @param tasks            list of tasks to be executed by a slave server
+     * @param samplingFunction sampling function filled by the tasks
+     */
+    public NetworkTask(List<SimulationTask<S>> tasks, SamplingFunction<? super S> samplingFunction) {
         this.tasks = tasks;
+        this.samplingFunction = samplingFunction;
     }
 
     /**
@@ -63,4 +82,14 @@ public class NetworkTask<S extends State> implements Serializable {
         return tasks;
     }
 
+    /**
+     * Returns the sampling function filled by the tasks, or <code>null</code> if trajectories
+     * have to be sent back to the master server
+     *
+     * @return the sampling function filled by the tasks
+     */
+    public SamplingFunction<? super S> getSamplingFunction() {
+        return samplingFunction;
+    }
+
 }
\ No newline at end of file
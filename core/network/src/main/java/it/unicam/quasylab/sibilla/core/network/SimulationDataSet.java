@@ -29,6 +29,7 @@ import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Class that stores info about the simulation that is executed by slaves.
@@ -74,6 +75,11 @@ public class SimulationDataSet<S extends State> implements Serializable {
      */
     private final double deadline;
 
+    /**
+     * Source of the model, or <code>null</code> when the model is given by a model definition class.
+     */
+    private final ModelSource modelSource;
+
     /**
      * Creates a SimulationDataSet object with the parameters given in input.
      *
@@ -93,6 +99,29 @@ public class SimulationDataSet<S extends State> implements Serializable {
         this.modelSamplingFunction = sampling_function;
         this.replica = replica;
         this.deadline = deadline;
+        this.modelSource = null;
+    }
+
+    /**
+     * Creates a SimulationDataSet object for a model given as source code. The model is compiled by each server,
+     * and simulations refer to it via a {@link it.unicam.quasylab.sibilla.core.network.loaders.CachedModel}.
+     *
+     * @param random            RandomGenerator used by the simulation
+     * @param modelSource       source of the model used in the simulation
+     * @param sampling_function {@link SamplingFunction} used to sample the model, that must be serializable
+     * @param replica           Number of times the simulation is executed
+     * @param deadline          The deadline of the simulation
+     */
+    public SimulationDataSet(RandomGenerator random, ModelSource modelSource, SamplingFunction<S> sampling_function,
+                             int replica, double deadline) {
+        this.modelDefinitionClassName = modelSource.getHash();
+        this.randomGenerator = random;
+        this.model = null;
+        this.modelInitialState = null;
+        this.modelSamplingFunction = sampling_function;
+        this.replica = replica;
+        this.deadline = deadline;
+        this.modelSource = modelSource;
     }
 
     @Override
@@ -210,6 +239,15 @@ public class SimulationDataSet<S extends State> implements Serializable {
         return deadline;
     }
 
+    /**
+     * Returns the source of the model, or <code>null</code> when the model is given by a model definition class.
+     *
+     * @return the source of the model
+     */
+    public ModelSource getModelSource() {
+        return modelSource;
+    }
+
 
     public String toString() {
         return String.format(
@@ -219,8 +257,10 @@ public class SimulationDataSet<S extends State> implements Serializable {
                         + " modelReferenceSamplingFunction hashcode: %d \n"
                         + " modelReferenceSamplingFunction class: %s \n" + " replica: %d \n deadline: %e \n",
                 randomGenerator.hashCode(), randomGenerator.getClass().getName(), modelDefinitionClassName,
-                model.hashCode(), model.getClass().getName(), modelInitialState.hashCode(),
-                modelInitialState.getClass().getName(), modelSamplingFunction.hashCode(),
+                Objects.hashCode(model), (model == null ? null : model.getClass().getName()),
+                Objects.hashCode(modelInitialState),
+                (modelInitialState == null ? null : modelInitialState.getClass().getName()),
+                modelSamplingFunction.hashCode(),
                 modelSamplingFunction.getClass().getName(), replica, deadline);
     }
 }
@@ -114,6 +114,24 @@ public class BenchmarkUnit {
         }
     }
 
+    /**
+     * Records an activity whose duration has been measured by the caller. The given values will be written into the benchmark file.
+     *
+     * @param nanoTime duration of the activity in nanoseconds
+     * @param values   values to be written into the benchmark file
+     */
+    public synchronized void record(long nanoTime, List<Double> values) {
+        try {
+            BufferedWriter fileWriter = getFileWriter();
+            fileWriter.write(String.valueOf(executedRuns++));
+            writeValues(fileWriter, nanoTime, values);
+            fileWriter.newLine();
+            fileWriter.close();
+        } catch (IOException ioException) {
+            ioException.printStackTrace();
+        }
+    }
+
     private BufferedWriter getFileWriter() throws IOException {
         File dir = new File(this.dirName);
         if (!dir.exists()) {
@@ -132,7 +150,10 @@ public class BenchmarkUnit {
         watch.start();
         List<Double> otherData = callable.call();
         watch.stop();
-        double nanoValue = watch.getNanoTime();
+        writeValues(fileWriter, watch.getNanoTime(), otherData);
+    }
+
+    private void writeValues(BufferedWriter fileWriter, double nanoValue, List<Double> otherData) throws IOException {
         double secValue = nanoValue / (Math.pow(10, 9));
         fileWriter.write("," + secValue);
         for (Double n : otherData) {
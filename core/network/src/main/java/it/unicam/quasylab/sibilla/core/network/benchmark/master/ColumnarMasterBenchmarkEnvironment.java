@@ -0,0 +1,86 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.benchmark.master;
+
+import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.ComputationResult;
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodec;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
+import it.unicam.quasylab.sibilla.core.network.serialization.ColumnarComputationResultSerializer;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Extension of {@link MasterBenchmarkEnvironment} based upon {@link ColumnarComputationResultSerializer}.
+ * Received data is decompressed with a {@link CompressionCodec} and deserialized directly from the
+ * decompressed buffer.
+ *
+ * @param <S> {@link State} related to the {@link ComputationResult} objects received from the Slave.
+ */
+public class ColumnarMasterBenchmarkEnvironment<S extends State> extends MasterBenchmarkEnvironment {
+    private final Model<S> model;
+    private final CompressionCodec codec;
+
+    public ColumnarMasterBenchmarkEnvironment(String benchmarkName, NetworkInfo slaveInfo, ComputationResultSerializerType type, Model model, int step, int threshold, int repetitions, int resultsSize) throws IOException {
+        super(benchmarkName, slaveInfo, type, step, threshold, repetitions, resultsSize);
+        this.model = model;
+        this.codec = CompressionCodec.getCodec(CompressionCodecType.DEFLATE);
+    }
+
+    public ColumnarMasterBenchmarkEnvironment(TCPNetworkManager networkManager, String benchmarkName, ComputationResultSerializerType type, Model model, int step, int threshold, int repetitions, int resultsSize) throws IOException {
+        super(networkManager, benchmarkName, type, step, threshold, repetitions, resultsSize);
+        this.model = model;
+        this.codec = CompressionCodec.getCodec(CompressionCodecType.DEFLATE);
+    }
+
+
+    @Override
+    protected ComputationResult deserializeAndDecompress(byte[] bytes, int currentRepetition) {
+        final var wrapper = new Object() {
+            private ByteBuffer received;
+            private ComputationResult<S> results;
+        };
+
+        this.mainBenchmarkUnit.run(() -> {
+                    wrapper.received = codec.decompress(bytes);
+                    LOGGER.info(String.format("[%d] Columnar %s decompressed (serialized) - Bytes: %d", currentRepetition, this.benchmarkName, wrapper.received.remaining()));
+                    return List.of();
+                }, () -> {
+                    int size = wrapper.received.remaining();
+                    wrapper.results = ColumnarComputationResultSerializer.deserialize(wrapper.received, this.model);
+                    LOGGER.info(String.format("[%d] Columnar %s deserialized - Size: %d - Bytes: %d", currentRepetition, this.benchmarkName, wrapper.results.getResults().size(), size));
+                    return List.of((double) wrapper.results.getResults().size());
+                }
+        );
+
+        return wrapper.results;
+    }
+
+}
@@ -107,6 +107,8 @@ public abstract class MasterBenchmarkEnvironment<S extends State> {
                 return new ApacheMasterBenchmarkEnvironment<>(benchmarkName, slaveInfo, type, step, threshold, repetitions, resultsSize);
             case CUSTOM:
                 return new CustomMasterBenchmarkEnvironment<>(benchmarkName, slaveInfo, type, model, step, threshold, repetitions, resultsSize);
+            case COLUMNAR:
+                return new ColumnarMasterBenchmarkEnvironment<>(benchmarkName, slaveInfo, type, model, step, threshold, repetitions, resultsSize);
         }
         return null;
     }
@@ -134,6 +136,8 @@ public abstract class MasterBenchmarkEnvironment<S extends State> {
                 return new ApacheMasterBenchmarkEnvironment<>(networkManager, benchmarkName, type, step, threshold, repetitions, resultsSize);
             case CUSTOM:
                 return new CustomMasterBenchmarkEnvironment<>(networkManager, benchmarkName, type, model, step, threshold, repetitions, resultsSize);
+            case COLUMNAR:
+                return new ColumnarMasterBenchmarkEnvironment<>(networkManager, benchmarkName, type, model, step, threshold, repetitions, resultsSize);
         }
         return null;
     }
@@ -0,0 +1,236 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.benchmark.scheduling;
+
+import it.unicam.quasylab.sibilla.core.network.HostLoggerSupplier;
+import it.unicam.quasylab.sibilla.core.network.benchmark.BenchmarkUnit;
+import it.unicam.quasylab.sibilla.core.network.master.AdaptiveTaskScheduler;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Environment designed to compare the strategies used by a Master Server to distribute tasks on heterogeneous
+ * Slave Servers. Slave Servers are replaced by local threads that execute each task in a time given by their
+ * throughput, and each batch of tasks in the time needed to execute its tasks plus the round trip time of the network.
+ * The time needed to complete all the tasks is recorded for each strategy.
+ */
+public class SchedulingBenchmarkEnvironment {
+
+    private static final int WINDOW_THRESHOLD = 256;
+
+    private final Logger LOGGER;
+    private final String benchmarkName;
+    private final double[] throughputs;
+    private final long roundTripTime;
+    private final int tasks;
+    private final int repetitions;
+
+    /**
+     * Creates a new environment.
+     *
+     * @param benchmarkName name associated with the benchmark
+     * @param throughputs   number of tasks executed per second by each of the stand-in Slave Servers
+     * @param roundTripTime time, in nanoseconds, needed to send a batch of tasks and to receive its results
+     * @param tasks         number of tasks to execute in each repetition
+     * @param repetitions   number of times the benchmark needs to be repeated
+     */
+    public SchedulingBenchmarkEnvironment(String benchmarkName, double[] throughputs, long roundTripTime, int tasks,
+                                          int repetitions) {
+        this.benchmarkName = benchmarkName;
+        this.throughputs = throughputs;
+        this.roundTripTime = roundTripTime;
+        this.tasks = tasks;
+        this.repetitions = repetitions;
+        LOGGER = HostLoggerSupplier.getInstance("Scheduling Benchmark").getLogger();
+    }
+
+    /**
+     * Executes the benchmark for all the strategies.
+     */
+    public void run() {
+        for (Strategy strategy : Strategy.values()) {
+            LOGGER.info(String.format("STARTING %s SCHEDULING BENCHMARK", strategy.fullName));
+            BenchmarkUnit unit = new BenchmarkUnit(this.getDirectory(),
+                    String.format("%s_makespan", strategy.fullName), "csv", strategy.label,
+                    List.of("makespan", "tasks", "speculativebatches", "discardedtasks"));
+            for (int i = 1; i <= repetitions; i++) {
+                int repetition = i;
+                unit.run(() -> {
+                    List<Double> result = (strategy == Strategy.ADAPTIVE ? runAdaptive() : runWindow());
+                    LOGGER.info(String.format("[%d] %s strategy completed [%d] tasks", repetition, strategy.fullName,
+                            tasks));
+                    return result;
+                });
+            }
+        }
+    }
+
+    private String getDirectory() {
+        return String.format("benchmarks/schedulingBenchmarking/%s/", this.benchmarkName);
+    }
+
+    /**
+     * Slave Servers ask for new tasks when they have completed the previous ones, and receive batches
+     * sized by an {@link AdaptiveTaskScheduler}.
+     */
+    private List<Double> runAdaptive() throws InterruptedException {
+        AdaptiveTaskScheduler<Integer, Integer> scheduler = new AdaptiveTaskScheduler<>(
+                Math.max(roundTripTime * 20, 100000000L), WINDOW_THRESHOLD);
+        Progress progress = new Progress(tasks);
+        ExecutorService slaves = Executors.newFixedThreadPool(throughputs.length);
+        for (int i = 0; i < throughputs.length; i++) {
+            int slave = i;
+            slaves.execute(() -> {
+                while (true) {
+                    AdaptiveTaskScheduler.Batch<Integer, Integer> batch;
+                    synchronized (progress) {
+                        batch = null;
+                        while (batch == null) {
+                            if (progress.isCompleted()) {
+                                return;
+                            }
+                            int size = scheduler.getBatchSize(slave, progress.pending);
+                            if (size > 0) {
+                                List<Integer> ids = IntStream.range(tasks - progress.pending, tasks - progress.pending + size)
+                                        .boxed().collect(Collectors.toList());
+                                progress.pending -= size;
+                                batch = scheduler.start(slave, ids);
+                            } else if ((batch = scheduler.speculate(slave)) == null) {
+                                try {
+                                    progress.wait();
+                                } catch (InterruptedException e) {
+                                    return;
+                                }
+                            }
+                        }
+                    }
+                    execute(slave, batch.size());
+                    synchronized (progress) {
+                        if (scheduler.complete(batch)) {
+                            progress.completed += batch.size();
+                        } else {
+                            progress.discarded += batch.size();
+                        }
+                        progress.notifyAll();
+                    }
+                }
+            });
+        }
+        progress.await();
+        slaves.shutdownNow();
+        return List.of((double) tasks, (double) scheduler.getSpeculativeBatches(), (double) progress.discarded);
+    }
+
+    /**
+     * Slave Servers receive batches whose size is doubled after each completion until a threshold is reached,
+     * as done by the TCP-like task window used before {@link AdaptiveTaskScheduler}.
+     */
+    private List<Double> runWindow() throws InterruptedException {
+        Progress progress = new Progress(tasks);
+        ExecutorService slaves = Executors.newFixedThreadPool(throughputs.length);
+        for (int i = 0; i < throughputs.length; i++) {
+            int slave = i;
+            slaves.execute(() -> {
+                int window = 1;
+                while (true) {
+                    int size;
+                    synchronized (progress) {
+                        size = Math.min(window, progress.pending);
+                        progress.pending -= size;
+                    }
+                    if (size == 0) {
+                        return;
+                    }
+                    execute(slave, size);
+                    synchronized (progress) {
+                        progress.completed += size;
+                        progress.notifyAll();
+                    }
+                    window = (window < WINDOW_THRESHOLD ? window * 2 : window + 1);
+                }
+            });
+        }
+        progress.await();
+        slaves.shutdownNow();
+        return List.of((double) tasks, 0.0, 0.0);
+    }
+
+    /**
+     * Waits the time needed by the given stand-in Slave Server to execute a batch of tasks.
+     */
+    private void execute(int slave, int size) {
+        long deadline = System.nanoTime() + roundTripTime + (long) (size * 1E9 / throughputs[slave]);
+        long remaining;
+        while (((remaining = deadline - System.nanoTime()) > 0) && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Tasks executed in a single repetition.
+     */
+    private static final class Progress {
+        private final int tasks;
+        private int pending;
+        private int completed = 0;
+        private int discarded = 0;
+
+        private Progress(int tasks) {
+            this.tasks = tasks;
+            this.pending = tasks;
+        }
+
+        private boolean isCompleted() {
+            return completed >= tasks;
+        }
+
+        private synchronized void await() throws InterruptedException {
+            while (!isCompleted()) {
+                wait();
+            }
+        }
+    }
+
+    public enum Strategy {
+        ADAPTIVE("a", "Adaptive"), WINDOW("w", "Window");
+
+        private final String label;
+        private final String fullName;
+
+        Strategy(String label, String fullName) {
+            this.label = label;
+            this.fullName = fullName;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.benchmark.slave;
+
+import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.ComputationResult;
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodec;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
+import it.unicam.quasylab.sibilla.core.network.serialization.ColumnarComputationResultSerializer;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Extension of {@link SlaveBenchmarkEnvironment} based upon {@link ColumnarComputationResultSerializer}.
+ * Serialized data is compressed by a {@link CompressionCodec} directly from the serialization buffer.
+ *
+ * @param <S> {@link State} related to the {@link ComputationResult} objects to send to the Master.
+ */
+public class ColumnarSlaveBenchmarkEnvironment<S extends State> extends SlaveBenchmarkEnvironment {
+
+    private final CompressionCodec codec = CompressionCodec.getCodec(CompressionCodecType.DEFLATE);
+
+    public ColumnarSlaveBenchmarkEnvironment(String benchmarkName, String trajectoryFileDir, String trajectoryFileName, NetworkInfo localInfo, Model<S> model, ComputationResultSerializerType type) throws IOException {
+        super(benchmarkName, trajectoryFileDir, trajectoryFileName, localInfo, type, model);
+    }
+
+    public ColumnarSlaveBenchmarkEnvironment(TCPNetworkManager networkManager, String benchmarkName, String trajectoryFileDir, String trajectoryFileName, Model<S> model, ComputationResultSerializerType type) throws IOException {
+        super(networkManager, benchmarkName, trajectoryFileDir, trajectoryFileName, type, model);
+    }
+
+
+    @Override
+    protected void serializeCompressAndSend(ComputationResult computationResult, int currentRepetition) {
+        final var wrapper = new Object() {
+            private ByteBuffer serialized;
+            private byte[] toSend;
+        };
+
+        this.mainBenchmarkUnit.run(() -> {
+                    wrapper.serialized = ColumnarComputationResultSerializer.serialize(computationResult, this.model);
+                    LOGGER.info(String.format("[%d] Columnar Serialization %s - Size: %d - Bytes: %d", currentRepetition, this.benchmarkName, computationResult.getResults().size(), wrapper.serialized.remaining()));
+                    return List.of((double) computationResult.getResults().size(), (double) wrapper.serialized.remaining());
+                },
+                () -> {
+                    wrapper.toSend = codec.compress(wrapper.serialized);
+                    LOGGER.info(String.format("[%d] Columnar Compression %s - Size: %d - Bytes: %d", currentRepetition, this.benchmarkName, computationResult.getResults().size(), wrapper.toSend.length));
+                    return List.of((double) wrapper.toSend.length);
+                },
+                () -> {
+                    netManager.writeObject(wrapper.toSend);
+                    LOGGER.info(String.format("[%d] Columnar %s Sent - Size: %d - Bytes: %d", currentRepetition, this.benchmarkName, computationResult.getResults().size(), wrapper.toSend.length));
+                    return List.of();
+                });
+    }
+
+}
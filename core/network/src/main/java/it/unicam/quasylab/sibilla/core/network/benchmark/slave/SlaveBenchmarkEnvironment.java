@@ -121,6 +121,9 @@ public abstract class SlaveBenchmarkEnvironment<S extends State> {
             case CUSTOM:
                 return new CustomSlaveBenchmarkEnvironment<>(benchmarkName, trajectoryFileDir, trajectoryFileName,
                         localInfo, model, type);
+            case COLUMNAR:
+                return new ColumnarSlaveBenchmarkEnvironment<>(benchmarkName, trajectoryFileDir, trajectoryFileName,
+                        localInfo, model, type);
         }
         return null;
     }
@@ -151,6 +154,9 @@ public abstract class SlaveBenchmarkEnvironment<S extends State> {
             case CUSTOM:
                 return new CustomSlaveBenchmarkEnvironment<>(networkManager, benchmarkName, trajectoryFileDir,
                         trajectoryFileName, model, type);
+            case COLUMNAR:
+                return new ColumnarSlaveBenchmarkEnvironment<>(networkManager, benchmarkName, trajectoryFileDir,
+                        trajectoryFileName, model, type);
         }
         return null;
     }
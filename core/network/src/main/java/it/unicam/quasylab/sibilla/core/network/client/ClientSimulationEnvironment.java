@@ -27,10 +27,12 @@ import it.unicam.quasylab.sibilla.core.models.Model;
 import it.unicam.quasylab.sibilla.core.models.ModelDefinition;
 import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.network.HostLoggerSupplier;
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
 import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
 import it.unicam.quasylab.sibilla.core.network.SimulationDataSet;
 import it.unicam.quasylab.sibilla.core.network.benchmark.BenchmarkUnit;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.loaders.CachedModel;
 import it.unicam.quasylab.sibilla.core.network.loaders.ClassBytesLoader;
 import it.unicam.quasylab.sibilla.core.network.master.MasterCommand;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
@@ -62,6 +64,11 @@ public class ClientSimulationEnvironment<S extends State> {
      */
     private final SimulationDataSet<S> data;
 
+    /**
+     * The {@link SamplingFunction} containing the results received by the master server.
+     */
+    private SamplingFunction<S> results;
+
     /**
      * Manages the network communication with the master server.
      */
@@ -92,6 +99,32 @@ public class ClientSimulationEnvironment<S extends State> {
                                        S initialState, SamplingFunction<S> samplingFunction, int replica, double deadline,
                                        NetworkInfo masterNetworkInfo, SerializerType serializerType, int submitRepetitions) {
 
+        this(new SimulationDataSet<>(random, modelDefinition.getClass().getName(), model, initialState,
+                samplingFunction, replica, deadline), masterNetworkInfo, serializerType, submitRepetitions);
+    }
+
+    /**
+     * Initiates a new client that submits simulations of a model given as source code. The source is compiled
+     * by the master and by each slave server only once, and is then referred to by its hash.
+     *
+     * @param random            {@link org.apache.commons.math3.random.RandomGenerator} of the simulation.
+     * @param modelSource       {@link ModelSource} of the simulation model to be sent.
+     * @param samplingFunction  The {@link SamplingFunction} that will be used to collect data. Measures of the
+     *                          model should be obtained via {@link CachedModel#getSamplingFunction}.
+     * @param replica           Repetitions of the simulation.
+     * @param deadline          Time interval between two samplings.
+     * @param masterNetworkInfo {@link NetworkInfo} of the master to be reached.
+     */
+    public ClientSimulationEnvironment(RandomGenerator random, ModelSource modelSource,
+                                       SamplingFunction<S> samplingFunction, int replica, double deadline,
+                                       NetworkInfo masterNetworkInfo, SerializerType serializerType, int submitRepetitions) {
+        this(new SimulationDataSet<>(random, modelSource, samplingFunction, replica, deadline), masterNetworkInfo,
+                serializerType, submitRepetitions);
+    }
+
+    private ClientSimulationEnvironment(SimulationDataSet<S> data, NetworkInfo masterNetworkInfo,
+                                        SerializerType serializerType, int submitRepetitions) {
+
         LOGGER = HostLoggerSupplier.getInstance().getLogger();
 
         serializer = Serializer.getSerializer(serializerType);
@@ -103,8 +136,7 @@ public class ClientSimulationEnvironment<S extends State> {
                 "client",
                 List.of("submitreceiveandclosetime"));
 
-        this.data = new SimulationDataSet<>(random, modelDefinition.getClass().getName(), model, initialState, samplingFunction, replica,
-                deadline);
+        this.data = data;
 
         for (int i = 1; i <= this.submitRepetitions; i++) {
             this.clientBenchmark.run(() -> {
@@ -113,7 +145,10 @@ public class ClientSimulationEnvironment<S extends State> {
                 LOGGER.info(String.format("Starting a new client that will submit the simulation to the master: %s",
                         masterNetworkInfo));
 
-                this.initConnection(masterServerNetworkManager);
+                if (this.data.getModelSource() == null) {
+                    // model sources are sent together with the simulation data
+                    this.initConnection(masterServerNetworkManager);
+                }
                 this.sendSimulationInfo(masterServerNetworkManager);
                 this.closeConnection(masterServerNetworkManager);
 
@@ -124,6 +159,16 @@ public class ClientSimulationEnvironment<S extends State> {
 
     }
 
+    /**
+     * Returns the {@link SamplingFunction} containing the results of the last submitted simulation, or
+     * <code>null</code> if no result has been received by the master server.
+     *
+     * @return the results of the last submitted simulation.
+     */
+    public SamplingFunction<S> getResults() {
+        return results;
+    }
+
     /**
      * Closes the connection with the given master server
      *
@@ -195,6 +240,7 @@ public class ClientSimulationEnvironment<S extends State> {
      *
      * @param targetMaster NetworkManager to the master server
      */
+    @SuppressWarnings("unchecked")
     private void sendSimulationInfo(TCPNetworkManager targetMaster) throws IOException {
         try {
             targetMaster.writeObject(serializer.serialize(ClientCommand.DATA));
@@ -214,8 +260,7 @@ public class ClientSimulationEnvironment<S extends State> {
             LOGGER.info(String.format("[%s] command read by the master: %s", command,
                     targetMaster.getNetworkInfo().toString()));
             if (command.equals(MasterCommand.RESULTS)) {
-                SamplingFunction<?> samplingFunction = (SamplingFunction<?>) serializer
-                        .deserialize(targetMaster.readObject());
+                results = (SamplingFunction<S>) serializer.deserialize(targetMaster.readObject());
                 LOGGER.info("The simulation results have been received correctly");
             } else {
                 throw new ClassCastException("Wrong command from master. Expected RESULTS");
@@ -0,0 +1,83 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.communication;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct byte buffers of fixed size used to read and write frames on non-blocking channels.
+ * Allocating direct buffers is expensive, hence released buffers are kept, up to a given number, and
+ * reused.
+ */
+final class ByteBufferPool {
+
+    /**
+     * Size in bytes of the buffers provided by the pool.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int maxPooledBuffers;
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    /**
+     * Creates a pool that keeps at most the given number of released buffers.
+     *
+     * @param maxPooledBuffers maximum number of buffers kept by the pool
+     */
+    ByteBufferPool(int maxPooledBuffers) {
+        this.maxPooledBuffers = maxPooledBuffers;
+    }
+
+    /**
+     * Returns a cleared buffer, that is either taken from the pool or allocated.
+     *
+     * @return a cleared direct buffer of size {@link #BUFFER_SIZE}
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        pooledBuffers.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Gives back to the pool a buffer obtained via {@link #acquire()}. The buffer must not be used afterwards.
+     *
+     * @param buffer the released buffer
+     */
+    void release(ByteBuffer buffer) {
+        if (pooledBuffers.incrementAndGet() <= maxPooledBuffers) {
+            buffers.offer(buffer);
+        } else {
+            pooledBuffers.decrementAndGet();
+        }
+    }
+
+}
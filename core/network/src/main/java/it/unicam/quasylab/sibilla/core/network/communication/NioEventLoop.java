@@ -0,0 +1,157 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.communication;
+
+import it.unicam.quasylab.sibilla.core.network.HostLoggerSupplier;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Event loop shared by all the {@link TCPNioNetworkManager} instances of a host. A single thread waits on a
+ * {@link Selector} for all the registered channels, reads incoming frames and writes the queued ones.
+ * Operations on channels requested by other threads are submitted to the loop via {@link #execute(Runnable)}.
+ */
+final class NioEventLoop implements Runnable {
+
+    /**
+     * Maximum number of released buffers kept by the pool, that is 64 MiB of direct memory.
+     */
+    private static final int MAX_POOLED_BUFFERS = 1024;
+
+    private static NioEventLoop instance;
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ByteBufferPool bufferPool = new ByteBufferPool(MAX_POOLED_BUFFERS);
+
+    private NioEventLoop() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Returns the event loop of this host, starting it at the first invocation.
+     *
+     * @return the event loop of this host
+     * @throws IOException if the selector cannot be opened
+     */
+    static synchronized NioEventLoop getInstance() throws IOException {
+        if (instance == null) {
+            instance = new NioEventLoop();
+            Thread thread = new Thread(instance, "sibilla-nio-loop");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the pool of buffers used by the channels handled by this loop.
+     *
+     * @return the pool of buffers used by the channels handled by this loop
+     */
+    ByteBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Submits an operation that will be executed by the loop thread.
+     *
+     * @param task the operation to execute
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Registers a channel, that must be in non-blocking mode, for reading. Selected events are handled by the
+     * given connection. This method waits for the registration and must not be invoked by the loop thread.
+     *
+     * @param channel    the channel to register
+     * @param connection the connection handling the channel events
+     * @return the key of the registered channel
+     * @throws IOException if the channel cannot be registered
+     */
+    SelectionKey register(SocketChannel channel, TCPNioNetworkManager connection) throws IOException {
+        CompletableFuture<SelectionKey> key = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                key.complete(channel.register(selector, SelectionKey.OP_READ, connection));
+            } catch (IOException | RuntimeException e) {
+                key.completeExceptionally(e);
+            }
+        });
+        try {
+            return key.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClosedByInterruptException();
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause()));
+        }
+    }
+
+    @Override
+    public void run() {
+        while (selector.isOpen()) {
+            try {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            } catch (IOException | RuntimeException e) {
+                HostLoggerSupplier.getInstance().getLogger().severe(
+                        String.format("[%s] Failure in the network event loop", e.getMessage()));
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        TCPNioNetworkManager connection = (TCPNioNetworkManager) key.attachment();
+        try {
+            if (key.isValid() && key.isReadable()) {
+                connection.handleRead();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.handleWrite();
+            }
+        } catch (IOException | CancelledKeyException e) {
+            connection.fail(e instanceof IOException ? (IOException) e : new ClosedChannelException());
+        }
+    }
+
+}
@@ -31,8 +31,14 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLServerSocket;
 import javax.net.ssl.SSLServerSocketFactory;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Interface that needs to be extended from all of the communication related classes that are based upon the TCP transport protocol.
@@ -55,6 +61,9 @@ public interface TCPNetworkManager {
         if (info.getType() == TCPNetworkManagerType.SECURE) {
             return new TCPSecureNetworkManager(info);
         }
+        if (info.getType() == TCPNetworkManagerType.NIO) {
+            return new TCPNioNetworkManager(SocketChannel.open(new InetSocketAddress(info.getAddress(), info.getPort())));
+        }
         Socket socket = new Socket(info.getAddress(), info.getPort());
         return createNetworkManager((TCPNetworkManagerType) info.getType(), socket);
     }
@@ -72,6 +81,11 @@ public interface TCPNetworkManager {
         switch (networkType) {
             case SECURE:
                 return new TCPSecureNetworkManager(socket);
+            case NIO:
+                if (socket.getChannel() == null) {
+                    throw new IOException("The socket is not backed by a channel");
+                }
+                return new TCPNioNetworkManager(socket.getChannel());
             case DEFAULT:
             default:
                 return new TCPDefaultNetworkManager(socket);
@@ -95,6 +109,11 @@ public interface TCPNetworkManager {
                 SSLServerSocket sslServerSocket = (SSLServerSocket) sslServerSocketFactory.createServerSocket(port);
                 sslServerSocket.setNeedClientAuth(true);
                 return sslServerSocket;
+            case NIO:
+                // accepted sockets are backed by channels
+                ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+                serverSocketChannel.bind(new InetSocketAddress(port));
+                return serverSocketChannel.socket();
             case DEFAULT:
             default:
                 return new ServerSocket(port);
@@ -110,6 +129,23 @@ public interface TCPNetworkManager {
      */
     byte[] readObject() throws IOException;
 
+    /**
+     * Reads incoming data from the network without blocking the calling thread.
+     * The default implementation performs a blocking read on a thread of the given executor.
+     *
+     * @param executor executor used to complete the returned future
+     * @return future completed with the byte array of the data read from the network
+     */
+    default CompletableFuture<byte[]> readObjectAsync(Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readObject();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
     /**
      * Sends data through the network.
      *
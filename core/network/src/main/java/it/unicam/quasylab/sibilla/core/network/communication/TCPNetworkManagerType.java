@@ -38,5 +38,9 @@ public enum TCPNetworkManagerType implements NetworkManagerType {
     /**
      * The implementation that relies upon SSL.
      */
-    SECURE
+    SECURE,
+    /**
+     * The implementation based on non-blocking channels served by a single event loop.
+     */
+    NIO
 }
\ No newline at end of file
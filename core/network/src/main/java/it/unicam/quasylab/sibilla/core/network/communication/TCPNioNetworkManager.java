@@ -0,0 +1,356 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.communication;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TCP based communication class relying upon a non-blocking {@link SocketChannel}. Channels of all the managers
+ * are served by a single {@link NioEventLoop} thread. Messages are sent as length-prefixed frames, as in
+ * {@link TCPDefaultNetworkManager}, so that the two implementations can interoperate.
+ * <p>
+ * Writes never block: frames are copied in pooled direct buffers and queued, and the loop writes them as soon
+ * as the channel is ready, gathering several frames in a single system call. Incoming frames are queued
+ * until they are read, either blocking via {@link #readObject()}, that honours the socket timeout, or
+ * asynchronously via {@link #readObjectAsync(Executor)}, which does not keep any thread waiting.
+ */
+public class TCPNioNetworkManager implements TCPNetworkManager {
+
+    /**
+     * Maximum time, in seconds, that {@link #closeConnection()} waits for queued frames to be written.
+     */
+    private static final int CLOSE_TIMEOUT = 30;
+
+    /**
+     * Maximum number of buffers passed to a single gathering write.
+     */
+    private static final int MAX_GATHERED_BUFFERS = 64;
+
+    /**
+     * Placeholder used to queue empty frames, that are read as <code>null</code>.
+     */
+    private static final byte[] EMPTY_FRAME = new byte[0];
+
+    private final SocketChannel channel;
+    private final NioEventLoop loop;
+    private final ByteBufferPool bufferPool;
+    private final SelectionKey key;
+
+    private final ArrayDeque<ByteBuffer> outgoing = new ArrayDeque<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    private volatile boolean closing;
+
+    private ByteBuffer readBuffer;
+    private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+    private byte[] message;
+    private int messagePosition;
+
+    private final ArrayDeque<byte[]> incoming = new ArrayDeque<>();
+    private CompletableFuture<byte[]> pendingRead;
+    private IOException failure;
+
+    /**
+     * Initiates the manager.
+     * The channel upon which the communication is based has already been connected.
+     *
+     * @param channel upon which the network communication will be based
+     * @throws IOException
+     */
+    public TCPNioNetworkManager(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        this.loop = NioEventLoop.getInstance();
+        this.bufferPool = loop.getBufferPool();
+        this.readBuffer = bufferPool.acquire();
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        this.key = loop.register(channel, this);
+    }
+
+    @Override
+    public byte[] readObject() throws IOException {
+        try {
+            return readObjectAsync(null).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause()));
+        }
+    }
+
+    @Override
+    public CompletableFuture<byte[]> readObjectAsync(Executor executor) {
+        CompletableFuture<byte[]> read;
+        synchronized (this) {
+            if (!incoming.isEmpty()) {
+                return CompletableFuture.completedFuture(content(incoming.poll()));
+            }
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            if ((pendingRead != null) && !pendingRead.isDone()) {
+                return CompletableFuture.failedFuture(new IOException("Another read is pending on this connection"));
+            }
+            pendingRead = new CompletableFuture<>();
+            read = pendingRead;
+        }
+        int timeout = getTimeout();
+        if (timeout > 0) {
+            read.orTimeout(timeout, TimeUnit.MILLISECONDS);
+        }
+        CompletableFuture<byte[]> result = read.handle((frame, error) -> {
+            if (error instanceof TimeoutException) {
+                throw new CompletionException(new SocketTimeoutException("Read timed out"));
+            }
+            if (error != null) {
+                throw new CompletionException(error);
+            }
+            return content(frame);
+        });
+        return (executor == null ? result : result.thenApplyAsync(frame -> frame, executor));
+    }
+
+    @Override
+    public void writeObject(byte[] toWrite) throws IOException {
+        if (closing || !channel.isOpen()) {
+            throw new ClosedChannelException();
+        }
+        List<ByteBuffer> frame = new ArrayList<>();
+        ByteBuffer buffer = bufferPool.acquire();
+        buffer.putInt(toWrite.length);
+        int offset = 0;
+        while (offset < toWrite.length) {
+            if (!buffer.hasRemaining()) {
+                frame.add(buffer.flip());
+                buffer = bufferPool.acquire();
+            }
+            int length = Math.min(buffer.remaining(), toWrite.length - offset);
+            buffer.put(toWrite, offset, length);
+            offset += length;
+        }
+        frame.add(buffer.flip());
+        synchronized (outgoing) {
+            outgoing.addAll(frame);
+        }
+        scheduleFlush();
+    }
+
+    @Override
+    public Socket getSocket() {
+        return channel.socket();
+    }
+
+    @Override
+    public void closeConnection() throws IOException {
+        closing = true;
+        scheduleFlush();
+        try {
+            closed.get(CLOSE_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException | TimeoutException e) {
+            // queued frames cannot be written, the channel is closed anyway
+        } finally {
+            loop.execute(this::close);
+        }
+    }
+
+    @Override
+    public TCPNetworkManagerType getType() {
+        return TCPNetworkManagerType.NIO;
+    }
+
+    /**
+     * Reads available data from the channel and queues the completed frames. Invoked by the event loop.
+     *
+     * @throws IOException if the channel cannot be read
+     */
+    void handleRead() throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            fail(new EOFException("Connection closed by the peer"));
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            if (message == null) {
+                while (header.hasRemaining() && readBuffer.hasRemaining()) {
+                    header.put(readBuffer.get());
+                }
+                if (header.hasRemaining()) {
+                    break;
+                }
+                int length = header.flip().getInt();
+                header.clear();
+                if (length <= 0) {
+                    deliver(EMPTY_FRAME);
+                    continue;
+                }
+                message = new byte[length];
+                messagePosition = 0;
+            }
+            int length = Math.min(readBuffer.remaining(), message.length - messagePosition);
+            readBuffer.get(message, messagePosition, length);
+            messagePosition += length;
+            if (messagePosition == message.length) {
+                deliver(message);
+                message = null;
+            }
+        }
+        readBuffer.clear();
+    }
+
+    /**
+     * Writes the queued frames until the channel accepts data. Invoked by the event loop.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    void handleWrite() throws IOException {
+        boolean completed;
+        synchronized (outgoing) {
+            while (!outgoing.isEmpty()) {
+                ByteBuffer[] buffers = outgoing.stream().limit(MAX_GATHERED_BUFFERS).toArray(ByteBuffer[]::new);
+                channel.write(buffers);
+                while (!outgoing.isEmpty() && !outgoing.peek().hasRemaining()) {
+                    bufferPool.release(outgoing.poll());
+                }
+                if (buffers[buffers.length - 1].hasRemaining()) {
+                    break;
+                }
+            }
+            completed = outgoing.isEmpty();
+        }
+        key.interestOps(completed ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        if (completed && closing) {
+            close();
+        }
+    }
+
+    /**
+     * Marks this connection as failed and closes the channel. Invoked by the event loop.
+     *
+     * @param e the cause of the failure
+     */
+    void fail(IOException e) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        close();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(() -> {
+                flushScheduled.set(false);
+                if (channel.isOpen()) {
+                    try {
+                        handleWrite();
+                    } catch (IOException | CancelledKeyException e) {
+                        fail(e instanceof IOException ? (IOException) e : new ClosedChannelException());
+                    }
+                }
+            });
+        }
+    }
+
+    private void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the channel is released anyway
+        }
+        synchronized (outgoing) {
+            outgoing.forEach(bufferPool::release);
+            outgoing.clear();
+        }
+        bufferPool.release(readBuffer);
+        readBuffer = null;
+        CompletableFuture<byte[]> read;
+        IOException cause;
+        synchronized (this) {
+            if (failure == null) {
+                failure = new ClosedChannelException();
+            }
+            cause = failure;
+            read = pendingRead;
+            pendingRead = null;
+        }
+        if (read != null) {
+            read.completeExceptionally(cause);
+        }
+        closed.complete(null);
+    }
+
+    private void deliver(byte[] frame) {
+        CompletableFuture<byte[]> read;
+        synchronized (this) {
+            read = pendingRead;
+            pendingRead = null;
+            if ((read == null) || read.isDone()) {
+                incoming.add(frame);
+                return;
+            }
+        }
+        if (!read.complete(frame)) {
+            synchronized (this) {
+                incoming.addFirst(frame);
+            }
+        }
+    }
+
+    private int getTimeout() {
+        try {
+            return channel.socket().getSoTimeout();
+        } catch (SocketException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] content(byte[] frame) {
+        return (frame == EMPTY_FRAME ? null : frame);
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses and decompresses data stored in byte buffers.
+ * Codecs work directly on the given buffers, so that no copy of the uncompressed data is needed.
+ */
+public interface CompressionCodec {
+
+    static CompressionCodec getCodec(CompressionCodecType type) {
+        switch (type) {
+            case DEFLATE:
+                return new DeflateCodec();
+            case GZIP:
+            default:
+                return new GzipCodec();
+        }
+    }
+
+    /**
+     * Compresses the remaining bytes of the given buffer, that is consumed.
+     *
+     * @param data buffer containing the data to be compressed
+     * @return compressed byte array
+     */
+    byte[] compress(ByteBuffer data);
+
+    /**
+     * Decompresses a byte array. The returned buffer may be reused by the next decompression performed
+     * by the same thread, hence its content must be consumed before.
+     *
+     * @param compressedData byte array to be decompressed
+     * @return buffer containing the decompressed data, ready to be read
+     */
+    ByteBuffer decompress(byte[] compressedData);
+
+    CompressionCodecType getType();
+}
@@ -0,0 +1,110 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.compression;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Fast codec based upon raw deflate at {@link Deflater#BEST_SPEED}. Compressed data starts with the length of
+ * the uncompressed data, so that it is inflated in a single step into a buffer reused by each thread.
+ * Deflater and inflater instances are reused as well.
+ */
+public class DeflateCodec implements CompressionCodec {
+
+    private static final ThreadLocal<Deflater> deflaters =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+    private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(0));
+
+    @Override
+    public byte[] compress(ByteBuffer data) {
+        int length = data.remaining();
+        // upper bound of the size of deflated data
+        byte[] result = new byte[4 + length + (length >> 12) + (length >> 14) + (length >> 25) + 13];
+        ByteBuffer.wrap(result).putInt(length);
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        int size = 4;
+        while (!deflater.finished()) {
+            if (size == result.length) {
+                result = Arrays.copyOf(result, result.length * 2);
+            }
+            size += deflater.deflate(result, size, result.length - size);
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    @Override
+    public ByteBuffer decompress(byte[] compressedData) {
+        if (compressedData.length < 4) {
+            throw new IllegalArgumentException("Compressed data is truncated");
+        }
+        int length = ByteBuffer.wrap(compressedData).getInt();
+        if (length < 0) {
+            throw new IllegalArgumentException("Compressed data is corrupted");
+        }
+        ByteBuffer buffer = buffers.get();
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(length);
+            buffers.set(buffer);
+        }
+        buffer.clear().limit(length);
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(compressedData, 4, compressedData.length - 4);
+        try {
+            while (!inflater.finished()) {
+                int inflated;
+                if (buffer.hasRemaining()) {
+                    inflated = inflater.inflate(buffer);
+                } else if (inflater.inflate(new byte[1]) > 0) {
+                    // the buffer is full, the stream must end here
+                    throw new IllegalArgumentException("Compressed data is longer than declared");
+                } else {
+                    inflated = 0;
+                }
+                if (inflated == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Compressed data is truncated");
+                }
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Compressed data is shorter than declared");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public CompressionCodecType getType() {
+        return CompressionCodecType.DEFLATE;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codec based upon the tool GZIP, that produces the same data of {@link Compressor}.
+ */
+public class GzipCodec implements CompressionCodec {
+
+    @Override
+    public byte[] compress(ByteBuffer data) {
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return Compressor.compress(bytes);
+    }
+
+    @Override
+    public ByteBuffer decompress(byte[] compressedData) {
+        return ByteBuffer.wrap(Compressor.decompress(compressedData));
+    }
+
+    @Override
+    public CompressionCodecType getType() {
+        return CompressionCodecType.GZIP;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.loaders;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.StatisticsType;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.io.Serializable;
+import java.util.function.Function;
+
+/**
+ * Serializable reference to a model in the {@link ModelCache}. Only the hash of the model source is serialized,
+ * and the reference is resolved, on each host, against the models compiled locally. This allows simulation
+ * units to be sent over the network even when the model is not serializable.
+ *
+ * @param <S> the type of the states of the model
+ */
+public final class CachedModel<S extends State> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String hash;
+
+    private transient CompiledModel<S> compiledModel;
+
+    /**
+     * Creates a reference to the model compiled from the source with the given hash.
+     *
+     * @param hash the hash of the model source
+     */
+    public CachedModel(String hash) {
+        this.hash = hash;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the referenced model.
+     *
+     * @return the referenced model
+     * @throws IllegalStateException if the model source has not been compiled on this host
+     */
+    @SuppressWarnings("unchecked")
+    public CompiledModel<S> getCompiledModel() {
+        if (compiledModel == null) {
+            compiledModel = (CompiledModel<S>) ModelCache.get(hash);
+        }
+        return compiledModel;
+    }
+
+    /**
+     * Creates a simulation cursor for the referenced model.
+     *
+     * @param random              random generator used by the cursor
+     * @param initialStateBuilder function used to sample the initial state
+     * @return a simulation cursor for the referenced model
+     */
+    public SimulatorCursor<S> createSimulationCursor(RandomGenerator random, Function<RandomGenerator, S> initialStateBuilder) {
+        return getCompiledModel().getModel().createSimulationCursor(random, initialStateBuilder);
+    }
+
+    /**
+     * Samples the initial state from the configuration selected in the model source.
+     *
+     * @param random random generator used to sample the state
+     * @return the sampled initial state
+     */
+    public S sampleInitialState(RandomGenerator random) {
+        return getCompiledModel().getInitialState().apply(random);
+    }
+
+    /**
+     * Returns a sampling function that collects the given measures of the referenced model. The function is
+     * serializable also when the measures are not, since it is built on each host from the local model.
+     *
+     * @param statistics kind of collected statistics
+     * @param deadline   simulation deadline
+     * @param dt         sampling interval
+     * @param measures   names of the collected measures
+     * @return a sampling function that collects the given measures of the referenced model
+     */
+    public SamplingFunction<S> getSamplingFunction(StatisticsType statistics, double deadline, double dt, String... measures) {
+        return new CachedModelSamplingFunction<>(this, statistics, deadline, dt, measures);
+    }
+}
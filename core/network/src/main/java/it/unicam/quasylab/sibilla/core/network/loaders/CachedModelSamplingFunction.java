@@ -0,0 +1,112 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.loaders;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.StatisticsType;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A sampling function over the measures of a {@link CachedModel}. Only the selection of the measures and the
+ * summary of the collected data are serialized: the actual function is built, on each host, from the model
+ * compiled locally.
+ *
+ * @param <S> the type of the states of the model
+ */
+class CachedModelSamplingFunction<S extends State> implements SamplingFunction<S> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CachedModel<S> model;
+    private final StatisticsType statistics;
+    private final double deadline;
+    private final double dt;
+    private final String[] measures;
+
+    private transient SamplingFunction<S> function;
+    private transient Serializable summary;
+
+    CachedModelSamplingFunction(CachedModel<S> model, StatisticsType statistics, double deadline, double dt, String[] measures) {
+        this.model = model;
+        this.statistics = statistics;
+        this.deadline = deadline;
+        this.dt = dt;
+        this.measures = measures.clone();
+    }
+
+    private synchronized SamplingFunction<S> getFunction() {
+        if (function == null) {
+            function = model.getCompiledModel().getModel().selectSamplingFunction(statistics, deadline, dt, measures);
+            if (summary != null) {
+                function.mergeSummary(summary);
+                summary = null;
+            }
+        }
+        return function;
+    }
+
+    @Override
+    public SamplingHandler<S> getSamplingHandler() {
+        return getFunction().getSamplingHandler();
+    }
+
+    @Override
+    public void printTimeSeries(Function<String, String> nameFunction, char separator, double significance) throws FileNotFoundException {
+        getFunction().printTimeSeries(nameFunction, separator, significance);
+    }
+
+    @Override
+    public Map<String, double[][]> getSimulationTimeSeries() {
+        return getFunction().getSimulationTimeSeries();
+    }
+
+    @Override
+    public Serializable getSummary() {
+        return getFunction().getSummary();
+    }
+
+    @Override
+    public void mergeSummary(Serializable summary) {
+        getFunction().mergeSummary(summary);
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(function != null ? function.getSummary() : summary);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        summary = (Serializable) in.readObject();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.loaders;
+
+import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.function.Function;
+
+/**
+ * A model obtained from a {@link it.unicam.quasylab.sibilla.core.network.ModelSource} together with the
+ * selected initial configuration.
+ *
+ * @param <S> the type of the states of the model
+ */
+public final class CompiledModel<S extends State> {
+
+    private final Model<S> model;
+
+    private final Function<RandomGenerator, S> initialState;
+
+    /**
+     * Creates a compiled model.
+     *
+     * @param model        the model
+     * @param initialState the function used to sample the initial state of the model
+     */
+    public CompiledModel(Model<S> model, Function<RandomGenerator, S> initialState) {
+        this.model = model;
+        this.initialState = initialState;
+    }
+
+    public Model<S> getModel() {
+        return model;
+    }
+
+    public Function<RandomGenerator, S> getInitialState() {
+        return initialState;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.loaders;
+
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the models compiled from {@link ModelSource}s, indexed by the hash of their source.
+ * Each source is compiled once, and is then available to all the simulations that refer to its hash.
+ */
+public final class ModelCache {
+
+    /**
+     * Map that associates the hash of each compiled source with the obtained model.
+     */
+    private static final Map<String, CompiledModel<?>> models = new ConcurrentHashMap<>();
+
+    private static ModelCompiler compiler;
+
+    private ModelCache() {
+    }
+
+    /**
+     * Sets the compiler used to compile the model sources. When no compiler is set, the first one
+     * provided via {@link ServiceLoader} is used.
+     *
+     * @param modelCompiler the compiler used to compile the model sources.
+     */
+    public static synchronized void setCompiler(ModelCompiler modelCompiler) {
+        compiler = modelCompiler;
+    }
+
+    private static synchronized ModelCompiler getCompiler() {
+        if (compiler == null) {
+            compiler = ServiceLoader.load(ModelCompiler.class).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No model compiler is available"));
+        }
+        return compiler;
+    }
+
+    /**
+     * Returns true if the source with the given hash has been already compiled.
+     *
+     * @param hash the hash of a model source.
+     * @return true if the source with the given hash has been already compiled.
+     */
+    public static boolean contains(String hash) {
+        return models.containsKey(hash);
+    }
+
+    /**
+     * Returns the model compiled from the source with the given hash.
+     *
+     * @param hash the hash of a model source.
+     * @return the model compiled from the source with the given hash.
+     * @throws IllegalStateException if no source with the given hash has been compiled.
+     */
+    public static CompiledModel<?> get(String hash) {
+        CompiledModel<?> model = models.get(hash);
+        if (model == null) {
+            throw new IllegalStateException(String.format("Model %s has not been loaded", hash));
+        }
+        return model;
+    }
+
+    /**
+     * Compiles the given source, if it has not been compiled yet, and returns the obtained model.
+     *
+     * @param source the model source.
+     * @return the model compiled from the given source.
+     * @throws IllegalArgumentException if the source cannot be compiled.
+     */
+    public static CompiledModel<?> load(ModelSource source) {
+        return models.computeIfAbsent(source.getHash(), hash -> getCompiler().compile(source));
+    }
+
+    /**
+     * Removes the model compiled from the source with the given hash.
+     *
+     * @param hash the hash of a model source.
+     * @return the removed model or null if no source with the given hash has been compiled.
+     */
+    public static CompiledModel<?> remove(String hash) {
+        return models.remove(hash);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.loaders;
+
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
+
+/**
+ * Builds the model described by a {@link ModelSource}. Implementations are located via
+ * {@link java.util.ServiceLoader}, so that servers can compile the languages available on their class path.
+ */
+@FunctionalInterface
+public interface ModelCompiler {
+
+    /**
+     * Compiles the given source.
+     *
+     * @param source the source of the model
+     * @return the compiled model
+     * @throws IllegalArgumentException if the source cannot be compiled
+     */
+    CompiledModel<?> compile(ModelSource source);
+
+}
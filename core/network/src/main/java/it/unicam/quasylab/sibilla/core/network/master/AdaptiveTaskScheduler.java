@@ -0,0 +1,343 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.master;
+
+import java.util.*;
+
+/**
+ * Schedules batches of tasks on a set of workers that ask for new work as soon as they are able to execute it.
+ * The size of the batch given to a worker depends on the throughput, in tasks per second, measured on the
+ * batches it has already completed: each batch is expected to last a given target time, and it is never larger
+ * than the share of the pending tasks proportional to the throughput of the worker, so that batches become
+ * smaller as the computation approaches its end.
+ * When no task is pending, idle workers speculatively re-execute the running batch that is expected to complete
+ * last. Only the first result received for a batch is accepted, the results of its other copies are discarded.
+ *
+ * @param <W> type of the workers.
+ * @param <T> type of the tasks.
+ */
+public class AdaptiveTaskScheduler<W, T> {
+
+    /**
+     * Weight given to the last measure when the throughput of a worker is updated.
+     */
+    private static final double SMOOTHING = 0.25;
+
+    /**
+     * Ratio between the timeout of a batch and its duration expected from the throughput of the worker.
+     */
+    private static final double TIMEOUT_FACTOR = 5.0;
+
+    /**
+     * Expected duration, in nanoseconds, of the execution of a batch.
+     */
+    private final long targetBatchTime;
+
+    /**
+     * Maximum number of tasks in a batch.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Statistics collected for each worker.
+     */
+    private final Map<W, WorkerStatistics> statistics = new HashMap<>();
+
+    /**
+     * Copies of the batches whose result has not been received yet, indexed by batch identifier.
+     */
+    private final Map<Integer, List<Batch<W, T>>> running = new HashMap<>();
+
+    private int batchCounter = 0;
+
+    private int speculativeBatches = 0;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param targetBatchTime expected duration, in nanoseconds, of the execution of a batch.
+     * @param maxBatchSize    maximum number of tasks in a batch.
+     */
+    public AdaptiveTaskScheduler(long targetBatchTime, int maxBatchSize) {
+        if (targetBatchTime <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Target batch time and maximum batch size must be positive");
+        }
+        this.targetBatchTime = targetBatchTime;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Returns the number of tasks that should be given to the worker asking for new work. The first batch
+     * given to a worker contains a single task, that is used to measure its throughput.
+     *
+     * @param worker       worker that asks for new work.
+     * @param pendingTasks number of tasks that have to be executed.
+     * @return the number of tasks that should be given to the worker.
+     */
+    public synchronized int getBatchSize(W worker, int pendingTasks) {
+        if (pendingTasks <= 0) {
+            return 0;
+        }
+        double throughput = getStatistics(worker).throughput;
+        if (throughput == 0.0) {
+            return 1;
+        }
+        double totalThroughput = statistics.values().stream().mapToDouble(s -> s.throughput).sum();
+        long size = Math.round(throughput * targetBatchTime / 1E9);
+        size = Math.min(size, (long) Math.ceil(pendingTasks * throughput / totalThroughput));
+        return (int) Math.max(1, Math.min(size, Math.min(maxBatchSize, pendingTasks)));
+    }
+
+    /**
+     * Registers the start of the execution of the given tasks on a worker.
+     *
+     * @param worker worker that executes the tasks.
+     * @param tasks  tasks to execute.
+     * @return the batch associated with the given tasks.
+     */
+    public synchronized Batch<W, T> start(W worker, List<T> tasks) {
+        Batch<W, T> batch = new Batch<>(batchCounter++, worker, tasks, false);
+        List<Batch<W, T>> copies = new LinkedList<>();
+        copies.add(batch);
+        running.put(batch.id, copies);
+        getStatistics(worker).outstanding++;
+        return batch;
+    }
+
+    /**
+     * Selects a running batch that the given worker is expected to complete before the worker it has been given to,
+     * and registers the start of its copy on the given worker. The selected batch is the one that is expected to
+     * complete last among the ones that have not been copied yet.
+     *
+     * @param worker idle worker.
+     * @return the speculative copy of a running batch, or <code>null</code> if no batch is worth to be copied.
+     */
+    public synchronized Batch<W, T> speculate(W worker) {
+        long now = System.nanoTime();
+        Batch<W, T> selected = null;
+        double selectedCompletion = 0.0;
+        for (List<Batch<W, T>> copies : running.values()) {
+            Batch<W, T> batch = copies.get(0);
+            if ((copies.size() > 1) || batch.worker.equals(worker)) {
+                continue;
+            }
+            double completion = expectedCompletion(batch.worker, batch.startTime, batch.size());
+            if ((selected == null) || (completion > selectedCompletion)) {
+                selected = batch;
+                selectedCompletion = completion;
+            }
+        }
+        if ((selected == null) || (expectedCompletion(worker, now, selected.size()) >= selectedCompletion)) {
+            return null;
+        }
+        Batch<W, T> copy = new Batch<>(selected.id, worker, selected.tasks, true);
+        running.get(selected.id).add(copy);
+        getStatistics(worker).outstanding++;
+        speculativeBatches++;
+        return copy;
+    }
+
+    /**
+     * Registers that the given batch has been completed and updates the throughput of the worker that
+     * executed it.
+     *
+     * @param batch completed batch.
+     * @return true if this is the first result received for the batch, false if the result of another copy
+     * has been already accepted.
+     */
+    public synchronized boolean complete(Batch<W, T> batch) {
+        long now = System.nanoTime();
+        WorkerStatistics workerStatistics = getStatistics(batch.worker);
+        workerStatistics.outstanding--;
+        workerStatistics.update(batch, now);
+        return running.remove(batch.id) != null;
+    }
+
+    /**
+     * Registers that the execution of the given batch has failed.
+     *
+     * @param batch failed batch.
+     * @return true if the tasks of the batch must be executed again, that is when no other copy of the batch is
+     * running and no result has been accepted for the batch.
+     */
+    public synchronized boolean fail(Batch<W, T> batch) {
+        getStatistics(batch.worker).outstanding--;
+        List<Batch<W, T>> copies = running.get(batch.id);
+        if (copies == null) {
+            return false;
+        }
+        copies.remove(batch);
+        if (copies.isEmpty()) {
+            running.remove(batch.id);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if some batches given to the worker have neither been completed nor failed, including
+     * the ones whose results are not needed anymore.
+     *
+     * @param worker a worker.
+     * @return true if some batches given to the worker are still running.
+     */
+    public synchronized boolean isBusy(W worker) {
+        WorkerStatistics workerStatistics = statistics.get(worker);
+        return (workerStatistics != null) && (workerStatistics.outstanding > 0);
+    }
+
+    /**
+     * Returns true if some batches have not been completed yet.
+     *
+     * @return true if some batches have not been completed yet.
+     */
+    public synchronized boolean hasRunningBatches() {
+        return !running.isEmpty();
+    }
+
+    /**
+     * Returns the throughput, in tasks per second, measured on the given worker.
+     *
+     * @param worker a worker.
+     * @return the throughput measured on the given worker, or 0 if no batch has been completed by the worker.
+     */
+    public synchronized double getThroughput(W worker) {
+        WorkerStatistics workerStatistics = statistics.get(worker);
+        return (workerStatistics == null ? 0.0 : workerStatistics.throughput);
+    }
+
+    /**
+     * Returns the time, in nanoseconds, after which a worker executing the given number of tasks is considered
+     * unresponsive. This is {@value #TIMEOUT_FACTOR} times the duration expected from the throughput of the worker,
+     * and never less than the target duration of a batch. No timeout is set, and {@link Long#MAX_VALUE} is
+     * returned, until the worker has completed a batch.
+     *
+     * @param worker a worker.
+     * @param tasks  number of tasks given to the worker.
+     * @return the time after which the worker is considered unresponsive.
+     */
+    public synchronized long getTimeout(W worker, int tasks) {
+        double throughput = getThroughput(worker);
+        if (throughput == 0.0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(targetBatchTime, Math.round(TIMEOUT_FACTOR * tasks * 1E9 / throughput));
+    }
+
+    /**
+     * Returns the number of speculative copies of batches that have been started.
+     *
+     * @return the number of speculative copies of batches that have been started.
+     */
+    public synchronized int getSpeculativeBatches() {
+        return speculativeBatches;
+    }
+
+    /**
+     * Forgets the statistics collected on the given worker, that is not going to ask for work anymore.
+     *
+     * @param worker a worker.
+     */
+    public synchronized void remove(W worker) {
+        statistics.remove(worker);
+    }
+
+    private WorkerStatistics getStatistics(W worker) {
+        return statistics.computeIfAbsent(worker, w -> new WorkerStatistics());
+    }
+
+    private double expectedCompletion(W worker, long startTime, int tasks) {
+        double throughput = getStatistics(worker).throughput;
+        if (throughput == 0.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return startTime + tasks * 1E9 / throughput;
+    }
+
+    /**
+     * Tasks given to a worker. Speculative copies of a batch share the identifier of the original one.
+     *
+     * @param <W> type of the workers.
+     * @param <T> type of the tasks.
+     */
+    public static final class Batch<W, T> {
+
+        private final int id;
+        private final W worker;
+        private final List<T> tasks;
+        private final boolean speculative;
+        private final long startTime;
+
+        private Batch(int id, W worker, List<T> tasks, boolean speculative) {
+            this.id = id;
+            this.worker = worker;
+            this.tasks = tasks;
+            this.speculative = speculative;
+            this.startTime = System.nanoTime();
+        }
+
+        public W getWorker() {
+            return worker;
+        }
+
+        public List<T> getTasks() {
+            return tasks;
+        }
+
+        public int size() {
+            return tasks.size();
+        }
+
+        /**
+         * @return true if this batch is the copy of a batch given to another worker.
+         */
+        public boolean isSpeculative() {
+            return speculative;
+        }
+    }
+
+    /**
+     * Statistics collected on the batches executed by a worker.
+     */
+    private static final class WorkerStatistics {
+
+        private double throughput = 0.0;
+        private long lastCompletion = 0L;
+        private int outstanding = 0;
+
+        /**
+         * Updates the throughput given the completion of a batch. Batches given to a worker are executed in order,
+         * hence the execution of a batch starts when the previous one is completed.
+         */
+        private void update(Batch<?, ?> batch, long completionTime) {
+            long elapsed = completionTime - Math.max(batch.startTime, lastCompletion);
+            lastCompletion = completionTime;
+            if (elapsed <= 0) {
+                return;
+            }
+            double measured = batch.size() * 1E9 / elapsed;
+            throughput = (throughput == 0.0 ? measured : SMOOTHING * measured + (1 - SMOOTHING) * throughput);
+        }
+    }
+}
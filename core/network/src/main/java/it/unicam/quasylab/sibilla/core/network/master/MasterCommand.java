@@ -61,5 +61,10 @@ public enum MasterCommand {
     /**
      * The command sent by a master server to inform that the connection with an host will be closed.
      */
-    CLOSE_CONNECTION
+    CLOSE_CONNECTION,
+    /**
+     * The command sent by a master server to initiate a new connection for a model given as source code.
+     * It is followed by the hash of the model source, that is sent only if the slave server requests it.
+     */
+    INIT_SOURCE
 }
@@ -23,6 +23,7 @@
 
 package it.unicam.quasylab.sibilla.core.network.master;
 
+import it.unicam.quasylab.sibilla.core.models.Model;
 import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.network.HostLoggerSupplier;
 import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
@@ -32,16 +33,24 @@ import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType;
 import it.unicam.quasylab.sibilla.core.network.communication.UDPNetworkManager;
 import it.unicam.quasylab.sibilla.core.network.communication.UDPNetworkManagerType;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
+import it.unicam.quasylab.sibilla.core.network.loaders.CachedModel;
 import it.unicam.quasylab.sibilla.core.network.loaders.CustomClassLoader;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCache;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
 import it.unicam.quasylab.sibilla.core.network.util.NetworkUtils;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import org.apache.commons.math3.random.RandomGenerator;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -51,6 +60,9 @@ import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
@@ -117,6 +129,11 @@ public class MasterServerSimulationEnvironment implements PropertyChangeListener
 
     private ComputationResultSerializerType crSerializerType;
 
+    /**
+     * Codec used by the slave servers to compress the results.
+     */
+    private CompressionCodecType codecType;
+
     /**
      * Creates and starts up a master server with the given parameters.
      *
@@ -140,11 +157,41 @@ public class MasterServerSimulationEnvironment implements PropertyChangeListener
     public MasterServerSimulationEnvironment(int localDiscoveryPort, int remoteDiscoveryPort,
                                              UDPNetworkManagerType discoveryNetworkManager, int localSimulationPort,
                                              TCPNetworkManagerType simulationNetworkManager, SerializerType serializerType, ComputationResultSerializerType crSerializerType, PropertyChangeListener... listeners) {
+        this(localDiscoveryPort, remoteDiscoveryPort, discoveryNetworkManager, localSimulationPort,
+                simulationNetworkManager, serializerType, crSerializerType, CompressionCodecType.GZIP, listeners);
+    }
+
+    /**
+     * Creates and starts up a master server with the given parameters, that decompresses the results of the
+     * slave servers with the given codec.
+     *
+     * @param localDiscoveryPort       port used by the master server to manage the
+     *                                 incoming slave servers' registration
+     *                                 requests.
+     * @param remoteDiscoveryPort      port used by the slave servers to manage the
+     *                                 incoming master server discovery message.
+     * @param discoveryNetworkManager  {@link UDPNetworkManagerType} of UDP network communication that will
+     *                                 be used during the slave servers' discovery
+     *                                 by the master.
+     * @param localSimulationPort      port used by the master server to manage the
+     *                                 incoming clients' simulation requests.
+     * @param simulationNetworkManager {@link TCPNetworkManagerType} of TCP network communication that will
+     *                                 be used between master server and clients.
+     * @param codecType                codec used by the slave servers to compress the results.
+     * @param listeners                {@link java.beans.PropertyChangeListener} instances that will be
+     *                                 updated about the state of this master
+     *                                 server.
+     */
+    public MasterServerSimulationEnvironment(int localDiscoveryPort, int remoteDiscoveryPort,
+                                             UDPNetworkManagerType discoveryNetworkManager, int localSimulationPort,
+                                             TCPNetworkManagerType simulationNetworkManager, SerializerType serializerType, ComputationResultSerializerType crSerializerType,
+                                             CompressionCodecType codecType, PropertyChangeListener... listeners) {
 
         this.LOGGER = HostLoggerSupplier.getInstance().getLogger();
 
         try {
             this.crSerializerType = crSerializerType;
+            this.codecType = codecType;
             this.serializer = Serializer.getSerializer(serializerType);
 //            this.resultSerializationBenchmark = new Benchmark("./benchmarks/master", String.format("Master Results Serialization - %s", serializer.getType().toString()), "csv", );
             localDiscoveryInfo = new NetworkInfo(NetworkUtils.getLocalAddress(), localDiscoveryPort, discoveryNetworkManager);
@@ -326,6 +373,11 @@ public class MasterServerSimulationEnvironment implements PropertyChangeListener
         try {
             SimulationDataSet<State> dataSet = (SimulationDataSet<State>) serializer
                     .deserialize(client.readObject());
+            if (dataSet.getModelSource() != null) {
+                ModelCache.load(dataSet.getModelSource());
+                simulationState.setSimulationModelName(dataSet.getModelSource().getHash());
+                LOGGER.info(String.format("[%s] Model source compiled with success", dataSet.getModelSource()));
+            }
             simulationState.setSimulationDataSet(dataSet);
             simulationState.setClientConnection(client);
             LOGGER.info(
@@ -334,6 +386,8 @@ public class MasterServerSimulationEnvironment implements PropertyChangeListener
             LOGGER.info(String.format("[%s] command sent to the client: %s", MasterCommand.DATA_RESPONSE,
                     client.getNetworkInfo().toString()));
             this.submitSimulations(client, dataSet, simulationState);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            LOGGER.severe(String.format("[%s] The model source was not compiled with success - Client: %s", e.getMessage(), client.getNetworkInfo().toString()));
         } catch (IOException e) {
             LOGGER.severe(String.format("[%s] Network communication failure during the simulation dataset reception - Client: %s", e.getMessage(), client.getNetworkInfo().toString()));
         }
@@ -346,11 +400,29 @@ public class MasterServerSimulationEnvironment implements PropertyChangeListener
      */
     private void submitSimulations(TCPNetworkManager client, SimulationDataSet<State> dataSet, SimulationState simulationState) {
         try {
+            // slaves fill copies of an empty function, whose summaries are merged in the one of the data set
+            SamplingFunction<State> samplingFunction = (SamplingFunction<State>) serializer.deserialize(
+                    serializer.serialize(dataSet.getModelSamplingFunction()));
             SimulationEnvironment sim = new SimulationEnvironment(
-                    NetworkSimulationManager.getNetworkSimulationManagerFactory(simulationState, serializer.getType(), this.crSerializerType, client.getNetworkInfo()));
-
-            sim.simulate(dataSet.getRandomGenerator(), dataSet.getModel(), rg -> dataSet.getModelInitialState(),
-                    dataSet.getModelSamplingFunction()::getSamplingHandler, dataSet.getReplica(), dataSet.getDeadline());
+                    NetworkSimulationManager.getNetworkSimulationManagerFactory(simulationState, serializer.getType(),
+                            this.crSerializerType, this.codecType, client.getNetworkInfo(), samplingFunction));
+            if (dataSet.getModelSource() != null) {
+                // slaves resolve the model compiled from the source through its hash
+                CachedModel<State> model = new CachedModel<>(dataSet.getModelSource().getHash());
+                sim.simulate(null, dataSet.getRandomGenerator(),
+                        (BiFunction<RandomGenerator, Function<RandomGenerator, State>, SimulatorCursor<State>> & Serializable) model::createSimulationCursor,
+                        (Function<RandomGenerator, State> & Serializable) model::sampleInitialState,
+                        (Supplier<SamplingHandler<State>> & Serializable) samplingFunction::getSamplingHandler,
+                        dataSet.getReplica(), dataSet.getDeadline());
+            } else {
+                Model<State> model = dataSet.getModel();
+                State initialState = dataSet.getModelInitialState();
+                sim.simulate(null, dataSet.getRandomGenerator(),
+                        (BiFunction<RandomGenerator, Function<RandomGenerator, State>, SimulatorCursor<State>> & Serializable) model::createSimulationCursor,
+                        (Function<RandomGenerator, State> & Serializable) rg -> initialState,
+                        (Supplier<SamplingHandler<State>> & Serializable) samplingFunction::getSamplingHandler,
+                        dataSet.getReplica(), dataSet.getDeadline());
+            }
             this.state.increaseExecutedSimulations();
         } catch (InterruptedException e) {
             LOGGER.severe(String.format("[%s] Simulation has been interrupted before its completion - Client: %s", e.getMessage(), client.getNetworkInfo().toString()));
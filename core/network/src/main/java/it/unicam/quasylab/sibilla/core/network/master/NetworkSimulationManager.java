@@ -23,28 +23,31 @@
 
 package it.unicam.quasylab.sibilla.core.network.master;
 
-import it.unicam.quasylab.sibilla.core.models.Model;
 import it.unicam.quasylab.sibilla.core.models.ModelDefinition;
 import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.network.ComputationResult;
 import it.unicam.quasylab.sibilla.core.network.HostLoggerSupplier;
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
 import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
 import it.unicam.quasylab.sibilla.core.network.NetworkTask;
 import it.unicam.quasylab.sibilla.core.network.benchmark.BenchmarkUnit;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodec;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
 import it.unicam.quasylab.sibilla.core.network.compression.Compressor;
 import it.unicam.quasylab.sibilla.core.network.loaders.ClassBytesLoader;
-import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
 import it.unicam.quasylab.sibilla.core.network.slave.SlaveCommand;
 import it.unicam.quasylab.sibilla.core.network.slave.SlaveState;
 import it.unicam.quasylab.sibilla.core.simulator.*;
-import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.Consumer;
@@ -62,6 +65,23 @@ import java.util.stream.Collectors;
  */
 public class NetworkSimulationManager<S extends State> extends QueuedSimulationManager<S> {
 
+    /**
+     * Number of task batches that can be outstanding on a slave server connected via the non-blocking transport.
+     * Slave servers execute batches in the order they are received, so that the next batch is already
+     * available on the slave when the previous one has been computed.
+     */
+    private static final int NIO_PIPELINE_DEPTH = 2;
+
+    /**
+     * Expected duration, in nanoseconds, of the execution of a batch of tasks on a slave server.
+     */
+    private static final long TARGET_BATCH_TIME = 1000000000L;
+
+    /**
+     * Maximum number of tasks in a batch sent to a slave server.
+     */
+    private static final int MAX_BATCH_SIZE = 256;
+
     /**
      * Class logger.
      */
@@ -93,33 +113,80 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
      */
     private final Set<TCPNetworkManager> networkManagers;
 
+    /**
+     * Last stages of the batches sent to each slave server, used to keep the batches of a connection in order
+     */
+    private final Map<TCPNetworkManager, Pipeline> pipelines = new ConcurrentHashMap<>();
+
+    /**
+     * Sizes the batches sent to the slave servers and re-executes the last running batches on idle slave servers
+     */
+    private final AdaptiveTaskScheduler<TCPNetworkManager, SimulationTask<S>> scheduler =
+            new AdaptiveTaskScheduler<>(TARGET_BATCH_TIME, MAX_BATCH_SIZE);
+
     private final Serializer serializer;
 
     private final BenchmarkUnit decDesBenchmark;
     private final ComputationResultSerializerType crSerializerType;
+
+    /**
+     * Codec used to decompress the results sent by the slave servers, that must use the same codec to compress them
+     */
+    private final CompressionCodec codec;
     private final Map<NetworkInfo, BenchmarkUnit> slaveBenchmarks;
     private final NetworkInfo clientInfo;
 
+    /**
+     * Empty sampling function sent to the slave servers together with the tasks. Each slave server fills
+     * its own copy and sends back its summary, that is merged in the sampling function of the simulation.
+     */
+    private final SamplingFunction<?> samplingFunction;
+
     /**
      * Creates a NetworkSimulationManager with the parameters given in input
      *
-     * @param random          RandomGenerator used in the simulation
-     * @param monitor         TODO
-     * @param simulationState state of the simulation that is being executed
+     * @param random           RandomGenerator used in the simulation
+     * @param monitor          TODO
+     * @param simulationState  state of the simulation that is being executed
+     * @param samplingFunction empty sampling function, filled by the slave servers, that provides the
+     *                         sampling handlers of the simulated tasks
+     */
+    public NetworkSimulationManager(RandomGenerator random, SimulationMonitor monitor,
+                                    SimulationState simulationState, SerializerType serializerType,
+                                    ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo,
+                                    SamplingFunction<?> samplingFunction) {
+        this(random, monitor, simulationState, serializerType, crSerializerType, CompressionCodecType.GZIP,
+                clientInfo, samplingFunction);
+    }
+
+    /**
+     * Creates a NetworkSimulationManager with the parameters given in input, that decompresses the results
+     * received from the slave servers with the given codec
+     *
+     * @param random           RandomGenerator used in the simulation
+     * @param monitor          TODO
+     * @param simulationState  state of the simulation that is being executed
+     * @param codecType        codec used by the slave servers to compress their results
+     * @param samplingFunction empty sampling function, filled by the slave servers, that provides the
+     *                         sampling handlers of the simulated tasks
      */
     public NetworkSimulationManager(RandomGenerator random, SimulationMonitor monitor,
                                     SimulationState simulationState, SerializerType serializerType,
-                                    ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo) {
+                                    ComputationResultSerializerType crSerializerType, CompressionCodecType codecType,
+                                    NetworkInfo clientInfo, SamplingFunction<?> samplingFunction) {
         super(random, monitor);// TODO: Gestire parametro Monitor
+        samplingFunction.getSummary(); // fails early if the function does not support summaries
+        this.samplingFunction = samplingFunction;
         this.clientInfo = clientInfo;
         this.LOGGER = HostLoggerSupplier.getInstance().getLogger();
         this.serializer = Serializer.getSerializer(serializerType);
         this.slaveBenchmarks = new ConcurrentHashMap<NetworkInfo, BenchmarkUnit>();
         this.crSerializerType = crSerializerType;
+        this.codec = CompressionCodec.getCodec(codecType);
         this.decDesBenchmark = new BenchmarkUnit(
                 String.format("sibillaBenchmarks/masterBenchmarking/ComputationResultSerializer_%s/", this.crSerializerType.getFullName()),
                 String.format("%s_resultsDecompressAndDeserialize", this.crSerializerType), "csv",
-                this.crSerializerType.getLabel(), List.of("decomprtime", "desertime", "trajectories"));
+                this.crSerializerType.getLabel(), List.of("decomprtime", "desertime", "tasks"));
 
         List<NetworkInfo> slaveNetworkInfos = simulationState.getSlaveServersStates().stream()
                 .map(SlaveState::getSlaveInfo).collect(Collectors.toList());
@@ -147,19 +214,29 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
                 LOGGER.severe(String.format("[%s] Error during server initialization, removing slave", e.getMessage()));
             }
             return null;
-        }).filter(Objects::nonNull).collect(Collectors.toSet());
-        serverQueue = new LinkedBlockingQueue<>(networkManagers);
+        }).filter(Objects::nonNull).collect(Collectors.toCollection(ConcurrentHashMap::newKeySet));
+        serverQueue = new LinkedBlockingQueue<>();
+        networkManagers.forEach(this::enqueueServerSlots);
         this.startTasksHandling();
     }
 
     public static SimulationManagerFactory getNetworkSimulationManagerFactory(SimulationState simulationState,
-                                                                              SerializerType serializerType, ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo) {
+                                                                              SerializerType serializerType, ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo,
+                                                                              SamplingFunction<?> samplingFunction) {
+        return getNetworkSimulationManagerFactory(simulationState, serializerType, crSerializerType,
+                CompressionCodecType.GZIP, clientInfo, samplingFunction);
+    }
+
+    public static SimulationManagerFactory getNetworkSimulationManagerFactory(SimulationState simulationState,
+                                                                              SerializerType serializerType, ComputationResultSerializerType crSerializerType,
+                                                                              CompressionCodecType codecType, NetworkInfo clientInfo,
+                                                                              SamplingFunction<?> samplingFunction) {
         return new SimulationManagerFactory() {
             @Override
             public <S extends State> SimulationManager<S> getSimulationManager(RandomGenerator random,
                                                                                SimulationMonitor monitor) {
                 return new NetworkSimulationManager<>(random, monitor, simulationState,
-                        serializerType, crSerializerType, clientInfo);
+                        serializerType, crSerializerType, codecType, clientInfo, samplingFunction);
             }
         };
 
@@ -171,6 +248,11 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
      * @param slave NetworkManager through the model is passed
      */
     private void initConnection(TCPNetworkManager slave) throws IOException {
+        ModelSource modelSource = simulationState.simulationDataSet().getModelSource();
+        if (modelSource != null) {
+            initSourceConnection(slave, modelSource);
+            return;
+        }
         try {
             slave.writeObject(serializer.serialize(MasterCommand.INIT));
             LOGGER.info(String.format("[%s] command sent to the slave: %s", MasterCommand.INIT,
@@ -202,6 +284,49 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
         }
     }
 
+    /**
+     * Initializes a connection to the target server referring to a model given as source code. The source is
+     * sent only when the server has not already compiled a source with the same hash.
+     *
+     * @param slave       NetworkManager through the model is passed
+     * @param modelSource source of the model
+     */
+    private void initSourceConnection(TCPNetworkManager slave, ModelSource modelSource) throws IOException {
+        try {
+            slave.writeObject(serializer.serialize(MasterCommand.INIT_SOURCE));
+            LOGGER.info(String.format("[%s] command sent to the slave: %s", MasterCommand.INIT_SOURCE,
+                    slave.getNetworkInfo().toString()));
+            slave.writeObject(serializer.serialize(modelSource.getHash()));
+            LOGGER.info(String.format("[%s] Model hash has been sent to the slave: %s",
+                    modelSource.getHash(), slave.getNetworkInfo().toString()));
+
+            SlaveCommand answer = (SlaveCommand) serializer.deserialize(slave.readObject());
+            if (answer.equals(SlaveCommand.MODEL_REQUEST)) {
+                slave.writeObject(serializer.serialize(modelSource));
+                LOGGER.info(String.format("Model source has been sent to the slave: %s",
+                        slave.getNetworkInfo().toString()));
+                answer = (SlaveCommand) serializer.deserialize(slave.readObject());
+            }
+            if (answer.equals(SlaveCommand.MODEL_CACHED) || answer.equals(SlaveCommand.INIT_RESPONSE)) {
+                LOGGER.info(
+                        String.format("Answer received: [%s] - Slave: %s", answer, slave.getNetworkInfo().toString()));
+            } else {
+                throw new ClassCastException(String.format(
+                        "Wrong answer after INIT_SOURCE command. Expected MODEL_CACHED or INIT_RESPONSE, received %s",
+                        answer));
+            }
+        } catch (ClassCastException e) {
+            LOGGER.severe(String.format("[%s] Message cast failure during the connection initialization - Slave: %s",
+                    e.getMessage(), slave.getNetworkInfo().toString()));
+            throw new IOException();
+        } catch (IOException e) {
+            LOGGER.severe(String.format(
+                    "[%s] Network communication failure during the connection initialization  - Slave: %s",
+                    e.getMessage(), slave.getNetworkInfo().toString()));
+            throw new IOException();
+        }
+    }
+
     @Override
     protected void startTasksHandling() {
         new Thread(this::handleTasks).start();
@@ -218,7 +343,7 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
 
     /**
      * Sends to the next server in the queue the task to execute and waits for the
-     * results
+     * results. Servers are in the queue when they are able to accept new tasks.
      */
     private void singleTaskExecution() {
         try {
@@ -226,28 +351,57 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
             LOGGER.info(String.format("Slave currently connected to: %s", server.getNetworkInfo().toString()));
             SlaveState serverState = this.simulationState.getSlaveStateByServerInfo(server.getNetworkInfo());
             LOGGER.info(String.format("State of the slave: [%s]", serverState.toString()));
-            int acceptableTasks = serverState.getExpectedTasks();
-            if (!serverState.canCompleteTask(acceptableTasks)) {
-                acceptableTasks = acceptableTasks == 1 ? 1 : acceptableTasks / 2;
-                LOGGER.severe(String.format("Server's tasks window has been reduced in half - %s",
-                        server.getNetworkInfo().toString()));
-            }
             LOGGER.info(String.format("Has tasks: %s", hasTasks()));
             LOGGER.info(String.format("Is running: %s", isRunning()));
-            List<SimulationTask<S>> toRun = getTask(acceptableTasks, true);
-            LOGGER.info(String.format("Tasks to run: %d", toRun.size()));
+            AdaptiveTaskScheduler.Batch<TCPNetworkManager, SimulationTask<S>> batch = nextBatch(server);
             this.simulationState.setPendingTasks(this.pendingTasks());
-            if (toRun.size() > 0) {
-                simulationState.increaseRunningServers();
-                NetworkTask<S> networkTask = new NetworkTask<>(toRun);
-                CompletableFuture.supplyAsync(() -> send(networkTask, server), executor)
-                        .whenComplete((value, error) -> manageResult(value, error, toRun, server));
+            if (batch != null) {
+                List<SimulationTask<S>> toRun = batch.getTasks();
+                LOGGER.info(String.format("Tasks to run: %d%s", toRun.size(),
+                        (batch.isSpeculative() ? " (speculative copy)" : "")));
+                if (!batch.isSpeculative()) {
+                    simulationState.increaseRunningServers();
+                }
+                NetworkTask<S> networkTask = new NetworkTask<>(toRun, (SamplingFunction<? super S>) samplingFunction);
+                long startTime = System.nanoTime();
+                Pipeline pipeline = pipelines.computeIfAbsent(server, s -> new Pipeline());
+                CompletableFuture<Void> sent = pipeline.sent.handleAsync((value, error) -> send(networkTask, server), executor);
+                CompletableFuture<List<ComputationResult<S>>> received = pipeline.received.thenCombine(sent, (value, other) -> other)
+                        .thenCompose(value -> awaitingResults(server, serverState, networkTask));
+                pipeline.sent = sent;
+                pipeline.received = received;
+                received.whenComplete((value, error) -> manageResult(value, error, batch, server, startTime));
             }
         } catch (InterruptedException e) {
             LOGGER.severe(String.format("[%s] Interrupted exception", e.getMessage()));
         }
     }
 
+    /**
+     * Waits until the given server can be given a batch of tasks. The server receives the pending tasks, if any,
+     * otherwise the speculative copy of a running batch.
+     *
+     * @param server server that asks for tasks
+     * @return the batch to execute or <code>null</code> if the simulation has been stopped
+     */
+    private synchronized AdaptiveTaskScheduler.Batch<TCPNetworkManager, SimulationTask<S>> nextBatch(
+            TCPNetworkManager server) throws InterruptedException {
+        while (true) {
+            List<SimulationTask<S>> tasks = getTask(scheduler.getBatchSize(server, pendingTasks()), false);
+            if (!tasks.isEmpty()) {
+                return scheduler.start(server, tasks);
+            }
+            AdaptiveTaskScheduler.Batch<TCPNetworkManager, SimulationTask<S>> copy = scheduler.speculate(server);
+            if (copy != null) {
+                return copy;
+            }
+            if (!isRunning()) {
+                return null;
+            }
+            wait();
+        }
+    }
+
     /**
      * Takes the first server from the queue
      *
@@ -266,38 +420,89 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
         serverQueue.add(server);
     }
 
+    /**
+     * Adds a server to the queue once for each batch that can be outstanding on it
+     *
+     * @param server Server to be added to the queue
+     */
+    private void enqueueServerSlots(TCPNetworkManager server) {
+        int depth = (server.getType() == TCPNetworkManagerType.NIO ? NIO_PIPELINE_DEPTH : 1);
+        for (int i = 0; i < depth; i++) {
+            enqueueServer(server);
+        }
+    }
+
     /**
      * Manages the results of a NetworkTask sent by a simulation server
      *
-     * @param value  results of the computation
-     * @param error  eventually thrown error
-     * @param tasks  list of tasks executed
-     * @param server server which has been used for the simulation
+     * @param value     results of the computation
+     * @param error     eventually thrown error
+     * @param batch     batch of tasks executed
+     * @param server    server which has been used for the simulation
+     * @param startTime time, in nanoseconds, when the tasks have been submitted to the server
      */
-    private void manageResult(ComputationResult<S> value, Throwable error, List<SimulationTask<S>> tasks,
-                              TCPNetworkManager server) {
+    private void manageResult(List<ComputationResult<S>> value, Throwable error,
+                              AdaptiveTaskScheduler.Batch<TCPNetworkManager, SimulationTask<S>> batch,
+                              TCPNetworkManager server, long startTime) {
         LOGGER.info(String.format("Managing results by the slave: %s", server.getNetworkInfo().toString()));
-        if (error != null) {
+        List<SimulationTask<S>> tasks = batch.getTasks();
+        if ((error != null) && !networkManagers.contains(server)) {
+            // a previous batch of the same connection has already handled the failure
+            rescheduleFailed(batch);
+        } else if (error != null) {
             error.printStackTrace();
             LOGGER.severe(String.format("Timeout occurred for slave: %s", server.getNetworkInfo().toString()));
+            pipelines.remove(server);
             TCPNetworkManager newServer;
             if ((newServer = manageTimeout(server)) != null) {
                 LOGGER.info(String.format("The slave has responded. New server: %s",
                         newServer.getNetworkInfo().toString()));
-                enqueueServer(newServer);// add new server to queue, old server won't return
+                enqueueServerSlots(newServer);// add new server to queue, old server won't return
             } else if (this.simulationState.getSlaveServersStates().isEmpty()) {
                 synchronized (this) {
                     notifyAll();
                 }
             }
-            rescheduleAll(tasks);
+            rescheduleFailed(batch);
+        } else if (scheduler.complete(batch)) {
+            LOGGER.info(String.format("Timeout did not occurred for slave: %s", server.getNetworkInfo().toString()));
+            SlaveState state = this.simulationState.getSlaveStateByServerInfo(server.getNetworkInfo());
+            if (state != null) {
+                state.update(System.nanoTime() - startTime, scheduler.getThroughput(server));
+            }
+            SamplingFunction<?> target = this.simulationState.simulationDataSet().getModelSamplingFunction();
+            synchronized (target) {
+                value.forEach(result -> target.mergeSummary(result.getSummary()));
+            }
+            BenchmarkUnit sendRecBenchmark = this.slaveBenchmarks.get(server.getNetworkInfo());
+            if (sendRecBenchmark != null) {
+                sendRecBenchmark.record(System.nanoTime() - startTime, List.of((double) tasks.size(), (double) value.size()));
+            }
+            enqueueServer(server);
             simulationState.decreaseRunningServers();
+            // joining threads are notified only once the server is no longer counted as running
+            completed(tasks.size());
         } else {
-            LOGGER.info(String.format("Timeout did not occurred for slave: %s", server.getNetworkInfo().toString()));
+            LOGGER.info(String.format("Results of another copy of the batch have been already received, discarding results by the slave: %s",
+                    server.getNetworkInfo().toString()));
             enqueueServer(server);
+        }
+    }
+
+    /**
+     * Reschedules the tasks of a failed batch, unless another copy of the batch is still running or
+     * has been already completed
+     *
+     * @param batch failed batch
+     */
+    private void rescheduleFailed(AdaptiveTaskScheduler.Batch<TCPNetworkManager, SimulationTask<S>> batch) {
+        if (scheduler.fail(batch)) {
+            rescheduleAll(batch.getTasks());
             simulationState.decreaseRunningServers();
-            //FIXME!
-            //value.getResults().forEach(this::handleTrajectory);
+        } else {
+            synchronized (this) {
+                notifyAll(); // the batch can be copied again
+            }
         }
     }
 
@@ -335,9 +540,8 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
                 throw new IllegalStateException("Expected a different reply!");
             }
             LOGGER.info(String.format(
-                    "The response has been received within the time limit. The task window will be reduced by half for the slave: %s",
+                    "The response has been received within the time limit by the slave: %s",
                     pingServer.getNetworkInfo().toString()));
-            oldState.forceExpiredTimeLimit(); // halve the task window
             oldState.migrate(pingNetworkInfo);
             this.networkManagers.add(pingServer);
 
@@ -371,6 +575,14 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
     private void closeStreams() {
         try {
             for (TCPNetworkManager server : this.networkManagers) {
+                if (scheduler.isBusy(server)) {
+                    // results of the batches still running on the server are not needed anymore
+                    this.networkManagers.remove(server);
+                    server.closeConnection();
+                    LOGGER.info(String.format("Closed the connection with the busy slave: %s",
+                            server.getNetworkInfo().toString()));
+                    continue;
+                }
                 server.writeObject(serializer.serialize(MasterCommand.CLOSE_CONNECTION));
                 LOGGER.info(String.format("[%s] command sent to the slave: %s", MasterCommand.CLOSE_CONNECTION,
                         server.getNetworkInfo().toString()));
@@ -401,93 +613,98 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
      *
      * @param networkTask tasks to execute
      * @param server      server to send the tasks to
-     * @return result of the computation
+     * @return <code>null</code>
      */
-    private ComputationResult<S> send(NetworkTask<S> networkTask, TCPNetworkManager server) {
-
-        SlaveState state = this.simulationState.getSlaveStateByServerInfo(server.getNetworkInfo());
-        BenchmarkUnit sendRecBenchmark = this.slaveBenchmarks.get(server.getNetworkInfo());
-
-        final var wrapper = new Object() {
-            private ComputationResult<S> result;
-        };
+    private Void send(NetworkTask<S> networkTask, TCPNetworkManager server) {
         try {
-            sendRecBenchmark.run(() -> {
-                server.writeObject(serializer.serialize(MasterCommand.TASK));
-                server.writeObject(Compressor.compress(serializer.serialize(networkTask)));
-                wrapper.result = awaitingResults(server, state, networkTask);
-
-                return List.of((double) networkTask.getTasks().size(), (double) wrapper.result.getResults().size());
-            });
-
-        } catch (Exception e) {
-            LOGGER.severe(e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException();
+            server.writeObject(serializer.serialize(MasterCommand.TASK));
+            server.writeObject(Compressor.compress(serializer.serialize(networkTask)));
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure while sending tasks to the slave: %s",
+                    e.getMessage(), server.getNetworkInfo().toString()));
+            throw new CompletionException(e);
         }
-        return wrapper.result;
+        return null;
     }
 
     /**
      * Puts the master server in a state where he listens for results until all the
      * tasks sent to the slave server have been executed and their results are sent
-     * to the server.
+     * to the server. Results are read asynchronously, so that no thread is kept
+     * waiting on transports that support it.
      *
      * @param server the NetworkManager of the slave server that the master listens
      *               to for results
      * @param state  the SlaveState associated to the slave server
      * @param tasks  the NetworkTask that contains the simulations to execute
-     * @return the ComputationResult that contains all the result for the given
-     * NetworkTask
-     * @throws IOException if communication error between servers occur
+     * @return future completed with the list of ComputationResult that contains all the result
+     * for the given NetworkTask
      */
-    private ComputationResult<S> awaitingResults(TCPNetworkManager server, SlaveState state, NetworkTask<?> tasks)
-            throws IOException {
-        ComputationResult<S> results = new ComputationResult<>(new LinkedList<>());
-        //FIXME!
-//        state.setSentTasks(tasks.getTasks().size());
-//        state.setReceivedTasks(0);
-//        long elapsedTime = System.nanoTime();
-//
-//        server.getSocket().setSoTimeout((int) (state.getTimeout() / 1000000));
-//        LOGGER.info(
-//                String.format("A group of tasks has been sent to the server - %s", server.getNetworkInfo().toString()));
-//        Model model = tasks.getTasks().get(0).getUnit().getModel();
-//        while (state.getReceivedTasks() < state.getSentTasks()) {
-//            final var wrapper = new Object() {
-//                private byte[] received;
-//                private ComputationResult<S> results;
-//            };
-//
-//            wrapper.received = server.readObject();
-//            this.decDesBenchmark.run(() -> {
-//                wrapper.received = Compressor.decompress(wrapper.received);
-//                return List.of();
-//            }, () -> {
-//                wrapper.results = this.deserializeComputationResult(wrapper.received, model);
-//                return List.of((double) wrapper.results.getResults().size());
-//            });
-//            results.add(wrapper.results);
-//            state.setReceivedTasks(state.getReceivedTasks() + wrapper.results.getResults().size());
-//        }
-//        elapsedTime = System.nanoTime() - elapsedTime;
-//        LOGGER.info(String.format("\nSent tasks size: %d\nReceived tasks size: %d", tasks.getTasks().size(),
-//                results.getResults().size()));
-//        state.update(elapsedTime);
-//        LOGGER.info(String.format("The results from the computation have been received from the server - %s",
-//                server.getNetworkInfo().toString()));
-        return results;
+    private CompletableFuture<List<ComputationResult<S>>> awaitingResults(TCPNetworkManager server, SlaveState state,
+                                                                          NetworkTask<?> tasks) {
+        state.setSentTasks(tasks.getTasks().size());
+        state.setReceivedTasks(0);
+        long elapsedTime = System.nanoTime();
+        try {
+            server.getSocket().setSoTimeout((int) Math.min(Integer.MAX_VALUE, scheduler.getTimeout(server, tasks.getTasks().size()) / 1000000));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        LOGGER.info(
+                String.format("A group of tasks has been sent to the server - %s", server.getNetworkInfo().toString()));
+        return receiveResults(server, state, new LinkedList<>(), elapsedTime);
     }
 
-    private ComputationResult deserializeComputationResult(byte[] toDeserialize, Model model) throws IOException {
-        switch (this.crSerializerType) {
-            case FST:
-                return (ComputationResult) Serializer.getSerializer(SerializerType.FST).deserialize(toDeserialize);
-            case APACHE:
-                return (ComputationResult) Serializer.getSerializer(SerializerType.APACHE).deserialize(toDeserialize);
-            default:
-            case CUSTOM:
-                return ComputationResultSerializer.deserialize(toDeserialize, model);
+    /**
+     * Reads results from a slave server until all the sent tasks have been completed
+     *
+     * @param server    the NetworkManager of the slave server that the master listens to for results
+     * @param state     the SlaveState associated to the slave server
+     * @param results   the results received so far
+     * @param startTime time, in nanoseconds, when the master started waiting for results
+     * @return future completed with the list of all the received results
+     */
+    private CompletableFuture<List<ComputationResult<S>>> receiveResults(TCPNetworkManager server, SlaveState state,
+                                                                         List<ComputationResult<S>> results, long startTime) {
+        if (state.getReceivedTasks() >= state.getSentTasks()) {
+            LOGGER.info(String.format("\nSent tasks size: %d\nReceived tasks size: %d", state.getSentTasks(),
+                    state.getReceivedTasks()));
+            LOGGER.info(String.format("The results from the computation have been received from the server - %s",
+                    server.getNetworkInfo().toString()));
+            return CompletableFuture.completedFuture(results);
         }
+        return server.readObjectAsync(executor).thenCompose(received -> {
+            final var wrapper = new Object() {
+                private byte[] received;
+                private ComputationResult<S> results;
+            };
+            wrapper.received = received;
+            this.decDesBenchmark.run(() -> {
+                ByteBuffer decompressed = this.codec.decompress(wrapper.received);
+                wrapper.received = new byte[decompressed.remaining()];
+                decompressed.get(wrapper.received);
+                return List.of();
+            }, () -> {
+                wrapper.results = this.deserializeComputationResult(wrapper.received);
+                return List.of((double) wrapper.results.getCompletedTasks());
+            });
+            results.add(wrapper.results);
+            state.setReceivedTasks(state.getReceivedTasks() + wrapper.results.getCompletedTasks());
+            return receiveResults(server, state, results, startTime);
+        });
+    }
+
+    private ComputationResult<S> deserializeComputationResult(byte[] toDeserialize) {
+        // slave servers send summaries, that the custom serializer does not handle
+        SerializerType type = (this.crSerializerType == ComputationResultSerializerType.FST ? SerializerType.FST : SerializerType.APACHE);
+        return (ComputationResult<S>) Serializer.getSerializer(type).deserialize(toDeserialize);
+    }
+
+    /**
+     * Last sending and receiving stages of the batches sent through a connection
+     */
+    private static class Pipeline {
+        private CompletableFuture<?> sent = CompletableFuture.completedFuture(null);
+        private CompletableFuture<?> received = CompletableFuture.completedFuture(null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,227 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.serialization;
+
+import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.ComputationResult;
+import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Sample;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Utility class that handles serialization and deserialization of ComputationResults in a columnar layout.
+ * The samples of each trajectory are stored as a column of times followed, when model states are vectors of
+ * integers, by one column for each state component. Times are stored as the xor of the bits of consecutive
+ * values, and components as variable length deltas between consecutive values, so that the data is
+ * small and easy to compress. Data is written into a buffer that is reused by each thread.
+ */
+public class ColumnarComputationResultSerializer {
+
+    private static final byte ROWS = 0;
+    private static final byte COLUMNS = 1;
+
+    private static final int TRAJECTORY_HEADER_SIZE = 5 + 8 + 8 + 1 + 8 + 1;
+
+    private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1 << 16));
+
+    /**
+     * Serialize a ComputationResult into a buffer. The returned buffer is reused by the next serialization
+     * performed by the same thread, hence its content must be consumed before.
+     *
+     * @param toSerialize the results to serialize
+     * @param model       the model of the simulation
+     * @param <S>         the state class
+     * @return buffer containing the serialized results, ready to be read
+     * @throws IOException
+     */
+    public static <S extends State> ByteBuffer serialize(ComputationResult<S> toSerialize, Model<S> model)
+            throws IOException {
+        ByteBuffer buffer = buffers.get().clear();
+        buffer = writeVarInt(buffer, toSerialize.getResults().size());
+        for (Trajectory<S> trajectory : toSerialize.getResults()) {
+            buffer = serialize(buffer, trajectory, model);
+        }
+        buffers.set(buffer);
+        return buffer.flip();
+    }
+
+    private static <S extends State> ByteBuffer serialize(ByteBuffer buffer, Trajectory<S> trajectory, Model<S> model)
+            throws IOException {
+        int samples = trajectory.size();
+        int components = model.stateVectorSize();
+        int stateSize = (components < 0 ? model.stateByteArraySize() : components * 5);
+        buffer = ensureCapacity(buffer, TRAJECTORY_HEADER_SIZE + samples * (8 + stateSize));
+        writeVarInt(buffer, samples);
+        buffer.putDouble(trajectory.getStart());
+        buffer.putDouble(trajectory.getEnd());
+        buffer.put((byte) (trajectory.isSuccessful() ? 1 : 0));
+        buffer.putLong(trajectory.getGenerationTime());
+        buffer.put(components < 0 ? ROWS : COLUMNS);
+        long previousTime = 0;
+        for (Sample<S> sample : trajectory.getData()) {
+            long time = Double.doubleToLongBits(sample.getTime());
+            buffer.putLong(time ^ previousTime);
+            previousTime = time;
+        }
+        if (components < 0) {
+            for (Sample<S> sample : trajectory.getData()) {
+                buffer.put(model.byteOf(sample.getValue()));
+            }
+        } else {
+            for (int i = 0; i < components; i++) {
+                int previous = 0;
+                for (Sample<S> sample : trajectory.getData()) {
+                    int value = model.stateComponent(sample.getValue(), i);
+                    writeVarInt(buffer, zigZag(value - previous));
+                    previous = value;
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Deserialize a byte array into a ComputationResult
+     *
+     * @param toDeserialize the byte array that contains serialized data
+     * @param model         the model of the simulation
+     * @param <S>           the state class
+     * @return the deserialized ComputationResult
+     * @throws IOException
+     */
+    public static <S extends State> ComputationResult<S> deserialize(byte[] toDeserialize, Model<S> model)
+            throws IOException {
+        return deserialize(ByteBuffer.wrap(toDeserialize), model);
+    }
+
+    /**
+     * Deserialize the remaining data of a buffer into a ComputationResult
+     *
+     * @param toDeserializeFrom the buffer that contains serialized data
+     * @param model             the model of the simulation
+     * @param <S>               the state class
+     * @return the deserialized ComputationResult
+     * @throws IOException
+     */
+    public static <S extends State> ComputationResult<S> deserialize(ByteBuffer toDeserializeFrom, Model<S> model)
+            throws IOException {
+        try {
+            int size = readVarInt(toDeserializeFrom);
+            LinkedList<Trajectory<S>> trajectories = new LinkedList<>();
+            for (int i = 0; i < size; i++) {
+                trajectories.add(deserializeTrajectory(toDeserializeFrom, model));
+            }
+            return new ComputationResult<>(trajectories);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Serialized data is truncated", e);
+        }
+    }
+
+    private static <S extends State> Trajectory<S> deserializeTrajectory(ByteBuffer buffer, Model<S> model)
+            throws IOException {
+        Trajectory<S> trajectory = new Trajectory<>();
+        int samples = readVarInt(buffer);
+        if ((samples < 0) || (samples > buffer.remaining() / Long.BYTES)) {
+            throw new IOException("Serialized data is truncated");
+        }
+        trajectory.setStart(buffer.getDouble());
+        trajectory.setEnd(buffer.getDouble());
+        trajectory.setSuccessful(buffer.get() != 0);
+        trajectory.setGenerationTime(buffer.getLong());
+        byte layout = buffer.get();
+        if ((layout != ROWS) && (layout != COLUMNS)) {
+            throw new IOException(String.format("Unknown trajectory layout %d", layout));
+        }
+        double[] times = new double[samples];
+        long previousTime = 0;
+        for (int i = 0; i < samples; i++) {
+            previousTime ^= buffer.getLong();
+            times[i] = Double.longBitsToDouble(previousTime);
+        }
+        if (layout == ROWS) {
+            byte[] state = new byte[model.stateByteArraySize()];
+            for (int i = 0; i < samples; i++) {
+                buffer.get(state);
+                trajectory.addSample(new Sample<>(times[i], model.fromByte(state)));
+            }
+        } else {
+            int components = model.stateVectorSize();
+            int[][] states = new int[samples][components];
+            for (int j = 0; j < components; j++) {
+                int previous = 0;
+                for (int i = 0; i < samples; i++) {
+                    previous += unZigZag(readVarInt(buffer));
+                    states[i][j] = previous;
+                }
+            }
+            for (int i = 0; i < samples; i++) {
+                trajectory.addSample(new Sample<>(times[i], model.stateOf(states[i])));
+            }
+        }
+        return trajectory;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int size) {
+        if (buffer.remaining() >= size) {
+            return buffer;
+        }
+        ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+        return newBuffer.put(buffer.flip());
+    }
+
+    private static ByteBuffer writeVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        return buffer.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
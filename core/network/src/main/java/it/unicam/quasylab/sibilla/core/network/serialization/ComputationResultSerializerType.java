@@ -24,7 +24,7 @@
 package it.unicam.quasylab.sibilla.core.network.serialization;
 
 public enum ComputationResultSerializerType {
-    APACHE("a", "Apache"), FST("f", "Fst"), CUSTOM("c", "Custom");
+    APACHE("a", "Apache"), FST("f", "Fst"), CUSTOM("c", "Custom"), COLUMNAR("l", "Columnar");
     private final String label;
     private final String fullName;
 
@@ -24,12 +24,15 @@
 package it.unicam.quasylab.sibilla.core.network.slave;
 
 import it.unicam.quasylab.sibilla.core.network.HostLoggerSupplier;
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
 import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
 import it.unicam.quasylab.sibilla.core.network.NetworkTask;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
 import it.unicam.quasylab.sibilla.core.network.compression.Compressor;
 import it.unicam.quasylab.sibilla.core.network.loaders.CustomClassLoader;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCache;
 import it.unicam.quasylab.sibilla.core.network.master.MasterCommand;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
@@ -99,10 +102,23 @@ public class BasicSimulationServer implements SimulationServer {
      */
     public BasicSimulationServer(TCPNetworkManagerType networkManagerType, SerializerType serializerType,
             SimulationExecutor.ExecutorType type, ComputationResultSerializerType crSerializerType) {
+        this(networkManagerType, serializerType, type, crSerializerType, CompressionCodecType.GZIP);
+    }
+
+    /**
+     * Creates a simulation server with the given network manager type, that compresses the results with the
+     * given codec. Master servers must decompress the results with the same codec.
+     *
+     * @param networkManagerType type of the network manager
+     * @param codecType          codec used to compress the results sent to the master servers
+     */
+    public BasicSimulationServer(TCPNetworkManagerType networkManagerType, SerializerType serializerType,
+            SimulationExecutor.ExecutorType type, ComputationResultSerializerType crSerializerType,
+            CompressionCodecType codecType) {
         this.serializer = Serializer.getSerializer(serializerType);
         this.LOGGER = HostLoggerSupplier.getInstance().getLogger();
         this.networkManagerType = networkManagerType;
-        this.simulationExecutor = SimulationExecutor.getExecutor(type, crSerializerType);
+        this.simulationExecutor = SimulationExecutor.getExecutor(type, crSerializerType, codecType);
         this.crSerializerType = crSerializerType;
         LOGGER.info(String.format("Creating a new BasicSimulationServer that uses: [%s - %s].",
                 this.networkManagerType.getClass(), this.networkManagerType.name()));
@@ -153,7 +169,8 @@ public class BasicSimulationServer implements SimulationServer {
             AtomicBoolean masterIsActive = new AtomicBoolean(true);
 
             Map<MasterCommand, Runnable> map = Map.of(MasterCommand.PING, () -> respondPingRequest(master),
-                    MasterCommand.INIT, () -> loadModelClass(master), MasterCommand.TASK,
+                    MasterCommand.INIT, () -> loadModelClass(master),
+                    MasterCommand.INIT_SOURCE, () -> loadModelSource(master), MasterCommand.TASK,
                     () -> handleTaskExecution(master), MasterCommand.CLOSE_CONNECTION,
                     () -> closeConnectionWithMaster(masterIsActive, master));
             while (masterIsActive.get()) {
@@ -229,6 +246,57 @@ public class BasicSimulationServer implements SimulationServer {
         }
     }
 
+    /**
+     * Compiles the model source sent by the master, unless a source with the same hash has been already compiled.
+     * Compiled models are kept in the {@link ModelCache}, so that they are reused by subsequent connections.
+     *
+     * @param master server of the master
+     */
+    private void loadModelSource(TCPNetworkManager master) {
+        try {
+            String hash = (String) serializer.deserialize(master.readObject());
+            LOGGER.info(String.format("[%s] Model hash read by master: %s", hash, master.getNetworkInfo().toString()));
+            if (ModelCache.contains(hash)) {
+                master.writeObject(serializer.serialize(SlaveCommand.MODEL_CACHED));
+                LOGGER.info(String.format("[%s] command sent to the master: %s", SlaveCommand.MODEL_CACHED,
+                        master.getNetworkInfo().toString()));
+                return;
+            }
+            master.writeObject(serializer.serialize(SlaveCommand.MODEL_REQUEST));
+            ModelSource source = (ModelSource) serializer.deserialize(master.readObject());
+            SlaveCommand answer;
+            if (!hash.equals(source.getHash())) {
+                LOGGER.severe(String.format("[%s] The received model source does not match its hash - Master: %s",
+                        hash, master.getNetworkInfo().toString()));
+                answer = SlaveCommand.MODEL_ERROR;
+            } else {
+                answer = compileModelSource(source, master);
+            }
+            master.writeObject(serializer.serialize(answer));
+            LOGGER.info(String.format("[%s] command sent to the master: %s", answer,
+                    master.getNetworkInfo().toString()));
+        } catch (ClassCastException e) {
+            LOGGER.severe(String.format("[%s] Message cast failure during the model source loading - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+        } catch (IOException e) {
+            LOGGER.severe(
+                    String.format("[%s] Network communication failure during the model source loading - Master: %s",
+                            e.getMessage(), master.getNetworkInfo().toString()));
+        }
+    }
+
+    private SlaveCommand compileModelSource(ModelSource source, TCPNetworkManager master) {
+        try {
+            ModelCache.load(source);
+            LOGGER.info(String.format("[%s] Model source compiled with success", source));
+            return SlaveCommand.INIT_RESPONSE;
+        } catch (RuntimeException e) {
+            LOGGER.severe(String.format("[%s] The model source was not compiled with success - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+            return SlaveCommand.MODEL_ERROR;
+        }
+    }
+
     /**
      * Handles the simulation execution sent by the server and sends its results to
      * the master
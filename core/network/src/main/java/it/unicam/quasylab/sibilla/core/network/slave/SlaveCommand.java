@@ -41,5 +41,17 @@ public enum SlaveCommand {
     /**
      * The command sent by a slave server to inform that the connection with an host will be closed.
      */
-    CLOSE_CONNECTION
+    CLOSE_CONNECTION,
+    /**
+     * The command sent by a slave server to respond to a master server init source command when the model has been already compiled.
+     */
+    MODEL_CACHED,
+    /**
+     * The command sent by a slave server to request the source of a model that has not been compiled yet.
+     */
+    MODEL_REQUEST,
+    /**
+     * The command sent by a slave server when the received model source cannot be compiled.
+     */
+    MODEL_ERROR
 }
@@ -40,30 +40,12 @@ import java.util.Objects;
  * @author Zamponi Marco
  */
 public class SlaveState implements Serializable, Cloneable {
-    private final static double alpha = 0.125;
-    private final static double beta = 0.250;
-    private final static int threshold = 256;
-    private final static long maxRunningTime = 3600000000000L; // 1 hour in nanoseconds
 
     /**
-     * The standard deviation of the round trip time of the simulation tasks execution
+     * The throughput, in tasks per second, estimated for the slave by the
+     * {@link it.unicam.quasylab.sibilla.core.network.master.AdaptiveTaskScheduler}
      */
-    public double devRTT;
-
-    /**
-     * The estimated round trip time of the simulation tasks to be executed
-     */
-    public double estimatedRTT;
-
-    /**
-     * The round trip time of the last simulation tasks executed by the slave
-     */
-    private double sampleRTT;
-
-    /**
-     * Number of tasks that the slave server is expected to execute within the set time limit.
-     */
-    private int expectedTasks;
+    private double throughput;
 
     private int sentTasks;
 
@@ -80,7 +62,7 @@ public class SlaveState implements Serializable, Cloneable {
     private boolean isTimeout;
 
     /**
-     * The slave server running time.
+     * The time used by the slave server to execute the last batch of tasks.
      */
     private long runningTime;
 
@@ -96,15 +78,12 @@ public class SlaveState implements Serializable, Cloneable {
 
     public SlaveState(SimulationState simulationState, NetworkInfo slaveInfo) {
         this.slaveInfo = slaveInfo;
-        expectedTasks = 1;
         sentTasks = 0;
         receivedTasks = 0;
         isRemoved = false;
         isTimeout = false;
         runningTime = 0L;
-        devRTT = 0.0;
-        sampleRTT = 0.0;
-        estimatedRTT = 0.0;
+        throughput = 0.0;
         updateSupport = new PropertyChangeSupport(this);
         this.addPropertyChangeListener("Simulation Update", simulationState);
     }
@@ -123,36 +102,16 @@ public class SlaveState implements Serializable, Cloneable {
     }
 
     /**
-     * Updates the state of the slave server given the data about new executions
+     * Records the execution of a batch of tasks and signals it to the listeners. Batch sizes and timeouts are
+     * computed by the {@link it.unicam.quasylab.sibilla.core.network.master.AdaptiveTaskScheduler}, this state
+     * only reports the throughput it has estimated.
      *
      * @param elapsedTime time used to execute the tasks
+     * @param throughput  throughput, in tasks per second, estimated for the slave
      */
-    public void update(long elapsedTime) {
-        runningTime = elapsedTime;
-
-        if (devRTT != 0.0) {
-            if (runningTime >= getTimeLimit()) {
-                expectedTasks = expectedTasks == 1 ? 1 : expectedTasks / 2;
-            } else if (expectedTasks < threshold) {
-                expectedTasks = expectedTasks * 2;
-            } else {
-                expectedTasks = expectedTasks + 1;
-            }
-        } else {
-            expectedTasks = 2;
-        }
-
-        sampleRTT = runningTime / sentTasks;
-        estimatedRTT = alpha * sampleRTT + (1 - alpha) * estimatedRTT;
-        devRTT = devRTT == 0.0 ? sampleRTT * 2 : beta * Math.abs(sampleRTT - estimatedRTT) + (1 - beta) * devRTT;
-        this.updateListeners();
-    }
-
-    /**
-     * Lowers the expected tasks following the TCP window size algorithm and signals it to the listeners
-     */
-    public void forceExpiredTimeLimit() {
-        expectedTasks = expectedTasks == 1 ? 1 : expectedTasks / 2;
+    public void update(long elapsedTime, double throughput) {
+        this.runningTime = elapsedTime;
+        this.throughput = throughput;
         this.updateListeners();
     }
 
@@ -166,44 +125,6 @@ public class SlaveState implements Serializable, Cloneable {
         this.updateListeners();
     }
 
-    /**
-     * Gets timeout time of this server after which the server is removed
-     *
-     * @return timeout length of this server
-     */
-    public double getTimeout() {
-        return expectedTasks == 1 ? Long.MAX_VALUE : expectedTasks * estimatedRTT + expectedTasks * 4 * devRTT;
-    }
-
-    /**
-     * Gets the time limit of this server after which the expected tasks are halved
-     *
-     * @return time limit length of this server
-     */
-    public double getTimeLimit() { // after this time, the tasks to be sent to this server is to be halved
-        return getTimeLimit(expectedTasks);
-    }
-
-    /**
-     * Gets the time limit of this server for a certain number of tasks
-     *
-     * @param tasks number of sent tasks
-     * @return time limit length of this server for a certain number of tasks
-     */
-    private double getTimeLimit(int tasks) {
-        return tasks * estimatedRTT + tasks * devRTT;
-    }
-
-    /**
-     * Gets the possibility to complete a certain number of tasks for this server whithin the time limit
-     *
-     * @param tasks number of tasks to be executed
-     * @return whether the server can execute these tasks in time or not
-     */
-    public boolean canCompleteTask(int tasks) {
-        return getTimeLimit(tasks) < maxRunningTime;
-    }
-
     public synchronized void addPropertyChangeListener(String property, PropertyChangeListener pcl) {
         updateSupport.addPropertyChangeListener(property, pcl);
         this.updateListeners();
@@ -224,10 +145,17 @@ public class SlaveState implements Serializable, Cloneable {
     }
 
     /**
-     * @return number of tasks that the slave server is expected to execute within the set time limit.
+     * @return the throughput, in tasks per second, estimated for the slave server.
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * @return the time used by the slave server to execute the last batch of tasks.
      */
-    public int getExpectedTasks() {
-        return expectedTasks;
+    public long getRunningTime() {
+        return runningTime;
     }
 
     /**
@@ -286,12 +214,8 @@ public class SlaveState implements Serializable, Cloneable {
             return "Server has timed out, reconnecting...";
         }
         return this.slaveInfo +
-                "\n - Window runtime: " + runningTime + "ns " +
-                "\n - sampleRTT: " + sampleRTT + "ns " +
-                "\n - estimatedRTT: " + estimatedRTT + "ns " +
-                "\n - devRTT: " + devRTT + "ns "
-                + "\n - Next task window: " + expectedTasks + " " + "\n - Next time limit: " + getTimeLimit() + "ns "
-                + "\n - Next timeout: " + getTimeout() + "ns";
+                "\n - Last batch runtime: " + runningTime + "ns " +
+                "\n - Throughput: " + throughput + " tasks/s";
     }
 
     public SlaveState clone() {
@@ -23,57 +23,93 @@
 
 package it.unicam.quasylab.sibilla.core.network.slave.executor;
 
-import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.network.ComputationResult;
 import it.unicam.quasylab.sibilla.core.network.NetworkTask;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
-import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
+import it.unicam.quasylab.sibilla.core.simulator.ThreadSimulationManager;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
+import org.apache.commons.lang3.SerializationUtils;
 
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+/**
+ * Executes the tasks of a NetworkTask on a pool of threads as large as the number of available processors.
+ * Tasks are split in chunks, each one sampled by its own copy of the sampling function of the NetworkTask: the
+ * summary of a chunk is sent to the master as soon as all its tasks are completed, without waiting for the
+ * whole NetworkTask.
+ */
 public class MultithreadedSimulationExecutor extends SimulationExecutor {
 
-    private final ExecutorService taskExecutor = Executors.newCachedThreadPool();
+    /**
+     * Number of threads used to execute the tasks
+     */
+    protected static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of chunks assigned, on average, to each thread
+     */
+    private static final int CHUNKS_PER_THREAD = 2;
 
-    public MultithreadedSimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType) {
-        super(exType, crSerializerType);
+    private final ThreadSimulationManager<State> simulationManager;
+
+    public MultithreadedSimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType,
+                                           CompressionCodecType codecType) {
+        super(exType, crSerializerType, codecType);
+        ExecutorService taskExecutor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "sibilla-slave-executor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.simulationManager = new ThreadSimulationManager<>(taskExecutor, new DefaultRandomGenerator(), null);
     }
 
     @Override
     public void simulate(NetworkTask networkTask, TCPNetworkManager master) {
-//        List<? extends SimulationTask<?>> tasks = networkTask.getTasks();
-//        LinkedList<Trajectory<?>> trajectories = new LinkedList<>();
-//        Model model = tasks.get(0).getUnit().getModel();
-//        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
-
-        //FIXME!
-//        this.computationBenchmark.run(() -> {
-//            for (int i = 0; i < tasks.size(); i++) {
-//                futures[i] = CompletableFuture.supplyAsync(tasks.get(i), taskExecutor);
-//            }
-//            CompletableFuture.allOf(futures).join();
-//            for (SimulationTask<?> task : tasks) {
-//                Trajectory trajectory = task.getTrajectory();
-//                trajectories.add(trajectory);
-//            }
-//            return List.of((double) tasks.size());
-//        });
-
-//        sendResult(new ComputationResult(trajectories), master, model);
+        List<SimulationTask<State>> tasks = networkTask.getTasks();
+        SamplingFunction<State> samplingFunction = (SamplingFunction<State>) networkTask.getSamplingFunction();
+        if (samplingFunction == null) {
+            throw new IllegalArgumentException("The network task does not provide a sampling function");
+        }
+        int chunkSize = getChunkSize(tasks.size());
+        this.computationBenchmark.run(() -> {
+            CompletableFuture<?>[] chunks = new CompletableFuture<?>[(tasks.size() + chunkSize - 1) / chunkSize];
+            for (int i = 0; i < chunks.length; i++) {
+                List<SimulationTask<State>> chunk = tasks.subList(i * chunkSize, Math.min(tasks.size(), (i + 1) * chunkSize));
+                chunks[i] = simulateChunk(chunk, SerializationUtils.clone(samplingFunction), master);
+            }
+            CompletableFuture.allOf(chunks).join();
+            return List.of((double) tasks.size());
+        });
+    }
 
-        /*
-         * for (int i = 0; i < tasks.size(); i++) { futures[i] =
-         * CompletableFuture.supplyAsync(tasks.get(i), taskExecutor); }
-         * CompletableFuture.allOf(futures).join(); for (SimulationTask<?> task : tasks)
-         * { Trajectory trajectory = task.getTrajectory(); trajectories.add(trajectory);
-         * }
-         */
+    /**
+     * Returns the number of tasks whose summary is sent to the master in a single result.
+     *
+     * @param tasks number of tasks of the NetworkTask to execute
+     * @return the number of tasks whose summary is sent to the master in a single result
+     */
+    protected int getChunkSize(int tasks) {
+        return Math.max(1, (tasks + THREADS * CHUNKS_PER_THREAD - 1) / (THREADS * CHUNKS_PER_THREAD));
+    }
 
+    private CompletableFuture<Void> simulateChunk(List<SimulationTask<State>> chunk, SamplingFunction<State> samplingFunction,
+                                                  TCPNetworkManager master) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            futures[i] = simulationManager.submit(chunk.get(i).withSamplingHandler(samplingFunction::getSamplingHandler));
+        }
+        return CompletableFuture.allOf(futures).thenRun(() -> {
+            synchronized (master) {
+                sendResult(new ComputationResult<>(chunk.size(), samplingFunction.getSummary()), master, null);
+            }
+        });
     }
 }
@@ -23,43 +23,29 @@
 
 package it.unicam.quasylab.sibilla.core.network.slave.executor;
 
-import it.unicam.quasylab.sibilla.core.models.Model;
-import it.unicam.quasylab.sibilla.core.network.ComputationResult;
 import it.unicam.quasylab.sibilla.core.network.NetworkTask;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
-import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
 
-import java.util.LinkedList;
 import java.util.List;
 
 public class SequentialSimulationExecutor extends SimulationExecutor {
-    public SequentialSimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType) {
-        super(exType, crSerializerType);
+    public SequentialSimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType,
+                                        CompressionCodecType codecType) {
+        super(exType, crSerializerType, codecType);
     }
 
     @Override
     public void simulate(NetworkTask networkTask, TCPNetworkManager master) {
         List<? extends SimulationTask<?>> tasks = networkTask.getTasks();
-        LinkedList<Trajectory<?>> trajectories = new LinkedList<>();
-
-        //TODO: FIX!
-        //        Model model = tasks.get(0).getUnit().getModel();
-//        this.computationBenchmark.run(() -> {
-//            for (int i = 0; i < tasks.size(); i++) {
-//                Trajectory trajectory = tasks.get(i).get();
-//                trajectories.add(trajectory);
-//            }
-//            return List.of((double) tasks.size());
-//        });
-// sendResult(new ComputationResult(trajectories), master, model);
-
-        /*
-        for (int i = 0; i < tasks.size(); i++) {
-            Trajectory trajectory = tasks.get(i).get();
-            trajectories.add(trajectory);
-        }
-         */
+        this.computationBenchmark.run(() -> {
+            for (SimulationTask<?> task : tasks) {
+                task.get();
+            }
+            return List.of((double) tasks.size());
+        });
+        sendSummary(networkTask, master);
     }
 }
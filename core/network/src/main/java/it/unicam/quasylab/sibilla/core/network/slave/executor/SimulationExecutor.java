@@ -27,14 +27,18 @@ import it.unicam.quasylab.sibilla.core.models.Model;
 import it.unicam.quasylab.sibilla.core.network.ComputationResult;
 import it.unicam.quasylab.sibilla.core.network.NetworkTask;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
-import it.unicam.quasylab.sibilla.core.network.compression.Compressor;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodec;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
 import it.unicam.quasylab.sibilla.core.network.benchmark.BenchmarkUnit;
+import it.unicam.quasylab.sibilla.core.network.serialization.ColumnarComputationResultSerializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -54,16 +58,25 @@ public abstract class SimulationExecutor {
     // TODO
     private final ComputationResultSerializerType crSerializerType;
 
+    /**
+     * Codec used to compress the results sent to the master server, that must use the same codec to
+     * decompress them
+     */
+    private final CompressionCodec codec;
+
     /**
      * Creates a new SimulationExecutor, starting the BenchmarkUnit associated to it
      * to measure performances.
      *
      * @param exType           the type of SimulationExecutor to create
      * @param crSerializerType //TODO
+     * @param codecType        the codec used to compress the results sent to the master server
      */
-    public SimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType) {
+    public SimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType,
+                              CompressionCodecType codecType) {
         this.executorType = exType;
         this.crSerializerType = crSerializerType;
+        this.codec = CompressionCodec.getCodec(codecType);
 
         this.computationBenchmark = new BenchmarkUnit("sibillaBenchmarks/slaveBenchmarking/",
                 String.format("%s_computation", this.executorType), "csv", "o", List.of("comptime", "tasks"));
@@ -84,16 +97,31 @@ public abstract class SimulationExecutor {
      */
     public static SimulationExecutor getExecutor(ExecutorType exType,
                                                  ComputationResultSerializerType crSerializerType) {
+        return getExecutor(exType, crSerializerType, CompressionCodecType.GZIP);
+    }
+
+    /**
+     * Factory method for SimulationExecutor creation. Creates a SimulationExecutor
+     * based on the type passed in input, that compresses results with the given codec.
+     *
+     * @param exType           the type of SimulationExecutor to create
+     * @param crSerializerType // TODO
+     * @param codecType        the codec used to compress the results sent to the master server
+     * @return the created SimulationExecutor
+     */
+    public static SimulationExecutor getExecutor(ExecutorType exType,
+                                                 ComputationResultSerializerType crSerializerType,
+                                                 CompressionCodecType codecType) {
         switch (exType) {
             case MULTITHREADED:
-                return new MultithreadedSimulationExecutor(exType, crSerializerType);
+                return new MultithreadedSimulationExecutor(exType, crSerializerType, codecType);
             case SEQUENTIAL:
-                return new SequentialSimulationExecutor(exType, crSerializerType);
+                return new SequentialSimulationExecutor(exType, crSerializerType, codecType);
             case SINGLE_TRAJECTORY_SEQUENTIAL:
-                return new SingleTrajectorySequentialSimulationExecutor(exType, crSerializerType);
+                return new SingleTrajectorySequentialSimulationExecutor(exType, crSerializerType, codecType);
             case SINGLE_TRAJECTORY_MULTITHREADED:
             default:
-                return new SingleTrajectoryMultithreadedSimulationExecutor(exType, crSerializerType);
+                return new SingleTrajectoryMultithreadedSimulationExecutor(exType, crSerializerType, codecType);
         }
     }
 
@@ -117,14 +145,15 @@ public abstract class SimulationExecutor {
      */
     protected void sendResult(ComputationResult results, TCPNetworkManager master, Model model) {
         final var wrapper = new Object() {
+            private ByteBuffer serialized;
             private byte[] toSend;
         };
 
         this.sendBenchmark.run(() -> {
-            wrapper.toSend = this.serializeComputationResult(results, model);
-            return List.of((double) results.getResults().size(), (double) wrapper.toSend.length);
+            wrapper.serialized = this.serializeComputationResult(results, model);
+            return List.of((double) results.getCompletedTasks(), (double) wrapper.serialized.remaining());
         }, () -> {
-            wrapper.toSend = Compressor.compress(wrapper.toSend);
+            wrapper.toSend = this.codec.compress(wrapper.serialized);
             return List.of((double) wrapper.toSend.length);
         }, () -> {
             master.writeObject(wrapper.toSend);
@@ -137,16 +166,41 @@ public abstract class SimulationExecutor {
          */
     }
 
-    // TODO
-    private byte[] serializeComputationResult(ComputationResult results, Model model) throws IOException {
+    /**
+     * Sends to a master server the summary of the data collected by the tasks of the given NetworkTask,
+     * that must have been already executed.
+     *
+     * @param networkTask the executed network task
+     * @param master      the NetworkManager of the master server the summary will be sent to
+     */
+    protected void sendSummary(NetworkTask<?> networkTask, TCPNetworkManager master) {
+        SamplingFunction<?> samplingFunction = networkTask.getSamplingFunction();
+        if (samplingFunction == null) {
+            throw new IllegalArgumentException("The network task does not provide a sampling function");
+        }
+        sendResult(new ComputationResult<>(networkTask.getTasks().size(), samplingFunction.getSummary()), master, null);
+    }
+
+    /**
+     * Serializes the given results. The columnar serializer is compressed directly from its buffer, without
+     * copying the serialized data.
+     */
+    private ByteBuffer serializeComputationResult(ComputationResult results, Model model) throws IOException {
+        if (results.getSummary() != null) {
+            // the custom serializer only handles trajectories
+            return ByteBuffer.wrap(Serializer.getSerializer(this.crSerializerType == ComputationResultSerializerType.FST ?
+                    SerializerType.FST : SerializerType.APACHE).serialize(results));
+        }
         switch (this.crSerializerType) {
             case FST:
-                return Serializer.getSerializer(SerializerType.FST).serialize(results);
+                return ByteBuffer.wrap(Serializer.getSerializer(SerializerType.FST).serialize(results));
             case APACHE:
-                return Serializer.getSerializer(SerializerType.APACHE).serialize(results);
+                return ByteBuffer.wrap(Serializer.getSerializer(SerializerType.APACHE).serialize(results));
+            case COLUMNAR:
+                return ColumnarComputationResultSerializer.serialize(results, model);
             default:
             case CUSTOM:
-                return ComputationResultSerializer.serialize(results, model);
+                return ByteBuffer.wrap(ComputationResultSerializer.serialize(results, model));
         }
     }
 
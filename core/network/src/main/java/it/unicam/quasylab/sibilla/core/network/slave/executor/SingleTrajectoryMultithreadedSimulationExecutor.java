@@ -23,65 +23,21 @@
 
 package it.unicam.quasylab.sibilla.core.network.slave.executor;
 
-import it.unicam.quasylab.sibilla.core.models.Model;
-import it.unicam.quasylab.sibilla.core.network.ComputationResult;
-import it.unicam.quasylab.sibilla.core.network.NetworkTask;
-import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
-import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
-import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
-public class SingleTrajectoryMultithreadedSimulationExecutor extends SimulationExecutor {
-
-    private final ExecutorService taskExecutor = Executors.newCachedThreadPool();
-
-    public SingleTrajectoryMultithreadedSimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType) {
-        super(exType, crSerializerType);
+/**
+ * Multithreaded executor that sends back to the master the summary of each trajectory as soon as it has been
+ * simulated, as in the previous protocol where each trajectory was sent on its own.
+ */
+public class SingleTrajectoryMultithreadedSimulationExecutor extends MultithreadedSimulationExecutor {
+    public SingleTrajectoryMultithreadedSimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType,
+                                                           CompressionCodecType codecType) {
+        super(exType, crSerializerType, codecType);
     }
 
     @Override
-    public void simulate(NetworkTask networkTask, TCPNetworkManager master) {
-//        List<? extends SimulationTask<?>> tasks = networkTask.getTasks();
-//        Model model = tasks.get(0).getUnit().getModel();
-//        LinkedList<Trajectory<?>> trajectories = new LinkedList<>();
-//        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
-
-        //FIXME!
-//        this.computationBenchmark.run(() -> {
-//            for (int i = 0; i < tasks.size(); i++) {
-//                futures[i] = CompletableFuture.supplyAsync(tasks.get(i), taskExecutor);
-//            }
-//            CompletableFuture.allOf(futures).join();
-//            for (SimulationTask<?> task : tasks) {
-//                Trajectory trajectory = task.getTrajectory();
-//                trajectories.add(trajectory);
-//            }
-//            return List.of((double) tasks.size());
-//        });
-
-//        for (Trajectory singleTrajectory : trajectories) {
-//            sendResult(new ComputationResult(new LinkedList<>(List.of(singleTrajectory))), master, model);
-//        }
-
-        /*
-        for (int i = 0; i < tasks.size(); i++) {
-            futures[i] = CompletableFuture.supplyAsync(tasks.get(i), taskExecutor);
-        }
-        CompletableFuture.allOf(futures).join();
-        for (SimulationTask<?> task : tasks) {
-            Trajectory trajectory = task.getTrajectory();
-            trajectories.add(trajectory);
-        }
-
-        for (Trajectory singleTrajectory : trajectories) {
-            sendResult(new ComputationResult(new LinkedList<>(List.of(singleTrajectory))), master, model);
-        }
-         */
+    protected int getChunkSize(int tasks) {
+        return 1;
     }
 }
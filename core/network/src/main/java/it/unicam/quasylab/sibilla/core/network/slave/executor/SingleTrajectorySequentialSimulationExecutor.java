@@ -23,49 +23,17 @@
 
 package it.unicam.quasylab.sibilla.core.network.slave.executor;
 
-import it.unicam.quasylab.sibilla.core.models.Model;
-import it.unicam.quasylab.sibilla.core.network.ComputationResult;
-import it.unicam.quasylab.sibilla.core.network.NetworkTask;
-import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
-import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
-import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
-
-import java.util.LinkedList;
-import java.util.List;
-
-public class SingleTrajectorySequentialSimulationExecutor extends SimulationExecutor {
-    public SingleTrajectorySequentialSimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType) {
-        super(exType, crSerializerType);
-    }
-
-    @Override
-    public void simulate(NetworkTask networkTask, TCPNetworkManager master) {
-        List<? extends SimulationTask<?>> tasks = networkTask.getTasks();
-
-        //FIXME!
-//        Model model = tasks.get(0).getUnit().getModel();
-
-//        LinkedList<Trajectory> trajectories = new LinkedList<>();
-
-//        this.computationBenchmark.run(() -> {
-//            for (int i = 0; i < tasks.size(); i++) {
-//                Trajectory trajectory = tasks.get(i).get();
-//                trajectories.add(trajectory);
-//            }
-//            return List.of((double) tasks.size());
-//        });
-
-//        for (Trajectory singleTrajectory : trajectories) {
-//            sendResult(new ComputationResult(new LinkedList<>(List.of(singleTrajectory))), master, model);
-//        }
-
-        /*
-        for (int i = 0; i < tasks.size(); i++) {
-            Trajectory trajectory = tasks.get(i).get();
-            sendResult(new ComputationResult(new LinkedList<>(List.of(trajectory))), master, model);
-        }
-         */
 
+/**
+ * Sequential executor kept for compatibility with the previous protocol where each trajectory was
+ * sent back on its own. Since slave servers now send the summary of the collected data, this
+ * executor behaves as {@link SequentialSimulationExecutor}.
+ */
+public class SingleTrajectorySequentialSimulationExecutor extends SequentialSimulationExecutor {
+    public SingleTrajectorySequentialSimulationExecutor(ExecutorType exType, ComputationResultSerializerType crSerializerType,
+                                                        CompressionCodecType codecType) {
+        super(exType, crSerializerType, codecType);
     }
 }
@@ -0,0 +1,81 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelSourceTest {
+
+    private static final String CODE = "species A;";
+
+    @Test
+    void hashShouldOnlyDependOnTheContentOfTheSource() {
+        Map<String, Double> parameters = new LinkedHashMap<>();
+        parameters.put("lambda", 1.0);
+        parameters.put("mu", 2.0);
+        Map<String, Double> reversed = new LinkedHashMap<>();
+        reversed.put("mu", 2.0);
+        reversed.put("lambda", 1.0);
+        ModelSource source = new ModelSource("population", CODE, parameters, "start", 2.0);
+        assertEquals(source.getHash(), new ModelSource("population", CODE, reversed, "start", 2.0).getHash());
+        assertEquals(source, new ModelSource("population", CODE, reversed, "start", 2.0));
+    }
+
+    @Test
+    void hashShouldBeStableAcrossHosts() {
+        // SHA-256 of the length-prefixed fields, as computed by any other host
+        assertEquals("7014f0f144acf3cb7a7236f251e033a5523fd19c8d297614c46520385870ecc9",
+                new ModelSource("population", CODE, Map.of("lambda", 1.0), "start", 2.0).getHash());
+    }
+
+    @Test
+    void hashShouldChangeWithEachField() {
+        ModelSource source = new ModelSource("population", CODE, Map.of("lambda", 1.0), "start", 2.0);
+        assertNotEquals(source.getHash(), new ModelSource("lio", CODE, Map.of("lambda", 1.0), "start", 2.0).getHash());
+        assertNotEquals(source.getHash(), new ModelSource("population", CODE + " ", Map.of("lambda", 1.0), "start", 2.0).getHash());
+        assertNotEquals(source.getHash(), new ModelSource("population", CODE, Map.of("lambda", 1.5), "start", 2.0).getHash());
+        assertNotEquals(source.getHash(), new ModelSource("population", CODE, Map.of("lambda", 1.0), "other", 2.0).getHash());
+        assertNotEquals(source.getHash(), new ModelSource("population", CODE, Map.of("lambda", 1.0), "start", 3.0).getHash());
+        assertNotEquals(source.getHash(), new ModelSource("population", CODE, Map.of("lambda", 1.0), null).getHash());
+    }
+
+    @Test
+    void hashShouldBeComputedAgainAfterDeserialization() throws IOException, ClassNotFoundException {
+        ModelSource source = new ModelSource("population", CODE, Map.of("lambda", 1.0), "start", 2.0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(source);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(source.getHash(), ((ModelSource) in.readObject()).getHash());
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.communication;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TCPNioNetworkManagerTest {
+
+    private static final int FRAMES = 1000;
+
+    @Test
+    void framesShouldBeReadAsTheyWereWritten() throws Exception {
+        TCPNioNetworkManager[] managers = connect();
+        try {
+            byte[] large = randomBytes(3 * ByteBufferPool.BUFFER_SIZE + 17, 1);
+            managers[0].writeObject("hello".getBytes());
+            managers[0].writeObject(new byte[0]);
+            managers[0].writeObject(large);
+            managers[1].writeObject("world".getBytes());
+            assertArrayEquals("hello".getBytes(), managers[1].readObject());
+            assertNull(managers[1].readObject());
+            assertArrayEquals(large, managers[1].readObject());
+            assertArrayEquals("world".getBytes(), managers[0].readObject());
+        } finally {
+            close(managers);
+        }
+    }
+
+    @Test
+    void pipelinedFramesShouldBeDeliveredInOrder() throws Exception {
+        TCPNioNetworkManager[] managers = connect();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < FRAMES; i++) {
+                managers[0].writeObject(randomBytes(i % 300, i));
+            }
+            for (int i = 0; i < FRAMES; i++) {
+                byte[] frame = (i % 2 == 0 ? managers[1].readObject()
+                        : managers[1].readObjectAsync(executor).get(10, TimeUnit.SECONDS));
+                if (i % 300 == 0) {
+                    assertNull(frame);
+                } else {
+                    assertArrayEquals(randomBytes(i % 300, i), frame);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            close(managers);
+        }
+    }
+
+    @Test
+    void framesSplitAcrossSeveralReadsShouldBeReassembled() throws Exception {
+        try (ServerSocketChannel server = openServer();
+             Socket peer = new Socket(InetAddress.getLoopbackAddress(), server.socket().getLocalPort())) {
+            TCPNioNetworkManager manager = new TCPNioNetworkManager(server.accept());
+            try {
+                peer.setTcpNoDelay(true);
+                OutputStream out = peer.getOutputStream();
+                byte[] first = randomBytes(7, 2);
+                byte[] second = randomBytes(5, 3);
+                for (byte b : frames(first, second)) {
+                    out.write(b);
+                    out.flush();
+                    Thread.sleep(1);
+                }
+                assertArrayEquals(first, manager.readObject());
+                assertArrayEquals(second, manager.readObject());
+            } finally {
+                manager.closeConnection();
+            }
+        }
+    }
+
+    @Test
+    void framesLargerThanTheSendBufferShouldBeWrittenWhenThePeerReads() throws Exception {
+        try (ServerSocketChannel server = openServer();
+             Socket peer = new Socket()) {
+            peer.setReceiveBufferSize(4096);
+            peer.connect(server.socket().getLocalSocketAddress());
+            TCPNioNetworkManager manager = new TCPNioNetworkManager(server.accept());
+            try {
+                byte[] large = randomBytes(8 * 1024 * 1024, 4);
+                manager.writeObject(large);
+                manager.writeObject("next".getBytes());
+                Thread.sleep(200);
+                DataInputStream in = new DataInputStream(peer.getInputStream());
+                byte[] received = new byte[in.readInt()];
+                in.readFully(received);
+                assertArrayEquals(large, received);
+                received = new byte[in.readInt()];
+                in.readFully(received);
+                assertArrayEquals("next".getBytes(), received);
+            } finally {
+                manager.closeConnection();
+            }
+        }
+    }
+
+    @Test
+    void readsShouldTimeOutAndLaterFramesShouldNotBeLost() throws Exception {
+        TCPNioNetworkManager[] managers = connect();
+        try {
+            managers[1].getSocket().setSoTimeout(100);
+            assertThrows(SocketTimeoutException.class, managers[1]::readObject);
+            managers[0].writeObject("late".getBytes());
+            assertArrayEquals("late".getBytes(), managers[1].readObject());
+        } finally {
+            close(managers);
+        }
+    }
+
+    @Test
+    void pendingReadsShouldFailWhenThePeerCloses() throws Exception {
+        TCPNioNetworkManager[] managers = connect();
+        try {
+            managers[0].closeConnection();
+            assertThrows(EOFException.class, managers[1]::readObject);
+        } finally {
+            managers[1].closeConnection();
+        }
+    }
+
+    private static ServerSocketChannel openServer() throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        return server;
+    }
+
+    private static TCPNioNetworkManager[] connect() throws IOException {
+        try (ServerSocketChannel server = openServer()) {
+            SocketChannel client = SocketChannel.open(server.getLocalAddress());
+            return new TCPNioNetworkManager[]{new TCPNioNetworkManager(client), new TCPNioNetworkManager(server.accept())};
+        }
+    }
+
+    private static void close(TCPNioNetworkManager[] managers) throws IOException {
+        for (TCPNioNetworkManager manager : managers) {
+            manager.closeConnection();
+        }
+    }
+
+    private static byte[] frames(byte[]... messages) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (byte[] message : messages) {
+            buffer.putInt(message.length).put(message);
+        }
+        byte[] result = new byte[buffer.position()];
+        buffer.flip().get(result);
+        return result;
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.loaders;
+
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCacheTest {
+
+    @Test
+    void sourcesShouldBeCompiledOnlyOnce() {
+        AtomicInteger compilations = useCountingCompiler();
+        ModelSource source = new ModelSource("test", "cached", Map.of("lambda", 1.0), null);
+        assertFalse(ModelCache.contains(source.getHash()));
+        CompiledModel<?> model = ModelCache.load(source);
+        assertSame(model, ModelCache.load(new ModelSource("test", "cached", Map.of("lambda", 1.0), null)));
+        assertSame(model, ModelCache.get(source.getHash()));
+        assertTrue(ModelCache.contains(source.getHash()));
+        assertEquals(1, compilations.get());
+        ModelCache.remove(source.getHash());
+    }
+
+    @Test
+    void sourcesWithDifferentContentShouldBeCompiledSeparately() {
+        AtomicInteger compilations = useCountingCompiler();
+        ModelSource source = new ModelSource("test", "separate", Map.of("lambda", 1.0), null);
+        ModelSource other = new ModelSource("test", "separate", Map.of("lambda", 2.0), null);
+        assertNotSame(ModelCache.load(source), ModelCache.load(other));
+        assertEquals(2, compilations.get());
+        ModelCache.remove(source.getHash());
+        ModelCache.remove(other.getHash());
+    }
+
+    @Test
+    void removedSourcesShouldBeCompiledAgain() {
+        AtomicInteger compilations = useCountingCompiler();
+        ModelSource source = new ModelSource("test", "removed");
+        ModelCache.load(source);
+        assertNotNull(ModelCache.remove(source.getHash()));
+        assertThrows(IllegalStateException.class, () -> ModelCache.get(source.getHash()));
+        ModelCache.load(source);
+        assertEquals(2, compilations.get());
+        ModelCache.remove(source.getHash());
+    }
+
+    @Test
+    void failedCompilationsShouldNotBeCached() {
+        ModelCache.setCompiler(source -> {
+            throw new IllegalArgumentException("Syntax error");
+        });
+        ModelSource source = new ModelSource("test", "wrong");
+        assertThrows(IllegalArgumentException.class, () -> ModelCache.load(source));
+        assertFalse(ModelCache.contains(source.getHash()));
+    }
+
+    private static AtomicInteger useCountingCompiler() {
+        AtomicInteger compilations = new AtomicInteger();
+        ModelCache.setCompiler(source -> {
+            compilations.incrementAndGet();
+            return new CompiledModel<>(null, rg -> null);
+        });
+        return compilations;
+    }
+
+}
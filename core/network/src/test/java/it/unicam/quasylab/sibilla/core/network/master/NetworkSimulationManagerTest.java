@@ -0,0 +1,161 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.master;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.SimulationDataSet;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
+import it.unicam.quasylab.sibilla.core.network.loaders.CachedModel;
+import it.unicam.quasylab.sibilla.core.network.loaders.CompiledModel;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCache;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
+import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
+import it.unicam.quasylab.sibilla.core.network.slave.BasicSimulationServer;
+import it.unicam.quasylab.sibilla.core.network.slave.executor.SimulationExecutor;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SummaryStatisticSampling;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkSimulationManagerTest {
+
+    private static final int SIZE = 50;
+    private static final int REPLICAS = 200;
+    private static final int SAMPLES = 10;
+    private static final double DEADLINE = 1.0;
+
+    @Test
+    void deflatedSummariesShouldBeMergedAsTheLocalOnes() throws Exception {
+        assertSameSeries(simulateLocally(), simulateOnSlave(CompressionCodecType.DEFLATE));
+    }
+
+    @Test
+    void gzippedSummariesShouldBeMergedAsTheLocalOnes() throws Exception {
+        assertSameSeries(simulateLocally(), simulateOnSlave(CompressionCodecType.GZIP));
+    }
+
+    /*
+     * Simulates the model on a slave server that compresses its summaries with the given codec, while the
+     * master decompresses them with the same codec.
+     */
+    private static double[][] simulateOnSlave(CompressionCodecType codecType) throws Exception {
+        ModelSource source = new ModelSource("test", "network-" + codecType);
+        ModelCache.setCompiler(s -> new CompiledModel<>(getModel(), rg -> new PopulationState(new int[] { SIZE, 0 })));
+        NetworkInfo slave = startSlave(codecType);
+        NetworkInfo master = new NetworkInfo(InetAddress.getLoopbackAddress(), 0, TCPNetworkManagerType.DEFAULT);
+        SimulationState state = new SimulationState(new MasterState(master), master, master, Set.of(slave), null);
+        SamplingFunction<PopulationState> sampling = getSampling();
+        state.setSimulationDataSet(new SimulationDataSet<>(new DefaultRandomGenerator(), source, sampling, REPLICAS, DEADLINE));
+        CachedModel<PopulationState> model = new CachedModel<>(source.getHash());
+        SamplingFunction<PopulationState> empty = getSampling();
+        new SimulationEnvironment(NetworkSimulationManager.getNetworkSimulationManagerFactory(state,
+                SerializerType.APACHE, ComputationResultSerializerType.APACHE, codecType, master, empty)).simulate(
+                null, new DefaultRandomGenerator(1234),
+                (BiFunction<RandomGenerator, Function<RandomGenerator, PopulationState>, SimulatorCursor<PopulationState>> & Serializable) model::createSimulationCursor,
+                (Function<RandomGenerator, PopulationState> & Serializable) model::sampleInitialState,
+                (Supplier<SamplingHandler<PopulationState>> & Serializable) empty::getSamplingHandler,
+                REPLICAS, DEADLINE);
+        ModelCache.remove(source.getHash());
+        return sampling.getSimulationTimeSeries().get("B");
+    }
+
+    private static double[][] simulateLocally() throws InterruptedException {
+        PopulationModel model = getModel();
+        SamplingFunction<PopulationState> sampling = getSampling();
+        new SimulationEnvironment().simulate(null, new DefaultRandomGenerator(1234), model::createSimulationCursor,
+                rg -> new PopulationState(new int[] { SIZE, 0 }), sampling::getSamplingHandler, REPLICAS, DEADLINE);
+        return sampling.getSimulationTimeSeries().get("B");
+    }
+
+    private static void assertSameSeries(double[][] expected, double[][] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual[i], 1E-9);
+        }
+        assertTrue(expected[SAMPLES - 1][1] > 0);
+    }
+
+    private static SamplingFunction<PopulationState> getSampling() {
+        return SummaryStatisticSampling.measure("B", SAMPLES, DEADLINE, s -> s.getOccupancy(1));
+    }
+
+    private static PopulationModel getModel() {
+        return new PopulationModel(PopulationRegistry.createRegistry("A", "B"),
+                List.of(
+                        new ReactionRule("AtoB", new Population[] { new Population(0) }, new Population[] { new Population(1) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(0))),
+                        new ReactionRule("BtoA", new Population[] { new Population(1) }, new Population[] { new Population(0) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(1)))
+                ), new HashMap<>(), new HashMap<>());
+    }
+
+    private static NetworkInfo startSlave(CompressionCodecType codecType) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        BasicSimulationServer server = new BasicSimulationServer(TCPNetworkManagerType.DEFAULT,
+                SerializerType.APACHE, SimulationExecutor.ExecutorType.MULTITHREADED,
+                ComputationResultSerializerType.APACHE, codecType);
+        Thread thread = new Thread(() -> server.start(port));
+        thread.setDaemon(true);
+        thread.start();
+        NetworkInfo slave = new NetworkInfo(InetAddress.getLoopbackAddress(), port, TCPNetworkManagerType.DEFAULT);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                TCPNetworkManager.createNetworkManager(slave).closeConnection();
+                return slave;
+            } catch (ConnectException e) {
+                if (attempt == 100) {
+                    throw e;
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+}
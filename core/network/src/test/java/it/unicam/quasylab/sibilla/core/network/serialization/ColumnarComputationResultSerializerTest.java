@@ -0,0 +1,274 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.serialization;
+
+import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.ComputationResult;
+import it.unicam.quasylab.sibilla.core.network.compression.DeflateCodec;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Sample;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarComputationResultSerializerTest {
+
+    private static final DeflateCodec CODEC = new DeflateCodec();
+
+    private static final int[][] EXTREME_STATES = {
+            {0, 0, 0},
+            {Integer.MAX_VALUE, -1, 1_000_000},
+            {Integer.MIN_VALUE, Integer.MAX_VALUE, -1_000_000},
+            {-7, Integer.MIN_VALUE, 1_000_000},
+            {Integer.MAX_VALUE, 3, -1}
+    };
+
+    @Test
+    void vectorStatesShouldSurviveTheRoundTrip() throws IOException {
+        VectorModel model = new VectorModel(3, true);
+        ComputationResult<Vector> result = new ComputationResult<>(List.of(
+                trajectory(EXTREME_STATES, 0.0, true, 17),
+                trajectory(randomStates(200, 3, 1), -5.0, false, Long.MAX_VALUE),
+                trajectory(new int[0][], 1.0, true, 0)));
+        assertSameResults(result, roundTrip(result, model));
+    }
+
+    @Test
+    void byteArrayStatesShouldSurviveTheRoundTrip() throws IOException {
+        VectorModel model = new VectorModel(3, false);
+        ComputationResult<Vector> result = new ComputationResult<>(List.of(
+                trajectory(EXTREME_STATES, 0.0, true, 17),
+                trajectory(randomStates(200, 3, 2), 2.5, false, 42)));
+        assertSameResults(result, roundTrip(result, model));
+    }
+
+    @Test
+    void resultsLargerThanTheBufferShouldGrowIt() throws IOException {
+        VectorModel model = new VectorModel(4, true);
+        List<Trajectory<Vector>> trajectories = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            trajectories.add(trajectory(randomStates(2_000, 4, i), i, i % 2 == 0, i));
+        }
+        // a single trajectory exceeding twice the size of the grown buffer
+        trajectories.add(trajectory(randomStates(200_000, 4, 50), 0.0, true, 50));
+        ComputationResult<Vector> large = new ComputationResult<>(trajectories);
+        assertSameResults(large, roundTrip(large, model));
+        ComputationResult<Vector> small = new ComputationResult<>(List.of(trajectory(randomStates(10, 4, 51), 0.0, true, 1)));
+        assertSameResults(small, roundTrip(small, model));
+    }
+
+    @Test
+    void truncatedDataShouldBeRejected() throws IOException {
+        for (boolean columns : new boolean[]{true, false}) {
+            VectorModel model = new VectorModel(3, columns);
+            ComputationResult<Vector> result = new ComputationResult<>(List.of(
+                    trajectory(EXTREME_STATES, 0.0, true, 17),
+                    trajectory(randomStates(20, 3, 3), 1.0, false, 18)));
+            ByteBuffer serialized = ColumnarComputationResultSerializer.serialize(result, model);
+            byte[] data = new byte[serialized.remaining()];
+            serialized.get(data);
+            for (int length = 0; length < data.length; length++) {
+                byte[] truncated = Arrays.copyOf(data, length);
+                assertThrows(IOException.class, () -> ColumnarComputationResultSerializer.deserialize(truncated, model));
+            }
+            byte[] compressed = CODEC.compress(ByteBuffer.wrap(data));
+            for (int length = 0; length < compressed.length; length++) {
+                byte[] truncated = Arrays.copyOf(compressed, length);
+                assertThrows(IllegalArgumentException.class, () -> CODEC.decompress(truncated));
+            }
+        }
+    }
+
+    @Test
+    void compressedDataNotMatchingItsLengthShouldBeRejected() {
+        byte[] compressed = CODEC.compress(ByteBuffer.wrap(new byte[1000]));
+        ByteBuffer.wrap(compressed).putInt(1001);
+        assertThrows(IllegalArgumentException.class, () -> CODEC.decompress(compressed));
+        ByteBuffer.wrap(compressed).putInt(999);
+        assertThrows(IllegalArgumentException.class, () -> CODEC.decompress(compressed));
+        ByteBuffer.wrap(compressed).putInt(1000);
+        assertEquals(1000, CODEC.decompress(compressed).remaining());
+    }
+
+    private static ComputationResult<Vector> roundTrip(ComputationResult<Vector> result, VectorModel model)
+            throws IOException {
+        byte[] compressed = CODEC.compress(ColumnarComputationResultSerializer.serialize(result, model));
+        return ColumnarComputationResultSerializer.deserialize(CODEC.decompress(compressed), model);
+    }
+
+    private static void assertSameResults(ComputationResult<Vector> expected, ComputationResult<Vector> actual) {
+        assertEquals(expected.getResults().size(), actual.getResults().size());
+        for (int i = 0; i < expected.getResults().size(); i++) {
+            Trajectory<Vector> expectedTrajectory = expected.getResults().get(i);
+            Trajectory<Vector> actualTrajectory = actual.getResults().get(i);
+            assertEquals(expectedTrajectory.getData(), actualTrajectory.getData());
+            assertEquals(expectedTrajectory.getStart(), actualTrajectory.getStart());
+            assertEquals(expectedTrajectory.getEnd(), actualTrajectory.getEnd());
+            assertEquals(expectedTrajectory.isSuccessful(), actualTrajectory.isSuccessful());
+            assertEquals(expectedTrajectory.getGenerationTime(), actualTrajectory.getGenerationTime());
+        }
+    }
+
+    private static Trajectory<Vector> trajectory(int[][] states, double start, boolean successful, long generationTime) {
+        Trajectory<Vector> trajectory = new Trajectory<>();
+        trajectory.setStart(start);
+        double time = start;
+        for (int[] state : states) {
+            trajectory.addSample(new Sample<>(time, new Vector(state)));
+            time += 0.1;
+        }
+        trajectory.setEnd(time);
+        trajectory.setSuccessful(successful);
+        trajectory.setGenerationTime(generationTime);
+        return trajectory;
+    }
+
+    private static int[][] randomStates(int samples, int components, long seed) {
+        Random random = new Random(seed);
+        int[][] states = new int[samples][components];
+        for (int i = 0; i < samples; i++) {
+            for (int j = 0; j < components; j++) {
+                // mostly small steps with occasional large jumps in both directions
+                states[i][j] = (random.nextInt(10) == 0 ? random.nextInt() : states[Math.max(i - 1, 0)][j] + random.nextInt(7) - 3);
+            }
+        }
+        return states;
+    }
+
+    private static final class Vector implements State {
+
+        private final int[] values;
+
+        private Vector(int[] values) {
+            this.values = values.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof Vector) && Arrays.equals(values, ((Vector) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(values);
+        }
+    }
+
+    /**
+     * Model whose states are vectors of integers, serialized either by component or as arrays of bytes.
+     */
+    private static final class VectorModel implements Model<Vector> {
+
+        private final int size;
+        private final boolean columns;
+
+        private VectorModel(int size, boolean columns) {
+            this.size = size;
+            this.columns = columns;
+        }
+
+        @Override
+        public SimulatorCursor<Vector> createSimulationCursor(RandomGenerator r, Function<RandomGenerator, Vector> initialStateBuilder) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int stateByteArraySize() {
+            return size * Integer.BYTES;
+        }
+
+        @Override
+        public byte[] byteOf(Vector state) {
+            ByteBuffer buffer = ByteBuffer.allocate(stateByteArraySize());
+            buffer.asIntBuffer().put(state.values);
+            return buffer.array();
+        }
+
+        @Override
+        public Vector fromByte(byte[] bytes) {
+            int[] values = new int[size];
+            ByteBuffer.wrap(bytes).asIntBuffer().get(values);
+            return new Vector(values);
+        }
+
+        @Override
+        public int stateVectorSize() {
+            return (columns ? size : -1);
+        }
+
+        @Override
+        public int stateComponent(Vector state, int i) {
+            return state.values[i];
+        }
+
+        @Override
+        public Vector stateOf(int[] components) {
+            return new Vector(components);
+        }
+
+        @Override
+        public String[] measures() {
+            return new String[0];
+        }
+
+        @Override
+        public double measure(String m, Vector state) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Measure<? super Vector> getMeasure(String m) {
+            return null;
+        }
+
+        @Override
+        public Predicate<? super Vector> getPredicate(String name) {
+            return null;
+        }
+
+        @Override
+        public String[] predicates() {
+            return new String[0];
+        }
+    }
+
+}
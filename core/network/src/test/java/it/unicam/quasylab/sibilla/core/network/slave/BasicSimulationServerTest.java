@@ -0,0 +1,156 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.slave;
+
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType;
+import it.unicam.quasylab.sibilla.core.network.loaders.CompiledModel;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCache;
+import it.unicam.quasylab.sibilla.core.network.master.MasterCommand;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
+import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
+import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
+import it.unicam.quasylab.sibilla.core.network.slave.executor.SimulationExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BasicSimulationServerTest {
+
+    private static final Serializer SERIALIZER = Serializer.getSerializer(SerializerType.APACHE);
+
+    private static NetworkInfo slave;
+
+    @Test
+    void sourcesShouldBeCompiledOnlyWhenTheSlaveHasNotCachedThem() throws Exception {
+        AtomicInteger compilations = useCountingCompiler();
+        ModelSource source = new ModelSource("test", "slave", Map.of("lambda", 1.0), null);
+        assertEquals(SlaveCommand.INIT_RESPONSE, initSource(source, source));
+        assertEquals(SlaveCommand.MODEL_CACHED, initSource(source, source));
+        assertEquals(1, compilations.get());
+        ModelSource changed = new ModelSource("test", "slave", Map.of("lambda", 2.0), null);
+        assertEquals(SlaveCommand.INIT_RESPONSE, initSource(changed, changed));
+        assertEquals(2, compilations.get());
+        ModelCache.remove(source.getHash());
+        ModelCache.remove(changed.getHash());
+    }
+
+    @Test
+    void evictedSourcesShouldBeRequestedAndCompiledAgain() throws Exception {
+        AtomicInteger compilations = useCountingCompiler();
+        ModelSource source = new ModelSource("test", "evicted");
+        assertEquals(SlaveCommand.INIT_RESPONSE, initSource(source, source));
+        ModelCache.remove(source.getHash());
+        assertEquals(SlaveCommand.INIT_RESPONSE, initSource(source, source));
+        assertEquals(2, compilations.get());
+        assertTrue(ModelCache.contains(source.getHash()));
+        ModelCache.remove(source.getHash());
+    }
+
+    @Test
+    void sourcesNotMatchingTheirHashShouldBeRejected() throws Exception {
+        AtomicInteger compilations = useCountingCompiler();
+        ModelSource announced = new ModelSource("test", "announced");
+        ModelSource sent = new ModelSource("test", "sent");
+        assertEquals(SlaveCommand.MODEL_ERROR, initSource(announced, sent));
+        assertEquals(0, compilations.get());
+        assertFalse(ModelCache.contains(announced.getHash()));
+        assertFalse(ModelCache.contains(sent.getHash()));
+    }
+
+    @Test
+    void sourcesThatCannotBeCompiledShouldBeReported() throws Exception {
+        ModelCache.setCompiler(source -> {
+            throw new IllegalArgumentException("Syntax error");
+        });
+        ModelSource source = new ModelSource("test", "wrong");
+        assertEquals(SlaveCommand.MODEL_ERROR, initSource(source, source));
+        assertFalse(ModelCache.contains(source.getHash()));
+    }
+
+    /*
+     * Plays the master side of the INIT_SOURCE exchange: the hash of the announced source is sent and, if the
+     * slave requests it, the sent source follows. Returns the last answer of the slave.
+     */
+    private static SlaveCommand initSource(ModelSource announced, ModelSource sent) throws Exception {
+        TCPNetworkManager master = connect();
+        master.writeObject(SERIALIZER.serialize(MasterCommand.INIT_SOURCE));
+        master.writeObject(SERIALIZER.serialize(announced.getHash()));
+        SlaveCommand answer = (SlaveCommand) SERIALIZER.deserialize(master.readObject());
+        if (answer == SlaveCommand.MODEL_REQUEST) {
+            master.writeObject(SERIALIZER.serialize(sent));
+            answer = (SlaveCommand) SERIALIZER.deserialize(master.readObject());
+        }
+        master.writeObject(SERIALIZER.serialize(MasterCommand.CLOSE_CONNECTION));
+        master.writeObject(SERIALIZER.serialize(announced.getHash()));
+        assertEquals(SlaveCommand.CLOSE_CONNECTION, SERIALIZER.deserialize(master.readObject()));
+        master.closeConnection();
+        return answer;
+    }
+
+    private static synchronized TCPNetworkManager connect() throws Exception {
+        if (slave == null) {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            BasicSimulationServer server = new BasicSimulationServer(TCPNetworkManagerType.DEFAULT,
+                    SerializerType.APACHE, SimulationExecutor.ExecutorType.SEQUENTIAL,
+                    ComputationResultSerializerType.CUSTOM);
+            Thread thread = new Thread(() -> server.start(port));
+            thread.setDaemon(true);
+            thread.start();
+            slave = new NetworkInfo(InetAddress.getLoopbackAddress(), port, TCPNetworkManagerType.DEFAULT);
+        }
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return TCPNetworkManager.createNetworkManager(slave);
+            } catch (ConnectException e) {
+                if (attempt == 100) {
+                    throw e;
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private static AtomicInteger useCountingCompiler() {
+        AtomicInteger compilations = new AtomicInteger();
+        ModelCache.setCompiler(source -> {
+            compilations.incrementAndGet();
+            return new CompiledModel<>(null, rg -> null);
+        });
+        return compilations;
+    }
+
+}
@@ -33,6 +33,7 @@ dependencies {
 
     implementation(project(":core:simulator"))
     implementation(project(":core:optimization"))
+    implementation(project(":core:network"))
     implementation(project(":langs:pm"))
     implementation(project(":langs:lio"))
     implementation(project(":langs:dopm"))
@@ -23,10 +23,15 @@
 
 package it.unicam.quasylab.sibilla.core.runtime;
 
+import it.unicam.quasylab.sibilla.core.simulator.SimulationCampaign;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTimeResults;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.StatisticsType;
+import it.unicam.quasylab.sibilla.core.simulator.smc.EstimationMethod;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ProbabilityEstimate;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ThresholdTestResult;
 import it.unicam.quasylab.sibilla.core.util.SimulationData;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
@@ -40,7 +45,7 @@ import java.util.TreeSet;
 public abstract class AbstractSibillaModule implements SibillaModule {
 
     private Set<String> enabledMeasures = new TreeSet<>();
-    private boolean summary = true;
+    private StatisticsType statistics = StatisticsType.SUMMARY;
     private final SimulationEnvironment simulator = new SimulationEnvironment();
 
     private Configuration currentConfiguration;
@@ -105,7 +110,12 @@ public abstract class AbstractSibillaModule implements SibillaModule {
 
     @Override
     public Map<String, double[][]> simulate(SimulationMonitor monitor, RandomGenerator rg, long replica, double deadline, double dt) {
-        return checkForLoadedDefinition().simulate(this.simulator, monitor, rg, replica, deadline, dt, this.enabledMeasures.toArray(new String[0]),summary);
+        return checkForLoadedDefinition().simulate(this.simulator, monitor, rg, replica, deadline, dt, this.enabledMeasures.toArray(new String[0]),statistics);
+    }
+
+    @Override
+    public Map<String, double[][]> simulate(SimulationMonitor monitor, RandomGenerator rg, long replica, double deadline, double dt, SimulationCampaign campaign) {
+        return checkForLoadedDefinition().simulate(this.simulator, monitor, rg, replica, deadline, dt, this.enabledMeasures.toArray(new String[0]),statistics, campaign);
     }
 
     @Override
@@ -123,6 +133,16 @@ public abstract class AbstractSibillaModule implements SibillaModule {
         return checkForLoadedDefinition().estimateReachability(simulator, monitor, rg, transientCondition, targetCondition, time, pError, delta);
     }
 
+    @Override
+    public ProbabilityEstimate estimateReachability(SimulationMonitor monitor, RandomGenerator rg, String transientCondition, String targetCondition, double time, EstimationMethod method, double pError, double delta) {
+        return checkForLoadedDefinition().estimateReachability(simulator, monitor, rg, transientCondition, targetCondition, time, method, pError, delta);
+    }
+
+    @Override
+    public ThresholdTestResult testReachability(SimulationMonitor monitor, RandomGenerator rg, String transientCondition, String targetCondition, double time, double theta, double alpha, double beta, double delta) {
+        return checkForLoadedDefinition().testReachability(simulator, monitor, rg, transientCondition, targetCondition, time, theta, alpha, beta, delta);
+    }
+
     @Override
     public void setSimulationManagerFactory(SimulationManagerFactory factory) {
         this.simulator.setSimulationManagerFactory(factory);
@@ -204,12 +224,22 @@ public abstract class AbstractSibillaModule implements SibillaModule {
 
     @Override
     public void setSummaryStatistics(boolean summary) {
-        this.summary = summary;
+        this.statistics = (summary ? StatisticsType.SUMMARY : StatisticsType.DESCRIPTIVE);
     }
 
     @Override
     public boolean isSummaryStatistics() {
-        return summary;
+        return statistics == StatisticsType.SUMMARY;
+    }
+
+    @Override
+    public void setStatistics(StatisticsType statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public StatisticsType getStatistics() {
+        return statistics;
     }
 
 }
\ No newline at end of file
@@ -27,12 +27,17 @@ import it.unicam.quasylab.sibilla.core.models.Model;
 import it.unicam.quasylab.sibilla.core.models.ModelDefinition;
 import it.unicam.quasylab.sibilla.core.models.ParametricDataSet;
 import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationCampaign;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
 import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTime;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTimeResults;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.StatisticsType;
+import it.unicam.quasylab.sibilla.core.simulator.smc.EstimationMethod;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ProbabilityEstimate;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ThresholdTestResult;
 import it.unicam.quasylab.sibilla.core.util.BooleanSignal;
 import it.unicam.quasylab.sibilla.core.util.SimulationData;
 import it.unicam.quasylab.sibilla.core.util.Signal;
@@ -68,6 +73,14 @@ public class ModuleEngine<S extends State> {
         this.states = null;
     }
 
+    /**
+     * Discards the model currently in use so that a new one is generated from the model definition the
+     * next time it is needed. The selected configuration is preserved.
+     */
+    protected void clearModel() {
+        this.currentModel = null;
+    }
+
     public void setParameter(String name, SibillaValue value) {
         this.modelDefinition.setParameter(name, value);
         clear();
@@ -98,6 +111,28 @@ public class ModuleEngine<S extends State> {
         }
     }
 
+    /**
+     * Returns the model obtained from the current definition.
+     *
+     * @return the model obtained from the current definition.
+     */
+    public Model<S> getModel() {
+        loadModel();
+        return currentModel;
+    }
+
+    /**
+     * Returns the function used to sample the initial state of the model. This is the selected configuration or,
+     * when no configuration has been selected, the default one.
+     *
+     * @return the function used to sample the initial state of the model.
+     */
+    public Function<RandomGenerator, S> getInitialConfiguration() {
+        loadModel();
+        setDefaultConfiguration();
+        return state;
+    }
+
     public String[] getPredicates() {
         loadModel();
         return currentModel.predicates();
@@ -150,11 +185,53 @@ public class ModuleEngine<S extends State> {
                                             double dt,
                                             String[] measures,
                                             boolean summary) {
+        return simulate(simulationEnvironment, monitor, rg, replica, deadline, dt, measures, summary ? StatisticsType.SUMMARY : StatisticsType.DESCRIPTIVE);
+    }
+
+    public Map<String, double[][]> simulate(SimulationEnvironment simulationEnvironment,
+                                            SimulationMonitor monitor,
+                                            RandomGenerator rg,
+                                            long replica,
+                                            double deadline,
+                                            double dt,
+                                            String[] measures,
+                                            StatisticsType statistics) {
+        return simulate(simulationEnvironment, monitor, rg, replica, deadline, dt, measures, statistics, null);
+    }
+
+    /**
+     * Simulates the model and collects the given measures. When a campaign is given, the replicas already
+     * stored in its checkpoint are not simulated again and a new checkpoint is periodically stored.
+     *
+     * @param simulationEnvironment environment used to simulate the model.
+     * @param monitor monitor used to control simulation.
+     * @param rg random generator used in the simulation.
+     * @param replica total number of replicas.
+     * @param deadline simulation deadline.
+     * @param dt sampling interval.
+     * @param measures collected measures.
+     * @param statistics statistics used to summarise the collected measures.
+     * @param campaign simulation campaign, null if no checkpoint is stored.
+     * @return the collected time series.
+     */
+    public Map<String, double[][]> simulate(SimulationEnvironment simulationEnvironment,
+                                            SimulationMonitor monitor,
+                                            RandomGenerator rg,
+                                            long replica,
+                                            double deadline,
+                                            double dt,
+                                            String[] measures,
+                                            StatisticsType statistics,
+                                            SimulationCampaign campaign) {
         loadModel();
         setDefaultConfiguration();
-        SamplingFunction<S> samplingFunction = currentModel.selectSamplingFunction(summary, deadline, dt, measures);
+        SamplingFunction<S> samplingFunction = currentModel.selectSamplingFunction(statistics, deadline, dt, measures);
         try {
-            simulationEnvironment.simulate(monitor, rg, currentModel, state, samplingFunction::getSamplingHandler, replica, deadline);
+            if (campaign == null) {
+                simulationEnvironment.simulate(monitor, rg, currentModel, state, samplingFunction::getSamplingHandler, replica, deadline);
+            } else {
+                simulationEnvironment.simulate(monitor, rg, currentModel, state, samplingFunction::getSamplingHandler, samplingFunction, replica, deadline, campaign);
+            }
             return samplingFunction.getSimulationTimeSeries();
         } catch (InterruptedException e) {
             throw new IllegalStateException(e);
@@ -190,14 +267,8 @@ public class ModuleEngine<S extends State> {
                                        double time,
                                        double pError,
                                        double delta) {
-        loadModel();
-        setDefaultConfiguration();
-        Predicate<? super S> targetPredicate = currentModel.getPredicate(targetName);
-        try {
-            return simulationEnvironment.reachability(monitor, rg, pError,delta,time, currentModel, state, s -> true, targetPredicate::test);
-        } catch (InterruptedException e) {
-            throw new IllegalStateException(e.getMessage());
-        }
+        return estimateReachability(simulationEnvironment, monitor, rg, null, targetName, time,
+                EstimationMethod.CLOPPER_PEARSON, pError, delta).getProbability();
     }
 
     public double estimateReachability(SimulationEnvironment simulationEnvironment,
@@ -208,17 +279,95 @@ public class ModuleEngine<S extends State> {
                                        double time,
                                        double pError,
                                        double delta) {
+        return estimateReachability(simulationEnvironment, monitor, rg, transientCondition, targetCondition, time,
+                EstimationMethod.CLOPPER_PEARSON, pError, delta).getProbability();
+    }
+
+    /**
+     * Estimates the probability to reach a state satisfying the target condition within the given time, while
+     * traversing only states satisfying the transient condition. Simulation runs stop as soon as the requested
+     * precision is reached.
+     *
+     * @param simulationEnvironment environment used to simulate the model.
+     * @param monitor monitor used to control simulation.
+     * @param rg random generator used in the simulation.
+     * @param transientCondition name of the condition satisfied by the traversed states, null if any state can be traversed.
+     * @param targetCondition name of the condition satisfied by the target states.
+     * @param time reaching time.
+     * @param method method used to compute the estimate.
+     * @param pError error probability.
+     * @param delta estimation error.
+     * @return the estimated probability together with its confidence interval.
+     */
+    public ProbabilityEstimate estimateReachability(SimulationEnvironment simulationEnvironment,
+                                                    SimulationMonitor monitor,
+                                                    RandomGenerator rg,
+                                                    String transientCondition,
+                                                    String targetCondition,
+                                                    double time,
+                                                    EstimationMethod method,
+                                                    double pError,
+                                                    double delta) {
         loadModel();
         setDefaultConfiguration();
-        Predicate<? super S> transientPredicate = currentModel.getPredicate(transientCondition);
-        Predicate<? super S> targetPredicate = currentModel.getPredicate(targetCondition);
+        Predicate<? super S> transientPredicate = getReachabilityPredicate(transientCondition);
+        Predicate<? super S> targetPredicate = getReachabilityPredicate(targetCondition);
         try {
-            return simulationEnvironment.reachability(monitor, rg, pError,delta,time, currentModel, state, transientPredicate::test, targetPredicate::test);
+            return simulationEnvironment.estimateReachability(monitor, rg, method, pError, delta, time, currentModel, state, transientPredicate::test, targetPredicate::test);
         } catch (InterruptedException e) {
             throw new IllegalStateException(e.getMessage());
         }
     }
 
+    /**
+     * Checks, via a sequential probability ratio test, if the probability to reach a state satisfying the
+     * target condition within the given time, while traversing only states satisfying the transient condition,
+     * is at least the given threshold.
+     *
+     * @param simulationEnvironment environment used to simulate the model.
+     * @param monitor monitor used to control simulation.
+     * @param rg random generator used in the simulation.
+     * @param transientCondition name of the condition satisfied by the traversed states, null if any state can be traversed.
+     * @param targetCondition name of the condition satisfied by the target states.
+     * @param time reaching time.
+     * @param theta probability threshold.
+     * @param alpha probability to wrongly reject that the probability is at least the threshold.
+     * @param beta probability to wrongly accept that the probability is at least the threshold.
+     * @param delta half width of the indifference region around the threshold.
+     * @return the outcome of the test.
+     */
+    public ThresholdTestResult testReachability(SimulationEnvironment simulationEnvironment,
+                                                SimulationMonitor monitor,
+                                                RandomGenerator rg,
+                                                String transientCondition,
+                                                String targetCondition,
+                                                double time,
+                                                double theta,
+                                                double alpha,
+                                                double beta,
+                                                double delta) {
+        loadModel();
+        setDefaultConfiguration();
+        Predicate<? super S> transientPredicate = getReachabilityPredicate(transientCondition);
+        Predicate<? super S> targetPredicate = getReachabilityPredicate(targetCondition);
+        try {
+            return simulationEnvironment.testReachability(monitor, rg, theta, delta, alpha, beta, time, currentModel, state, transientPredicate::test, targetPredicate::test);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    private Predicate<? super S> getReachabilityPredicate(String name) {
+        if (name == null) {
+            return s -> true;
+        }
+        Predicate<? super S> predicate = currentModel.getPredicate(name);
+        if (predicate == null) {
+            throw new IllegalStateException("Predicate "+name+" is unknown!");
+        }
+        return predicate;
+    }
+
 
     public Map<String, SibillaValue> getEnvironment() {
         return modelDefinition.getEnvironment().getParameterMap();
@@ -23,13 +23,17 @@
 
 package it.unicam.quasylab.sibilla.core.runtime;
 
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationModelDefinition;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationSimulationMode;
 import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.models.pm.TauLeapingSimulationCursor;
 import it.unicam.quasylab.sibilla.langs.pm.ModelBuildingError;
 import it.unicam.quasylab.sibilla.langs.pm.ModelGenerationException;
 import it.unicam.quasylab.sibilla.langs.pm.PopulationModelGenerator;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.stream.Collectors;
 
 
@@ -39,6 +43,12 @@ public class PopulationModelModule extends AbstractSibillaModule {
 
     private ModuleEngine<PopulationState> moduleEngine;
 
+    private PopulationModelDefinition definition;
+
+    private PopulationSimulationMode mode = PopulationSimulationMode.DIRECT;
+
+    private double tauLeapingTolerance = TauLeapingSimulationCursor.DEFAULT_TOLERANCE;
+
     @Override
     public String getModuleName() {
         return MODULE_NAME;
@@ -65,7 +75,10 @@ public class PopulationModelModule extends AbstractSibillaModule {
     }
 
     private void generateModuleEngine(PopulationModelGenerator pmg) throws ModelGenerationException {
-        this.moduleEngine = new ModuleEngine<>(pmg.getPopulationModelDefinition());
+        this.definition = pmg.getPopulationModelDefinition();
+        this.definition.setSimulationMode(mode);
+        this.definition.setTauLeapingTolerance(tauLeapingTolerance);
+        this.moduleEngine = new ModuleEngine<>(definition);
     }
 
     @Override
@@ -74,6 +87,53 @@ public class PopulationModelModule extends AbstractSibillaModule {
         return null;
     }
 
+    @Override
+    public String[] getModes() {
+        return Arrays.stream(PopulationSimulationMode.values()).map(Enum::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public void setMode(String name) {
+        this.mode = PopulationSimulationMode.valueOf(name);
+        if (this.definition != null) {
+            this.definition.setSimulationMode(this.mode);
+            this.moduleEngine.clearModel();
+        }
+    }
+
+    @Override
+    public String getMode() {
+        return this.mode.name();
+    }
+
+    /**
+     * Sets the tolerance used to select the leap length when the module is in <code>TAU_LEAPING</code> mode.
+     *
+     * @param tolerance bound on the relative change of propensities in a leap.
+     * @throws CommandExecutionException if the tolerance is not in (0,1).
+     */
+    @Override
+    public void setTauLeapingTolerance(double tolerance) throws CommandExecutionException {
+        if (!(tolerance > 0)||(tolerance >= 1)) {
+            throw new CommandExecutionException("Tau-leaping tolerance must be in (0,1)!");
+        }
+        this.tauLeapingTolerance = tolerance;
+        if (this.definition != null) {
+            this.definition.setTauLeapingTolerance(tolerance);
+            this.moduleEngine.clearModel();
+        }
+    }
+
+    /**
+     * Returns the tolerance used to select the leap length in <code>TAU_LEAPING</code> mode.
+     *
+     * @return the tolerance used to select the leap length in tau-leaping mode.
+     */
+    @Override
+    public double getTauLeapingTolerance() {
+        return tauLeapingTolerance;
+    }
+
     @Override
     protected ModuleEngine<?> getModuleEngine() {
         return moduleEngine;
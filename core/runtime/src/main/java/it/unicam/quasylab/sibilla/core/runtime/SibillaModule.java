@@ -23,10 +23,15 @@
 
 package it.unicam.quasylab.sibilla.core.runtime;
 
+import it.unicam.quasylab.sibilla.core.simulator.SimulationCampaign;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTimeResults;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SimulationTimeSeries;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.StatisticsType;
+import it.unicam.quasylab.sibilla.core.simulator.smc.EstimationMethod;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ProbabilityEstimate;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ThresholdTestResult;
 import it.unicam.quasylab.sibilla.core.util.SimulationData;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 import org.apache.commons.math3.random.RandomGenerator;
@@ -208,6 +213,20 @@ public interface SibillaModule {
      */
     Map<String, double[][]> simulate(SimulationMonitor monitor, RandomGenerator rg, long replica, double deadline, double dt);
 
+    /**
+     * Execute a simulation task that resumes, or extends, the given simulation campaign. Only the replicas
+     * that are not stored in the last checkpoint of the campaign are simulated.
+     *
+     * @param monitor simulation monitor.
+     * @param rg random generator used when the campaign starts from scratch.
+     * @param replica total number of simulation runs of the campaign.
+     * @param deadline simulation deadline.
+     * @param dt sampling interval.
+     * @param campaign simulation campaign.
+     * @return the collected time series.
+     */
+    Map<String, double[][]> simulate(SimulationMonitor monitor, RandomGenerator rg, long replica, double deadline, double dt, SimulationCampaign campaign);
+
 
     /**
      * Estimates the first passage time to the given predicate.
@@ -248,6 +267,26 @@ public interface SibillaModule {
         return null;
     }
 
+    /**
+     * Set the tolerance used to select the leap length when models are simulated by tau-leaping.
+     *
+     * @param tolerance bound on the relative change of propensities in a leap.
+     * @throws CommandExecutionException if the module does not support tau-leaping or the tolerance is not valid.
+     */
+    default void setTauLeapingTolerance(double tolerance) throws CommandExecutionException {
+        throw new CommandExecutionException("Command not supported");
+    }
+
+    /**
+     * Return the tolerance used to select the leap length when models are simulated by tau-leaping.
+     *
+     * @return the tolerance used to select the leap length.
+     * @throws CommandExecutionException if the module does not support tau-leaping.
+     */
+    default double getTauLeapingTolerance() throws CommandExecutionException {
+        throw new CommandExecutionException("Command not supported");
+    }
+
 
     /**
      * Return true if the given measure is enabled.
@@ -276,6 +315,22 @@ public interface SibillaModule {
      */
     boolean isSummaryStatistics();
 
+    /**
+     * Set the kind of statistics of collected data. Besides summary and descriptive statistics, quantile
+     * statistics can be used: these report the same values of descriptive ones, but quantiles are estimated
+     * in a fixed amount of memory.
+     *
+     * @param statistics the kind of statistics of collected data.
+     */
+    void setStatistics(StatisticsType statistics);
+
+    /**
+     * Return the kind of statistics of collected data.
+     *
+     * @return the kind of statistics of collected data.
+     */
+    StatisticsType getStatistics();
+
     /**
      * Estimate the probability to reach a state satisfying the target condition within time units. A statistical
      * model checking algorithm is used that guarantees that the difference between the obtained result and
@@ -305,6 +360,37 @@ public interface SibillaModule {
      */
     double estimateReachability(SimulationMonitor monitor, RandomGenerator rg, String transientCondition, String targetCondition, double time, double pError, double delta);
 
+    /**
+     * Estimate the probability to reach a state satisfying the target condition within time units while only state
+     * satisfying the transientCondition are traversed. Simulation runs stop as soon as the difference between the
+     * obtained result and the exact one is at most delta with a probability that is at least 1-p_error.
+     *
+     * @param transientCondition name of the condition satisfied by the traversed states, null if any state can be traversed.
+     * @param targetCondition name of the condition representing the target state.
+     * @param time reaching time.
+     * @param method method used to compute the estimate.
+     * @param pError error probability.
+     * @param delta estimation error.
+     * @return the estimated probability together with its confidence interval.
+     */
+    ProbabilityEstimate estimateReachability(SimulationMonitor monitor, RandomGenerator rg, String transientCondition, String targetCondition, double time, EstimationMethod method, double pError, double delta);
+
+    /**
+     * Check, via a sequential probability ratio test, if the probability to reach a state satisfying the target
+     * condition within time units, while only states satisfying the transientCondition are traversed, is at least
+     * theta. Probabilities in the indifference region [theta-delta, theta+delta] may be classified either way.
+     *
+     * @param transientCondition name of the condition satisfied by the traversed states, null if any state can be traversed.
+     * @param targetCondition name of the condition representing the target state.
+     * @param time reaching time.
+     * @param theta probability threshold.
+     * @param alpha probability to wrongly reject that the probability is at least theta.
+     * @param beta probability to wrongly accept that the probability is at least theta.
+     * @param delta half width of the indifference region.
+     * @return the outcome of the test.
+     */
+    ThresholdTestResult testReachability(SimulationMonitor monitor, RandomGenerator rg, String transientCondition, String targetCondition, double time, double theta, double alpha, double beta, double delta);
+
 
     /**
      * Load a set of formulas from the given file.
@@ -0,0 +1,70 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.runtime;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
+import it.unicam.quasylab.sibilla.core.network.loaders.CompiledModel;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCompiler;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Compiles the {@link ModelSource}s received by network servers with the modules of the Sibilla runtime.
+ * A new module is used for each compilation, so that different sources can be compiled concurrently.
+ */
+public class SibillaModuleCompiler implements ModelCompiler {
+
+    private static final Map<String, Supplier<AbstractSibillaModule>> MODULES = Map.of(
+            PopulationModelModule.MODULE_NAME, PopulationModelModule::new,
+            LIOModelModule.MODULE_NAME, LIOModelModule::new,
+            YodaModelModule.MODULE_NAME, YodaModelModule::new,
+            DataOrientedPopulationModelModule.MODULE_NAME, DataOrientedPopulationModelModule::new,
+            ENBAModule.MODULE_NAME, ENBAModule::new
+    );
+
+    @Override
+    public CompiledModel<?> compile(ModelSource source) {
+        Supplier<AbstractSibillaModule> moduleSupplier = MODULES.get(source.getModuleName());
+        if (moduleSupplier == null) {
+            throw new IllegalArgumentException(String.format("Unknown module %s", source.getModuleName()));
+        }
+        AbstractSibillaModule module = moduleSupplier.get();
+        try {
+            module.load(source.getCode());
+        } catch (CommandExecutionException e) {
+            throw new IllegalArgumentException(String.join("\n", e.getErrorMessages()), e);
+        }
+        source.getParameters().forEach(module::setParameter);
+        if (source.getConfigurationName() != null) {
+            module.setConfiguration(source.getConfigurationName(), source.getConfigurationArgs());
+        }
+        return compile(module.getModuleEngine());
+    }
+
+    private <S extends State> CompiledModel<S> compile(ModuleEngine<S> engine) {
+        return new CompiledModel<>(engine.getModel(), engine.getInitialConfiguration());
+    }
+}
@@ -23,10 +23,23 @@
 
 package it.unicam.quasylab.sibilla.core.runtime;
 
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.client.ClientSimulationEnvironment;
+import it.unicam.quasylab.sibilla.core.network.loaders.CachedModel;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCache;
+import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
 import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationCampaign;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTimeResults;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.StatisticsType;
+import it.unicam.quasylab.sibilla.core.simulator.smc.EstimationMethod;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ProbabilityEstimate;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ThresholdTestResult;
 import it.unicam.quasylab.sibilla.core.util.SimulationData;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 import org.apache.commons.math3.random.RandomGenerator;
@@ -35,13 +48,21 @@ import tech.tablesaw.api.Table;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 
 public final class SibillaRuntime {
 
@@ -55,6 +76,9 @@ public final class SibillaRuntime {
     private long replica = 1;
     private double deadline = Double.NaN;
     private double dt = Double.NaN;
+    private String checkpointFolder = null;
+    private long checkpointInterval = SimulationCampaign.DEFAULT_INTERVAL;
+    private String source = null;
 
     public SibillaRuntime() {
         initModules();
@@ -90,6 +114,7 @@ public final class SibillaRuntime {
         }
         this.currentModule.clear();
         this.currentModule = module;
+        this.source = null;
     }
 
     /**
@@ -99,6 +124,7 @@ public final class SibillaRuntime {
      */
     public void load(File file) throws CommandExecutionException {
         currentModule.load(file);
+        this.source = readSource(file);
     }
 
     /**
@@ -108,7 +134,7 @@ public final class SibillaRuntime {
      * @throws CommandExecutionException
      */
     public void loadFromFile(String fileName) throws CommandExecutionException {
-        currentModule.load(new File(fileName));
+        load(new File(fileName));
     }
 
     /**
@@ -118,6 +144,15 @@ public final class SibillaRuntime {
      */
     public void load(String code) throws CommandExecutionException {
         currentModule.load(code);
+        this.source = code;
+    }
+
+    private static String readSource(File file) throws CommandExecutionException {
+        try {
+            return Files.readString(file.toPath());
+        } catch (IOException e) {
+            throw new CommandExecutionException(e.getMessage());
+        }
     }
 
     /**
@@ -289,13 +324,98 @@ public final class SibillaRuntime {
     public Map<String, double[][]> simulate(SimulationMonitor monitor, String label) throws CommandExecutionException {
         checkDeadline();
         checkDt();
-        lastSimulation = currentModule.simulate(monitor,rg,replica,deadline,dt);
+        if ((label != null)&&(checkpointFolder != null)) {
+            lastSimulation = simulateCampaign(monitor, label);
+        } else {
+            lastSimulation = currentModule.simulate(monitor,rg,replica,deadline,dt);
+        }
         if (label != null) {
             simulations.put(label, lastSimulation);
         }
         return lastSimulation;
     }
 
+    /*
+     * Runs the simulation campaign associated with the given label. Replicas stored in the checkpoint of the
+     * campaign are not simulated again, hence replicas are added to the campaign when the number of replications
+     * has been increased.
+     */
+    private Map<String, double[][]> simulateCampaign(SimulationMonitor monitor, String label) throws CommandExecutionException {
+        SimulationCampaign campaign = new SimulationCampaign(Paths.get(checkpointFolder, label + ".ckpt"), getCampaignKey(), checkpointInterval);
+        try {
+            return currentModule.simulate(monitor, rg, replica, deadline, dt, campaign);
+        } catch (UncheckedIOException e) {
+            throw new CommandExecutionException(e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Returns the key identifying the campaigns of the current simulation setting. The key contains the module,
+     * a hash of the loaded source, the values of the parameters, the initial configuration, the enabled measures,
+     * the statistics, the deadline and the sampling interval, so that a checkpoint is never extended with
+     * replicas of a different model.
+     *
+     * @return the key identifying the campaigns of the current simulation setting.
+     */
+    String getCampaignKey() {
+        String measures = Arrays.stream(currentModule.getMeasures()).filter(currentModule::isEnabledMeasure).sorted()
+                .collect(Collectors.joining(","));
+        String parameters = Arrays.stream(currentModule.getParameters()).sorted()
+                .map(p -> p + "=" + currentModule.getParameter(p))
+                .collect(Collectors.joining(","));
+        Configuration configuration = currentModule.getCurrentConfiguration();
+        String initial = (configuration == null ? "" : configuration.name() + Arrays.toString(configuration.args()));
+        return String.format("%s;%s;%s;%s;%s;%s;%s;%s", currentModule.getModuleName(), sourceHash(), parameters,
+                initial, measures, getStatistics(), deadline, dt);
+    }
+
+    private String sourceHash() {
+        if (source == null) {
+            return "";
+        }
+        try {
+            StringBuilder result = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8))) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Set the folder where checkpoints of labelled simulations are stored. A labelled simulation resumes, or
+     * extends, the campaign stored in the checkpoint with the same label. Checkpoints are disabled when the
+     * folder is null.
+     *
+     * @param checkpointFolder checkpoint folder.
+     */
+    public void setCheckpointFolder(String checkpointFolder) {
+        this.checkpointFolder = checkpointFolder;
+    }
+
+    public String getCheckpointFolder() {
+        return checkpointFolder;
+    }
+
+    /**
+     * Set the number of replicas between two consecutive checkpoints.
+     *
+     * @param checkpointInterval number of replicas between two consecutive checkpoints.
+     * @throws CommandExecutionException when the interval is a non positive value.
+     */
+    public void setCheckpointInterval(long checkpointInterval) throws CommandExecutionException {
+        if (checkpointInterval <= 0) {
+            throw new CommandExecutionException("Checkpoint interval must be a positive value!");
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
     /**
      * Use descriptive statistics.
      */
@@ -310,13 +430,21 @@ public final class SibillaRuntime {
         this.currentModule.setSummaryStatistics(true);
     }
 
+    /**
+     * Use quantile statistics: min, quartiles, mean and max are reported as for descriptive statistics, but
+     * quantiles are estimated in bounded memory.
+     */
+    public void useQuantileStatistics() {
+        this.currentModule.setStatistics(StatisticsType.QUANTILE);
+    }
+
     /**
      * Return true if a descriptive statistics is used.
      *
      * @return true if a descriptive statistics is used.
      */
     public boolean isDescriptiveStatistics() {
-        return !this.currentModule.isSummaryStatistics();
+        return this.currentModule.getStatistics() == StatisticsType.DESCRIPTIVE;
     }
 
     /**
@@ -328,16 +456,28 @@ public final class SibillaRuntime {
         return this.currentModule.isSummaryStatistics();
     }
 
+    /**
+     * Return true if a quantile statistics is used.
+     *
+     * @return true if a quantile statistics is used.
+     */
+    public boolean isQuantileStatistics() {
+        return this.currentModule.getStatistics() == StatisticsType.QUANTILE;
+    }
+
     /**
      * Return a string that describes the kind of used statistics.
      *
      * @return a string that describes the kind of used statistics.
      */
     public String getStatistics() {
-       if (this.currentModule.isSummaryStatistics()) {
-           return "summary";
-       } else {
-           return "descriptive";
+       switch (this.currentModule.getStatistics()) {
+           case DESCRIPTIVE:
+               return "descriptive";
+           case QUANTILE:
+               return "quantile";
+           default:
+               return "summary";
        }
     }
 
@@ -349,6 +489,65 @@ public final class SibillaRuntime {
         return simulate(null,label);
     }
 
+    /**
+     * Run a simulation on the servers managed by the given master and save results with the given label.
+     * The master and its slaves receive the source of the loaded model, that is compiled by each server
+     * only once, together with the values of the parameters and the selected initial configuration.
+     *
+     * @param master the master server that distributes the simulation.
+     * @param label the label of the results, or null if results are not saved.
+     * @return the collected time series.
+     * @throws CommandExecutionException if the model cannot be compiled or no result is received by the master.
+     */
+    public Map<String, double[][]> simulate(NetworkInfo master, String label) throws CommandExecutionException {
+        checkDeadline();
+        checkDt();
+        checkReplica();
+        ModelSource modelSource = getModelSource();
+        try {
+            // results received by the master are read through the model compiled locally
+            ModelCache.load(modelSource);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new CommandExecutionException(e.getMessage());
+        }
+        String[] measures = Arrays.stream(currentModule.getMeasures()).filter(currentModule::isEnabledMeasure)
+                .toArray(String[]::new);
+        SamplingFunction<State> samplingFunction = new CachedModel<State>(modelSource.getHash())
+                .getSamplingFunction(currentModule.getStatistics(), deadline, dt, measures);
+        ClientSimulationEnvironment<State> client = new ClientSimulationEnvironment<>(rg, modelSource,
+                samplingFunction, (int) replica, deadline, master, SerializerType.FST, 1);
+        if (client.getResults() == null) {
+            throw new CommandExecutionException(String.format("No result has been received by the master %s", master));
+        }
+        lastSimulation = client.getResults().getSimulationTimeSeries();
+        if (label != null) {
+            simulations.put(label, lastSimulation);
+        }
+        return lastSimulation;
+    }
+
+    /**
+     * Returns the source of the loaded model together with the current values of the parameters and the
+     * selected initial configuration.
+     *
+     * @return the source of the loaded model.
+     * @throws CommandExecutionException if no model has been loaded from a source.
+     */
+    public ModelSource getModelSource() throws CommandExecutionException {
+        checkLoadedModule();
+        if (source == null) {
+            throw new CommandExecutionException("No model has been loaded!");
+        }
+        Map<String, Double> parameters = Arrays.stream(currentModule.getParameters())
+                .collect(Collectors.toMap(p -> p, currentModule::getParameter));
+        Configuration configuration = currentModule.getCurrentConfiguration();
+        if (configuration == null) {
+            return new ModelSource(currentModule.getModuleName(), source, parameters, null);
+        }
+        return new ModelSource(currentModule.getModuleName(), source, parameters, configuration.name(),
+                configuration.args());
+    }
+
     private void checkDt() throws CommandExecutionException {
         if (Double.isNaN(dt)) {
             throw new CommandExecutionException("No sampling time has been set!");
@@ -408,15 +607,20 @@ public final class SibillaRuntime {
      * @return the module modes.
      */
     public String[] getModes() {
-        return currentModule.getModes();
+        return (currentModule == null ? new String[0] : currentModule.getModes());
     }
 
     /**
      * Set module mode.
      *
      * @param name mode name.
+     * @throws CommandExecutionException when no module has been loaded or the module has no mode with the given name.
      */
-    public void setMode(String name) {
+    public void setMode(String name) throws CommandExecutionException {
+        checkLoadedModule();
+        if (Arrays.stream(currentModule.getModes()).noneMatch(name::equals)) {
+            throw new CommandExecutionException(String.format("Unknown mode %s! Available modes are: %s", name, String.join(", ", currentModule.getModes())));
+        }
         currentModule.setMode(name);
     }
 
@@ -426,7 +630,30 @@ public final class SibillaRuntime {
      * @return the current module mode.
      */
     public String getMode() {
-        return currentModule.getMode();
+        return (currentModule == null ? null : currentModule.getMode());
+    }
+
+    /**
+     * Set the tolerance used to select the leap length when models are simulated by tau-leaping.
+     *
+     * @param tolerance bound on the relative change of propensities in a leap.
+     * @throws CommandExecutionException when no module has been loaded, the module does not support tau-leaping
+     * or the tolerance is not valid.
+     */
+    public void setTauLeapingTolerance(double tolerance) throws CommandExecutionException {
+        checkLoadedModule();
+        currentModule.setTauLeapingTolerance(tolerance);
+    }
+
+    /**
+     * Return the tolerance used to select the leap length when models are simulated by tau-leaping.
+     *
+     * @return the tolerance used to select the leap length.
+     * @throws CommandExecutionException when no module has been loaded or the module does not support tau-leaping.
+     */
+    public double getTauLeapingTolerance() throws CommandExecutionException {
+        checkLoadedModule();
+        return currentModule.getTauLeapingTolerance();
     }
 
     /**
@@ -574,6 +801,16 @@ public final class SibillaRuntime {
         return currentModule.estimateReachability(monitor, rg, condition, goal, deadline, alpha, eps);
     }
 
+    public ProbabilityEstimate estimateProbReach(SimulationMonitor monitor, String condition, String goal, EstimationMethod method, double alpha, double eps) throws CommandExecutionException {
+        checkDeadline();
+        return currentModule.estimateReachability(monitor, rg, condition, goal, deadline, method, alpha, eps);
+    }
+
+    public ThresholdTestResult testProbReach(SimulationMonitor monitor, String condition, String goal, double theta, double alpha, double beta, double delta) throws CommandExecutionException {
+        checkDeadline();
+        return currentModule.testReachability(monitor, rg, condition, goal, deadline, theta, alpha, beta, delta);
+    }
+
 
     public void load(URL resource) throws CommandExecutionException {
         try {
@@ -23,11 +23,16 @@
 
 package it.unicam.quasylab.sibilla.core.runtime;
 
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.network.ModelSource;
+import it.unicam.quasylab.sibilla.core.network.loaders.CompiledModel;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTimeResults;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -803,6 +808,104 @@ class SibillaRuntimeTest {
     }
 
 
+    @Test
+    public void campaignKeyShouldIdentifyTheSimulatedModel() throws CommandExecutionException {
+        SibillaRuntime sr = getRuntimeWithModule();
+        sr.load(TEST_PARAM);
+        sr.addAllMeasures();
+        sr.setDeadline(10);
+        sr.setDt(1);
+        String key = sr.getCampaignKey();
+        sr.setParameter("lambda", 2.0);
+        assertNotEquals(key, sr.getCampaignKey());
+        sr.setParameter("lambda", 1.0);
+        assertEquals(key, sr.getCampaignKey());
+        sr.setConfiguration("start");
+        String configured = sr.getCampaignKey();
+        assertNotEquals(key, configured);
+        sr.load(TEST_PARAM + "predicate none = #B == 0;");
+        sr.setConfiguration("start");
+        sr.addAllMeasures();
+        assertNotEquals(configured, sr.getCampaignKey());
+    }
+
+    @Test
+    public void shouldNotExtendCampaignsOfOtherParameters() throws CommandExecutionException, IOException {
+        SibillaRuntime sr = getRuntimeWithModule();
+        sr.load(TEST_PARAM);
+        sr.setConfiguration("start");
+        sr.addAllMeasures();
+        sr.setReplica(2);
+        sr.setDeadline(10);
+        sr.setDt(1);
+        sr.setCheckpointFolder(Files.createTempDirectory("sibilla").toString());
+        sr.simulate("campaign");
+        sr.setParameter("lambda", 2.0);
+        assertThrows(CommandExecutionException.class, () -> sr.simulate("campaign"));
+        sr.setParameter("lambda", 1.0);
+        sr.simulate("campaign");
+    }
+
+    @Test
+    public void modelSourceShouldIdentifyTheSimulatedModel() throws CommandExecutionException {
+        SibillaRuntime sr = getRuntimeWithModule();
+        sr.load(TEST_PARAM);
+        sr.setConfiguration("start");
+        ModelSource source = sr.getModelSource();
+        SibillaRuntime other = getRuntimeWithModule();
+        other.load(TEST_PARAM);
+        other.setConfiguration("start");
+        assertEquals(source.getHash(), other.getModelSource().getHash());
+        other.setParameter("lambda", 2.0);
+        assertNotEquals(source.getHash(), other.getModelSource().getHash());
+        assertEquals(2.0, other.getModelSource().getParameters().get("lambda"));
+        assertEquals(PopulationModelModule.MODULE_NAME, source.getModuleName());
+        assertEquals("start", source.getConfigurationName());
+    }
+
+    @Test
+    public void modelSourceShouldBeCompiledWithItsParametersAndConfiguration() throws CommandExecutionException {
+        SibillaRuntime sr = getRuntimeWithModule();
+        sr.load(CODE_TSP);
+        sr.setParameter("scale", 2.0);
+        sr.setConfiguration("balanced");
+        SibillaModuleCompiler compiler = new SibillaModuleCompiler();
+        CompiledModel<?> balanced = compiler.compile(sr.getModelSource());
+        assertEquals(20.0, ((PopulationState) balanced.getInitialState().apply(new DefaultRandomGenerator())).population());
+        sr.setConfiguration("custom", 3, 4, 5);
+        CompiledModel<?> custom = compiler.compile(sr.getModelSource());
+        assertEquals(12.0, ((PopulationState) custom.getInitialState().apply(new DefaultRandomGenerator())).population());
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(new ModelSource("unknown", CODE_TSP)));
+    }
+
+    @Test
+    public void shouldSimulateByTauLeapingWithTheGivenTolerance() throws CommandExecutionException {
+        SibillaRuntime sr = getRuntimeWithModule();
+        sr.load(TEST_PARAM);
+        sr.setMode("TAU_LEAPING");
+        assertEquals("TAU_LEAPING", sr.getMode());
+        assertThrows(CommandExecutionException.class, () -> sr.setMode("LEAPING"));
+        sr.setTauLeapingTolerance(0.1);
+        assertEquals(0.1, sr.getTauLeapingTolerance());
+        assertThrows(CommandExecutionException.class, () -> sr.setTauLeapingTolerance(1.5));
+        assertEquals(0.1, sr.getTauLeapingTolerance());
+        sr.setConfiguration("start");
+        sr.addAllMeasures();
+        sr.setReplica(1);
+        sr.setDeadline(10);
+        sr.setDt(1);
+        sr.simulate("tau");
+        SibillaRuntime yoda = new SibillaRuntime();
+        yoda.loadModule(YodaModelModule.MODULE_NAME);
+        assertThrows(CommandExecutionException.class, () -> yoda.setTauLeapingTolerance(0.1));
+        assertThrows(CommandExecutionException.class, () -> new SibillaRuntime().setTauLeapingTolerance(0.1));
+    }
+
+    @Test
+    public void modelSourceShouldRequireALoadedModel() throws CommandExecutionException {
+        assertThrows(CommandExecutionException.class, () -> getRuntimeWithModule().getModelSource());
+    }
+
     private SibillaRuntime getRuntimeWithModule() throws CommandExecutionException {
         SibillaRuntime sr = new SibillaRuntime();
         sr.loadModule(PopulationModelModule.MODULE_NAME);
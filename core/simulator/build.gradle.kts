@@ -4,8 +4,13 @@
 
 plugins {
     id("it.unicam.quasylab.sibilla.java-library-conventions")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 dependencies {
     api("org.apache.commons:commons-math3:3.0")
 }
+
+jmh {
+    profilers.add("gc")
+}
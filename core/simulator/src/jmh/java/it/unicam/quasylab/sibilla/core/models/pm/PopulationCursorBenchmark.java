@@ -0,0 +1,103 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the simulation steps of a {@link PopulationModel} for the different
+ * {@link PopulationSimulationMode}s. The model is a ring of species where each species turns into the
+ * next one. Allocation rates are obtained by running the benchmark with the <code>gc</code> profiler
+ * (enabled in the <code>jmh</code> configuration of this project).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulationCursorBenchmark {
+
+    private static final int STEPS = 10000;
+
+    @Param({"DIRECT", "NEXT_REACTION", "IN_PLACE"})
+    private PopulationSimulationMode mode;
+
+    @Param({"10", "100"})
+    private int species;
+
+    private SimulatorCursor<PopulationState> cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<PopulationRule> rules = new ArrayList<>();
+        String[] names = new String[species];
+        for (int i = 0; i < species; i++) {
+            int from = i;
+            int to = (i + 1) % species;
+            names[i] = "S" + i;
+            rules.add(new ReactionRule("r" + i, null, new Population[] { new Population(from) }, new Population[] { new Population(to) },
+                    (t, s) -> new SibillaDouble(s.getOccupancy(from)), PopulationDependencies.of(from)));
+        }
+        PopulationModel model = new PopulationModel(PopulationRegistry.createRegistry(names), rules, new HashMap<>(), new HashMap<>(), mode);
+        cursor = model.createSimulationCursor(new DefaultRandomGenerator(42), rg -> new PopulationState(species, i -> 1000));
+    }
+
+    /**
+     * Performs a sequence of steps, reading the current state only at the end.
+     */
+    @Benchmark
+    public void steps(Blackhole blackhole) {
+        cursor.restart();
+        cursor.start();
+        for (int i = 0; i < STEPS; i++) {
+            cursor.step();
+        }
+        blackhole.consume(cursor.currentState());
+    }
+
+    /**
+     * Performs a sequence of steps, reading the current state after each of them as done by a simulation task.
+     */
+    @Benchmark
+    public void sampledSteps(Blackhole blackhole) {
+        cursor.restart();
+        cursor.start();
+        for (int i = 0; i < STEPS; i++) {
+            cursor.step();
+            blackhole.consume(cursor.currentState());
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the {@link SimulationManagerFactory}s available for local simulations when a large number of short
+ * replicas is executed. The virtual thread manager is skipped when the running JVM does not support them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationManagerBenchmark {
+
+    @Param({"CACHED", "FIXED", "WORK_STEALING", "WORKER_POOL", "VIRTUAL"})
+    private String manager;
+
+    @Param({"10000", "100000"})
+    private int replicas;
+
+    private PopulationModel model;
+
+    private SimulationEnvironment environment;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        switch (manager) {
+            case "CACHED":
+                environment = new SimulationEnvironment(ThreadSimulationManager.getCachedThreadSimulationManagerFactory());
+                break;
+            case "FIXED":
+                environment = new SimulationEnvironment(ThreadSimulationManager.getFixedThreadSimulationManagerFactory(threads));
+                break;
+            case "WORK_STEALING":
+                environment = new SimulationEnvironment(ThreadSimulationManager.getWorkStealingPoolSimulationManagerFactory());
+                break;
+            case "WORKER_POOL":
+                environment = new SimulationEnvironment(WorkerPoolSimulationManager.getWorkerPoolSimulationManagerFactory(threads));
+                break;
+            case "VIRTUAL":
+                if (!WorkerPoolSimulationManager.isVirtualThreadSupported()) {
+                    throw new IllegalStateException("Virtual threads are not supported by this JVM");
+                }
+                environment = new SimulationEnvironment(WorkerPoolSimulationManager.getVirtualThreadSimulationManagerFactory(threads));
+                break;
+            default:
+                throw new IllegalArgumentException(manager);
+        }
+        model = new PopulationModel(PopulationRegistry.createRegistry("A", "B"),
+                List.of(
+                        new ReactionRule("AtoB", new Population[] { new Population(0) }, new Population[] { new Population(1) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(0))),
+                        new ReactionRule("BtoA", new Population[] { new Population(1) }, new Population[] { new Population(0) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(1)))
+                ), new HashMap<>(), new HashMap<>());
+    }
+
+    /**
+     * Simulates the given number of replicas, counting the simulated trajectories.
+     */
+    @Benchmark
+    public long simulate() throws InterruptedException {
+        LongAdder counter = new LongAdder();
+        environment.simulate(new DefaultRandomGenerator(), model, rg -> new PopulationState(new int[] { 10, 0 }),
+                () -> new SamplingHandler<>() {
+                    @Override
+                    public void start() {
+                    }
+
+                    @Override
+                    public void sample(double time, PopulationState state) {
+                    }
+
+                    @Override
+                    public void end(double time) {
+                        counter.increment();
+                    }
+                }, replicas, 1.0);
+        return counter.sum();
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link WeightedLinkedList} and {@link WeightedFenwickTree} when used to select the transition
+ * to fire in a CTMC simulation step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeightedStructureBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int transitions;
+
+    private double[] weights;
+
+    private WeightedLinkedList<Integer> list;
+
+    private WeightedFenwickTree<Integer> tree;
+
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        random = new Random(42);
+        weights = new double[transitions];
+        list = new WeightedLinkedList<>();
+        tree = new WeightedFenwickTree<>(transitions);
+        for (int i = 0; i < transitions; i++) {
+            weights[i] = random.nextDouble();
+            list.add(weights[i], i);
+            tree.add(weights[i], i);
+        }
+    }
+
+    /**
+     * Builds the structure and selects one element, as done at each step of the direct method.
+     */
+    @Benchmark
+    public Integer buildAndSelectList() {
+        WeightedLinkedList<Integer> structure = new WeightedLinkedList<>();
+        for (int i = 0; i < weights.length; i++) {
+            structure.add(weights[i], i);
+        }
+        return structure.select(random.nextDouble() * structure.getTotalWeight()).getElement();
+    }
+
+    /**
+     * Builds the structure and selects one element, as done at each step of the direct method.
+     */
+    @Benchmark
+    public Integer buildAndSelectFenwickTree() {
+        WeightedFenwickTree<Integer> structure = new WeightedFenwickTree<>(weights.length);
+        for (int i = 0; i < weights.length; i++) {
+            structure.add(weights[i], i);
+        }
+        return structure.getElement(structure.selectIndex(random.nextDouble() * structure.getTotalWeight()));
+    }
+
+    @Benchmark
+    public Integer selectList() {
+        return list.select(random.nextDouble() * list.getTotalWeight()).getElement();
+    }
+
+    @Benchmark
+    public Integer selectFenwickTree() {
+        return tree.getElement(tree.selectIndex(random.nextDouble() * tree.getTotalWeight()));
+    }
+
+    /**
+     * Updates the weight of one element and selects one element, as done when rates are maintained
+     * incrementally between two steps.
+     */
+    @Benchmark
+    public Integer updateAndSelectFenwickTree() {
+        tree.setWeight(random.nextInt(transitions), random.nextDouble());
+        return tree.getElement(tree.selectIndex(random.nextDouble() * tree.getTotalWeight()));
+    }
+
+}
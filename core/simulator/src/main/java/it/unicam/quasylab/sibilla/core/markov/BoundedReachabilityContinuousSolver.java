@@ -23,19 +23,13 @@
 
 package it.unicam.quasylab.sibilla.core.markov;
 
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.linear.RealVector;
-
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * @author loreti
@@ -47,9 +41,8 @@ public class BoundedReachabilityContinuousSolver<S> {
 	private final Predicate<S> condition;
 	private final Predicate<S> goal;
 	private final ContinuousTimeMarkovChain<S> chain;
-	private RealMatrix matrix;
-	private RealVector p0;
-	private LinkedList<RealVector> vectorResults;
+	private final boolean parallel;
+	private UniformisationSum uniformisation;
 	private Set<S> yesNodes;
 	private Set<S> computingNodes;
 	private Map<S, Integer> index;
@@ -59,11 +52,21 @@ public class BoundedReachabilityContinuousSolver<S> {
 			ContinuousTimeMarkovChain<S> chain,
 			double epsilon,
 			Predicate<S> condition,
-			Predicate<S> goal) {
+			Predicate<S> goal,
+			boolean parallel) {
 		this.chain = chain;
 		this.condition = condition;
 		this.goal = goal;
 		this.epsilon = epsilon;
+		this.parallel = parallel;
+	}
+
+	public BoundedReachabilityContinuousSolver( 
+			ContinuousTimeMarkovChain<S> chain,
+			double epsilon,
+			Predicate<S> condition,
+			Predicate<S> goal) {
+		this(chain, epsilon, condition, goal, false);
 	}
 
 	public BoundedReachabilityContinuousSolver( 
@@ -74,40 +77,30 @@ public class BoundedReachabilityContinuousSolver<S> {
 	}
 
 
-	private RealVector buildRealVector() {
-		return MarkovChain.generateVector(ArrayRealVector::new, index, s -> (yesNodes.contains(s)?1.0:0.0));
+	private double[] buildInitialVector() {
+		double[] v = new double[index.size()];
+		yesNodes.forEach(s -> v[index.get(s)] = 1.0);
+		return v;
 	}
 
-	private RealMatrix buidProbabilityMatrix(  ) {
-		return MarkovChain.generateMatrix(i -> MatrixUtils.createRealMatrix(i, i), 
+	private SparseMatrix buidProbabilityMatrix(  ) {
+		return SparseMatrix.generate(index,
 				s -> {			
 					if (yesNodes.contains(s)) {
-						HashMap<S,Double> unitRow = new HashMap<>();
-						unitRow.put(s, 1.0);
-						return unitRow.entrySet().stream();
+						return Stream.of(Map.entry(s, 1.0));
 					} else {
-						return chain.uniformisedMatrixRow(s)
-								.entrySet().stream() 
-								.filter(p -> computingNodes.contains(p.getKey())||yesNodes.contains(p.getKey()));
+						return chain.uniformisedMatrixRow(s).entrySet().stream();
 					}
-		
-				},
-				index);
+				});
 	}
 	
 	public Map<S,Double> compute(double t) {
-		if (vectorResults == null) {
+		if (uniformisation == null) {
 			computeReachabilitySets();
 			computeStateIndex();
-			matrix = buidProbabilityMatrix( ).transpose();
-			p0 = buildRealVector( );
-			vectorResults = new LinkedList<>();
-			vectorResults.add(p0);
+			uniformisation = new UniformisationSum(buidProbabilityMatrix( ), buildInitialVector( ), parallel);
 		}
 		FoxGlynn fg = (t>0?FoxGlynn.compute(chain.getMaxRate()*t, epsilon):null);
-		if (fg != null) {
-			generateSteps(fg.rightPoint());			
-		}
 		return generateMap( fg );
 	}
 
@@ -116,27 +109,13 @@ public class BoundedReachabilityContinuousSolver<S> {
 		HashMap<S,Double> toReturn = new HashMap<>();
 		yesNodes.forEach(s -> toReturn.put(s, 1.0));
 		if (fg!=null) {
-			RealVector v = sum(fg);
-			index.forEach((s,i) -> toReturn.put(s, v.getEntry(i)));
+			double[] v = uniformisation.compute(fg);
+			index.forEach((s,i) -> toReturn.put(s, v[i]));
 		}
 		return toReturn;
 	}
 
 
-	private RealVector sum(FoxGlynn fg ) {
-		return IntStream.range(fg.leftPoint(), fg.rightPoint()).boxed()
-				.map(i -> vectorResults.get(i).mapMultiply(fg.weight(i)/fg.totalWeight()))
-				.reduce(new ArrayRealVector(index.size()), (v1,v2) -> v1.add(v2));
-	}
-
-
-	private void generateSteps(int k) {
-		while (vectorResults.size()<k) {
-			vectorResults.add(matrix.preMultiply(vectorResults.getLast()));
-		}
-	}
-
-
 	private void computeStateIndex() {
 		AtomicInteger counter = new AtomicInteger(0);
 		index = computingNodes.stream().collect(Collectors.toConcurrentMap(s -> s,s -> counter.getAndIncrement()));
@@ -23,13 +23,8 @@
 
 package it.unicam.quasylab.sibilla.core.markov;
 
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.linear.RealVector;
-
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -46,9 +41,12 @@ public class BoundedReachabilityDiscreteSolver<S> {
 	private final Predicate<S> condition;
 	private final Predicate<S> goal;
 	private final DiscreteTimeMarkovChain<S> chain;
-	private RealMatrix matrix;
-	private RealVector p0;
-	private LinkedList<RealVector> vectorResults;
+	private final boolean parallel;
+	private SparseMatrix matrix;
+	private double[] p0;
+	private double[] current;
+	private double[] sum;
+	private int steps;
 	private Set<S> yesNodes;
 	private Set<S> computingNodes;
 	private Map<S, Integer> index;
@@ -56,10 +54,19 @@ public class BoundedReachabilityDiscreteSolver<S> {
 	public BoundedReachabilityDiscreteSolver( 
 			DiscreteTimeMarkovChain<S> chain,
 			Predicate<S> condition,
-			Predicate<S> goal) {
+			Predicate<S> goal,
+			boolean parallel) {
 		this.chain = chain;
 		this.condition = condition;
 		this.goal = goal;
+		this.parallel = parallel;
+	}
+
+	public BoundedReachabilityDiscreteSolver( 
+			DiscreteTimeMarkovChain<S> chain,
+			Predicate<S> condition,
+			Predicate<S> goal) {
+		this(chain, condition, goal, false);
 	}
 
 	public BoundedReachabilityDiscreteSolver( 
@@ -69,29 +76,25 @@ public class BoundedReachabilityDiscreteSolver<S> {
 	}
 
 
-	private RealVector buildRealVector() {
-		return MarkovChain.generateVector(ArrayRealVector::new, index, s -> 
-		chain.probabilityMatrixRow(s)
-		.entrySet().stream()
-		.filter(e2 -> yesNodes.contains(e2.getKey()))
-		.collect(Collectors.summingDouble(Map.Entry::getValue)));
+	private double[] buildInitialVector() {
+		double[] v = new double[index.size()];
+		index.forEach((s,i) -> v[i] = chain.probabilityMatrixRow(s)
+				.entrySet().stream()
+				.filter(e2 -> yesNodes.contains(e2.getKey()))
+				.collect(Collectors.summingDouble(Map.Entry::getValue)));
+		return v;
 	}
 
-	private RealMatrix buidProbabilityMatrix(  ) {
-		return MarkovChain.generateMatrix(i -> MatrixUtils.createRealMatrix(i, i), s -> 
-			chain.probabilityMatrixRow(s).entrySet().stream()
-				.filter(p -> computingNodes.contains(p.getKey()))
-				, index);
+	private SparseMatrix buidProbabilityMatrix(  ) {
+		return SparseMatrix.generate(index, s -> chain.probabilityMatrixRow(s).entrySet().stream());
 	}
 	
 	public Map<S,Double> compute(int k) {
-		if (vectorResults == null) {
+		if (matrix == null) {
 			computeReachabilitySets();
 			computeStateIndex();
-			matrix = buidProbabilityMatrix( ).transpose();
-			p0 = buildRealVector( );
-			vectorResults = new LinkedList<>();
-			vectorResults.add(p0);
+			matrix = buidProbabilityMatrix( );
+			p0 = buildInitialVector( );
 		}
 		generateSteps(k);
 		return generateMap( k );
@@ -102,21 +105,34 @@ public class BoundedReachabilityDiscreteSolver<S> {
 		HashMap<S,Double> toReturn = new HashMap<>();
 		yesNodes.forEach(s -> toReturn.put(s, 1.0));
 		if (k>0) {
-			RealVector v = sum(k);
-			index.forEach((s,i) -> toReturn.put(s, v.getEntry(i)));
+			index.forEach((s,i) -> toReturn.put(s, sum[i]));
 		}
 		return toReturn;
 	}
 
 
-	private RealVector sum(int k) {
-		return vectorResults.stream().limit(k).reduce(new ArrayRealVector(index.size()), (v1,v2) -> v1.add(v2));
-	}
-
-
+	/*
+	 * Brings the partial sum of the first k vectors up to date. Vectors are not stored: when k is smaller than
+	 * the number of steps already summed, the sum is restarted from p0.
+	 */
 	private void generateSteps(int k) {
-		while (vectorResults.size()<k) {
-			vectorResults.add(matrix.preMultiply(vectorResults.getLast()));
+		if ((sum == null)||(k<steps)) {
+			current = Arrays.copyOf(p0, p0.length);
+			sum = new double[p0.length];
+			steps = 0;
+		}
+		double[] next = new double[p0.length];
+		while (steps<k) {
+			if (steps>0) {
+				matrix.multiply(current, next, parallel);
+				double[] tmp = current;
+				current = next;
+				next = tmp;
+			}
+			for( int i=0 ; i<sum.length ; i++ ) {
+				sum[i] += current[i];
+			}
+			steps++;
 		}
 	}
 
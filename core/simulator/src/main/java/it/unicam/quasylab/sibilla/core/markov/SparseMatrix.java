@@ -0,0 +1,364 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A square sparse matrix stored in compressed sparse row (CSR) format. The matrix only keeps its non-zero
+ * entries in three primitive arrays, so that chains with millions of states can be handled without
+ * allocating a dense <code>n x n</code> matrix. Products are computed into caller supplied arrays and, on
+ * request, rows are partitioned in blocks that are evaluated in parallel.
+ *
+ * @author loreti
+ */
+public final class SparseMatrix {
+
+	private static final int MIN_BLOCK_SIZE = 4096;
+
+	private final int size;
+	private final int[] rowPointers;
+	private final int[] columns;
+	private final double[] values;
+
+	SparseMatrix(int size, int[] rowPointers, int[] columns, double[] values) {
+		this.size = size;
+		this.rowPointers = rowPointers;
+		this.columns = columns;
+		this.values = values;
+	}
+
+	/**
+	 * Returns the sparse matrix whose rows are generated by the given function. Each state <code>s</code> in
+	 * <code>index</code> is associated with row <code>index.get(s)</code>, entries referring to states that are
+	 * not in <code>index</code> are ignored.
+	 *
+	 * @param index a map associating each state with an index in <code>[0, index.size())</code>
+	 * @param rowFunction the function used to compute the entries of each row
+	 * @param <S> type of states
+	 * @return the sparse matrix whose rows are generated by the given function.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <S> SparseMatrix generate(Map<S,Integer> index, Function<S, Stream<Map.Entry<S,Double>>> rowFunction) {
+		int size = index.size();
+		Object[] states = new Object[size];
+		index.forEach((s,i) -> states[i] = s);
+		int[] rowPointers = new int[size+1];
+		int[] columns = new int[Math.max(size, 16)];
+		double[] values = new double[columns.length];
+		int counter = 0;
+		for( int r=0 ; r<size ; r++ ) {
+			S s = (S) states[r];
+			Map.Entry<S,Double>[] row = rowFunction.apply(s).filter(e -> index.containsKey(e.getKey())).toArray(Map.Entry[]::new);
+			if (counter+row.length>columns.length) {
+				int newLength = Math.max(counter+row.length, columns.length+(columns.length>>1));
+				columns = Arrays.copyOf(columns, newLength);
+				values = Arrays.copyOf(values, newLength);
+			}
+			int start = counter;
+			for (Map.Entry<S, Double> e : row) {
+				int c = index.get(e.getKey());
+				int j = find(columns, start, counter, c);
+				if (j<counter) {
+					values[j] += e.getValue();
+				} else {
+					columns[counter] = c;
+					values[counter] = e.getValue();
+					counter++;
+				}
+			}
+			rowPointers[r+1] = counter;
+		}
+		return new SparseMatrix(size, rowPointers, Arrays.copyOf(columns, counter), Arrays.copyOf(values, counter));
+	}
+
+	private static int find(int[] columns, int from, int to, int c) {
+		for( int j=from ; j<to ; j++ ) {
+			if (columns[j] == c) {
+				return j;
+			}
+		}
+		return to;
+	}
+
+	/**
+	 * Returns the number of rows (and columns) of this matrix.
+	 *
+	 * @return the number of rows (and columns) of this matrix.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of entries stored in this matrix.
+	 *
+	 * @return the number of entries stored in this matrix.
+	 */
+	public int getNonZeros() {
+		return rowPointers[size];
+	}
+
+	/**
+	 * Returns the value at the given row and column.
+	 *
+	 * @param row row index
+	 * @param column column index
+	 * @return the value at the given row and column.
+	 */
+	public double getEntry(int row, int column) {
+		for( int j=rowPointers[row] ; j<rowPointers[row+1] ; j++ ) {
+			if (columns[j] == column) {
+				return values[j];
+			}
+		}
+		return 0.0;
+	}
+
+	/**
+	 * Applies the given consumer to each entry stored in the given row.
+	 *
+	 * @param row row index
+	 * @param consumer the consumer applied to column index and value of each entry
+	 */
+	public void forEachInRow(int row, EntryConsumer consumer) {
+		for( int j=rowPointers[row] ; j<rowPointers[row+1] ; j++ ) {
+			consumer.accept(columns[j], values[j]);
+		}
+	}
+
+	/**
+	 * Returns the array containing the sum of each row of this matrix.
+	 *
+	 * @return the array containing the sum of each row of this matrix.
+	 */
+	public double[] rowSums() {
+		double[] sums = new double[size];
+		for( int r=0 ; r<size ; r++ ) {
+			for( int j=rowPointers[r] ; j<rowPointers[r+1] ; j++ ) {
+				sums[r] += values[j];
+			}
+		}
+		return sums;
+	}
+
+	/*
+	 * Returns the uniformised matrix of this rate matrix: each entry is divided by rate and the residual
+	 * probability 1-exitRates[r]/rate is added to the diagonal.
+	 */
+	SparseMatrix uniformise(double[] exitRates, double rate) {
+		int[] uRowPointers = new int[size+1];
+		int[] uColumns = new int[getNonZeros()+size];
+		double[] uValues = new double[uColumns.length];
+		int counter = 0;
+		for( int r=0 ; r<size ; r++ ) {
+			int diagonal = -1;
+			for( int j=rowPointers[r] ; j<rowPointers[r+1] ; j++ ) {
+				if (columns[j] == r) {
+					diagonal = counter;
+				}
+				uColumns[counter] = columns[j];
+				uValues[counter] = values[j]/rate;
+				counter++;
+			}
+			double residual = (rate-exitRates[r])/rate;
+			if (residual>0) {
+				if (diagonal<0) {
+					uColumns[counter] = r;
+					uValues[counter] = residual;
+					counter++;
+				} else {
+					uValues[diagonal] += residual;
+				}
+			}
+			uRowPointers[r+1] = counter;
+		}
+		return new SparseMatrix(size, uRowPointers, Arrays.copyOf(uColumns, counter), Arrays.copyOf(uValues, counter));
+	}
+
+	/*
+	 * Returns the scalar product of the given row with vector x.
+	 */
+	double rowProduct(int row, double[] x) {
+		double v = 0.0;
+		for( int j=rowPointers[row] ; j<rowPointers[row+1] ; j++ ) {
+			v += values[j]*x[columns[j]];
+		}
+		return v;
+	}
+
+	/*
+	 * Returns the square matrix obtained by selecting the rows and the columns of the given elements. Element
+	 * elements[k] is mapped to k, and localIndex maps each index of this matrix to its local index or to -1
+	 * if the index is not selected. When keepDiagonal is false, entries on the diagonal are dropped.
+	 */
+	SparseMatrix restrict(int[] elements, int[] localIndex, boolean keepDiagonal) {
+		int[] rRowPointers = new int[elements.length+1];
+		int counter = 0;
+		for( int k=0 ; k<elements.length ; k++ ) {
+			int r = elements[k];
+			for( int j=rowPointers[r] ; j<rowPointers[r+1] ; j++ ) {
+				if ((localIndex[columns[j]]>=0)&&(keepDiagonal||(columns[j] != r))) {
+					counter++;
+				}
+			}
+			rRowPointers[k+1] = counter;
+		}
+		int[] rColumns = new int[counter];
+		double[] rValues = new double[counter];
+		counter = 0;
+		for (int r : elements) {
+			for( int j=rowPointers[r] ; j<rowPointers[r+1] ; j++ ) {
+				if ((localIndex[columns[j]]>=0)&&(keepDiagonal||(columns[j] != r))) {
+					rColumns[counter] = localIndex[columns[j]];
+					rValues[counter] = values[j];
+					counter++;
+				}
+			}
+		}
+		return new SparseMatrix(elements.length, rRowPointers, rColumns, rValues);
+	}
+
+	/*
+	 * Returns the index of the first column of each row.
+	 */
+	int[] getRowPointers() {
+		return rowPointers;
+	}
+
+	/*
+	 * Returns the column of each stored entry.
+	 */
+	int[] getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the transpose of this matrix.
+	 *
+	 * @return the transpose of this matrix.
+	 */
+	public SparseMatrix transpose() {
+		int nonZeros = getNonZeros();
+		int[] tRowPointers = new int[size+1];
+		int[] tColumns = new int[nonZeros];
+		double[] tValues = new double[nonZeros];
+		for( int j=0 ; j<nonZeros ; j++ ) {
+			tRowPointers[columns[j]+1]++;
+		}
+		for( int r=0 ; r<size ; r++ ) {
+			tRowPointers[r+1] += tRowPointers[r];
+		}
+		int[] next = Arrays.copyOf(tRowPointers, size);
+		for( int r=0 ; r<size ; r++ ) {
+			for( int j=rowPointers[r] ; j<rowPointers[r+1] ; j++ ) {
+				int k = next[columns[j]]++;
+				tColumns[k] = r;
+				tValues[k] = values[j];
+			}
+		}
+		return new SparseMatrix(size, tRowPointers, tColumns, tValues);
+	}
+
+	/**
+	 * Computes the product <code>y = A x</code>, where <code>A</code> is this matrix. Array <code>y</code>
+	 * must be different from <code>x</code>.
+	 *
+	 * @param x the vector to multiply
+	 * @param y the array where the result is stored
+	 * @param parallel if true, blocks of rows are computed in parallel
+	 */
+	public void multiply(double[] x, double[] y, boolean parallel) {
+		if ((x.length != size)||(y.length != size)) {
+			throw new IllegalArgumentException("Vector size does not match matrix size!");
+		}
+		if (x == y) {
+			throw new IllegalArgumentException("Input and output vectors must be different!");
+		}
+		int blocks = (parallel?numberOfBlocks():1);
+		if (blocks <= 1) {
+			multiply(x, y, 0, size);
+		} else {
+			int blockSize = (size+blocks-1)/blocks;
+			IntStream.range(0, blocks).parallel().forEach(b -> multiply(x, y, b*blockSize, Math.min(size, (b+1)*blockSize)));
+		}
+	}
+
+	/**
+	 * Computes the product <code>y = x A</code>, where <code>A</code> is this matrix. This is equivalent to
+	 * multiply <code>x</code> by the transpose of this matrix. Since this operation scatters values among
+	 * rows, it is always computed sequentially.
+	 *
+	 * @param x the vector to multiply
+	 * @param y the array where the result is stored
+	 */
+	public void preMultiply(double[] x, double[] y) {
+		if ((x.length != size)||(y.length != size)) {
+			throw new IllegalArgumentException("Vector size does not match matrix size!");
+		}
+		if (x == y) {
+			throw new IllegalArgumentException("Input and output vectors must be different!");
+		}
+		Arrays.fill(y, 0.0);
+		for( int r=0 ; r<size ; r++ ) {
+			double v = x[r];
+			if (v != 0.0) {
+				for( int j=rowPointers[r] ; j<rowPointers[r+1] ; j++ ) {
+					y[columns[j]] += v*values[j];
+				}
+			}
+		}
+	}
+
+	private void multiply(double[] x, double[] y, int from, int to) {
+		for( int r=from ; r<to ; r++ ) {
+			y[r] = rowProduct(r, x);
+		}
+	}
+
+	private int numberOfBlocks() {
+		return Math.min(4*Runtime.getRuntime().availableProcessors(), size/MIN_BLOCK_SIZE);
+	}
+
+	/**
+	 * A consumer of the entries of a sparse matrix.
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer {
+
+		/**
+		 * Performs this operation on the given entry.
+		 *
+		 * @param column column index
+		 * @param value entry value
+		 */
+		void accept(int column, double value);
+
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * The state space of a continuous time Markov chain where each state is identified by a dense integer id in
+ * <code>[0, size())</code>. Transition rates are stored in a {@link SparseMatrix}, so that the structure
+ * can be passed directly to the numerical solvers. Instances are built by {@link StateSpaceExplorer}.
+ *
+ * @author loreti
+ * @param <S> type of states
+ */
+public final class StateSpace<S> {
+
+	private final Object[] states;
+	private final Map<S,Integer> index;
+	private final SparseMatrix rates;
+	private final double[] exitRates;
+	private final double maxExitRate;
+	private SparseMatrix uniformised;
+
+	StateSpace(Object[] states, Map<S,Integer> index, SparseMatrix rates) {
+		this.states = states;
+		this.index = Collections.unmodifiableMap(index);
+		this.rates = rates;
+		this.exitRates = rates.rowSums();
+		this.maxExitRate = IntStream.range(0, exitRates.length).mapToDouble(i -> exitRates[i]).max().orElse(0.0);
+	}
+
+	/**
+	 * Returns the number of states.
+	 *
+	 * @return the number of states.
+	 */
+	public int size() {
+		return states.length;
+	}
+
+	/**
+	 * Returns the state with the given id.
+	 *
+	 * @param id state id
+	 * @return the state with the given id.
+	 */
+	@SuppressWarnings("unchecked")
+	public S getState(int id) {
+		return (S) states[id];
+	}
+
+	/**
+	 * Returns the id of the given state, or <code>-1</code> if the state is not in this state space.
+	 *
+	 * @param s a state
+	 * @return the id of the given state, or <code>-1</code> if the state is not in this state space.
+	 */
+	public int indexOf(S s) {
+		return index.getOrDefault(s, -1);
+	}
+
+	/**
+	 * Returns an unmodifiable map associating each state with its id.
+	 *
+	 * @return an unmodifiable map associating each state with its id.
+	 */
+	public Map<S, Integer> getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the matrix of transition rates, rows and columns are state ids.
+	 *
+	 * @return the matrix of transition rates.
+	 */
+	public SparseMatrix getRateMatrix() {
+		return rates;
+	}
+
+	/**
+	 * Returns the exit rate of the state with the given id.
+	 *
+	 * @param id state id
+	 * @return the exit rate of the state with the given id.
+	 */
+	public double getExitRate(int id) {
+		return exitRates[id];
+	}
+
+	/**
+	 * Returns the maximal exit rate of the states in this state space.
+	 *
+	 * @return the maximal exit rate of the states in this state space.
+	 */
+	public double getMaxRate() {
+		return maxExitRate;
+	}
+
+	/**
+	 * Returns the uniformised probability matrix of this chain, obtained by dividing each rate by
+	 * {@link #getMaxRate()} and by adding to each state a self loop with the residual probability.
+	 *
+	 * @return the uniformised probability matrix of this chain.
+	 */
+	public synchronized SparseMatrix getUniformisedMatrix() {
+		if (uniformised == null) {
+			uniformised = rates.uniformise(exitRates, maxExitRate);
+		}
+		return uniformised;
+	}
+
+	/**
+	 * Returns the ids of the states satisfying the given predicate.
+	 *
+	 * @param filter a predicate on states
+	 * @return the ids of the states satisfying the given predicate.
+	 */
+	public int[] select(Predicate<S> filter) {
+		return IntStream.range(0, states.length).parallel().filter(i -> filter.test(getState(i))).toArray();
+	}
+
+	/**
+	 * Returns a {@link ContinuousTimeMarkovChain} with the same states and rates of this state space. The
+	 * returned chain can be passed to the solvers that are not able to work directly on a state space.
+	 *
+	 * @return a continuous time Markov chain with the same states and rates of this state space.
+	 */
+	public ContinuousTimeMarkovChain<S> toContinuousTimeMarkovChain() {
+		ContinuousTimeMarkovChain<S> chain = new ContinuousTimeMarkovChain<>();
+		for( int i=0 ; i<states.length ; i++ ) {
+			Map<S,Double> row = new HashMap<>();
+			rates.forEachInRow(i, (j, v) -> {
+				if (v>0) {
+					row.merge(getState(j), v, Double::sum);
+				}
+			});
+			chain.add(getState(i), row);
+		}
+		return chain;
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Generates the {@link StateSpace} of a continuous time Markov chain by exploring the states reachable from an
+ * initial one. Differently from {@link MarkovChain#generateMarkovChain(java.util.function.Supplier, Object, Function)},
+ * states are interned to dense integer ids as soon as they are discovered and transitions are stored in
+ * primitive arrays. Exploration proceeds by levels: all the states in a frontier are expanded, possibly in
+ * parallel by fork-join tasks, and newly discovered states form the next frontier. Since ids are assigned in
+ * discovery order, states of each frontier have consecutive ids.
+ *
+ * When exploration is parallel, the ids assigned to states depend on thread scheduling, while the resulting
+ * chain does not. States must implement <code>equals</code> and <code>hashCode</code>, and the step function
+ * must be thread safe.
+ *
+ * @author loreti
+ */
+public final class StateSpaceExplorer {
+
+	private static final int SEQUENTIAL_THRESHOLD = 256;
+
+	private StateSpaceExplorer() {
+	}
+
+	/**
+	 * Explores the state space reachable from <code>init</code> in parallel, by using the common fork-join pool.
+	 *
+	 * @param init initial state
+	 * @param stepFunction function associating each state with the rates of its outgoing transitions
+	 * @param <S> type of states
+	 * @return the state space reachable from <code>init</code>.
+	 */
+	public static <S> StateSpace<S> explore(S init, Function<S, Map<S,Double>> stepFunction) {
+		return explore(init, stepFunction, true);
+	}
+
+	/**
+	 * Explores the state space reachable from <code>init</code>. When <code>parallel</code> is true, frontiers
+	 * are expanded by using the common fork-join pool, otherwise states are explored in breadth first order in
+	 * the calling thread.
+	 *
+	 * @param init initial state
+	 * @param stepFunction function associating each state with the rates of its outgoing transitions
+	 * @param parallel true if frontiers are expanded in parallel
+	 * @param <S> type of states
+	 * @return the state space reachable from <code>init</code>.
+	 */
+	public static <S> StateSpace<S> explore(S init, Function<S, Map<S,Double>> stepFunction, boolean parallel) {
+		return new Exploration<>(stepFunction, (parallel?ForkJoinPool.commonPool():null)).run(init);
+	}
+
+	/**
+	 * Explores in parallel, by using the given pool, the state space reachable from <code>init</code>.
+	 *
+	 * @param pool the pool used to expand frontiers
+	 * @param init initial state
+	 * @param stepFunction function associating each state with the rates of its outgoing transitions
+	 * @param <S> type of states
+	 * @return the state space reachable from <code>init</code>.
+	 */
+	public static <S> StateSpace<S> explore(ForkJoinPool pool, S init, Function<S, Map<S,Double>> stepFunction) {
+		return new Exploration<>(stepFunction, pool).run(init);
+	}
+
+	private static final class Exploration<S> {
+
+		private static final int[] NO_COLUMNS = new int[0];
+		private static final double[] NO_VALUES = new double[0];
+
+		private final Function<S, Map<S,Double>> stepFunction;
+		private final ForkJoinPool pool;
+		private final ConcurrentHashMap<S,Integer> index = new ConcurrentHashMap<>();
+		private final AtomicInteger counter = new AtomicInteger();
+		private final ConcurrentLinkedQueue<S> discovered = new ConcurrentLinkedQueue<>();
+		private Object[] states = new Object[16];
+		private int[][] rowColumns = new int[16][];
+		private double[][] rowValues = new double[16][];
+
+		private Exploration(Function<S, Map<S,Double>> stepFunction, ForkJoinPool pool) {
+			this.stepFunction = stepFunction;
+			this.pool = pool;
+		}
+
+		private StateSpace<S> run(S init) {
+			idOf(init);
+			int from = 0;
+			while (!discovered.isEmpty()) {
+				int to = counter.get();
+				register(to);
+				if ((pool == null)||(to-from <= SEQUENTIAL_THRESHOLD)) {
+					expand(from, to);
+				} else {
+					pool.invoke(new ExpandTask(from, to));
+				}
+				from = to;
+			}
+			return build();
+		}
+
+		private int idOf(S s) {
+			return index.computeIfAbsent(s, k -> {
+				discovered.add(k);
+				return counter.getAndIncrement();
+			});
+		}
+
+		/*
+		 * Stores the states discovered in the last level. All the states in the queue have been discovered
+		 * before the level is expanded, hence they all have ids smaller than size.
+		 */
+		private void register(int size) {
+			if (size>states.length) {
+				int newLength = Math.max(size, states.length+(states.length>>1));
+				states = Arrays.copyOf(states, newLength);
+				rowColumns = Arrays.copyOf(rowColumns, newLength);
+				rowValues = Arrays.copyOf(rowValues, newLength);
+			}
+			S s;
+			while ((s = discovered.poll()) != null) {
+				states[index.get(s)] = s;
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void expand(int from, int to) {
+			for( int i=from ; i<to ; i++ ) {
+				Map<S, Double> next = stepFunction.apply((S) states[i]);
+				if ((next == null)||(next.isEmpty())) {
+					rowColumns[i] = NO_COLUMNS;
+					rowValues[i] = NO_VALUES;
+					continue;
+				}
+				int[] columns = new int[next.size()];
+				double[] values = new double[next.size()];
+				int counter = 0;
+				for (Map.Entry<S, Double> e : next.entrySet()) {
+					double rate = e.getValue();
+					if (rate>0) {
+						columns[counter] = idOf(e.getKey());
+						values[counter] = rate;
+						counter++;
+					}
+				}
+				rowColumns[i] = (counter<columns.length?Arrays.copyOf(columns, counter):columns);
+				rowValues[i] = (counter<values.length?Arrays.copyOf(values, counter):values);
+			}
+		}
+
+		private StateSpace<S> build() {
+			int size = counter.get();
+			int[] rowPointers = new int[size+1];
+			for( int i=0 ; i<size ; i++ ) {
+				rowPointers[i+1] = rowPointers[i]+rowColumns[i].length;
+			}
+			int[] columns = new int[rowPointers[size]];
+			double[] values = new double[rowPointers[size]];
+			for( int i=0 ; i<size ; i++ ) {
+				System.arraycopy(rowColumns[i], 0, columns, rowPointers[i], rowColumns[i].length);
+				System.arraycopy(rowValues[i], 0, values, rowPointers[i], rowValues[i].length);
+				rowColumns[i] = null;
+				rowValues[i] = null;
+			}
+			return new StateSpace<>(Arrays.copyOf(states, size), index, new SparseMatrix(size, rowPointers, columns, values));
+		}
+
+		private final class ExpandTask extends RecursiveAction {
+
+			private final int from;
+			private final int to;
+
+			private ExpandTask(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				if (to-from <= SEQUENTIAL_THRESHOLD) {
+					expand(from, to);
+				} else {
+					int middle = (from+to)>>>1;
+					invokeAll(new ExpandTask(from, middle), new ExpandTask(middle, to));
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.markov;
+
+/**
+ * Iterative methods used by {@link SteadyStateSolver} to solve linear systems.
+ *
+ * @author loreti
+ */
+public enum SteadyStateMethod {
+
+	/**
+	 * Gauss-Seidel method: values are updated in place, one state at a time.
+	 */
+	GAUSS_SEIDEL,
+
+	/**
+	 * Weighted Jacobi method: all values are updated from the previous iterate, hence sweeps can be
+	 * parallel.
+	 */
+	JACOBI,
+
+	/**
+	 * Power method on the uniformised chain. Sweeps can be parallel.
+	 */
+	POWER
+
+}
@@ -24,50 +24,445 @@
 package it.unicam.quasylab.sibilla.core.markov;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
+ * Computes the steady state distribution of a continuous time Markov chain starting from a given state.
+ * The chain is first decomposed in its strongly connected components, by an iterative version of
+ * Tarjan's algorithm, to identify the bottom strongly connected components (BSCCs). The distribution
+ * of each BSCC is then computed by an iterative method (see {@link SteadyStateMethod}) applied to the
+ * rates restricted to the BSCC, while the probability to reach each BSCC from the initial state is
+ * obtained from the expected number of visits to transient states. The steady state distribution is
+ * the combination of the distributions of the BSCCs weighted by their reachability probabilities.
+ *
  * @author loreti
  * @param <S>
  *
  */
 public class SteadyStateSolver<S> {
 
+	public static final double DEFAULT_TOLERANCE = 1.0E-10;
+	public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+	private static final double JACOBI_WEIGHT = 0.9;
+	private static final double UNIFORMISATION_FACTOR = 1.02;
+
 	private final ContinuousTimeMarkovChain<S> chain;
-	private LinkedList<Set<S>> bscc;
+	private final StateSpace<S> space;
 	private final S init;
-	private final Map<S,Integer> bsccIndex = new HashMap<S,Integer>();
-	private final Map<S,Integer> lowIndex = new HashMap<S,Integer>();
-	private final List<S> bsccQueue = new LinkedList<>();
-	private final Set<S> inQueue = new HashSet<S>();
-	private int indexCounter = 0;
+	private final SteadyStateMethod method;
+	private final double tolerance;
+	private final int maxIterations;
+	private final boolean parallel;
+
+	private Object[] states;
+	private Map<S,Integer> index;
+	private SparseMatrix rates;
+	private double[] exitRates;
+	private List<int[]> bscc;
+	private int[] bsccOf;
+	private double[][] bsccDistributions;
+	private double[] reachability;
 	
 	public SteadyStateSolver(ContinuousTimeMarkovChain<S> chain, S init) {
+		this(chain, init, SteadyStateMethod.GAUSS_SEIDEL, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS, false);
+	}
+
+	public SteadyStateSolver(ContinuousTimeMarkovChain<S> chain, S init, SteadyStateMethod method, double tolerance, int maxIterations, boolean parallel) {
+		this(chain, null, init, method, tolerance, maxIterations, parallel);
+	}
+
+	public SteadyStateSolver(StateSpace<S> space, S init, SteadyStateMethod method, double tolerance, int maxIterations, boolean parallel) {
+		this(null, space, init, method, tolerance, maxIterations, parallel);
+	}
+
+	private SteadyStateSolver(ContinuousTimeMarkovChain<S> chain, StateSpace<S> space, S init, SteadyStateMethod method, double tolerance, int maxIterations, boolean parallel) {
+		if (tolerance <= 0) {
+			throw new IllegalArgumentException("Tolerance must be greater than 0.0!");
+		}
 		this.chain = chain;
+		this.space = space;
 		this.init = init;
+		this.method = method;
+		this.tolerance = tolerance;
+		this.maxIterations = maxIterations;
+		this.parallel = parallel;
 	}
-	
+
+	/**
+	 * Computes the bottom strongly connected components of the chain.
+	 */
 	public void computeBSCC( ) {
-		for (S s : chain.getStates()) {
-			strongconnected(s);
+		if (bscc != null) {
+			return;
+		}
+		computeStateIndex();
+		int[] component = new int[states.length];
+		int components = strongConnectedComponents(component);
+		boolean[] bottom = new boolean[components];
+		Arrays.fill(bottom, true);
+		int[] rowPointers = rates.getRowPointers();
+		int[] columns = rates.getColumns();
+		int[] sizes = new int[components];
+		for( int v=0 ; v<states.length ; v++ ) {
+			sizes[component[v]]++;
+			for( int j=rowPointers[v] ; j<rowPointers[v+1] ; j++ ) {
+				if (component[columns[j]] != component[v]) {
+					bottom[component[v]] = false;
+				}
+			}
+		}
+		int[] bsccIndex = new int[components];
+		bscc = new ArrayList<>();
+		for( int c=0 ; c<components ; c++ ) {
+			if (bottom[c]) {
+				bsccIndex[c] = bscc.size();
+				bscc.add(new int[sizes[c]]);
+			} else {
+				bsccIndex[c] = -1;
+			}
+		}
+		bsccOf = new int[states.length];
+		int[] filled = new int[bscc.size()];
+		for( int v=0 ; v<states.length ; v++ ) {
+			int b = bsccIndex[component[v]];
+			bsccOf[v] = b;
+			if (b>=0) {
+				bscc.get(b)[filled[b]++] = v;
+			}
+		}
+		bsccDistributions = new double[bscc.size()][];
+	}
+
+	/**
+	 * Returns the bottom strongly connected components of the chain.
+	 *
+	 * @return the bottom strongly connected components of the chain.
+	 */
+	public List<Set<S>> getBSCC() {
+		computeBSCC();
+		return bscc.stream().map(b -> Arrays.stream(b).mapToObj(this::getState).collect(Collectors.toSet())).collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the probability to reach the <code>i</code>-th BSCC, in the order of {@link #getBSCC()}, from
+	 * the initial state.
+	 *
+	 * @param i BSCC index
+	 * @return the probability to reach the <code>i</code>-th BSCC from the initial state.
+	 */
+	public double getReachabilityProbability(int i) {
+		computeReachability();
+		return reachability[i];
+	}
+
+	/**
+	 * Returns the steady state distribution of the <code>i</code>-th BSCC, in the order of {@link #getBSCC()}.
+	 *
+	 * @param i BSCC index
+	 * @return the steady state distribution of the <code>i</code>-th BSCC.
+	 */
+	public Map<S,Double> getBSCCDistribution(int i) {
+		double[] distribution = bsccDistribution(i);
+		int[] members = bscc.get(i);
+		Map<S,Double> toReturn = new HashMap<>();
+		for( int k=0 ; k<members.length ; k++ ) {
+			toReturn.put(getState(members[k]), distribution[k]);
+		}
+		return toReturn;
+	}
+
+	/**
+	 * Returns the steady state distribution of the chain starting from the initial state.
+	 *
+	 * @return the steady state distribution of the chain starting from the initial state.
+	 */
+	public Map<S,Double> compute() {
+		double[] distribution = steadyState();
+		HashMap<S,Double> toReturn = new HashMap<>();
+		index.forEach((s,i) -> toReturn.put(s, distribution[i]));
+		return toReturn;
+	}
+
+	/**
+	 * Returns the long-run probability of being in a state satisfying the given condition.
+	 *
+	 * @param condition a predicate on states
+	 * @return the long-run probability of being in a state satisfying the given condition.
+	 */
+	public double compute(Predicate<S> condition) {
+		double[] distribution = steadyState();
+		double sum = 0.0;
+		for( int i=0 ; i<distribution.length ; i++ ) {
+			if ((distribution[i]>0)&&(condition.test(getState(i)))) {
+				sum += distribution[i];
+			}
+		}
+		return sum;
+	}
+
+	private double[] steadyState() {
+		computeReachability();
+		double[] distribution = new double[states.length];
+		for( int b=0 ; b<bscc.size() ; b++ ) {
+			if (reachability[b]>0) {
+				double[] local = bsccDistribution(b);
+				int[] members = bscc.get(b);
+				for( int k=0 ; k<members.length ; k++ ) {
+					distribution[members[k]] = reachability[b]*local[k];
+				}
+			}
+		}
+		return distribution;
+	}
+
+	@SuppressWarnings("unchecked")
+	private S getState(int i) {
+		return (S) states[i];
+	}
+
+	private void computeStateIndex() {
+		if (space != null) {
+			index = space.getIndex();
+			states = new Object[space.size()];
+			for( int i=0 ; i<states.length ; i++ ) {
+				states[i] = space.getState(i);
+			}
+			rates = space.getRateMatrix();
+		} else {
+			AtomicInteger counter = new AtomicInteger(0);
+			index = chain.getStates().stream().collect(Collectors.toConcurrentMap(s -> s,s -> counter.getAndIncrement()));
+			states = new Object[index.size()];
+			index.forEach((s,i) -> states[i] = s);
+			rates = SparseMatrix.generate(index, s -> chain.getRow(s).entrySet().stream());
+		}
+		exitRates = rates.rowSums();
+		if (!index.containsKey(init)) {
+			throw new IllegalArgumentException("Initial state "+init+" is not in the chain!");
+		}
+	}
+
+	/*
+	 * Iterative version of Tarjan's algorithm: the recursion stack is replaced by arrays storing, for each
+	 * visited state, the position of the next edge to explore. Returns the number of components, while
+	 * the component of each state is stored in the given array.
+	 */
+	private int strongConnectedComponents(int[] component) {
+		int n = states.length;
+		int[] rowPointers = rates.getRowPointers();
+		int[] columns = rates.getColumns();
+		int[] order = new int[n];
+		int[] low = new int[n];
+		boolean[] onStack = new boolean[n];
+		int[] stack = new int[n];
+		int[] callStack = new int[n];
+		int[] nextEdge = new int[n];
+		Arrays.fill(order, -1);
+		int counter = 0;
+		int components = 0;
+		int stackSize = 0;
+		for( int root=0 ; root<n ; root++ ) {
+			if (order[root]>=0) {
+				continue;
+			}
+			int callSize = 0;
+			order[root] = low[root] = counter++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			callStack[callSize] = root;
+			nextEdge[callSize++] = rowPointers[root];
+			while (callSize>0) {
+				int v = callStack[callSize-1];
+				if (nextEdge[callSize-1]<rowPointers[v+1]) {
+					int w = columns[nextEdge[callSize-1]++];
+					if (order[w]<0) {
+						order[w] = low[w] = counter++;
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						callStack[callSize] = w;
+						nextEdge[callSize++] = rowPointers[w];
+					} else if (onStack[w]) {
+						low[v] = Math.min(low[v], order[w]);
+					}
+				} else {
+					callSize--;
+					if (low[v] == order[v]) {
+						int w;
+						do {
+							w = stack[--stackSize];
+							onStack[w] = false;
+							component[w] = components;
+						} while (w != v);
+						components++;
+					}
+					if (callSize>0) {
+						int u = callStack[callSize-1];
+						low[u] = Math.min(low[u], low[v]);
+					}
+				}
+			}
 		}
+		return components;
 	}
 
-	private void strongconnected(S s) {
-		bsccIndex.put(s, indexCounter);
-		lowIndex.put(s, indexCounter++);
-		bsccQueue.add(s);
-		inQueue.add(s);
-		for (S w : chain.next(s)) {
-			Integer wIndex = bsccIndex.get(s);
-			if (wIndex != null) {
-				strongconnected(w);
-				lowIndex.merge(s, lowIndex.get(w), Math::min);
+	private int[] localIndex(int[] elements) {
+		int[] localIndex = new int[states.length];
+		Arrays.fill(localIndex, -1);
+		for( int k=0 ; k<elements.length ; k++ ) {
+			localIndex[elements[k]] = k;
+		}
+		return localIndex;
+	}
+
+	private double[] bsccDistribution(int b) {
+		computeBSCC();
+		if (bsccDistributions[b] == null) {
+			bsccDistributions[b] = solveBSCC(bscc.get(b));
+		}
+		return bsccDistributions[b];
+	}
+
+	/*
+	 * Solves pi Q = 0 with sum(pi) = 1 on the given BSCC. Since a BSCC is closed, the exit rate of each
+	 * state only depends on transitions inside the BSCC.
+	 */
+	private double[] solveBSCC(int[] members) {
+		int m = members.length;
+		if (m == 1) {
+			return new double[] { 1.0 };
+		}
+		int[] localIndex = localIndex(members);
+		boolean power = (method == SteadyStateMethod.POWER);
+		SparseMatrix incoming = rates.restrict(members, localIndex, power).transpose();
+		double[] diagonal = new double[m];
+		double maxRate = 0.0;
+		for( int k=0 ; k<m ; k++ ) {
+			int s = members[k];
+			diagonal[k] = (power?exitRates[s]:exitRates[s]-rates.getEntry(s, s));
+			maxRate = Math.max(maxRate, exitRates[s]);
+		}
+		double q = maxRate*UNIFORMISATION_FACTOR;
+		double[] x = new double[m];
+		Arrays.fill(x, 1.0/m);
+		double[] previous = new double[m];
+		double[] y = new double[m];
+		for( int iteration=0 ; iteration<maxIterations ; iteration++ ) {
+			System.arraycopy(x, 0, previous, 0, m);
+			switch (method) {
+				case GAUSS_SEIDEL:
+					for( int k=0 ; k<m ; k++ ) {
+						x[k] = incoming.rowProduct(k, x)/diagonal[k];
+					}
+					break;
+				case JACOBI:
+					incoming.multiply(previous, y, parallel);
+					for( int k=0 ; k<m ; k++ ) {
+						x[k] = (1-JACOBI_WEIGHT)*previous[k]+JACOBI_WEIGHT*y[k]/diagonal[k];
+					}
+					break;
+				case POWER:
+					incoming.multiply(previous, y, parallel);
+					for( int k=0 ; k<m ; k++ ) {
+						x[k] = previous[k]*(1-diagonal[k]/q)+y[k]/q;
+					}
+					break;
+			}
+			normalise(x);
+			if (hasConverged(previous, x)) {
+				return x;
+			}
+		}
+		throw new IllegalStateException("Steady state solution did not converge in "+maxIterations+" iterations!");
+	}
+
+	/*
+	 * The probability to reach each BSCC is computed from the expected number of visits to each transient
+	 * state, that is the solution of n = p0 + n P_TT where P_TT is the embedded probability matrix
+	 * restricted to transient states. The system is solved in terms of w_t = n_t / E_t, where E_t is the
+	 * exit rate of t (self loops excluded).
+	 */
+	private void computeReachability() {
+		computeBSCC();
+		if (reachability != null) {
+			return;
+		}
+		double[] reach = new double[bscc.size()];
+		int initIndex = index.get(init);
+		if (bsccOf[initIndex]>=0) {
+			reach[bsccOf[initIndex]] = 1.0;
+			reachability = reach;
+			return;
+		}
+		int[] transientStates = IntStream.range(0, states.length).filter(i -> bsccOf[i]<0).toArray();
+		int[] localIndex = localIndex(transientStates);
+		int m = transientStates.length;
+		SparseMatrix incoming = rates.restrict(transientStates, localIndex, false).transpose();
+		double[] diagonal = new double[m];
+		for( int k=0 ; k<m ; k++ ) {
+			int s = transientStates[k];
+			diagonal[k] = exitRates[s]-rates.getEntry(s, s);
+		}
+		double[] p0 = new double[m];
+		p0[localIndex[initIndex]] = 1.0;
+		double[] w = solveVisits(incoming, diagonal, p0);
+		for( int k=0 ; k<m ; k++ ) {
+			double wk = w[k];
+			if (wk>0) {
+				int s = transientStates[k];
+				rates.forEachInRow(s, (j, v) -> {
+					if (bsccOf[j]>=0) {
+						reach[bsccOf[j]] += wk*v;
+					}
+				});
+			}
+		}
+		reachability = reach;
+	}
+
+	private double[] solveVisits(SparseMatrix incoming, double[] diagonal, double[] p0) {
+		int m = p0.length;
+		double[] w = new double[m];
+		double[] previous = new double[m];
+		double[] y = new double[m];
+		for( int iteration=0 ; iteration<maxIterations ; iteration++ ) {
+			System.arraycopy(w, 0, previous, 0, m);
+			if (method == SteadyStateMethod.GAUSS_SEIDEL) {
+				for( int k=0 ; k<m ; k++ ) {
+					w[k] = (p0[k]+incoming.rowProduct(k, w))/diagonal[k];
+				}
 			} else {
-				if (inQueue.contains(w)) {
-					lowIndex.merge(s, bsccIndex.get(w), Math::min);
+				incoming.multiply(previous, y, parallel);
+				for( int k=0 ; k<m ; k++ ) {
+					w[k] = (p0[k]+y[k])/diagonal[k];
 				}
 			}
+			if (hasConverged(previous, w)) {
+				return w;
+			}
+		}
+		throw new IllegalStateException("Reachability probabilities did not converge in "+maxIterations+" iterations!");
+	}
+
+	private void normalise(double[] x) {
+		double sum = 0.0;
+		for (double v : x) {
+			sum += v;
+		}
+		for( int k=0 ; k<x.length ; k++ ) {
+			x[k] /= sum;
+		}
+	}
+
+	private boolean hasConverged(double[] previous, double[] x) {
+		for( int k=0 ; k<x.length ; k++ ) {
+			if (Math.abs(x[k]-previous[k])>tolerance*Math.abs(x[k])) {
+				return false;
+			}
 		}
+		return true;
 	}
 
 }
@@ -23,17 +23,10 @@
 
 package it.unicam.quasylab.sibilla.core.markov;
 
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.linear.RealVector;
-
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * @author loreti
@@ -43,76 +36,86 @@ import java.util.stream.IntStream;
 public class TransientProbabilityContinuousSolver<S> {
 
 	private final ContinuousTimeMarkovChain<S> chain;
-	private RealMatrix matrix;
+	private final StateSpace<S> space;
 	private final S init;
-	private LinkedList<RealVector> vectorResults;
 	private final double epsilon;
+	private final boolean parallel;
+	private UniformisationSum uniformisation;
 	private Map<S, Integer> index;
 	
 	public TransientProbabilityContinuousSolver( 
 			ContinuousTimeMarkovChain<S> chain,
 			double epsilon,
 			S init) {
+		this(chain, epsilon, init, false);
+	}
+
+	public TransientProbabilityContinuousSolver( 
+			ContinuousTimeMarkovChain<S> chain,
+			double epsilon,
+			S init,
+			boolean parallel) {
 		this.chain = chain;
+		this.space = null;
+		this.init = init;
+		this.epsilon = epsilon;
+		this.parallel = parallel;
+	}
+
+	public TransientProbabilityContinuousSolver( 
+			StateSpace<S> space,
+			double epsilon,
+			S init,
+			boolean parallel) {
+		this.chain = null;
+		this.space = space;
 		this.init = init;
 		this.epsilon = epsilon;
+		this.parallel = parallel;
 	}
 
-	private RealVector buildRealVector() {
-		RealVector rv = new ArrayRealVector(index.size());
-		rv.setEntry(index.get(init), 1.0);
-		return rv;
+	private double[] buildInitialVector() {
+		double[] v = new double[index.size()];
+		v[index.get(init)] = 1.0;
+		return v;
 	}
 
-	private RealMatrix buidProbabilityMatrix(  ) {
-		return MarkovChain.generateMatrix(i -> MatrixUtils.createRealMatrix(i, i), 
-				s -> chain.uniformisedMatrixRow(s).entrySet().stream(),
-				index);
+	private SparseMatrix buidProbabilityMatrix(  ) {
+		if (space != null) {
+			return space.getUniformisedMatrix();
+		}
+		return SparseMatrix.generate(index, s -> chain.uniformisedMatrixRow(s).entrySet().stream());
 	}
 	
 	public Map<S,Double> compute(double t) {
-		if (vectorResults == null) {
+		if (uniformisation == null) {
 			computeStateIndex();
-			matrix = buidProbabilityMatrix( );
-			vectorResults = new LinkedList<>();
-			vectorResults.add(buildRealVector( ));
-		}
-		FoxGlynn fg = (t>0?FoxGlynn.compute(chain.getMaxRate()*t, epsilon):null);
-		if (fg != null) {
-			generateSteps(fg.rightPoint());			
+			uniformisation = new UniformisationSum(buidProbabilityMatrix( ).transpose(), buildInitialVector( ), parallel);
 		}
+		double maxRate = (space != null?space.getMaxRate():chain.getMaxRate());
+		FoxGlynn fg = (t>0?FoxGlynn.compute(maxRate*t, epsilon):null);
 		return generateMap( fg );
 	}
 
 
 	private Map<S, Double> generateMap( FoxGlynn fg ) {
 		HashMap<S,Double> toReturn = new HashMap<>();
-		RealVector v;
+		double[] v;
 		if (fg!=null) {
-			v = sum(fg);
+			v = uniformisation.compute(fg);
 		} else {
-			v = this.vectorResults.getFirst();
+			v = uniformisation.getInitialVector();
 		}
-		index.forEach((s,i) -> toReturn.put(s, v.getEntry(i)));
+		index.forEach((s,i) -> toReturn.put(s, v[i]));
 		return toReturn;
 	}
 
 
-	private RealVector sum(FoxGlynn fg ) {
-		return IntStream.range(fg.leftPoint(), fg.rightPoint()).boxed()
-				.map(i -> vectorResults.get(i).mapMultiply(fg.weight(i)/fg.totalWeight()))
-				.reduce(new ArrayRealVector(index.size()), (v1,v2) -> v1.add(v2));
-	}
-
-
-	private void generateSteps(int k) {
-		while (vectorResults.size()<k) {
-			vectorResults.add(matrix.preMultiply(vectorResults.getLast()));
-		}
-	}
-
-
 	private void computeStateIndex() {
+		if (space != null) {
+			index = space.getIndex();
+			return;
+		}
 		AtomicInteger counter = new AtomicInteger(0);
 		index = chain.getStates().stream().collect(Collectors.toConcurrentMap(s -> s,s -> counter.getAndIncrement()));
 	}
@@ -0,0 +1,89 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.util.Arrays;
+
+/**
+ * Computes the uniformisation sum <code>sum_{i} w_i M^i p0</code>, where weights <code>w_i</code> are the
+ * Poisson probabilities computed by {@link FoxGlynn}. Vectors are generated one at a time, so only the
+ * current vector, the next one and the accumulated sum are kept in memory. The vector at the left point of
+ * the last computed sum is stored so that a subsequent request with a larger left point does not restart
+ * from <code>p0</code>.
+ *
+ * @author loreti
+ */
+final class UniformisationSum {
+
+	private final SparseMatrix matrix;
+	private final double[] p0;
+	private final boolean parallel;
+	private double[] checkpoint;
+	private int checkpointStep;
+
+	UniformisationSum(SparseMatrix matrix, double[] p0, boolean parallel) {
+		this.matrix = matrix;
+		this.p0 = p0;
+		this.parallel = parallel;
+		this.checkpoint = p0;
+		this.checkpointStep = 0;
+	}
+
+	double[] getInitialVector() {
+		return p0;
+	}
+
+	double[] compute(FoxGlynn fg) {
+		int left = fg.leftPoint();
+		int right = fg.rightPoint();
+		double totalWeight = fg.totalWeight();
+		double[] result = new double[p0.length];
+		if (checkpointStep > left) {
+			checkpoint = p0;
+			checkpointStep = 0;
+		}
+		double[] current = Arrays.copyOf(checkpoint, checkpoint.length);
+		double[] next = new double[p0.length];
+		for( int step=checkpointStep ; step<right ; step++ ) {
+			if (step == left) {
+				checkpoint = Arrays.copyOf(current, current.length);
+				checkpointStep = step;
+			}
+			if (step >= left) {
+				double w = fg.weight(step)/totalWeight;
+				for( int i=0 ; i<current.length ; i++ ) {
+					result[i] += w*current[i];
+				}
+			}
+			if (step+1 < right) {
+				matrix.multiply(current, next, parallel);
+				double[] tmp = current;
+				current = next;
+				next = tmp;
+			}
+		}
+		return result;
+	}
+
+}
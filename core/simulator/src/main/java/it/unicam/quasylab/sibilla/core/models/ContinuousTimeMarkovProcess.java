@@ -22,13 +22,18 @@
  */
 package it.unicam.quasylab.sibilla.core.models;
 
+import it.unicam.quasylab.sibilla.core.markov.StateSpace;
+import it.unicam.quasylab.sibilla.core.markov.StateSpaceExplorer;
+import it.unicam.quasylab.sibilla.core.simulator.SplittableRandomGenerator;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedElement;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedStructure;
 import it.unicam.quasylab.sibilla.core.util.SibillaMessages;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -73,6 +78,36 @@ public interface ContinuousTimeMarkovProcess<S extends ImmutableState> extends I
 		return list;
 	}
 
+	/**
+	 * Returns the rates of the transitions enabled in the given state, indexed by target state. Rates of
+	 * transitions leading to the same state are summed up. This method assumes that transitions do not
+	 * depend on time and that each transition leads to a single state.
+	 *
+	 * @param s current state.
+	 * @return the rates of the transitions enabled in the given state, indexed by target state.
+	 */
+	default Map<S, Double> getTransitionRates(S s) {
+		RandomGenerator r = new SplittableRandomGenerator(0);
+		Map<S, Double> rates = new HashMap<>();
+		for (WeightedElement<? extends StepFunction<S>> w: getTransitions(r, 0.0, s).getAll()) {
+			rates.merge(w.getElement().step(r, 0.0, 0.0), w.getWeight(), Double::sum);
+		}
+		return rates;
+	}
+
+	/**
+	 * Returns the state space of the CTMC reachable from the given state. This method assumes that transitions
+	 * do not depend on time, that each transition leads to a single state and that states implement
+	 * <code>equals</code> and <code>hashCode</code>.
+	 *
+	 * @param init initial state.
+	 * @param parallel true if the state space is explored in parallel.
+	 * @return the state space of the CTMC reachable from the given state.
+	 */
+	default StateSpace<S> exploreStateSpace(S init, boolean parallel) {
+		return StateSpaceExplorer.explore(init, this::getTransitionRates, parallel);
+	}
+
 	/**
 	 * Sample a random value of a random variable exponentially distributed with
 	 * parameter <code>rate</code>.
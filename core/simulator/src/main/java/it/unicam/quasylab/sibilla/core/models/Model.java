@@ -74,6 +74,40 @@ public interface Model<S extends State> extends Serializable {
      */
     S fromByte(byte[] bytes) throws IOException;
 
+    /**
+     * Returns the number of integer components of model states, or <code>-1</code> when model states cannot be
+     * represented as vectors of integers. Serializers use this representation, when available, to encode
+     * trajectories by component.
+     *
+     * @return the number of integer components of model states, or <code>-1</code>.
+     */
+    default int stateVectorSize() {
+        return -1;
+    }
+
+    /**
+     * Returns the value of the component with the given index of the given state.
+     *
+     * @param state a model state.
+     * @param i     index of the component.
+     * @return the value of the component with the given index of the given state.
+     * @throws UnsupportedOperationException if model states are not vectors of integers.
+     */
+    default int stateComponent(S state, int i) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Builds the state having the given components.
+     *
+     * @param components components of the state.
+     * @return the state having the given components.
+     * @throws UnsupportedOperationException if model states are not vectors of integers.
+     */
+    default S stateOf(int[] components) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Each model is associated with a set of measures. This method returns the
      * array of measure names identified by strings.
@@ -142,26 +176,48 @@ public interface Model<S extends State> extends Serializable {
      *         given measures.
      */
     default SamplingFunction<S> selectSamplingFunction(boolean summary, int samplings, double dt, String... measures) {
+        return selectSamplingFunction(summary ? StatisticsType.SUMMARY : StatisticsType.DESCRIPTIVE, samplings, dt, measures);
+    }
+
+    /**
+     * Returns the samplings that can be used to collect simulation data of the given measures with
+     * the given kind of statistics.
+     *
+     * @param statistics kind of statistics computed on collected data.
+     * @param samplings number of samplings.
+     * @param dt time between two samplings.
+     * @param measures names of measures to collect.
+     * @return the samplings that can be used to collect simulation data of the
+     *         given measures.
+     */
+    default SamplingFunction<S> selectSamplingFunction(StatisticsType statistics, int samplings, double dt, String... measures) {
         if (measures.length == 0)
             return new SamplingCollection<>();
         if (measures.length == 1) {
             Measure<? super S> m = getMeasure(measures[0]);
             if (m != null)
-                return getSamplingStatistic(summary, samplings, dt, m);
+                return getSamplingStatistic(statistics, samplings, dt, m);
         } else {
             SamplingCollection<S> collection = new SamplingCollection<>();
             Arrays.stream(measures).map(this::getMeasure).filter(Objects::nonNull).sequential()
-                    .forEach(m -> collection.add(getSamplingStatistic(summary, samplings, dt, m)));
+                    .forEach(m -> collection.add(getSamplingStatistic(statistics, samplings, dt, m)));
             return collection;
         }
         return new SamplingCollection<>();
     }
 
     default SamplingFunction<S> getSamplingStatistic(boolean summary, int samplings, double dt, Measure<? super S> m) {
-        if (summary) {
-            return new SummaryStatisticSampling<>(samplings, dt, m);
-        } else {
-            return new DescriptiveStatisticSampling<>(samplings, dt, m);
+        return getSamplingStatistic(summary ? StatisticsType.SUMMARY : StatisticsType.DESCRIPTIVE, samplings, dt, m);
+    }
+
+    default SamplingFunction<S> getSamplingStatistic(StatisticsType statistics, int samplings, double dt, Measure<? super S> m) {
+        switch (statistics) {
+            case DESCRIPTIVE:
+                return new DescriptiveStatisticSampling<>(samplings, dt, m);
+            case QUANTILE:
+                return new QuantileStatisticSampling<>(samplings, dt, m);
+            default:
+                return new SummaryStatisticSampling<>(samplings, dt, m);
         }
     }
 
@@ -185,6 +241,10 @@ public interface Model<S extends State> extends Serializable {
         return selectSamplingFunction(summary, (int) (deadline/dt),dt,measures);
     }
 
+    default SamplingFunction<S> selectSamplingFunction(StatisticsType statistics, double deadline, double dt, String ... measures) {
+        return selectSamplingFunction(statistics, (int) (deadline/dt),dt,measures);
+    }
+
     default Map<String, Double> measuresOf(S state) {
         TreeMap<String, Double> toReturn = new TreeMap<>();
         for (String name : measures()) {
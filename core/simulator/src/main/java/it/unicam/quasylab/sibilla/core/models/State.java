@@ -27,5 +27,15 @@ import java.io.Externalizable;
 
 public interface State {
 
+    /**
+     * Returns a state equal to this one that is not affected by the following steps of the simulation that has
+     * produced this state. This method is used when a state has to be retained after it has been sampled, for
+     * instance to restart a simulation from it. States that are never updated in place return themselves.
+     *
+     * @return a state equal to this one that is not affected by the following simulation steps.
+     */
+    default State snapshot() {
+        return this;
+    }
 
 }
\ No newline at end of file
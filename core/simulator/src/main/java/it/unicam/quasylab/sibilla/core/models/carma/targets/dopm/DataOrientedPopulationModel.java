@@ -6,17 +6,16 @@ import it.unicam.quasylab.sibilla.core.models.StepFunction;
 import it.unicam.quasylab.sibilla.core.models.carma.targets.dopm.rules.Rule;
 import it.unicam.quasylab.sibilla.core.models.carma.targets.commons.expressions.ExpressionContext;
 import it.unicam.quasylab.sibilla.core.models.carma.targets.dopm.rules.BroadcastRule;
+import it.unicam.quasylab.sibilla.core.models.carma.targets.commons.states.Agent;
 import it.unicam.quasylab.sibilla.core.models.carma.targets.commons.states.AgentState;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
-import it.unicam.quasylab.sibilla.core.simulator.util.WeightedElement;
-import it.unicam.quasylab.sibilla.core.simulator.util.WeightedLinkedList;
+import it.unicam.quasylab.sibilla.core.simulator.util.WeightedFenwickTree;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedStructure;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.stream.Stream;
 
 public class DataOrientedPopulationModel implements Model<AgentState>,ContinuousTimeMarkovProcess<AgentState> {
 
@@ -32,26 +31,26 @@ public class DataOrientedPopulationModel implements Model<AgentState>,Continuous
 
     @Override
     public WeightedStructure<StepFunction<AgentState>> getTransitions(RandomGenerator r, double time, AgentState dataOrientedPopulationState) {
-        WeightedStructure<StepFunction<AgentState>> res = new WeightedLinkedList<>();
-        this.rules
-                .stream()
-                .flatMap(rule -> getRuleTransitions(dataOrientedPopulationState, rule, r))
-                .forEach(c -> res.add(c.getTotalWeight(), c.getElement()));
+        WeightedFenwickTree<StepFunction<AgentState>> res = new WeightedFenwickTree<>();
+        for (Rule rule : this.rules) {
+            addRuleTransitions(res, dataOrientedPopulationState, rule, r);
+        }
         return res;
     }
 
 
-    private Stream<WeightedElement<StepFunction<AgentState>>> getRuleTransitions(AgentState state, Rule rule, RandomGenerator r) {
-        return  state
-                .getAgents()
-                .entrySet()
-                .stream()
-                .filter(e -> e.getValue() > 0 && rule.getOutput().predicate().test(e.getKey().species(), new ExpressionContext(e.getKey().values(), state)))
-                .map(e -> new WeightedElement<StepFunction<AgentState>>(
-                        rule.getOutput().rate().apply(new ExpressionContext(e.getKey().values(), state)) * e.getValue(),
-                        (rnd, t, dt) ->  rule.apply(state, e.getKey(), r)
-                ));
+    private void addRuleTransitions(WeightedFenwickTree<StepFunction<AgentState>> res, AgentState state, Rule rule, RandomGenerator r) {
+        for (Map.Entry<Agent, Long> e : state.getAgents().entrySet()) {
+            if (e.getValue() > 0) {
+                ExpressionContext context = new ExpressionContext(e.getKey().values(), state);
+                if (rule.getOutput().predicate().test(e.getKey().species(), context)) {
+                    Agent agent = e.getKey();
+                    res.add(rule.getOutput().rate().apply(context) * e.getValue(), (rnd, t, dt) -> rule.apply(state, agent, r));
+                }
+            }
+        }
     }
+
     @Override
     public int stateByteArraySize() {
         return 0;
@@ -28,7 +28,7 @@ import it.unicam.quasylab.sibilla.core.models.StepFunction;
 import it.unicam.quasylab.sibilla.core.models.util.MappingState;
 import it.unicam.quasylab.sibilla.core.models.util.VariableTable;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
-import it.unicam.quasylab.sibilla.core.simulator.util.WeightedLinkedList;
+import it.unicam.quasylab.sibilla.core.simulator.util.WeightedFenwickTree;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedStructure;
 import org.apache.commons.math3.random.RandomGenerator;
 
@@ -53,7 +53,7 @@ public class CTMCModel extends MarkovChainModel implements ContinuousTimeMarkovP
 
     @Override
     public WeightedStructure<? extends StepFunction<MappingState>> getTransitions(RandomGenerator r, double time, MappingState state) {
-        WeightedLinkedList<StepFunction<MappingState>> result = new WeightedLinkedList<>();
+        WeightedFenwickTree<StepFunction<MappingState>> result = new WeightedFenwickTree<>(this.rules.size());
         for (MappingStateUpdate update: this.rules) {
             if (update.isEnabled(state)) {
                 double weight = update.weightOf(state);
@@ -29,7 +29,7 @@ import it.unicam.quasylab.sibilla.core.models.TimeHomogeneousStepFunction;
 import it.unicam.quasylab.sibilla.core.models.util.MappingState;
 import it.unicam.quasylab.sibilla.core.models.util.VariableTable;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
-import it.unicam.quasylab.sibilla.core.simulator.util.WeightedLinkedList;
+import it.unicam.quasylab.sibilla.core.simulator.util.WeightedFenwickTree;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedStructure;
 import org.apache.commons.math3.random.RandomGenerator;
 
@@ -55,7 +55,7 @@ public class DTMCModel extends MarkovChainModel implements DiscreteTimeMarkovPro
 
     @Override
     public WeightedStructure<? extends StepFunction<MappingState>> getTransitions(RandomGenerator r, double time, MappingState state) {
-        WeightedLinkedList<StepFunction<MappingState>> result = new WeightedLinkedList<>();
+        WeightedFenwickTree<StepFunction<MappingState>> result = new WeightedFenwickTree<>(this.rules.size());
         for (MappingStateUpdate update: this.rules) {
             if (update.isEnabled(state)) {
                 double weight = update.weightOf(state);
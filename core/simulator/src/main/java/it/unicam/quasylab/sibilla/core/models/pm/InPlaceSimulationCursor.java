@@ -0,0 +1,202 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.util.WeightedFenwickTree;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A simulation cursor for population models that implements the Gillespie direct method without
+ * allocating objects at each step. The cursor owns a single population vector that is updated in place,
+ * rule rates are stored in a {@link WeightedFenwickTree} and, after each firing, only the rates of the rules
+ * that depend on the species modified by the fired update (see {@link PopulationDependencyGraph}) are
+ * re-evaluated and updated in the tree. Selection of the next rule and each rate update take O(log n) time,
+ * where n is the number of rules. Partial sums are recomputed from the stored rates once every n updates, so
+ * that rounding errors do not accumulate along a run.
+ *
+ * Immutable {@link PopulationState} snapshots are only created when {@link #currentState()} is invoked,
+ * and at most once per step, while {@link #currentView()} returns the state updated in place. Runs observed
+ * through views, as the ones performed by a {@link it.unicam.quasylab.sibilla.core.simulator.SimulationTask},
+ * do not build a state at each step.
+ *
+ * Rates are assumed to be time homogeneous between two consecutive firings.
+ */
+public class InPlaceSimulationCursor implements SimulatorCursor<PopulationState> {
+
+    private final PopulationRule[] rules;
+    private final PopulationDependencyGraph graph;
+    private final Function<RandomGenerator, PopulationState> initialStateBuilder;
+
+    private final WeightedFenwickTree<PopulationRule> rates;
+    private int updatesSinceRebuild = 0;
+
+    private RandomGenerator rg;
+    private PopulationState current = null;
+    private PopulationState snapshot = null;
+    private double now = Double.NaN;
+    private boolean terminated = false;
+    private boolean started = false;
+
+    /**
+     * Creates a new cursor that simulates the given rules starting from the state obtained from the given builder.
+     *
+     * @param rg random generator used in the simulation.
+     * @param rules rules to simulate.
+     * @param graph dependency graph of the given rules.
+     * @param initialStateBuilder function used to build the initial state.
+     */
+    public InPlaceSimulationCursor(RandomGenerator rg, List<PopulationRule> rules, PopulationDependencyGraph graph, Function<RandomGenerator, PopulationState> initialStateBuilder) {
+        if (rules.size() != graph.size()) {
+            throw new IllegalArgumentException("The dependency graph does not match the given rules!");
+        }
+        this.rg = rg;
+        this.rules = rules.toArray(new PopulationRule[0]);
+        this.graph = graph;
+        this.initialStateBuilder = initialStateBuilder;
+        this.rates = new WeightedFenwickTree<>(this.rules.length);
+    }
+
+    @Override
+    public void start() {
+        start(initialStateBuilder.apply(rg), 0.0);
+    }
+
+    @Override
+    public void start(PopulationState initial, double time) {
+        this.snapshot = initial.snapshot();
+        this.current = PopulationState.updatableCopyOf(initial);
+        this.now = time;
+        this.rates.clear();
+        for (PopulationRule rule : rules) {
+            rates.add(rule.getRate(rg, now, current), rule);
+        }
+        this.updatesSinceRebuild = 0;
+        this.started = true;
+        this.terminated = false;
+    }
+
+    @Override
+    public boolean step() {
+        if (!started) {
+            throw new IllegalStateException();
+        }
+        double totalRate = rates.getTotalWeight();
+        int fired = select(totalRate);
+        if (fired < 0) {
+            rebuild();
+            totalRate = rates.getTotalWeight();
+            fired = select(totalRate);
+        }
+        if (fired < 0) {
+            terminated = true;
+            return false;
+        }
+        Update update = rules[fired].sampleUpdate(rg, now, current);
+        this.now += ContinuousTimeMarkovProcess.sampleExponentialDistribution(totalRate, rg);
+        this.current.applyInPlace(update);
+        this.snapshot = null;
+        for (int r : graph.getAffectedRules(fired, update)) {
+            rates.setWeight(r, rules[r].getRate(rg, now, current));
+            updatesSinceRebuild++;
+        }
+        if (updatesSinceRebuild >= rules.length) {
+            rebuild();
+        }
+        return true;
+    }
+
+    /**
+     * Selects the next rule to fire, or returns -1 if no rule is enabled. A value in <code>(0, totalRate]</code>
+     * is sampled so that rules with rate 0 are never selected. Because of rounding errors in the partial
+     * sums, -1 may also be returned when some rule is enabled: in this case the tree is rebuilt and the
+     * selection repeated.
+     */
+    private int select(double totalRate) {
+        if (totalRate <= 0) {
+            return -1;
+        }
+        int selected = rates.selectIndex((1.0 - rg.nextDouble()) * totalRate);
+        if ((selected < 0) || (rates.getWeight(selected) <= 0)) {
+            return -1;
+        }
+        return selected;
+    }
+
+    private void rebuild() {
+        rates.rebuild();
+        updatesSinceRebuild = 0;
+    }
+
+    @Override
+    public PopulationState currentState() {
+        if ((snapshot == null)&&(current != null)) {
+            snapshot = current.snapshot();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the population state updated in place by this cursor, so that no state is built when a run is
+     * only observed.
+     */
+    @Override
+    public PopulationState currentView() {
+        return current;
+    }
+
+    @Override
+    public double time() {
+        return now;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public void restart(RandomGenerator rg) {
+        this.rg = rg;
+        this.current = null;
+        this.snapshot = null;
+        this.now = Double.NaN;
+        this.terminated = false;
+        this.started = false;
+    }
+
+    @Override
+    public void restart() {
+        restart(this.rg);
+    }
+}
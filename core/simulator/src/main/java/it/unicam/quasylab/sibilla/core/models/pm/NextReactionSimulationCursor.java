@@ -0,0 +1,223 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A simulation cursor for population models that implements the <i>next reaction method</i> of
+ * Gibson and Bruck. Each rule is associated with the absolute time of its next firing, and rules are
+ * stored in an indexed priority queue. After each firing only the rules that depend on the species modified
+ * by the fired update (see {@link PopulationDependencyGraph}) are re-evaluated, while the firing times of the other
+ * rules are kept unchanged.
+ *
+ * Rates are assumed to be time homogeneous between two consecutive firings.
+ */
+public class NextReactionSimulationCursor implements SimulatorCursor<PopulationState> {
+
+    private final PopulationRule[] rules;
+    private final PopulationDependencyGraph graph;
+    private final Function<RandomGenerator, PopulationState> initialStateBuilder;
+
+    private final double[] rates;
+    private final double[] firingTimes;
+    private final PopulationTransition[] transitions;
+
+    private final int[] heap;
+    private final int[] positions;
+
+    private RandomGenerator rg;
+    private PopulationState current = null;
+    private double now = Double.NaN;
+    private boolean terminated = false;
+    private boolean started = false;
+
+    /**
+     * Creates a new cursor that simulates the given rules starting from the state obtained from the given builder.
+     *
+     * @param rg random generator used in the simulation.
+     * @param rules rules to simulate.
+     * @param graph dependency graph of the given rules.
+     * @param initialStateBuilder function used to build the initial state.
+     */
+    public NextReactionSimulationCursor(RandomGenerator rg, List<PopulationRule> rules, PopulationDependencyGraph graph, Function<RandomGenerator, PopulationState> initialStateBuilder) {
+        if (rules.size() != graph.size()) {
+            throw new IllegalArgumentException("The dependency graph does not match the given rules!");
+        }
+        this.rg = rg;
+        this.rules = rules.toArray(new PopulationRule[0]);
+        this.graph = graph;
+        this.initialStateBuilder = initialStateBuilder;
+        this.rates = new double[this.rules.length];
+        this.firingTimes = new double[this.rules.length];
+        this.transitions = new PopulationTransition[this.rules.length];
+        this.heap = new int[this.rules.length];
+        this.positions = new int[this.rules.length];
+    }
+
+    @Override
+    public void start() {
+        start(initialStateBuilder.apply(rg), 0.0);
+    }
+
+    @Override
+    public void start(PopulationState state, double time) {
+        this.current = state;
+        this.now = time;
+        for (int i = 0; i < rules.length; i++) {
+            rates[i] = 0.0;
+            evaluate(i, true);
+            heap[i] = i;
+            positions[i] = i;
+        }
+        for (int i = rules.length / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        this.started = true;
+        this.terminated = false;
+    }
+
+    @Override
+    public boolean step() {
+        if (!started) {
+            throw new IllegalStateException();
+        }
+        if ((rules.length == 0)||Double.isInfinite(firingTimes[heap[0]])) {
+            terminated = true;
+            return false;
+        }
+        int fired = heap[0];
+        Update update = transitions[fired].apply(rg);
+        this.now = firingTimes[fired];
+        this.current = current.apply(update);
+        for (int r : graph.getAffectedRules(fired, update)) {
+            evaluate(r, r == fired);
+            updatePosition(r);
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates the rate of the given rule in the current state and computes its next firing time.
+     * When the rule has not been fired and was already enabled, the firing time is rescaled according to
+     * the new rate; otherwise a new firing time is sampled.
+     */
+    private void evaluate(int r, boolean resample) {
+        double oldRate = rates[r];
+        PopulationTransition transition = rules[r].apply(rg, now, current);
+        double newRate = (transition == null ? 0.0 : transition.getRate());
+        transitions[r] = transition;
+        rates[r] = newRate;
+        if (newRate <= 0) {
+            firingTimes[r] = Double.POSITIVE_INFINITY;
+        } else if (!resample && (oldRate > 0)) {
+            firingTimes[r] = now + (oldRate / newRate) * (firingTimes[r] - now);
+        } else {
+            firingTimes[r] = now + ContinuousTimeMarkovProcess.sampleExponentialDistribution(newRate, rg);
+        }
+    }
+
+    private void updatePosition(int r) {
+        int i = positions[r];
+        if ((i > 0)&&(firingTimes[heap[(i - 1) / 2]] > firingTimes[r])) {
+            siftUp(i);
+        } else {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(int i) {
+        int r = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (firingTimes[heap[parent]] <= firingTimes[r]) {
+                break;
+            }
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(r, i);
+    }
+
+    private void siftDown(int i) {
+        int r = heap[i];
+        int half = heap.length / 2;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if ((child + 1 < heap.length)&&(firingTimes[heap[child + 1]] < firingTimes[heap[child]])) {
+                child++;
+            }
+            if (firingTimes[r] <= firingTimes[heap[child]]) {
+                break;
+            }
+            place(heap[child], i);
+            i = child;
+        }
+        place(r, i);
+    }
+
+    private void place(int r, int i) {
+        heap[i] = r;
+        positions[r] = i;
+    }
+
+    @Override
+    public PopulationState currentState() {
+        return current;
+    }
+
+    @Override
+    public double time() {
+        return now;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public void restart(RandomGenerator rg) {
+        this.rg = rg;
+        this.current = null;
+        this.now = Double.NaN;
+        this.terminated = false;
+        this.started = false;
+    }
+
+    @Override
+    public void restart() {
+        restart(this.rg);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Instances of this class describe the portion of a population state that is read by a rule to
+ * compute its guard and its rate. Dependencies are used to identify the rules that must be re-evaluated
+ * after a transition has been fired.
+ */
+public final class PopulationDependencies implements Serializable {
+
+    private static final long serialVersionUID = 2213617946327034521L;
+
+    /**
+     * Dependencies of a rule whose guard and rate can read any element of a population state.
+     */
+    public static final PopulationDependencies ANY = new PopulationDependencies(null, true);
+
+    /**
+     * Dependencies of a rule whose guard and rate do not read the population state.
+     */
+    public static final PopulationDependencies NONE = new PopulationDependencies(new int[0], false);
+
+    private final int[] species;
+
+    private final boolean populationSize;
+
+    private PopulationDependencies(int[] species, boolean populationSize) {
+        this.species = species;
+        this.populationSize = populationSize;
+    }
+
+    /**
+     * Returns the dependencies of a function that reads the occupancy of the given species.
+     *
+     * @param species indexes of read species.
+     * @return the dependencies of a function that reads the occupancy of the given species.
+     */
+    public static PopulationDependencies of(int ... species) {
+        return new PopulationDependencies(IntStream.of(species).sorted().distinct().toArray(), false);
+    }
+
+    /**
+     * Returns the dependencies of a function that reads the fraction of the given species. These functions
+     * also depend on the size of the whole population.
+     *
+     * @param species indexes of read species.
+     * @return the dependencies of a function that reads the fraction of the given species.
+     */
+    public static PopulationDependencies fractionOf(int ... species) {
+        return new PopulationDependencies(IntStream.of(species).sorted().distinct().toArray(), true);
+    }
+
+    /**
+     * Returns the dependencies obtained by combining this dependencies with the given one.
+     *
+     * @param other the dependencies to combine with this one.
+     * @return the dependencies obtained by combining this dependencies with the given one.
+     */
+    public PopulationDependencies combine(PopulationDependencies other) {
+        if (this.isUnknown()||other.isUnknown()) {
+            return ANY;
+        }
+        return new PopulationDependencies(
+                IntStream.concat(IntStream.of(this.species), IntStream.of(other.species)).sorted().distinct().toArray(),
+                this.populationSize||other.populationSize
+        );
+    }
+
+    /**
+     * Returns true if these dependencies are not statically known, namely when any element of a population
+     * state can be read.
+     *
+     * @return true if these dependencies are not statically known.
+     */
+    public boolean isUnknown() {
+        return species == null;
+    }
+
+    /**
+     * Returns the sorted array of the indexes of the species that are read. An empty array is returned when
+     * the dependencies are unknown.
+     *
+     * @return the sorted array of the indexes of the species that are read.
+     */
+    public int[] getSpecies() {
+        return (species == null ? new int[0] : species.clone());
+    }
+
+    /**
+     * Returns true if the size of the whole population is read.
+     *
+     * @return true if the size of the whole population is read.
+     */
+    public boolean dependsOnPopulationSize() {
+        return populationSize;
+    }
+
+    @Override
+    public String toString() {
+        if (isUnknown()) {
+            return "*";
+        }
+        return Arrays.toString(species)+(populationSize?"+#":"");
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the dependency graph among the rules of a population model. For each species
+ * the graph stores the rules whose rate can change when the occupancy of the species changes. For each
+ * rule whose update is statically known (see {@link ReactionRule}) the graph also stores the rules that must be
+ * re-evaluated after the rule is fired.
+ */
+public class PopulationDependencyGraph implements Serializable {
+
+    private static final long serialVersionUID = -2468398186853935468L;
+
+    private final int numberOfRules;
+
+    private final int[][] speciesDependentRules;
+
+    private final int[] populationSizeDependentRules;
+
+    private final int[] unknownDependenciesRules;
+
+    private final int[][] affectedRules;
+
+    /**
+     * Creates the dependency graph of the given list of rules acting on the given number of species.
+     *
+     * @param numberOfSpecies number of species in the population model.
+     * @param rules rules of the population model.
+     */
+    public PopulationDependencyGraph(int numberOfSpecies, List<PopulationRule> rules) {
+        this.numberOfRules = rules.size();
+        this.speciesDependentRules = new int[numberOfSpecies][];
+        List<List<Integer>> speciesDependencies = new LinkedList<>();
+        for (int i = 0; i < numberOfSpecies; i++) {
+            speciesDependencies.add(new LinkedList<>());
+        }
+        List<Integer> populationSizeDependencies = new LinkedList<>();
+        List<Integer> unknownDependencies = new LinkedList<>();
+        int counter = 0;
+        for (PopulationRule rule : rules) {
+            PopulationDependencies dependencies = getDependencies(rule);
+            if (dependencies.isUnknown()) {
+                unknownDependencies.add(counter);
+            } else {
+                for (int s : dependencies.getSpecies()) {
+                    speciesDependencies.get(s).add(counter);
+                }
+                if (dependencies.dependsOnPopulationSize()) {
+                    populationSizeDependencies.add(counter);
+                }
+            }
+            counter++;
+        }
+        for (int i = 0; i < numberOfSpecies; i++) {
+            this.speciesDependentRules[i] = toArray(speciesDependencies.get(i));
+        }
+        this.populationSizeDependentRules = toArray(populationSizeDependencies);
+        this.unknownDependenciesRules = toArray(unknownDependencies);
+        this.affectedRules = new int[numberOfRules][];
+        counter = 0;
+        for (PopulationRule rule : rules) {
+            if (rule instanceof ReactionRule) {
+                this.affectedRules[counter] = computeAffectedRules(counter, ((ReactionRule) rule).getUpdate());
+            }
+            counter++;
+        }
+    }
+
+    private static PopulationDependencies getDependencies(PopulationRule rule) {
+        if (rule instanceof ReactionRule) {
+            return ((ReactionRule) rule).getDependencies();
+        }
+        return PopulationDependencies.ANY;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream().mapToInt(i -> i).toArray();
+    }
+
+    private int[] computeAffectedRules(int rule, Update update) {
+        BitSet affected = new BitSet(numberOfRules);
+        affected.set(rule);
+        int drift = 0;
+        for (Map.Entry<Integer, Integer> e : update.getUpdate()) {
+            for (int r : getRulesDependingOn(e.getKey())) {
+                affected.set(r);
+            }
+            drift += e.getValue();
+        }
+        if (drift != 0) {
+            for (int r : populationSizeDependentRules) {
+                affected.set(r);
+            }
+        }
+        for (int r : unknownDependenciesRules) {
+            affected.set(r);
+        }
+        return affected.stream().toArray();
+    }
+
+    /**
+     * Returns the sorted array of the rules that must be re-evaluated after the given rule has been fired
+     * with the given update. The rule itself is always part of the result.
+     *
+     * @param rule index of fired rule.
+     * @param update the update performed by the fired rule.
+     * @return the sorted array of the rules that must be re-evaluated after the given rule has been fired.
+     */
+    public int[] getAffectedRules(int rule, Update update) {
+        if (affectedRules[rule] != null) {
+            return affectedRules[rule];
+        }
+        return computeAffectedRules(rule, update);
+    }
+
+    /**
+     * Returns the rules whose rate or guard depend on the given species. Rules whose dependencies are
+     * unknown are not part of the result.
+     *
+     * @param species species index.
+     * @return the rules whose rate or guard depend on the given species.
+     */
+    public int[] getRulesDependingOn(int species) {
+        if ((species < 0)||(species >= speciesDependentRules.length)) {
+            return new int[0];
+        }
+        return speciesDependentRules[species];
+    }
+
+    /**
+     * Returns the number of rules in this graph.
+     *
+     * @return the number of rules in this graph.
+     */
+    public int size() {
+        return numberOfRules;
+    }
+
+}
@@ -27,17 +27,16 @@ import it.unicam.quasylab.sibilla.core.models.AbstractModel;
 import it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess;
 import it.unicam.quasylab.sibilla.core.models.StepFunction;
 import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
-import it.unicam.quasylab.sibilla.core.simulator.util.WeightedElement;
-import it.unicam.quasylab.sibilla.core.simulator.util.WeightedLinkedList;
+import it.unicam.quasylab.sibilla.core.simulator.util.WeightedFenwickTree;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedStructure;
 import org.apache.commons.math3.random.RandomGenerator;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -57,23 +56,93 @@ public class PopulationModel extends AbstractModel<PopulationState> implements C
 
     private final List<PopulationRule> rules;
 
+    private final PopulationSimulationMode mode;
+
+    private final double tauLeapingTolerance;
+
+    private PopulationDependencyGraph dependencyGraph;
+
     public PopulationModel(PopulationRegistry registry,
                            List<PopulationRule> rules,
                            Map<String, Measure<? super PopulationState>> measuresTable,
                            Map<String, Predicate<? super PopulationState>> predicatesTable) {
+        this(registry, rules, measuresTable, predicatesTable, PopulationSimulationMode.DIRECT);
+    }
+
+    public PopulationModel(PopulationRegistry registry,
+                           List<PopulationRule> rules,
+                           Map<String, Measure<? super PopulationState>> measuresTable,
+                           Map<String, Predicate<? super PopulationState>> predicatesTable,
+                           PopulationSimulationMode mode) {
+        this(registry, rules, measuresTable, predicatesTable, mode, TauLeapingSimulationCursor.DEFAULT_TOLERANCE);
+    }
+
+    public PopulationModel(PopulationRegistry registry,
+                           List<PopulationRule> rules,
+                           Map<String, Measure<? super PopulationState>> measuresTable,
+                           Map<String, Predicate<? super PopulationState>> predicatesTable,
+                           PopulationSimulationMode mode,
+                           double tauLeapingTolerance) {
         super(measuresTable, predicatesTable);
         this.registry = registry;
         this.rules = rules;
+        this.mode = mode;
+        this.tauLeapingTolerance = tauLeapingTolerance;
+    }
+
+    @Override
+    public SimulatorCursor<PopulationState> createSimulationCursor(RandomGenerator r, Function<RandomGenerator, PopulationState> initialStateBuilder) {
+        if (mode == PopulationSimulationMode.NEXT_REACTION) {
+            return new NextReactionSimulationCursor(r, rules, getDependencyGraph(), initialStateBuilder);
+        }
+        if (mode == PopulationSimulationMode.IN_PLACE) {
+            return new InPlaceSimulationCursor(r, rules, getDependencyGraph(), initialStateBuilder);
+        }
+        if (mode == PopulationSimulationMode.TAU_LEAPING) {
+            return new TauLeapingSimulationCursor(r, rules, tauLeapingTolerance, initialStateBuilder);
+        }
+        return ContinuousTimeMarkovProcess.super.createSimulationCursor(r, initialStateBuilder);
+    }
+
+    /**
+     * Returns the dependency graph of the rules of this model. The graph is computed only once and then
+     * shared among all the cursors created by this model.
+     *
+     * @return the dependency graph of the rules of this model.
+     */
+    public synchronized PopulationDependencyGraph getDependencyGraph() {
+        if (dependencyGraph == null) {
+            dependencyGraph = new PopulationDependencyGraph(registry.size(), rules);
+        }
+        return dependencyGraph;
+    }
+
+    /**
+     * Returns the algorithm used to simulate this model.
+     *
+     * @return the algorithm used to simulate this model.
+     */
+    public PopulationSimulationMode getSimulationMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the tolerance used to select the leap length in {@link PopulationSimulationMode#TAU_LEAPING} mode.
+     *
+     * @return the tolerance used to select the leap length in tau-leaping mode.
+     */
+    public double getTauLeapingTolerance() {
+        return tauLeapingTolerance;
     }
 
     @Override
     public WeightedStructure<StepFunction<PopulationState>> getTransitions(RandomGenerator r, double now,
                                                                            PopulationState state) {
-        WeightedLinkedList<StepFunction<PopulationState>> activities = new WeightedLinkedList<>();
+        WeightedFenwickTree<StepFunction<PopulationState>> activities = new WeightedFenwickTree<>(rules.size());
         for (PopulationRule rule : rules) {
             PopulationTransition tra = rule.apply(r, now, state);
             if (tra != null) {
-                activities.add(new WeightedElement<>(tra.getRate(), (rnd, t, dt) -> state.apply(tra.apply(rnd))));
+                activities.add(tra.getRate(), (rnd, t, dt) -> state.apply(tra.apply(rnd)));
             }
         }
         return activities;
@@ -96,26 +165,39 @@ public class PopulationModel extends AbstractModel<PopulationState> implements C
 
     @Override
     public byte[] byteOf(PopulationState state) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(stateByteArraySize());
         for (int vectorSingleValue : state.getPopulationVector()) {
-                baos.write(ByteBuffer.allocate(4).putInt(vectorSingleValue).array());
+            buffer.putInt(vectorSingleValue);
         }
-        byte[] toReturn = baos.toByteArray();
-        baos.close();
-        return toReturn;
+        return buffer.array();
     }
 
     @Override
     public PopulationState fromByte(byte[] bytes) throws IOException {
-        ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
         int length = registry.size();
         int[] vector = new int[length];
         for (int i = 0; i < length; i++) {
-            vector[i] = ByteBuffer.wrap(bais.readNBytes(4)).getInt();
+            vector[i] = buffer.getInt();
         }
         return new PopulationState(vector);
     }
 
+    @Override
+    public int stateVectorSize() {
+        return registry.size();
+    }
+
+    @Override
+    public int stateComponent(PopulationState state, int i) {
+        return state.getPopulationVector()[i];
+    }
+
+    @Override
+    public PopulationState stateOf(int[] components) {
+        return new PopulationState(components);
+    }
+
     public int indexOf(String label, Object... args) {
         return registry.indexOf(label, args);
     }
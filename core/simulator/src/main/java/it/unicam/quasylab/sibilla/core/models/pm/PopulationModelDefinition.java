@@ -57,6 +57,8 @@ public class PopulationModelDefinition extends AbstractModelDefinition<Populatio
     private PopulationModel model;
     private ParametricDataSet<Function<RandomGenerator,PopulationState>> states;
     private Map<String, Predicate<? super PopulationState>> predicates;
+    private PopulationSimulationMode mode = PopulationSimulationMode.DIRECT;
+    private double tauLeapingTolerance = TauLeapingSimulationCursor.DEFAULT_TOLERANCE;
 
     /**
      * Create a new PopulationModelDefinition with the given functions used to build the elements of a definition.
@@ -113,11 +115,57 @@ public class PopulationModelDefinition extends AbstractModelDefinition<Populatio
             List<PopulationRule> rules = getRules();
             Map<String,Measure<? super PopulationState>> measures = getMeasures();
             Map<String,Predicate<? super PopulationState>> predicates = getPredicates();
-            model = new PopulationModel(registry,rules,measures, predicates);
+            model = new PopulationModel(registry,rules,measures, predicates, mode, tauLeapingTolerance);
         }
         return model;
     }
 
+    /**
+     * Sets the algorithm used to simulate the models generated by this definition.
+     *
+     * @param mode the algorithm used to simulate the generated models.
+     */
+    public synchronized void setSimulationMode(PopulationSimulationMode mode) {
+        if (this.mode != mode) {
+            this.mode = mode;
+            this.model = null;
+        }
+    }
+
+    /**
+     * Returns the algorithm used to simulate the models generated by this definition.
+     *
+     * @return the algorithm used to simulate the models generated by this definition.
+     */
+    public PopulationSimulationMode getSimulationMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the tolerance used to select the leap length when models are simulated in
+     * {@link PopulationSimulationMode#TAU_LEAPING} mode.
+     *
+     * @param tolerance bound on the relative change of propensities in a leap.
+     */
+    public synchronized void setTauLeapingTolerance(double tolerance) {
+        if (!(tolerance > 0)||(tolerance >= 1)) {
+            throw new IllegalArgumentException("Tolerance must be in (0,1)!");
+        }
+        if (this.tauLeapingTolerance != tolerance) {
+            this.tauLeapingTolerance = tolerance;
+            this.model = null;
+        }
+    }
+
+    /**
+     * Returns the tolerance used to select the leap length in {@link PopulationSimulationMode#TAU_LEAPING} mode.
+     *
+     * @return the tolerance used to select the leap length in tau-leaping mode.
+     */
+    public double getTauLeapingTolerance() {
+        return tauLeapingTolerance;
+    }
+
     @Override
     public boolean isAnInitialConfiguration(String name) {
         return getStates().isDefined(name);
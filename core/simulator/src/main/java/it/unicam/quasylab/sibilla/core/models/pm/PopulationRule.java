@@ -45,6 +45,33 @@ public interface PopulationRule extends Serializable {
 	 */
 	PopulationTransition apply( RandomGenerator r , double now, PopulationState state );
 
+	/**
+	 * Returns the rate of this rule in the given state, or 0 if the rule cannot be applied.
+	 * Implementations can override this method to avoid the allocation of a {@link PopulationTransition}.
+	 *
+	 * @param r random generator.
+	 * @param now current time.
+	 * @param state current state.
+	 * @return the rate of this rule in the given state.
+	 */
+	default double getRate( RandomGenerator r , double now, PopulationState state ) {
+		PopulationTransition transition = apply(r, now, state);
+		return (transition == null ? 0.0 : transition.getRate());
+	}
+
+	/**
+	 * Samples the update performed by this rule in the given state. This method is invoked only
+	 * when the rate of the rule in the given state is positive.
+	 *
+	 * @param r random generator.
+	 * @param now current time.
+	 * @param state current state.
+	 * @return the update performed by this rule.
+	 */
+	default Update sampleUpdate( RandomGenerator r , double now, PopulationState state ) {
+		return apply(r, now, state).apply(r);
+	}
+
 
 	static Function<PopulationState,Double> fractionOf(int idx) {
 		return s -> s.getFraction(idx);
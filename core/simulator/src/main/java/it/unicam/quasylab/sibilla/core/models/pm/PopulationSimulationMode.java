@@ -0,0 +1,56 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+/**
+ * Identifies the algorithm used to simulate a {@link PopulationModel}.
+ */
+public enum PopulationSimulationMode {
+
+    /**
+     * Gillespie direct method: all the rules are evaluated at each step.
+     */
+    DIRECT,
+
+    /**
+     * Gibson-Bruck next reaction method: after each step only the rules that depend on the modified
+     * species are re-evaluated.
+     */
+    NEXT_REACTION,
+
+    /**
+     * Gillespie direct method executed on a single population vector that is updated in place. Only the
+     * rules that depend on the modified species are re-evaluated, and no object is allocated at each step
+     * apart from the state snapshots requested by the simulation.
+     */
+    IN_PLACE,
+
+    /**
+     * Adaptive explicit tau-leaping (Cao-Gillespie-Petzold step selection). Non critical rules are fired
+     * in leaps, while exact SSA steps are performed when leaps are not convenient. Results are approximated
+     * within the tolerance set in the model definition.
+     */
+    TAU_LEAPING
+
+}
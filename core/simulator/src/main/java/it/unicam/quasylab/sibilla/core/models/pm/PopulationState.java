@@ -51,6 +51,10 @@ public class PopulationState implements ImmutableState {
      */
     private int[] populationVector;
     private double population;
+    /**
+     * This flag is set when this state is updated in place by the cursor that owns it.
+     */
+    private transient boolean updatedInPlace = false;
 
     public PopulationState() {
         super();
@@ -86,11 +90,26 @@ public class PopulationState implements ImmutableState {
         this(IntStream.range(0, state.length).map(i -> state[i]).sum(), state);
     }
 
-    private PopulationState(double population, int[] state) {
+    PopulationState(double population, int[] state) {
         this.populationVector = state;
         this.population = population;
     }
 
+    /**
+     * Returns a copy of the given state that can be updated in place, via {@link #applyInPlace(Update)} and
+     * {@link #assignInPlace(int[])}, by the cursor that owns it. The returned state can be used as a view of the
+     * current state of a run (see {@link it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor#currentView()})
+     * and its {@link #snapshot()} is an immutable copy.
+     *
+     * @param state the state to copy.
+     * @return a copy of the given state that can be updated in place.
+     */
+    static PopulationState updatableCopyOf(PopulationState state) {
+        PopulationState result = new PopulationState(state.population, state.populationVector.clone());
+        result.updatedInPlace = true;
+        return result;
+    }
+
     public double population() {
         return population;
     }
@@ -154,6 +173,44 @@ public class PopulationState implements ImmutableState {
         return new PopulationState(population, newState);
     }
 
+    /**
+     * Applies the given update to this state, without allocating a new one. This method is only used by
+     * cursors on the states obtained from {@link #updatableCopyOf(PopulationState)}, that only escape as views;
+     * all the other components see population states as immutable objects.
+     *
+     * @param update the update to apply.
+     */
+    void applyInPlace(Update update) {
+        int[] indexes = update.getIndexes();
+        int[] deltas = update.getDeltas();
+        for (int i = 0; i < indexes.length; i++) {
+            if (populationVector[indexes[i]] + deltas[i] < 0) {
+                throw new IllegalArgumentException(
+                        "Population Vector: " + this + " Update: " + update + " idx: " + indexes[i]
+                                + " newValue: " + (populationVector[indexes[i]] + deltas[i]));
+            }
+        }
+        for (int i = 0; i < indexes.length; i++) {
+            populationVector[indexes[i]] += deltas[i];
+            population += deltas[i];
+        }
+    }
+
+    /**
+     * Replaces the content of this state with the given population vector. As {@link #applyInPlace(Update)},
+     * this method is only used by cursors that own this instance.
+     *
+     * @param values the new population vector.
+     */
+    void assignInPlace(int[] values) {
+        double population = 0;
+        for (int i = 0; i < values.length; i++) {
+            populationVector[i] = values[i];
+            population += values[i];
+        }
+        this.population = population;
+    }
+
     public double min(Function<Integer, Double> f) {
         return min(i -> true, f);
     }
@@ -224,10 +281,28 @@ public class PopulationState implements ImmutableState {
         return Arrays.toString(populationVector);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PopulationState that = (PopulationState) o;
+        return Arrays.equals(populationVector, that.populationVector);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(populationVector);
+    }
+
     public int size() {
         return populationVector.length;
     }
 
+    @Override
+    public PopulationState snapshot() {
+        return (updatedInPlace ? new PopulationState(population, populationVector.clone()) : this);
+    }
+
     public PopulationState copy() {
         return new PopulationState(population, populationVector);
     }
@@ -49,6 +49,10 @@ public class ReactionRule implements PopulationRule, Serializable {
 	private final String name;
 
 	private final Update update;
+
+	private final PopulationDependencies dependencies;
+
+	private transient volatile int[][] compiledReactants;
 	
 	/**
 	 * @param reactants
@@ -60,6 +64,20 @@ public class ReactionRule implements PopulationRule, Serializable {
 	}
 
 	public ReactionRule(String name, Predicate<PopulationState> guard, Population[] reactants, Population[] products, RatePopulationFunction rateFunction) {
+		this(name,guard,reactants,products,rateFunction,PopulationDependencies.ANY);
+	}
+
+	/**
+	 * Creates a new reaction rule whose guard and rate only read the species in the given dependencies.
+	 *
+	 * @param name rule name.
+	 * @param guard rule guard (null if the rule is always enabled).
+	 * @param reactants reactants of the rule.
+	 * @param products products of the rule.
+	 * @param rateFunction rate function.
+	 * @param dependencies the species read by the guard and by the rate function.
+	 */
+	public ReactionRule(String name, Predicate<PopulationState> guard, Population[] reactants, Population[] products, RatePopulationFunction rateFunction, PopulationDependencies dependencies) {
 		super();
 		this.guard = guard;
 		this.reactants = new HashMap<>();
@@ -68,6 +86,7 @@ public class ReactionRule implements PopulationRule, Serializable {
 		this.update = new Update(name);
 		initReactants(reactants);
 		initDrift(reactants, products);
+		this.dependencies = dependencies.combine(PopulationDependencies.of(this.reactants.keySet().stream().mapToInt(i -> i).toArray()));
 	}
 
 	private void initReactants(Population[] reactants) {
@@ -101,13 +120,79 @@ public class ReactionRule implements PopulationRule, Serializable {
 		}
 		return null;
 	}
+
+	@Override
+	public double getRate(RandomGenerator r, double now, PopulationState state) {
+		if (isEnabled(state)) {
+			double rate = rateFunction.apply(now,state).doubleOf();
+			if (rate>0&&Double.isFinite(rate)) {
+				return rate;
+			}
+		}
+		return 0.0;
+	}
+
+	@Override
+	public Update sampleUpdate(RandomGenerator r, double now, PopulationState state) {
+		return update;
+	}
 	
+	/**
+	 * Returns the rule name.
+	 *
+	 * @return the rule name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the update performed when this rule is fired.
+	 *
+	 * @return the update performed when this rule is fired.
+	 */
+	public Update getUpdate() {
+		return update;
+	}
+
+	/**
+	 * Returns the species that are read to check if this rule is enabled and to compute its rate.
+	 * Reactants are always part of the returned dependencies.
+	 *
+	 * @return the species that are read to check if this rule is enabled and to compute its rate.
+	 */
+	public PopulationDependencies getDependencies() {
+		return dependencies;
+	}
+
+	/**
+	 * Returns the reactants of this rule as two arrays: the first contains species indexes while the second
+	 * contains the corresponding multiplicities. The returned arrays are shared and must not be modified.
+	 *
+	 * @return the reactants of this rule.
+	 */
+	int[][] getCompiledReactants() {
+		int[][] result = compiledReactants;
+		if (result == null) {
+			result = new int[][] { new int[reactants.size()], new int[reactants.size()] };
+			int counter = 0;
+			for (Map.Entry<Integer, Integer> e: this.reactants.entrySet()) {
+				result[0][counter] = e.getKey();
+				result[1][counter] = e.getValue();
+				counter++;
+			}
+			compiledReactants = result;
+		}
+		return result;
+	}
+
 	private boolean isEnabled(PopulationState state) {
 		if ((guard != null)&&(!guard.test(state))) {
 			return false;
 		}
-		for (Map.Entry<Integer, Integer> e: this.reactants.entrySet()) {
-			if (state.getOccupancy(e.getKey())<e.getValue()) {
+		int[][] compiled = getCompiledReactants();
+		for (int i = 0; i < compiled[0].length; i++) {
+			if (state.getOccupancy(compiled[0][i])<compiled[1][i]) {
 				return false;
 			}
 		}
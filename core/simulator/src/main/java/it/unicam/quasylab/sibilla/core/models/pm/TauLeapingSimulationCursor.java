@@ -0,0 +1,444 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.special.Gamma;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A simulation cursor for population models that implements the explicit tau-leaping method with the
+ * adaptive step selection of Cao, Gillespie and Petzold. At each step the rules that can exhaust one of
+ * their reactants within a few firings are classified as <i>critical</i>. Non critical rules are fired a
+ * Poisson distributed number of times in a leap whose length bounds the relative change of the propensities
+ * by the given tolerance, while at most one critical rule is fired in each leap. When the selected leap is
+ * too short to be convenient, a sequence of exact SSA steps is performed.
+ *
+ * Only {@link ReactionRule}s can be leaped: any other {@link PopulationRule} is always considered critical.
+ * The order of a reaction, used in step selection, is the number of its reactants plus the number of the other
+ * species its rate depends on. Species that are not reactants of any non critical rule are bounded as if they
+ * were reactants of a first order reaction.
+ */
+public class TauLeapingSimulationCursor implements SimulatorCursor<PopulationState> {
+
+    /**
+     * Default tolerance used to select the leap length.
+     */
+    public static final double DEFAULT_TOLERANCE = 0.03;
+
+    /**
+     * A rule is critical when it can be fired less than this number of times before exhausting a reactant.
+     */
+    public static final int CRITICAL_THRESHOLD = 10;
+
+    /**
+     * Exact steps are performed when the leap is shorter than this number of expected SSA steps.
+     */
+    public static final double EXACT_THRESHOLD = 10.0;
+
+    /**
+     * Number of exact steps performed when the leap is too short.
+     */
+    public static final int EXACT_STEPS = 100;
+
+    private final PopulationRule[] rules;
+    private final int[][] updateIndexes;
+    private final int[][] updateDeltas;
+    private final int[][] reactantIndexes;
+    private final int[][] reactantSizes;
+    private final int[] orders;
+    private final double tolerance;
+    private final Function<RandomGenerator, PopulationState> initialStateBuilder;
+
+    private final double[] rates;
+    private final boolean[] critical;
+    private double[] mu;
+    private double[] sigma;
+    private double[] highestOrder;
+    private int[] next;
+
+    private RandomGenerator rg;
+    private PopulationState current = null;
+    private PopulationState snapshot = null;
+    private double now = Double.NaN;
+    private int exactSteps = 0;
+    private boolean terminated = false;
+    private boolean started = false;
+
+    /**
+     * Creates a new cursor that simulates the given rules starting from the state obtained from the given builder.
+     *
+     * @param rg random generator used in the simulation.
+     * @param rules rules to simulate.
+     * @param tolerance bound on the relative change of propensities in a leap.
+     * @param initialStateBuilder function used to build the initial state.
+     */
+    public TauLeapingSimulationCursor(RandomGenerator rg, List<PopulationRule> rules, double tolerance, Function<RandomGenerator, PopulationState> initialStateBuilder) {
+        if (!(tolerance > 0)||(tolerance >= 1)) {
+            throw new IllegalArgumentException("Tolerance must be in (0,1)!");
+        }
+        this.rg = rg;
+        this.rules = rules.toArray(new PopulationRule[0]);
+        this.tolerance = tolerance;
+        this.initialStateBuilder = initialStateBuilder;
+        this.rates = new double[this.rules.length];
+        this.critical = new boolean[this.rules.length];
+        this.updateIndexes = new int[this.rules.length][];
+        this.updateDeltas = new int[this.rules.length][];
+        this.reactantIndexes = new int[this.rules.length][];
+        this.reactantSizes = new int[this.rules.length][];
+        this.orders = new int[this.rules.length];
+        for (int j = 0; j < this.rules.length; j++) {
+            if (this.rules[j] instanceof ReactionRule) {
+                compile(j, (ReactionRule) this.rules[j]);
+            }
+        }
+    }
+
+    private void compile(int j, ReactionRule rule) {
+        int[][] reactants = rule.getCompiledReactants();
+        updateIndexes[j] = rule.getUpdate().getIndexes();
+        updateDeltas[j] = rule.getUpdate().getDeltas();
+        reactantIndexes[j] = reactants[0];
+        reactantSizes[j] = reactants[1];
+        int order = 0;
+        for (int size : reactants[1]) {
+            order += size;
+        }
+        PopulationDependencies dependencies = rule.getDependencies();
+        if (!dependencies.isUnknown()) {
+            for (int species : dependencies.getSpecies()) {
+                if (!contains(reactants[0], species)) {
+                    order++;
+                }
+            }
+        }
+        orders[j] = order;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void start() {
+        start(initialStateBuilder.apply(rg), 0.0);
+    }
+
+    @Override
+    public void start(PopulationState initial, double time) {
+        int size = initial.size();
+        this.snapshot = initial.snapshot();
+        this.current = PopulationState.updatableCopyOf(initial);
+        this.mu = new double[size];
+        this.sigma = new double[size];
+        this.highestOrder = new double[size];
+        this.next = new int[size];
+        this.now = time;
+        this.exactSteps = 0;
+        this.started = true;
+        this.terminated = false;
+    }
+
+    @Override
+    public boolean step() {
+        if (!started) {
+            throw new IllegalStateException();
+        }
+        double totalRate = evaluateRates();
+        if (totalRate <= 0) {
+            terminated = true;
+            return false;
+        }
+        if (exactSteps > 0) {
+            exactSteps--;
+            exactStep(totalRate);
+            return true;
+        }
+        double tau = selectLeap();
+        if (Double.isInfinite(tau)) {
+            exactStep(totalRate);
+        } else if (tau < EXACT_THRESHOLD / totalRate) {
+            exactSteps = EXACT_STEPS - 1;
+            exactStep(totalRate);
+        } else {
+            leap(tau);
+        }
+        this.snapshot = null;
+        return true;
+    }
+
+    private double evaluateRates() {
+        double totalRate = 0.0;
+        for (int j = 0; j < rules.length; j++) {
+            rates[j] = rules[j].getRate(rg, now, current);
+            totalRate += rates[j];
+        }
+        return totalRate;
+    }
+
+    private void exactStep(double totalRate) {
+        int fired = select(rg.nextDouble() * totalRate, false);
+        Update update = rules[fired].sampleUpdate(rg, now, current);
+        this.now += ContinuousTimeMarkovProcess.sampleExponentialDistribution(totalRate, rg);
+        this.current.applyInPlace(update);
+        this.snapshot = null;
+    }
+
+    /**
+     * Classifies rules as critical or not and returns the largest leap that satisfies the tolerance
+     * with respect to the non critical rules.
+     */
+    private double selectLeap() {
+        int[] x = current.getPopulationVector();
+        for (int i = 0; i < x.length; i++) {
+            mu[i] = 0.0;
+            sigma[i] = 0.0;
+            highestOrder[i] = 0.0;
+        }
+        for (int j = 0; j < rules.length; j++) {
+            critical[j] = isCritical(j, x);
+            if (!critical[j] && (rates[j] > 0)) {
+                for (int k = 0; k < updateIndexes[j].length; k++) {
+                    mu[updateIndexes[j][k]] += updateDeltas[j][k] * rates[j];
+                    sigma[updateIndexes[j][k]] += updateDeltas[j][k] * updateDeltas[j][k] * rates[j];
+                }
+                for (int k = 0; k < reactantIndexes[j].length; k++) {
+                    int i = reactantIndexes[j][k];
+                    highestOrder[i] = Math.max(highestOrder[i], orderOf(orders[j], reactantSizes[j][k], x[i]));
+                }
+            }
+        }
+        double tau = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < x.length; i++) {
+            if ((mu[i] != 0)||(sigma[i] > 0)) {
+                double bound = Math.max(tolerance * x[i] / (highestOrder[i] > 0 ? highestOrder[i] : 1.0), 1.0);
+                if (mu[i] != 0) {
+                    tau = Math.min(tau, bound / Math.abs(mu[i]));
+                }
+                if (sigma[i] > 0) {
+                    tau = Math.min(tau, bound * bound / sigma[i]);
+                }
+            }
+        }
+        return tau;
+    }
+
+    private boolean isCritical(int j, int[] x) {
+        if (updateIndexes[j] == null) {
+            return true;
+        }
+        for (int k = 0; k < updateIndexes[j].length; k++) {
+            if ((updateDeltas[j][k] < 0)&&(x[updateIndexes[j][k]] / -updateDeltas[j][k] < CRITICAL_THRESHOLD)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the factor bounding the relative change of the propensity of a reaction of the given order
+     * with respect to the relative change of one of its reactants, having the given multiplicity.
+     */
+    private static double orderOf(int order, int multiplicity, int population) {
+        if (multiplicity <= 1) {
+            return order;
+        }
+        double x = Math.max(population, multiplicity + 1);
+        if ((order == 2)&&(multiplicity == 2)) {
+            return 2 + 1 / (x - 1);
+        }
+        if ((order == 3)&&(multiplicity == 2)) {
+            return 1.5 * (2 + 1 / (x - 1));
+        }
+        if ((order == 3)&&(multiplicity == 3)) {
+            return 3 + 1 / (x - 1) + 2 / (x - 2);
+        }
+        return order;
+    }
+
+    private void leap(double nonCriticalTau) {
+        int[] x = current.getPopulationVector();
+        double criticalRate = 0.0;
+        for (int j = 0; j < rules.length; j++) {
+            if (critical[j]) {
+                criticalRate += rates[j];
+            }
+        }
+        while (true) {
+            double criticalTau = (criticalRate > 0 ? ContinuousTimeMarkovProcess.sampleExponentialDistribution(criticalRate, rg) : Double.POSITIVE_INFINITY);
+            double tau = Math.min(nonCriticalTau, criticalTau);
+            System.arraycopy(x, 0, next, 0, x.length);
+            for (int j = 0; j < rules.length; j++) {
+                if (!critical[j] && (rates[j] > 0)) {
+                    long firings = samplePoisson(rates[j] * tau, rg);
+                    for (int k = 0; k < updateIndexes[j].length; k++) {
+                        next[updateIndexes[j][k]] += (int) (firings * updateDeltas[j][k]);
+                    }
+                }
+            }
+            if (criticalTau <= nonCriticalTau) {
+                Update update = rules[select(rg.nextDouble() * criticalRate, true)].sampleUpdate(rg, now, current);
+                int[] indexes = update.getIndexes();
+                int[] deltas = update.getDeltas();
+                for (int k = 0; k < indexes.length; k++) {
+                    next[indexes[k]] += deltas[k];
+                }
+            }
+            if (isNonNegative(next)) {
+                this.now += tau;
+                this.current.assignInPlace(next);
+                return;
+            }
+            nonCriticalTau = nonCriticalTau / 2;
+        }
+    }
+
+    private static boolean isNonNegative(int[] values) {
+        for (int v : values) {
+            if (v < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int select(double value, boolean onlyCritical) {
+        int last = -1;
+        for (int j = 0; j < rates.length; j++) {
+            if ((rates[j] > 0)&&(!onlyCritical || critical[j])) {
+                if (value < rates[j]) {
+                    return j;
+                }
+                value -= rates[j];
+                last = j;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Samples a value from a Poisson distribution with the given mean. Inversion is used for small means,
+     * while the transformed rejection method of Hörmann (PTRS) is used otherwise.
+     *
+     * @param mean distribution mean.
+     * @param rg random generator.
+     * @return a value sampled from a Poisson distribution with the given mean.
+     */
+    static long samplePoisson(double mean, RandomGenerator rg) {
+        if (mean <= 0) {
+            return 0;
+        }
+        if (mean < 10) {
+            double p = Math.exp(-mean);
+            double cumulative = p;
+            double u = rg.nextDouble();
+            long k = 0;
+            while ((u > cumulative)&&(p > 0)) {
+                k++;
+                p = p * mean / k;
+                cumulative += p;
+            }
+            return k;
+        }
+        double slam = Math.sqrt(mean);
+        double loglam = Math.log(mean);
+        double b = 0.931 + 2.53 * slam;
+        double a = -0.059 + 0.02483 * b;
+        double invalpha = 1.1239 + 1.1328 / (b - 3.4);
+        double vr = 0.9277 - 3.6224 / (b - 2);
+        while (true) {
+            double u = rg.nextDouble() - 0.5;
+            double v = rg.nextDouble();
+            double us = 0.5 - Math.abs(u);
+            long k = (long) Math.floor((2 * a / us + b) * u + mean + 0.43);
+            if ((us >= 0.07)&&(v <= vr)) {
+                return k;
+            }
+            if ((k < 0)||((us < 0.013)&&(v > us))) {
+                continue;
+            }
+            if (Math.log(v) + Math.log(invalpha) - Math.log(a / (us * us) + b) <= -mean + k * loglam - Gamma.logGamma(k + 1)) {
+                return k;
+            }
+        }
+    }
+
+    @Override
+    public PopulationState currentState() {
+        if ((snapshot == null)&&(current != null)) {
+            snapshot = current.snapshot();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the population state updated in place by this cursor, so that no state is built when a run is
+     * only observed.
+     */
+    @Override
+    public PopulationState currentView() {
+        return current;
+    }
+
+    @Override
+    public double time() {
+        return now;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public void restart(RandomGenerator rg) {
+        this.rg = rg;
+        this.current = null;
+        this.snapshot = null;
+        this.now = Double.NaN;
+        this.exactSteps = 0;
+        this.terminated = false;
+        this.started = false;
+    }
+
+    @Override
+    public void restart() {
+        restart(this.rg);
+    }
+}
@@ -40,6 +40,7 @@ public class Update implements Serializable {
 	private static final long serialVersionUID = 5759358996259668600L;
 	private final Map<Integer, Integer> update;
 	private final String name;
+	private transient volatile int[][] compiled;
 
 	public Update(String name) {
 		this.update = new HashMap<>();
@@ -58,9 +59,51 @@ public class Update implements Serializable {
 			} else {
 				update.remove(idx);
 			}
+			compiled = null;
 		}
 	}
 
+	/**
+	 * Returns the indexes of the species modified by this update. The returned array is shared and
+	 * must not be modified.
+	 *
+	 * @return the indexes of the species modified by this update.
+	 */
+	public int[] getIndexes() {
+		return compile()[0];
+	}
+
+	/**
+	 * Returns the drifts of the species modified by this update; the i-th element is the drift of
+	 * the species with index <code>getIndexes()[i]</code>. The returned array is shared and must not be modified.
+	 *
+	 * @return the drifts of the species modified by this update.
+	 */
+	public int[] getDeltas() {
+		return compile()[1];
+	}
+
+	private int[][] compile() {
+		int[][] result = compiled;
+		if (result == null) {
+			result = compileUpdate();
+			compiled = result;
+		}
+		return result;
+	}
+
+	private synchronized int[][] compileUpdate() {
+		int[] indexes = new int[update.size()];
+		int[] deltas = new int[update.size()];
+		int counter = 0;
+		for (Entry<Integer, Integer> e : update.entrySet()) {
+			indexes[counter] = e.getKey();
+			deltas[counter] = e.getValue();
+			counter++;
+		}
+		return new int[][] { indexes, deltas };
+	}
+
 	public int get(int i) {
 		return update.getOrDefault(i, 0);
 	}
@@ -0,0 +1,85 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.slam;
+
+import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
+import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgentDefinitions;
+import it.unicam.quasylab.sibilla.core.models.slam.data.AgentStore;
+
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An aggregate over the agents of a state used in perception functions. An aggregate consists of an expression,
+ * evaluated on the memory of each agent, and of a filter selecting the agents to consider. Both of them must not
+ * depend on the perceiving agent, so that the aggregate can be evaluated once for each state and then shared by
+ * all the agents that perceive it. Aggregates are registered in {@link SlamAgentDefinitions} when the model is
+ * built, and are identified by the index assigned at registration.
+ */
+public final class SlamAggregate {
+
+    private final int index;
+    private final ToDoubleFunction<AgentStore> expression;
+    private final Predicate<SlamAgent> filter;
+
+    /**
+     * Creates a new aggregate with the given index, expression and filter.
+     *
+     * @param index index of the aggregate.
+     * @param expression expression evaluated on agent memories.
+     * @param filter filter used to select agents.
+     */
+    public SlamAggregate(int index, ToDoubleFunction<AgentStore> expression, Predicate<SlamAgent> filter) {
+        this.index = index;
+        this.expression = expression;
+        this.filter = filter;
+    }
+
+    /**
+     * Returns the index of this aggregate.
+     *
+     * @return the index of this aggregate.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the expression evaluated on agent memories.
+     *
+     * @return the expression evaluated on agent memories.
+     */
+    public ToDoubleFunction<AgentStore> getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns the filter used to select agents.
+     *
+     * @return the filter used to select agents.
+     */
+    public Predicate<SlamAgent> getFilter() {
+        return filter;
+    }
+}
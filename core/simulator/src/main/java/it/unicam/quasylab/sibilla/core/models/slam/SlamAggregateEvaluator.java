@@ -0,0 +1,203 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.slam;
+
+import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
+import it.unicam.quasylab.sibilla.core.util.datastructures.SibillaMap;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+
+/**
+ * Evaluates the registered {@link SlamAggregate} over the agents of a state. Each aggregate is evaluated once, the
+ * first time it is requested, by a single pass over the agents that records the number and the sum of selected
+ * values together with the two smallest and the two largest ones. The aggregate over all the agents but a given one
+ * is then obtained in constant time by removing the contribution of that agent. Sums are accumulated with a
+ * compensation term, and a contribution is removed with an error-free subtraction, so that removing a dominating
+ * value does not cancel the contributions of the other agents. Instances of this class are not thread safe and are
+ * meant to be used while all the agents of a state perceive it.
+ */
+final class SlamAggregateEvaluator {
+
+    private final SibillaMap<Integer, SlamAgent> agents;
+
+    private Summary[] summaries = new Summary[0];
+
+    SlamAggregateEvaluator(SibillaMap<Integer, SlamAgent> agents) {
+        this.agents = agents;
+    }
+
+    double getMinOf(SlamAgent agent, SlamAggregate aggregate) {
+        Summary summary = getSummary(aggregate);
+        if (summary.minAgent == agent.agentId()) {
+            return (summary.count > 1 ? summary.secondMin : Double.NaN);
+        }
+        return (summary.count > 0 ? summary.min : Double.NaN);
+    }
+
+    double getMaxOf(SlamAgent agent, SlamAggregate aggregate) {
+        Summary summary = getSummary(aggregate);
+        if (summary.maxAgent == agent.agentId()) {
+            return (summary.count > 1 ? summary.secondMax : Double.NaN);
+        }
+        return (summary.count > 0 ? summary.max : Double.NaN);
+    }
+
+    double getSumOf(SlamAgent agent, SlamAggregate aggregate) {
+        Summary summary = getSummary(aggregate);
+        int id = agent.agentId();
+        return (summary.isSelected(id) ? summary.sumWithout(id) : summary.total());
+    }
+
+    double getMeanOf(SlamAgent agent, SlamAggregate aggregate) {
+        int count = count(agent, aggregate);
+        return (count > 0 ? getSumOf(agent, aggregate) / count : Double.NaN);
+    }
+
+    int count(SlamAgent agent, SlamAggregate aggregate) {
+        Summary summary = getSummary(aggregate);
+        return (summary.isSelected(agent.agentId()) ? summary.count - 1 : summary.count);
+    }
+
+    boolean exists(SlamAgent agent, SlamAggregate aggregate) {
+        return count(agent, aggregate) > 0;
+    }
+
+    boolean forAll(SlamAgent agent, SlamAggregate aggregate) {
+        Summary summary = getSummary(aggregate);
+        int others = (summary.isPresent(agent.agentId()) ? summary.size - 1 : summary.size);
+        return count(agent, aggregate) == others;
+    }
+
+    private Summary getSummary(SlamAggregate aggregate) {
+        int index = aggregate.getIndex();
+        if (index >= summaries.length) {
+            summaries = Arrays.copyOf(summaries, index + 1);
+        }
+        if (summaries[index] == null) {
+            summaries[index] = new Summary(agents, aggregate);
+        }
+        return summaries[index];
+    }
+
+    /**
+     * The values of an aggregate over all the agents of a state.
+     */
+    private static final class Summary {
+
+        private final boolean[] present;
+        private final boolean[] selected;
+        private final double[] values;
+        private int size = 0;
+        private int count = 0;
+        private double sum = 0.0;
+        private double compensation = 0.0;
+        private double min = Double.POSITIVE_INFINITY;
+        private double secondMin = Double.POSITIVE_INFINITY;
+        private int minAgent = -1;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double secondMax = Double.NEGATIVE_INFINITY;
+        private int maxAgent = -1;
+
+        private Summary(SibillaMap<Integer, SlamAgent> agents, SlamAggregate aggregate) {
+            int length = agents.streamOfValues().mapToInt(SlamAgent::agentId).max().orElse(-1) + 1;
+            this.present = new boolean[length];
+            this.selected = new boolean[length];
+            this.values = new double[length];
+            agents.streamOfValues().forEach(a -> add(a, aggregate));
+        }
+
+        private void add(SlamAgent agent, SlamAggregate aggregate) {
+            int id = agent.agentId();
+            size++;
+            present[id] = true;
+            if (!aggregate.getFilter().test(agent)) {
+                return;
+            }
+            double value = agent.eval(aggregate.getExpression());
+            selected[id] = true;
+            values[id] = value;
+            count++;
+            double next = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - next) + value;
+            } else {
+                compensation += (value - next) + sum;
+            }
+            sum = next;
+            if (value < min) {
+                secondMin = min;
+                min = value;
+                minAgent = id;
+            } else if (value < secondMin) {
+                secondMin = value;
+            }
+            if (value > max) {
+                secondMax = max;
+                max = value;
+                maxAgent = id;
+            } else if (value > secondMax) {
+                secondMax = value;
+            }
+        }
+
+        private double total() {
+            return (Double.isFinite(sum) ? sum + compensation : sum);
+        }
+
+        /**
+         * Returns the sum of the values selected for all the agents but the given one. The difference between the
+         * accumulated sum and the value of the agent is computed together with its rounding error, which is added
+         * back with the compensation. When the sum is not finite the other values are added again.
+         */
+        private double sumWithout(int id) {
+            if (!Double.isFinite(sum)) {
+                return recomputeSumWithout(id);
+            }
+            double value = values[id];
+            double difference = sum - value;
+            double virtual = difference - sum;
+            double error = (sum - (difference - virtual)) - (value + virtual);
+            return difference + (error + compensation);
+        }
+
+        private double recomputeSumWithout(int id) {
+            DoubleStream.Builder others = DoubleStream.builder();
+            for (int i = 0; i < values.length; i++) {
+                if (selected[i] && (i != id)) {
+                    others.add(values[i]);
+                }
+            }
+            return others.build().sum();
+        }
+
+        private boolean isPresent(int id) {
+            return (id >= 0) && (id < present.length) && present[id];
+        }
+
+        private boolean isSelected(int id) {
+            return (id >= 0) && (id < selected.length) && selected[id];
+        }
+    }
+}
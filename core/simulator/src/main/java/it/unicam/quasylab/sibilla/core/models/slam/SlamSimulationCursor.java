@@ -29,10 +29,18 @@ import org.apache.commons.math3.random.RandomGenerator;
 import java.util.Optional;
 import java.util.function.Function;
 
+/**
+ * A cursor used to simulate SLAM models. The activities of a run are scheduled in a mutable scheduler owned by
+ * the cursor, that is updated in place at each step. For this reason, the pending activities of the states returned
+ * by {@link #currentView()} are valid only until the next step, while their agents are never affected by the
+ * following steps. The states returned by {@link #currentState()} are snapshots (see {@link SlamState#snapshot()}),
+ * that are built at most once per step.
+ */
 public class SlamSimulationCursor implements SimulatorCursor<SlamState> {
 
     private RandomGenerator rg;
     private SlamState currentState = null;
+    private SlamState snapshot = null;
     private final Function<RandomGenerator, SlamState> initialStateSupplier;
 
     public SlamSimulationCursor(RandomGenerator rg, Function<RandomGenerator, SlamState> initialStateSupplier) {
@@ -42,7 +50,15 @@ public class SlamSimulationCursor implements SimulatorCursor<SlamState> {
 
     @Override
     public void start() {
-        this.currentState = initialStateSupplier.apply(rg);
+        this.currentState = initialStateSupplier.apply(rg).withMutableScheduler();
+        this.snapshot = null;
+    }
+
+    @Override
+    public void start(SlamState state, double time) {
+        //The time of a SlamState is stored in the state itself.
+        this.currentState = state.withMutableScheduler();
+        this.snapshot = null;
     }
 
     @Override
@@ -50,6 +66,7 @@ public class SlamSimulationCursor implements SimulatorCursor<SlamState> {
         Optional<SlamState> next = currentState.next(rg);
         if (next.isPresent()) {
             currentState = next.get();
+            snapshot = null;
             return true;
         } else {
             return false;
@@ -58,6 +75,14 @@ public class SlamSimulationCursor implements SimulatorCursor<SlamState> {
 
     @Override
     public SlamState currentState() {
+        if ((snapshot == null)&&(currentState != null)) {
+            snapshot = currentState.snapshot();
+        }
+        return snapshot;
+    }
+
+    @Override
+    public SlamState currentView() {
         return currentState;
     }
 
@@ -86,6 +111,7 @@ public class SlamSimulationCursor implements SimulatorCursor<SlamState> {
     public void restart(RandomGenerator rg) {
         this.rg = rg;
         this.currentState = null;
+        this.snapshot = null;
     }
 
     @Override
@@ -112,85 +112,85 @@ public final class SlamState implements State, StateExpressionEvaluator {
 
 
     @Override
-    public synchronized double getMinOf(ToDoubleFunction<AgentStore> expr) {
+    public double getMinOf(ToDoubleFunction<AgentStore> expr) {
         return agents.streamOfValues().mapToDouble(a -> a.eval(expr)).min().orElse(Double.NaN);
     }
 
-    public synchronized double getMinOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr) {
+    public double getMinOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).mapToDouble(a -> a.eval(expr)).min().orElse(Double.NaN);
     }
 
 
     @Override
-    public synchronized double getMinOf(ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
+    public double getMinOf(ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
         return agents.streamOfValues().filter(filter).mapToDouble(a -> a.eval(expr)).min().orElse(Double.NaN);
     }
 
-    public synchronized double getMinOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
+    public double getMinOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).filter(filter).mapToDouble(a -> a.eval(expr)).min().orElse(Double.NaN);
     }
 
 
     @Override
-    public synchronized double getMaxOf(ToDoubleFunction<AgentStore> expr) {
+    public double getMaxOf(ToDoubleFunction<AgentStore> expr) {
         return agents.streamOfValues().mapToDouble(a -> a.eval(expr)).max().orElse(Double.NaN);
     }
 
-    public synchronized double getMaxOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr) {
+    public double getMaxOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).mapToDouble(a -> a.eval(expr)).max().orElse(Double.NaN);
     }
 
     @Override
-    public synchronized double getMaxOf(ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
+    public double getMaxOf(ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
         return agents.streamOfValues().filter(filter).mapToDouble(a -> a.eval(expr)).max().orElse(Double.NaN);
     }
 
-    public synchronized double getMaxOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
+    public double getMaxOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).filter(filter).mapToDouble(a -> a.eval(expr)).max().orElse(Double.NaN);
     }
 
     @Override
-    public synchronized double getMeanOf(ToDoubleFunction<AgentStore> expr) {
+    public double getMeanOf(ToDoubleFunction<AgentStore> expr) {
         return agents.streamOfValues().mapToDouble(a -> a.eval(expr)).average().orElse(Double.NaN);
     }
 
-    public synchronized double getMeanOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr) {
+    public double getMeanOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).mapToDouble(a -> a.eval(expr)).average().orElse(Double.NaN);
     }
 
     @Override
-    public synchronized double getMeanOf(ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
+    public double getMeanOf(ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
         return agents.streamOfValues().filter(filter).mapToDouble(a -> a.eval(expr)).average().orElse(Double.NaN);
     }
 
-    public synchronized double getMeanOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
+    public double getMeanOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).filter(filter).mapToDouble(a -> a.eval(expr)).average().orElse(Double.NaN);
     }
 
-    public synchronized double getSumOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
+    public double getSumOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr, Predicate<SlamAgent> filter) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).filter(filter).mapToDouble(a -> a.eval(expr)).sum();
     }
 
-    public synchronized double getSumOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr) {
+    public double getSumOf(SlamAgent agent, ToDoubleFunction<AgentStore> expr) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).mapToDouble(a -> a.eval(expr)).sum();
     }
 
-    public synchronized int count(SlamAgent agent, Predicate<SlamAgent> filter) {
+    public int count(SlamAgent agent, Predicate<SlamAgent> filter) {
         return (int) agents.streamOfValues().filter(a -> !a.equals(agent)).filter(filter).count();
     }
 
 
     @Override
-    public synchronized boolean exists(Predicate<SlamAgent> p) {
+    public boolean exists(Predicate<SlamAgent> p) {
         return agents.streamOfValues().anyMatch(p);
     }
 
-    public synchronized boolean exists(SlamAgent agent, Predicate<SlamAgent> p) {
+    public boolean exists(SlamAgent agent, Predicate<SlamAgent> p) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).anyMatch(p);
     }
 
     @Override
-    public synchronized boolean forAll(Predicate<SlamAgent> p) {
+    public boolean forAll(Predicate<SlamAgent> p) {
         return agents.streamOfValues().allMatch(p);
     }
 
@@ -209,7 +209,7 @@ public final class SlamState implements State, StateExpressionEvaluator {
         return (int) agents.streamOfValues().filter(filter).count();
     }
 
-    public synchronized boolean forAll(SlamAgent agent, Predicate<SlamAgent> p) {
+    public boolean forAll(SlamAgent agent, Predicate<SlamAgent> p) {
         return agents.streamOfValues().filter(a -> !a.equals(agent)).allMatch(p);
     }
 
@@ -218,11 +218,47 @@ public final class SlamState implements State, StateExpressionEvaluator {
     }
 
     public SlamState progressTimeAt(RandomGenerator rg, double time) {
-        return new SlamState(activityFactory, time, agents.apply(a -> a.progressTime(rg, time)).apply(a -> a.perceive(rg, getStateExpressionEvaluator(a))), scheduledActivities, agentActivities);
+        SlamAggregateEvaluator aggregates = new SlamAggregateEvaluator(agents);
+        return new SlamState(activityFactory, time, agents.apply(a -> a.progressTime(rg, time)).apply(a -> a.perceive(rg, getStateExpressionEvaluator(a, aggregates))), scheduledActivities, agentActivities);
     }
 
-    private StateExpressionEvaluator getStateExpressionEvaluator(SlamAgent agent) {
+    private StateExpressionEvaluator getStateExpressionEvaluator(SlamAgent agent, SlamAggregateEvaluator aggregates) {
         return new StateExpressionEvaluator() {
+            @Override
+            public double getMinOf(SlamAggregate aggregate) {
+                return aggregates.getMinOf(agent, aggregate);
+            }
+
+            @Override
+            public double getMaxOf(SlamAggregate aggregate) {
+                return aggregates.getMaxOf(agent, aggregate);
+            }
+
+            @Override
+            public double getMeanOf(SlamAggregate aggregate) {
+                return aggregates.getMeanOf(agent, aggregate);
+            }
+
+            @Override
+            public double getSumOf(SlamAggregate aggregate) {
+                return aggregates.getSumOf(agent, aggregate);
+            }
+
+            @Override
+            public int count(SlamAggregate aggregate) {
+                return aggregates.count(agent, aggregate);
+            }
+
+            @Override
+            public boolean exists(SlamAggregate aggregate) {
+                return aggregates.exists(agent, aggregate);
+            }
+
+            @Override
+            public boolean forAll(SlamAggregate aggregate) {
+                return aggregates.forAll(agent, aggregate);
+            }
+
             @Override
             public double getMinOf(ToDoubleFunction<AgentStore> expr) {
                 return SlamState.this.getMinOf(agent, expr);
@@ -328,6 +364,23 @@ public final class SlamState implements State, StateExpressionEvaluator {
         return scheduledActivities.isEmpty();
     }
 
+    /**
+     * Returns a state equal to this one whose activities are scheduled in a new {@link HeapScheduler}. The steps
+     * performed from the returned state update that scheduler in place, hence they do not allocate a new queue for
+     * each scheduled activity, while this state is not affected.
+     *
+     * @return a state equal to this one whose activities are scheduled in a new mutable scheduler.
+     */
+    public SlamState withMutableScheduler() {
+        return SlamState.set(this, HeapScheduler.copyOf(scheduledActivities));
+    }
+
+    @Override
+    public SlamState snapshot() {
+        Scheduler<Activity> snapshot = scheduledActivities.snapshot();
+        return (snapshot == scheduledActivities ? this : SlamState.set(this, snapshot));
+    }
+
 
     public Optional<SlamState> next(RandomGenerator rg) {
         Optional<Pair<ScheduledElements<Activity>, Scheduler<Activity>>> scheduledElementsSibillaSchedulerInterafacePair = this.scheduledActivities.scheduleNext();
@@ -128,4 +128,74 @@ public interface StateExpressionEvaluator {
      */
     int count(Predicate<SlamAgent> filter);
 
+    /**
+     * Returns the min value of the given registered aggregate.
+     *
+     * @param aggregate a registered aggregate.
+     * @return the min value of the given registered aggregate.
+     */
+    default double getMinOf(SlamAggregate aggregate) {
+        return getMinOf(aggregate.getExpression(), aggregate.getFilter());
+    }
+
+    /**
+     * Returns the max value of the given registered aggregate.
+     *
+     * @param aggregate a registered aggregate.
+     * @return the max value of the given registered aggregate.
+     */
+    default double getMaxOf(SlamAggregate aggregate) {
+        return getMaxOf(aggregate.getExpression(), aggregate.getFilter());
+    }
+
+    /**
+     * Returns the mean value of the given registered aggregate.
+     *
+     * @param aggregate a registered aggregate.
+     * @return the mean value of the given registered aggregate.
+     */
+    default double getMeanOf(SlamAggregate aggregate) {
+        return getMeanOf(aggregate.getExpression(), aggregate.getFilter());
+    }
+
+    /**
+     * Returns the sum of the given registered aggregate.
+     *
+     * @param aggregate a registered aggregate.
+     * @return the sum of the given registered aggregate.
+     */
+    default double getSumOf(SlamAggregate aggregate) {
+        return getSumOf(aggregate.getExpression(), aggregate.getFilter());
+    }
+
+    /**
+     * Returns the number of agents selected by the given registered aggregate.
+     *
+     * @param aggregate a registered aggregate.
+     * @return the number of agents selected by the given registered aggregate.
+     */
+    default int count(SlamAggregate aggregate) {
+        return count(aggregate.getFilter());
+    }
+
+    /**
+     * Checks if there exists an agent selected by the given registered aggregate.
+     *
+     * @param aggregate a registered aggregate.
+     * @return true if there exists an agent selected by the given registered aggregate.
+     */
+    default boolean exists(SlamAggregate aggregate) {
+        return exists(aggregate.getFilter());
+    }
+
+    /**
+     * Checks if all the agents are selected by the given registered aggregate.
+     *
+     * @param aggregate a registered aggregate.
+     * @return true if all the agents are selected by the given registered aggregate.
+     */
+    default boolean forAll(SlamAggregate aggregate) {
+        return forAll(aggregate.getFilter());
+    }
+
 }
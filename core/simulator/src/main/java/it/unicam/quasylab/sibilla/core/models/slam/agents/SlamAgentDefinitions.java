@@ -29,10 +29,15 @@ import it.unicam.quasylab.sibilla.core.models.slam.data.SlamType;
 import it.unicam.quasylab.sibilla.core.models.slam.data.SlamValue;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 
 /**
  * An agent definition is a container for a set of agent prototypes.
@@ -45,6 +50,8 @@ public class SlamAgentDefinitions {
 
     private final Map<AgentName, SlamAgentPrototype> agentPrototypes = new TreeMap<>();
 
+    private final List<SlamAggregate> aggregates = new ArrayList<>();
+
     /**
      * Creates an empty agent definition.
      */
@@ -183,4 +190,27 @@ public class SlamAgentDefinitions {
     public AgentName getAgentName(String name) {
         return agentNames.get(name);
     }
+
+    /**
+     * Registers an aggregate used in perception functions and returns it. The given expression and filter must not
+     * depend on the perceiving agent.
+     *
+     * @param expression expression evaluated on agent memories.
+     * @param filter filter used to select agents.
+     * @return the registered aggregate.
+     */
+    public SlamAggregate registerAggregate(ToDoubleFunction<AgentStore> expression, Predicate<SlamAgent> filter) {
+        SlamAggregate aggregate = new SlamAggregate(aggregates.size(), expression, filter);
+        aggregates.add(aggregate);
+        return aggregate;
+    }
+
+    /**
+     * Returns the aggregates registered in this definition.
+     *
+     * @return the aggregates registered in this definition.
+     */
+    public List<SlamAggregate> getAggregates() {
+        return Collections.unmodifiableList(aggregates);
+    }
 }
@@ -25,19 +25,25 @@ package it.unicam.quasylab.sibilla.core.models.slam.data;
 
 import it.unicam.quasylab.sibilla.core.util.datastructures.Pair;
 import it.unicam.quasylab.sibilla.core.util.datastructures.SibillaMap;
+import it.unicam.quasylab.sibilla.core.util.datastructures.SlotRecord;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Represents the memory of an agent.
+ * Represents the memory of an agent. Values are stored in a {@link SlotRecord} whose slots are laid out according
+ * to the indexes of the variables in the {@link VariableRegistry}. All the memories are derived from the same empty
+ * record, so that the memories of agents with the same variables share their layout.
  */
 public final class AgentStore {
 
+    private static final SlotRecord<AgentVariable> EMPTY = new SlotRecord<>(AgentVariable::getIndex);
+
     private final double now;
 
-    private final SibillaMap<AgentVariable, SibillaValue> content;
+    private final SlotRecord<AgentVariable> content;
 
     /**
      * Creates an empty memory at time 0.
@@ -61,10 +67,14 @@ public final class AgentStore {
      * @param content initial content.
      */
     public AgentStore(double now, Map<AgentVariable, SibillaValue> content) {
-        this(now, SibillaMap.of(content));
+        this(now, EMPTY.setAll(content));
     }
 
     public AgentStore(double now, SibillaMap<AgentVariable, SibillaValue> content) {
+        this(now, content.reduce((e, r) -> r.set(e.getKey(), e.getValue()), EMPTY));
+    }
+
+    private AgentStore(double now, SlotRecord<AgentVariable> content) {
         this.now = now;
         this.content = content;
     }
@@ -80,13 +90,24 @@ public final class AgentStore {
         return content.getOrDefault(var, SibillaValue.ERROR_VALUE);
     }
 
+    /**
+     * Returns the numeric value associated with the given variable in this memory without allocating a
+     * {@link SibillaValue}. <code>Double.NaN</code> is returned when the variable is not defined in this memory.
+     *
+     * @param var variable.
+     * @return the numeric value associated with the given variable.
+     */
+    public double getDoubleValue(AgentVariable var) {
+        return content.getDouble(var, Double.NaN);
+    }
+
     /**
      * Assigns the given variable with the given value in memory.
      * @param var variable to assign.
      * @param value  variable value.
      */
     public AgentStore set(AgentVariable var, SibillaValue value) {
-        return new AgentStore(this.now, this.content.add(var, value));
+        return new AgentStore(this.now, this.content.set(var, value));
     }
 
     public synchronized double now() {
@@ -105,18 +126,18 @@ public final class AgentStore {
         if (variables.length != values.length) {
             throw new IllegalArgumentException(String.format("Illegal number of values! Expected %d are %d", variables.length, values.length));
         }
-        AgentStore result = new AgentStore();
+        Map<AgentVariable, SibillaValue> content = new HashMap<>();
         for(int i=0; i<variables.length; i++) {
-            result = result.set(variables[i], values[i]);
+            content.put(variables[i], values[i]);
         }
-        return result;
+        return new AgentStore(content);
     }
 
     public AgentStore set(List<Pair<AgentVariable, SibillaValue>> assignments) {
-        AgentStore store = this;
+        Map<AgentVariable, SibillaValue> updates = new HashMap<>();
         for (Pair<AgentVariable, SibillaValue> a : assignments) {
-            store = store.set(a.getKey(), a.getValue());
+            updates.put(a.getKey(), a.getValue());
         }
-        return store;
+        return new AgentStore(this.now, this.content.setAll(updates));
     }
 }
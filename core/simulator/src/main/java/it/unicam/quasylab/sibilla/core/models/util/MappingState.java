@@ -130,4 +130,17 @@ public class MappingState implements ImmutableState {
     public SibillaValue get(int idx) {
         return this.state[idx];
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MappingState that = (MappingState) o;
+        return Arrays.equals(state, that.state);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(state);
+    }
 }
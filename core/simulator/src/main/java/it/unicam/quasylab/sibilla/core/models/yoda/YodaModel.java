@@ -40,15 +40,22 @@ public class YodaModel implements DiscreteTimeModel<YodaSystemState> {
 
     private final Map<String, Predicate<YodaSystemState>> predicateMap;
 
+    private final YodaStepEngine engine;
+
     public YodaModel(Map<String, Measure<YodaSystemState>> measureMap, Map<String, Predicate<YodaSystemState>> predicateMap) {
+        this(measureMap, predicateMap, YodaStepEngine.getDefaultEngine());
+    }
+
+    public YodaModel(Map<String, Measure<YodaSystemState>> measureMap, Map<String, Predicate<YodaSystemState>> predicateMap, YodaStepEngine engine) {
         this.measureMap = measureMap;
         this.predicateMap = predicateMap;
+        this.engine = engine;
     }
 
 
     @Override
     public YodaSystemState sampleNextState(RandomGenerator r, double time, YodaSystemState state) {
-        return state.next(r);
+        return state.next(r, engine);
     }
 
 
@@ -98,7 +105,7 @@ public class YodaModel implements DiscreteTimeModel<YodaSystemState> {
     }
 
     public DiscreteTimeSimulationStepFunction<YodaSystemState> getDiscreteTimeStepFunction() {
-        return (rg,state) -> state.next(rg);
+        return (rg,state) -> state.next(rg, engine);
     }
 
     @Override
@@ -46,6 +46,7 @@ public class YodaModelDefinition extends AbstractModelDefinition<YodaSystemState
     private ParametricDataSet<Function<RandomGenerator, YodaSystemState>> states;
     private Map<String, Measure<YodaSystemState>> measures;
     private Map<String, Predicate<YodaSystemState>> predicates;
+    private YodaStepEngine engine = YodaStepEngine.getDefaultEngine();
 
     public YodaModelDefinition(
             EvaluationEnvironment environment, Function<EvaluationEnvironment, Map<String, Measure<YodaSystemState>>> measuresGenerationFunction, Function<EvaluationEnvironment, Map<String, Predicate<YodaSystemState>>> predicatesGenerationFunction, Function<EvaluationEnvironment, ParametricDataSet<Function<RandomGenerator, YodaSystemState>>> statesGenerationFunction){
@@ -75,11 +76,21 @@ public class YodaModelDefinition extends AbstractModelDefinition<YodaSystemState
     @Override
     public YodaModel createModel() {
         if (model == null){
-            this.model = new YodaModel(getMeasures(), getPredicates());
+            this.model = new YodaModel(getMeasures(), getPredicates(), engine);
         }
         return model;
     }
 
+    /**
+     * Sets the engine used by the created models to compute the steps of agents.
+     *
+     * @param engine the engine used to compute the steps of agents.
+     */
+    public void setStepEngine(YodaStepEngine engine) {
+        this.engine = engine;
+        this.model = null;
+    }
+
     @Override
     public boolean isAnInitialConfiguration(String name) {
         return getStates().isDefined(name);
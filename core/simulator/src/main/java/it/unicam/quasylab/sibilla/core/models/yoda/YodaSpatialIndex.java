@@ -0,0 +1,188 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.yoda;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A two-dimensional k-d tree over the elements of a scene. The position of each element is given by the values of
+ * two of its environmental attributes; elements where one of the two attributes is not defined are not indexed.
+ * The index is built in O(n log n) and it is immutable, so it can be safely queried by concurrent agents.
+ */
+public class YodaSpatialIndex {
+
+    private final List<? extends YodaSceneElement> elements;
+
+    private final int[] positions;
+
+    private final double[] xs;
+
+    private final double[] ys;
+
+    /**
+     * Creates the index of the given elements over the positions identified by the two given attributes.
+     *
+     * @param elements indexed elements.
+     * @param xVariable attribute containing the first coordinate of elements.
+     * @param yVariable attribute containing the second coordinate of elements.
+     */
+    public YodaSpatialIndex(List<? extends YodaSceneElement> elements, YodaVariable xVariable, YodaVariable yVariable) {
+        this.elements = elements;
+        int[] positions = new int[elements.size()];
+        double[] xs = new double[elements.size()];
+        double[] ys = new double[elements.size()];
+        int size = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            YodaVariableMapping attributes = elements.get(i).environmentalAttributes;
+            if (attributes.isDefined(xVariable) && attributes.isDefined(yVariable)) {
+                positions[size] = i;
+                xs[size] = attributes.getDoubleValue(xVariable);
+                ys[size] = attributes.getDoubleValue(yVariable);
+                size++;
+            }
+        }
+        this.positions = Arrays.copyOf(positions, size);
+        this.xs = Arrays.copyOf(xs, size);
+        this.ys = Arrays.copyOf(ys, size);
+        build(0, size, 0);
+    }
+
+    /**
+     * Returns the number of indexed elements.
+     *
+     * @return the number of indexed elements.
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the elements whose distance from the given point is not greater than the given radius. Elements are
+     * returned in the same order they have in the list used to build this index.
+     *
+     * @param x first coordinate of the point.
+     * @param y second coordinate of the point.
+     * @param radius maximal distance from the point.
+     * @return the elements whose distance from the given point is not greater than the given radius.
+     */
+    public Stream<YodaSceneElement> within(double x, double y, double radius) {
+        Hits hits = new Hits();
+        if (radius >= 0) {
+            collect(0, positions.length, 0, x, y, radius, hits);
+        }
+        Arrays.sort(hits.data, 0, hits.size);
+        return Arrays.stream(hits.data, 0, hits.size).mapToObj(elements::get);
+    }
+
+    private void collect(int from, int to, int axis, double x, double y, double radius, Hits hits) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        double dx = xs[mid] - x;
+        double dy = ys[mid] - y;
+        if (dx * dx + dy * dy <= radius * radius) {
+            hits.add(positions[mid]);
+        }
+        double delta = (axis == 0 ? dx : dy);
+        if (delta >= -radius) {
+            collect(from, mid, 1 - axis, x, y, radius, hits);
+        }
+        if (delta <= radius) {
+            collect(mid + 1, to, 1 - axis, x, y, radius, hits);
+        }
+    }
+
+    private void build(int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, axis);
+        build(from, mid, 1 - axis);
+        build(mid + 1, to, 1 - axis);
+    }
+
+    /**
+     * Rearranges the elements between <code>lo</code> and <code>hi</code> (inclusive) so that the one in position
+     * <code>k</code> is preceded by elements having a smaller or equal coordinate on the given axis and followed by
+     * elements having a greater or equal one.
+     */
+    private void select(int lo, int hi, int k, int axis) {
+        double[] coordinates = (axis == 0 ? xs : ys);
+        while (lo < hi) {
+            double pivot = coordinates[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coordinates[i] < pivot) {
+                    i++;
+                }
+                while (coordinates[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int position = positions[i];
+        positions[i] = positions[j];
+        positions[j] = position;
+        double x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+        double y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+    }
+
+    private static final class Hits {
+
+        private int[] data = new int[16];
+
+        private int size;
+
+        private void add(int position) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, 2 * size);
+            }
+            data[size++] = position;
+        }
+
+    }
+
+}
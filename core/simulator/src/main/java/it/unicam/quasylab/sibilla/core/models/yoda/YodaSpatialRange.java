@@ -0,0 +1,78 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.yoda;
+
+/**
+ * Identifies the neighbourhood of an element in the scene: all the elements whose position, given by the values of
+ * two environmental attributes, is at a distance not greater than a given radius.
+ */
+public final class YodaSpatialRange {
+
+    private final YodaVariable xVariable;
+
+    private final YodaVariable yVariable;
+
+    private final double radius;
+
+    /**
+     * Creates a new range of the given radius over the positions identified by the two given attributes.
+     *
+     * @param xVariable attribute containing the first coordinate of elements.
+     * @param yVariable attribute containing the second coordinate of elements.
+     * @param radius maximal distance of the elements in the range.
+     */
+    public YodaSpatialRange(YodaVariable xVariable, YodaVariable yVariable, double radius) {
+        this.xVariable = xVariable;
+        this.yVariable = yVariable;
+        this.radius = radius;
+    }
+
+    /**
+     * Returns the attribute containing the first coordinate of elements.
+     *
+     * @return the attribute containing the first coordinate of elements.
+     */
+    public YodaVariable getXVariable() {
+        return xVariable;
+    }
+
+    /**
+     * Returns the attribute containing the second coordinate of elements.
+     *
+     * @return the attribute containing the second coordinate of elements.
+     */
+    public YodaVariable getYVariable() {
+        return yVariable;
+    }
+
+    /**
+     * Returns the maximal distance of the elements in this range.
+     *
+     * @return the maximal distance of the elements in this range.
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+}
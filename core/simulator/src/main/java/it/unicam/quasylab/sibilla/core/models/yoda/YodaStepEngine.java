@@ -0,0 +1,140 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.yoda;
+
+import it.unicam.quasylab.sibilla.core.simulator.SplittableRandomGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the steps of a {@link YodaSystemState} by letting agents move in parallel. The agents are split in
+ * chunks that are executed in a {@link ForkJoinPool}. Each agent draws its random values from its own stream,
+ * identified by the seed of the generator used for the step, by the step number and by the agent id. Hence the
+ * resulting state does not depend on the number of threads in the pool nor on the order in which chunks are
+ * executed.
+ */
+public class YodaStepEngine {
+
+    /**
+     * Default number of agents below which a chunk is not split further.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private static final YodaStepEngine DEFAULT_ENGINE = new YodaStepEngine();
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    /**
+     * Creates a new engine running on the common pool with the default chunk size.
+     */
+    public YodaStepEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new engine running on the given pool.
+     *
+     * @param pool pool where agent steps are executed.
+     * @param chunkSize number of agents below which a chunk is not split further.
+     */
+    public YodaStepEngine(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive!");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the engine used when none is specified. It runs on the common pool.
+     *
+     * @return the engine used when none is specified.
+     */
+    public static YodaStepEngine getDefaultEngine() {
+        return DEFAULT_ENGINE;
+    }
+
+    /**
+     * Returns the state reached from the given one after one step. The streams of the agents are derived from
+     * <code>rg</code> as in {@link SplittableRandomGenerator#of(RandomGenerator)}, so the result is reproducible
+     * whenever <code>rg</code> is.
+     *
+     * @param rg random generator used to derive the streams of agents.
+     * @param state current state.
+     * @return the state reached from the given one after one step.
+     */
+    public YodaSystemState next(RandomGenerator rg, YodaSystemState state) {
+        SplittableRandomGenerator streams = SplittableRandomGenerator.of(rg).getStream(state.getStep());
+        List<YodaAgent> agents = state.getAgents();
+        YodaAgent[] newAgents = new YodaAgent[agents.size()];
+        StepTask task = new StepTask(streams, state, newAgents, 0, newAgents.length);
+        if (newAgents.length <= chunkSize) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return new YodaSystemState(Arrays.asList(newAgents), state.getSceneElements(), state.getStep() + 1);
+    }
+
+    private class StepTask extends RecursiveAction {
+
+        private final SplittableRandomGenerator streams;
+
+        private final YodaSystemState state;
+
+        private final YodaAgent[] newAgents;
+
+        private final int from;
+
+        private final int to;
+
+        private StepTask(SplittableRandomGenerator streams, YodaSystemState state, YodaAgent[] newAgents, int from, int to) {
+            this.streams = streams;
+            this.state = state;
+            this.newAgents = newAgents;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to; i++) {
+                    YodaAgent agent = state.get(i);
+                    newAgents[i] = agent.next(streams.getStream(agent.getId()), state);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StepTask(streams, state, newAgents, from, mid), new StepTask(streams, state, newAgents, mid, to));
+            }
+        }
+    }
+
+}
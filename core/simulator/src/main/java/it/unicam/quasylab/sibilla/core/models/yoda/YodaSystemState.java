@@ -31,6 +31,7 @@ import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
@@ -52,9 +53,25 @@ public class YodaSystemState implements ImmutableState, IndexedState<YodaAgent>
     private final List<YodaAgent> agents;
     private final List<YodaSceneElement> sceneElements;
 
+    private final long step;
+
+    private final ConcurrentHashMap<Long, YodaSpatialIndex> spatialIndexes = new ConcurrentHashMap<>();
+
     public YodaSystemState(List<YodaAgent> agents, List<YodaSceneElement> sceneElements) {
+        this(agents, sceneElements, 0);
+    }
+
+    /**
+     * Creates a new state reached after the given number of steps.
+     *
+     * @param agents agents in the state.
+     * @param sceneElements elements in the scene.
+     * @param step number of steps performed to reach this state.
+     */
+    public YodaSystemState(List<YodaAgent> agents, List<YodaSceneElement> sceneElements, long step) {
         this.agents = agents;
         this.sceneElements = sceneElements;
+        this.step = step;
     }
 
 
@@ -68,9 +85,37 @@ public class YodaSystemState implements ImmutableState, IndexedState<YodaAgent>
     }
 
 
+    /**
+     * Returns the elements in the scene.
+     *
+     * @return the elements in the scene.
+     */
+    public List<YodaSceneElement> getSceneElements() {
+        return sceneElements;
+    }
+
+    /**
+     * Returns the number of steps performed to reach this state.
+     *
+     * @return the number of steps performed to reach this state.
+     */
+    public long getStep() {
+        return step;
+    }
+
     public YodaSystemState next(RandomGenerator rg) {
-        List<YodaAgent> newAgents = this.agents.stream().parallel().map(a -> a.next(rg, this)).collect(Collectors.toList());
-        return new YodaSystemState(newAgents, this.sceneElements);
+        return next(rg, YodaStepEngine.getDefaultEngine());
+    }
+
+    /**
+     * Returns the state reached from this one after one step computed by the given engine.
+     *
+     * @param rg random generator used to derive the streams of agents.
+     * @param engine engine computing the step.
+     * @return the state reached from this one after one step.
+     */
+    public YodaSystemState next(RandomGenerator rg, YodaStepEngine engine) {
+        return engine.next(rg, this);
     }
 
 
@@ -93,6 +138,30 @@ public class YodaSystemState implements ImmutableState, IndexedState<YodaAgent>
         return Stream.concat(this.agents.stream().filter(a -> a.getId() != agent.getId()), this.sceneElements.stream());
     }
 
+    /**
+     * Returns the index of the agents and of the elements in this state over the positions identified by the two
+     * given attributes. The index is built at the first invocation and then shared by all the agents sensing this
+     * state.
+     *
+     * @param xVariable attribute containing the first coordinate of elements.
+     * @param yVariable attribute containing the second coordinate of elements.
+     * @return the index of the agents and of the elements in this state.
+     */
+    public YodaSpatialIndex getSpatialIndex(YodaVariable xVariable, YodaVariable yVariable) {
+        return spatialIndexes.computeIfAbsent(((long) xVariable.getIdx() << 32) | (yVariable.getIdx() & 0xFFFFFFFFL),
+                k -> new YodaSpatialIndex(getStreamOfElements().collect(Collectors.toList()), xVariable, yVariable));
+    }
+
+    private Stream<YodaSceneElement> getStreamOfElements(YodaAgent agent, YodaSpatialRange range) {
+        YodaVariableMapping attributes = agent.environmentalAttributes;
+        if (!attributes.isDefined(range.getXVariable()) || !attributes.isDefined(range.getYVariable())) {
+            return Stream.empty();
+        }
+        return getSpatialIndex(range.getXVariable(), range.getYVariable())
+                .within(attributes.getDoubleValue(range.getXVariable()), attributes.getDoubleValue(range.getYVariable()), range.getRadius())
+                .filter(e -> !(e instanceof YodaAgent) || e.getId() != agent.getId());
+    }
+
     /**
      * Returns true if there exist an agent or an element satisfying the given predicate.
      *
@@ -281,4 +350,109 @@ public class YodaSystemState implements ImmutableState, IndexedState<YodaAgent>
         return SibillaValue.of(getStreamOfElements().filter(a -> a.getId() != agent.getId()).filter(a -> a.test(pred)).mapToDouble(a -> a.eval(f)).average().orElse(0.0));
     }
 
+    /**
+     * Returns true if there exists an element in the given range around <code>agent</code>, different from
+     * <code>agent</code>, satisfying the given predicate.
+     *
+     * @param agent an agent
+     * @param range the range around the agent
+     * @param p the predicate to evaluate
+     * @return true if there exists an element in the given range around <code>agent</code> satisfying the given
+     * predicate.
+     */
+    public boolean exists(YodaAgent agent, YodaSpatialRange range, Predicate<YodaVariableMapping> p) {
+        return getStreamOfElements(agent, range).anyMatch(a -> a.test(p));
+    }
+
+    /**
+     * Returns true if there exists an element in the given range around <code>agent</code>, different from
+     * <code>agent</code>, having its name in <code>elementNames</code> that satisfies the given predicate.
+     *
+     * @param agent an agent
+     * @param range the range around the agent
+     * @param elementNames a set of names
+     * @param p the predicate to evaluate
+     * @return true if there exists an element in the given range around <code>agent</code>, having its name in
+     * <code>elementNames</code>, that satisfies the given predicate.
+     */
+    public boolean exists(YodaAgent agent, YodaSpatialRange range, Set<YodaElementName> elementNames, Predicate<YodaVariableMapping> p) {
+        return getStreamOfElements(agent, range).filter(a -> elementNames.contains(a.getName())).anyMatch(a -> a.test(p));
+    }
+
+    /**
+     * Returns true if all the elements in the given range around <code>agent</code>, that are different from
+     * <code>agent</code>, satisfy the given predicate.
+     *
+     * @param agent an agent
+     * @param range the range around the agent
+     * @param p the predicate to evaluate
+     * @return true if all the elements in the given range around <code>agent</code> satisfy the given predicate.
+     */
+    public boolean forall(YodaAgent agent, YodaSpatialRange range, Predicate<YodaVariableMapping> p) {
+        return getStreamOfElements(agent, range).allMatch(e -> e.test(p));
+    }
+
+    /**
+     * Returns true if all the elements in the given range around <code>agent</code>, that are different from
+     * <code>agent</code> and have a name in <code>elementNames</code>, satisfy the given predicate.
+     *
+     * @param agent an agent
+     * @param range the range around the agent
+     * @param elementNames a set of names
+     * @param p the predicate to evaluate
+     * @return true if all the elements in the given range around <code>agent</code>, having a name in
+     * <code>elementNames</code>, satisfy the given predicate.
+     */
+    public boolean forall(YodaAgent agent, YodaSpatialRange range, Set<YodaElementName> elementNames, Predicate<YodaVariableMapping> p) {
+        return getStreamOfElements(agent, range).filter(e -> elementNames.contains(e.getName())).allMatch(a -> a.test(p));
+    }
+
+    public SibillaValue min(YodaAgent agent, YodaSpatialRange range, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).mapToDouble(a -> a.eval(f)).min().orElse(Double.POSITIVE_INFINITY));
+    }
+
+    public SibillaValue min(YodaAgent agent, YodaSpatialRange range, Set<YodaElementName> elementNames, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> elementNames.contains(a.getName())).mapToDouble(a -> a.eval(f)).min().orElse(Double.POSITIVE_INFINITY));
+    }
+
+    public SibillaValue min(YodaAgent agent, YodaSpatialRange range, Set<YodaElementName> elementNames, Predicate<YodaVariableMapping> pred, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> elementNames.contains(a.getName())).filter(a -> a.test(pred)).mapToDouble(a -> a.eval(f)).min().orElse(Double.POSITIVE_INFINITY));
+    }
+
+    public SibillaValue min(YodaAgent agent, YodaSpatialRange range, Predicate<YodaVariableMapping> pred, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> a.test(pred)).mapToDouble(a -> a.eval(f)).min().orElse(Double.POSITIVE_INFINITY));
+    }
+
+    public SibillaValue max(YodaAgent agent, YodaSpatialRange range, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).mapToDouble(a -> a.eval(f)).max().orElse(Double.NEGATIVE_INFINITY));
+    }
+
+    public SibillaValue max(YodaAgent agent, YodaSpatialRange range, Set<YodaElementName> elementNames, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> elementNames.contains(a.getName())).mapToDouble(a -> a.eval(f)).max().orElse(Double.NEGATIVE_INFINITY));
+    }
+
+    public SibillaValue max(YodaAgent agent, YodaSpatialRange range, Set<YodaElementName> elementNames, Predicate<YodaVariableMapping> pred, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> elementNames.contains(a.getName())).filter(a -> a.test(pred)).mapToDouble(a -> a.eval(f)).max().orElse(Double.NEGATIVE_INFINITY));
+    }
+
+    public SibillaValue max(YodaAgent agent, YodaSpatialRange range, Predicate<YodaVariableMapping> pred, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> a.test(pred)).mapToDouble(a -> a.eval(f)).max().orElse(Double.NEGATIVE_INFINITY));
+    }
+
+    public SibillaValue mean(YodaAgent agent, YodaSpatialRange range, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).mapToDouble(a -> a.eval(f)).average().orElse(0.0));
+    }
+
+    public SibillaValue mean(YodaAgent agent, YodaSpatialRange range, Set<YodaElementName> elementNames, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> elementNames.contains(a.getName())).mapToDouble(a -> a.eval(f)).average().orElse(0.0));
+    }
+
+    public SibillaValue mean(YodaAgent agent, YodaSpatialRange range, Set<YodaElementName> elementNames, Predicate<YodaVariableMapping> pred, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> elementNames.contains(a.getName())).filter(a -> a.test(pred)).mapToDouble(a -> a.eval(f)).average().orElse(0.0));
+    }
+
+    public SibillaValue mean(YodaAgent agent, YodaSpatialRange range, Predicate<YodaVariableMapping> pred, ToDoubleFunction<YodaVariableMapping> f) {
+        return SibillaValue.of(getStreamOfElements(agent, range).filter(a -> a.test(pred)).mapToDouble(a -> a.eval(f)).average().orElse(0.0));
+    }
+
 }
@@ -24,30 +24,40 @@
 package it.unicam.quasylab.sibilla.core.models.yoda;
 
 import it.unicam.quasylab.sibilla.core.util.datastructures.SibillaMap;
+import it.unicam.quasylab.sibilla.core.util.datastructures.SlotRecord;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 
 import java.util.Map;
 import java.util.function.BiConsumer;
 
 /**
- * Instances of this class are used to associate values with variables.
+ * Instances of this class are used to associate values with variables. Values are stored in a {@link SlotRecord}
+ * whose slots are laid out according to the indexes of the variables in the {@link YodaVariableRegistry}. All
+ * the mappings are derived from the same empty record, so that mappings with the same variables, like the
+ * attributes of agents of the same type, share their layout.
  */
 public class YodaVariableMapping {
 
-    private final SibillaMap<YodaVariable, SibillaValue> map;
+    private static final SlotRecord<YodaVariable> EMPTY = new SlotRecord<>(YodaVariable::getIdx);
+
+    private final SlotRecord<YodaVariable> map;
 
     /**
      * Creates an empty mapping.
      */
     public YodaVariableMapping() {
-        this(new SibillaMap<>());
+        this(EMPTY);
     }
 
     public YodaVariableMapping(Map<YodaVariable, SibillaValue> map) {
-        this(SibillaMap.of(map));
+        this(EMPTY.setAll(map));
     }
 
     public YodaVariableMapping(SibillaMap<YodaVariable, SibillaValue> map) {
+        this(map.reduce((e, r) -> r.set(e.getKey(), e.getValue()), EMPTY));
+    }
+
+    private YodaVariableMapping(SlotRecord<YodaVariable> map) {
         this.map = map;
     }
 
@@ -58,7 +68,18 @@ public class YodaVariableMapping {
      * @return the value associated to an input variable
      */
     public SibillaValue getValue(YodaVariable variable) {
-        return this.map.get(variable).orElse(SibillaValue.ERROR_VALUE);
+        return this.map.getOrDefault(variable, SibillaValue.ERROR_VALUE);
+    }
+
+    /**
+     * Returns the numeric value associated to an input variable without allocating a {@link SibillaValue}, or
+     * <code>Double.NaN</code> if the variable is not defined.
+     *
+     * @param variable the variable to search
+     * @return the numeric value associated to an input variable
+     */
+    public double getDoubleValue(YodaVariable variable) {
+        return this.map.getDouble(variable, Double.NaN);
     }
 
 
@@ -69,7 +90,9 @@ public class YodaVariableMapping {
      * @param value the value that is associated to the variable
      */
     public YodaVariableMapping setValue(YodaVariable variable, SibillaValue value) {
-        return new YodaVariableMapping(this.map.add(variable, value));
+        SlotRecord<YodaVariable> newMap = this.map.set(variable, value);
+        if (this.map == newMap) return this;
+        return new YodaVariableMapping(newMap);
     }
 
     /**
@@ -81,9 +104,9 @@ public class YodaVariableMapping {
      * in the given map.
      */
     public YodaVariableMapping setAll(Map<YodaVariable, SibillaValue> map) {
-        SibillaMap<YodaVariable, SibillaValue> newMap = this.map.addAll(map);
+        SlotRecord<YodaVariable> newMap = this.map.setAll(map);
         if (this.map == newMap) return this;
-        return new YodaVariableMapping(this.map.addAll(map));
+        return new YodaVariableMapping(newMap);
     }
 
 
@@ -94,7 +117,7 @@ public class YodaVariableMapping {
      * @return true if the given variable is defined in this mapping.
      */
     public boolean isDefined(YodaVariable var) {
-        return this.map.containsKey(var);
+        return this.map.isDefined(var);
     }
 
     /**
@@ -117,7 +140,7 @@ public class YodaVariableMapping {
      * given default value is returned.
      */
     public SibillaValue getOrDefault(YodaVariable var, SibillaValue value) {
-        return this.map.get(var).orElse(value);
+        return this.map.getOrDefault(var, value);
     }
 
     @Override
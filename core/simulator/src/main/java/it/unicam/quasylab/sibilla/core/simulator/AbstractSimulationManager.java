@@ -32,14 +32,14 @@ import java.util.stream.Collectors;
 
 public abstract class AbstractSimulationManager<S extends State> implements SimulationManager<S> {
 
-    private final RandomGenerator random;
+    private final SplittableRandomGenerator random;
     private final SimulationMonitor monitor;
     private final LinkedList<Long> executionTime = new LinkedList<>();
     private int counter = 0;
     private boolean running = true;
 
     public AbstractSimulationManager(RandomGenerator random, SimulationMonitor monitor) {
-        this.random = random;
+        this.random = SplittableRandomGenerator.of(random);
         this.monitor = monitor;
         if (this.monitor != null) {
             this.monitor.registerPropertyChangeListener(this::manageSimulationMonitorEvent);
@@ -67,11 +67,47 @@ public abstract class AbstractSimulationManager<S extends State> implements Simu
             throw new IllegalStateException();
         }
         counter++;
-        handleTask(new SimulationTask<>(counter,random,unit));
+        handleTask(new SimulationTask<>(counter,random.getStream(counter),unit));
     }
 
     protected abstract void handleTask(SimulationTask<S> simulationTask);
 
+    /**
+     * Reserves the indexes of the given number of tasks. Task indexes identify the random stream used to
+     * simulate the corresponding trajectory.
+     *
+     * @param tasks number of tasks whose indexes are reserved.
+     * @return the first of the reserved indexes.
+     * @throws IllegalStateException if this manager is not running.
+     * @throws IllegalArgumentException if the number of tasks is negative or the indexes are exhausted.
+     */
+    protected synchronized int reserveIndexes(long tasks) {
+        if (!isRunning()) {
+            throw new IllegalStateException();
+        }
+        if ((tasks < 0) || (tasks > Integer.MAX_VALUE - counter)) {
+            throw new IllegalArgumentException("Cannot schedule " + tasks + " tasks");
+        }
+        int first = counter + 1;
+        counter += (int) tasks;
+        return first;
+    }
+
+    @Override
+    public void skip(long tasks) {
+        reserveIndexes(tasks);
+    }
+
+    /**
+     * Returns the random generator used to simulate the task with the given index.
+     *
+     * @param index task index.
+     * @return the random generator used to simulate the task with the given index.
+     */
+    protected RandomGenerator getRandomStream(int index) {
+        return random.getStream(index);
+    }
+
     public SimulationMonitor getMonitor() {
         return monitor;
     }
@@ -50,8 +50,13 @@ public class DefaultSimulationCursor<S extends State> implements SimulatorCursor
 
     @Override
     public void start() {
-        this.current = initialStateBuilder.apply(rg);
-        this.now = 0.0;
+        start(initialStateBuilder.apply(rg), 0.0);
+    }
+
+    @Override
+    public void start(S state, double time) {
+        this.current = state;
+        this.now = time;
         this.started = true;
         this.terminated = false;
     }
@@ -77,6 +77,17 @@ public abstract class QueuedSimulationManager<S extends State> extends AbstractS
         addAll(tasks);
     }
 
+    /**
+     * Signals that the given number of tasks, previously obtained via {@link #getTask(int)},
+     * have been completed
+     *
+     * @param n number of completed tasks
+     */
+    protected synchronized void completed(int n) {
+        runningTasks -= n;
+        notifyAll();
+    }
+
     /**
      * Adds all the given tasks to the tasks to be executed
      *
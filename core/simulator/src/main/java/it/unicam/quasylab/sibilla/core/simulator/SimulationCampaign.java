@@ -0,0 +1,192 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A simulation campaign whose progress is periodically stored in a checkpoint file. A checkpoint contains the
+ * summary of the data collected so far, the number of completed replicas and the random generator whose streams
+ * are used by the replicas. Since the replica with index <code>i</code> always uses the <code>i</code>-th stream,
+ * the number of completed replicas is also the position in the random streams from which a campaign is resumed.
+ * A campaign started on an existing checkpoint resumes, or extends, the campaign that has produced it without
+ * simulating again the completed replicas.
+ *
+ * Each checkpoint is tagged with a key that identifies the campaign, for instance the model and the collected
+ * measures, so that data of different campaigns are not mixed.
+ */
+public class SimulationCampaign {
+
+    /**
+     * Default number of replicas between two consecutive checkpoints.
+     */
+    public static final long DEFAULT_INTERVAL = 10000;
+
+    private static final int MAGIC = 0x53424350;
+
+    private static final int VERSION = 1;
+
+    private final Path file;
+    private final String key;
+    private final long interval;
+
+    /**
+     * Creates a new campaign that stores a checkpoint every {@link #DEFAULT_INTERVAL} replicas.
+     *
+     * @param file checkpoint file.
+     * @param key key identifying the campaign.
+     */
+    public SimulationCampaign(Path file, String key) {
+        this(file, key, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates a new campaign that stores a checkpoint every <code>interval</code> replicas.
+     *
+     * @param file checkpoint file.
+     * @param key key identifying the campaign.
+     * @param interval number of replicas between two consecutive checkpoints.
+     */
+    public SimulationCampaign(Path file, String key, long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.file = file;
+        this.key = key;
+        this.interval = interval;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Loads the last checkpoint of this campaign, if any.
+     *
+     * @return the last checkpoint of this campaign, or an empty optional if no checkpoint has been stored.
+     * @throws IOException if the checkpoint file cannot be read or it has been stored by a different campaign.
+     */
+    public Optional<Checkpoint> load() throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new InflaterInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+            if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                throw new IOException(file + " is not a checkpoint file");
+            }
+            String storedKey = in.readUTF();
+            if (!key.equals(storedKey)) {
+                throw new IOException("Checkpoint " + file + " belongs to a different campaign (" + storedKey + ")");
+            }
+            SplittableRandomGenerator streams = new SplittableRandomGenerator(in.readUTF(), in.readLong());
+            long replicas = in.readLong();
+            Serializable summary = (Serializable) in.readObject();
+            return Optional.of(new Checkpoint(streams, replicas, summary));
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Stores a checkpoint of this campaign. The file is replaced atomically, so that a previous checkpoint is
+     * not lost if the process dies while the new one is written.
+     *
+     * @param streams random generator whose streams are used by the replicas.
+     * @param replicas number of completed replicas.
+     * @param summary summary of the data collected by the completed replicas.
+     * @throws IOException if the checkpoint file cannot be written.
+     */
+    public void save(SplittableRandomGenerator streams, long replicas, Serializable summary) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), new Deflater(Deflater.BEST_SPEED)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(key);
+                out.writeUTF(streams.getAlgorithm());
+                out.writeLong(streams.getSeed());
+                out.writeLong(replicas);
+                out.writeObject(summary);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * The state of a campaign after a given number of replicas.
+     */
+    public static final class Checkpoint {
+
+        private final SplittableRandomGenerator streams;
+        private final long replicas;
+        private final Serializable summary;
+
+        private Checkpoint(SplittableRandomGenerator streams, long replicas, Serializable summary) {
+            this.streams = streams;
+            this.replicas = replicas;
+            this.summary = summary;
+        }
+
+        /**
+         * Returns the random generator whose streams are used by the replicas of the campaign.
+         *
+         * @return the random generator whose streams are used by the replicas of the campaign.
+         */
+        public SplittableRandomGenerator getStreams() {
+            return streams;
+        }
+
+        /**
+         * Returns the number of completed replicas, that is also the number of random streams already used.
+         *
+         * @return the number of completed replicas.
+         */
+        public long getReplicas() {
+            return replicas;
+        }
+
+        public Serializable getSummary() {
+            return summary;
+        }
+    }
+}
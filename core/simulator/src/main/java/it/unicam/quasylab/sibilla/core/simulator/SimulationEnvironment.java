@@ -24,13 +24,18 @@
 package it.unicam.quasylab.sibilla.core.simulator;
 
 import it.unicam.quasylab.sibilla.core.models.*;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Summarizable;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.TrajectoryCollector;
+import it.unicam.quasylab.sibilla.core.simulator.smc.*;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -150,6 +155,92 @@ public class SimulationEnvironment implements Serializable {
 		simulate(monitor, random, model::createSimulationCursor, initialStateSupplier, handlerSupplier, iterations, deadline);
 	}
 
+	/**
+	 * Performs the replicas of a simulation campaign that are not already stored in its last checkpoint. The
+	 * data of the checkpoint, if any, are merged in <code>results</code>, then the missing replicas are simulated,
+	 * with the random streams following the ones already used, and a new checkpoint is stored every
+	 * {@link SimulationCampaign#getInterval()} replicas. If the checkpoint already contains
+	 * <code>iterations</code> replicas, or more, no simulation is performed. The random generator passed as
+	 * argument is used only when the campaign starts from scratch. If the monitor is cancelled while a group of
+	 * replicas is simulated, the data of the interrupted group are discarded, so that <code>results</code>
+	 * only contains the returned number of replicas, as the last checkpoint does.
+	 *
+	 * @param monitor           monitor used to control simulation.
+	 * @param random            random generator used in the simulation.
+	 * @param model             model to simulate.
+	 * @param initialStateSupplier      initial state supplier.
+	 * @param handlerSupplier 	supplier used to create the function used to collect data from the sampled trajectories.
+	 * @param results           collector of the data sampled by the handlers, it is used to store and restore checkpoints.
+	 * @param iterations        total number of iterations of the campaign.
+	 * @param deadline          simulation deadline.
+	 * @param campaign          simulation campaign.
+	 * @return the number of replicas collected in <code>results</code>.
+	 *
+	 * @throws InterruptedException is thrown when simulation is interrupted.
+	 * @throws UncheckedIOException is thrown when the checkpoint cannot be read or written.
+	 */
+	public <S extends State> long simulate(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			Model<S> model,
+			Function<RandomGenerator,S> initialStateSupplier,
+			Supplier<SamplingHandler<S>> handlerSupplier,
+			Summarizable results,
+			long iterations,
+			double deadline,
+			SimulationCampaign campaign)
+			throws InterruptedException {
+		Optional<SimulationCampaign.Checkpoint> checkpoint = loadCheckpoint(campaign, results);
+		SplittableRandomGenerator streams = checkpoint.map(SimulationCampaign.Checkpoint::getStreams).orElseGet(() -> SplittableRandomGenerator.of(random));
+		long completed = checkpoint.map(SimulationCampaign.Checkpoint::getReplicas).orElse(0L);
+		if (completed < iterations) {
+			Serializable committed = results.getSummary();
+			SimulationManager<S> simulationManager = simulationManagerFactory.getSimulationManager(streams, monitor);
+			SimulationUnit<S> unit = new SimulationUnit<>(model::createSimulationCursor, initialStateSupplier, handlerSupplier,
+					SamplePredicate.timeDeadlinePredicate(deadline));
+			simulationManager.skip(completed);
+			while ((completed < iterations) && ((monitor == null) || (!monitor.isCancelled()))) {
+				long replicas = Math.min(campaign.getInterval(), iterations - completed);
+				simulationManager.simulate(unit, replicas);
+				simulationManager.join();
+				if ((monitor != null) && monitor.isCancelled()) {
+					results.restoreSummary(committed);
+					break;
+				}
+				completed += replicas;
+				committed = results.getSummary();
+				saveCheckpoint(campaign, streams, completed, committed);
+			}
+			simulationManager.shutdown();
+			LOGGER.info("Simulation campaign " + campaign.getFile() + " has " + completed + " replicas");
+		}
+		if (monitor != null) {
+			monitor.endSimulation();
+		}
+		return completed;
+	}
+
+	private Optional<SimulationCampaign.Checkpoint> loadCheckpoint(SimulationCampaign campaign, Summarizable results) {
+		try {
+			Optional<SimulationCampaign.Checkpoint> checkpoint = campaign.load();
+			checkpoint.ifPresent(c -> {
+				results.mergeSummary(c.getSummary());
+				LOGGER.info("Simulation campaign " + campaign.getFile() + " resumed after " + c.getReplicas() + " replicas");
+			});
+			return checkpoint;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void saveCheckpoint(SimulationCampaign campaign, SplittableRandomGenerator streams, long replicas, Serializable summary) {
+		try {
+			campaign.save(streams, replicas, summary);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	/**
 	 * Performs a given number of simulations by using the given cursor supplier. Data are collected via
 	 * a {@link SamplingFunction}. A monitor is passed to control simulation.
@@ -176,8 +267,8 @@ public class SimulationEnvironment implements Serializable {
 		SimulationManager<S> simulationManager = simulationManagerFactory.getSimulationManager(random, monitor);
 		SimulationUnit<S> unit = new SimulationUnit<>(cursorSupplier, initialStateSupplier, handlerSupplier,
 				SamplePredicate.timeDeadlinePredicate(deadline));
-		for (long i = 0; (((monitor == null) || (!monitor.isCancelled())) && (i < iterations)); i++) {
-			simulationManager.simulate(unit);
+		if ((monitor == null) || (!monitor.isCancelled())) {
+			simulationManager.simulate(unit, iterations);
 		}
 		simulationManager.join();
 		//TODO: check if we have to add this code --> simulationManager.join();
@@ -316,18 +407,235 @@ public class SimulationEnvironment implements Serializable {
 			Function<RandomGenerator,S> state,
 			StatePredicate<? super S> condition,
 			StatePredicate<? super S> goal) throws InterruptedException {
-		ReachabilityChecker<S> reachabilityChecker = new ReachabilityChecker<S>(condition, goal);
-		double n = Math.ceil(Math.log(2 / delta) / (2 * Math.pow(errorProbability,2)));
-		LOGGER.info("Computing reachability with "+(int) n+" iterations.");
+		long n = SequentialTest.chernoffHoeffdingRuns(errorProbability, delta);
+		LOGGER.info("Computing reachability with "+n+" iterations.");
+		ReachabilityChecker<S> reachabilityChecker = runSequentially(monitor, random, deadline, cursorSupplier, state,
+				condition, goal, (successes, runs) -> n - runs, null);
+		return ((double) reachabilityChecker.numberOfSuccessful()) / reachabilityChecker.numberOfRuns();
+	}
+
+	/**
+	 * Estimates the probability to reach a state satisfying the given goal
+	 * predicate within the given deadline while traversing only states satisfying a
+	 * given condition. The estimated probability differs from the exact one by
+	 * <code>delta</code> with a probability less or equal than
+	 * <code>errorProbability</code>. Apart from {@link EstimationMethod#CHERNOFF_HOEFFDING},
+	 * simulation runs stop as soon as the requested precision is reached.
+	 *
+	 * @param monitor          monitor used to control simulation.
+	 * @param random           random generator used in the simulation.
+	 * @param method           method used to compute the estimate.
+	 * @param errorProbability error probability.
+	 * @param delta            error gap.
+	 * @param deadline         reachability deadline.
+	 * @param model            model to simulate.
+	 * @param state            initial state
+	 * @param condition        condition predicate.
+	 * @param goal             goal predicate.
+	 * @return the estimated probability together with its confidence interval.
+	 * @throws InterruptedException is thrown when simulation is interrupted.
+	 */
+	public <S extends State> ProbabilityEstimate estimateReachability(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			EstimationMethod method,
+			double errorProbability,
+			double delta,
+			double deadline,
+			Model<S> model,
+			Function<RandomGenerator,S> state,
+			StatePredicate<? super S> condition,
+			StatePredicate<? super S> goal) throws InterruptedException {
+		return estimateReachability(monitor, random, method, errorProbability, delta, deadline, model, state, condition, goal, null);
+	}
+
+	/**
+	 * Estimates the probability to reach a state satisfying the given goal predicate as
+	 * {@link #estimateReachability(SimulationMonitor, RandomGenerator, EstimationMethod, double, double, double, Model, Function, StatePredicate, StatePredicate)}
+	 * does, while storing the counters of successful runs in the checkpoints of the given campaign. If the campaign
+	 * has a checkpoint, the estimation is resumed from its counters. Runs are performed in groups of at most
+	 * {@link SimulationCampaign#getInterval()} runs, and a checkpoint is stored after each group.
+	 *
+	 * @param monitor          monitor used to control simulation.
+	 * @param random           random generator used in the simulation.
+	 * @param method           method used to compute the estimate.
+	 * @param errorProbability error probability.
+	 * @param delta            error gap.
+	 * @param deadline         reachability deadline.
+	 * @param model            model to simulate.
+	 * @param state            initial state
+	 * @param condition        condition predicate.
+	 * @param goal             goal predicate.
+	 * @param campaign         simulation campaign, null if no checkpoint is stored.
+	 * @return the estimated probability together with its confidence interval.
+	 * @throws InterruptedException is thrown when simulation is interrupted.
+	 * @throws UncheckedIOException is thrown when the checkpoint cannot be read or written.
+	 */
+	public <S extends State> ProbabilityEstimate estimateReachability(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			EstimationMethod method,
+			double errorProbability,
+			double delta,
+			double deadline,
+			Model<S> model,
+			Function<RandomGenerator,S> state,
+			StatePredicate<? super S> condition,
+			StatePredicate<? super S> goal,
+			SimulationCampaign campaign) throws InterruptedException {
+		SequentialEstimation estimation = new SequentialEstimation(method, errorProbability, delta);
+		ReachabilityChecker<S> reachabilityChecker = runSequentially(monitor, random, deadline,
+				model::createSimulationCursor, state, condition, goal, estimation, campaign);
+		return estimation.getResult(reachabilityChecker.numberOfSuccessful(), reachabilityChecker.numberOfRuns());
+	}
+
+	/**
+	 * Checks, via Wald's sequential probability ratio test, if the probability to reach a state
+	 * satisfying the given goal predicate within the given deadline, while traversing only states
+	 * satisfying a given condition, is at least <code>theta</code>.
+	 *
+	 * @param monitor          monitor used to control simulation.
+	 * @param random           random generator used in the simulation.
+	 * @param theta            probability threshold.
+	 * @param delta            half width of the indifference region around the threshold.
+	 * @param alpha            probability to wrongly reject that the probability is at least <code>theta</code>.
+	 * @param beta             probability to wrongly accept that the probability is at least <code>theta</code>.
+	 * @param deadline         reachability deadline.
+	 * @param model            model to simulate.
+	 * @param state            initial state
+	 * @param condition        condition predicate.
+	 * @param goal             goal predicate.
+	 * @return the outcome of the test.
+	 * @throws InterruptedException is thrown when simulation is interrupted.
+	 */
+	public <S extends State> ThresholdTestResult testReachability(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			double theta,
+			double delta,
+			double alpha,
+			double beta,
+			double deadline,
+			Model<S> model,
+			Function<RandomGenerator,S> state,
+			StatePredicate<? super S> condition,
+			StatePredicate<? super S> goal) throws InterruptedException {
+		SequentialProbabilityRatioTest test = new SequentialProbabilityRatioTest(theta, delta, alpha, beta,
+				Runtime.getRuntime().availableProcessors());
+		ReachabilityChecker<S> reachabilityChecker = runSequentially(monitor, random, deadline,
+				model::createSimulationCursor, state, condition, goal, test, null);
+		return test.getResult(reachabilityChecker.numberOfSuccessful(), reachabilityChecker.numberOfRuns());
+	}
+
+	/**
+	 * Estimates, by fixed effort importance splitting, the probability to reach a state satisfying the given
+	 * goal predicate within the given deadline while traversing only states satisfying a given condition.
+	 * This is meant for rare events, whose probability is too small to be estimated by plain simulation.
+	 *
+	 * @param monitor          monitor used to control simulation.
+	 * @param random           random generator used in the simulation.
+	 * @param deadline         reachability deadline.
+	 * @param model            model to simulate.
+	 * @param state            initial state
+	 * @param condition        condition predicate.
+	 * @param goal             goal predicate.
+	 * @param importance       importance function, increasing while approaching the goal.
+	 * @param levels           increasing levels of the importance function.
+	 * @param effort           number of runs simulated to cross each level.
+	 * @return the estimated probability.
+	 * @throws InterruptedException is thrown when simulation is interrupted.
+	 */
+	public <S extends State> RareEventEstimate fixedEffortSplitting(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			double deadline,
+			Model<S> model,
+			Function<RandomGenerator,S> state,
+			StatePredicate<? super S> condition,
+			StatePredicate<? super S> goal,
+			Measure<? super S> importance,
+			double[] levels,
+			int effort) throws InterruptedException {
+		return new ImportanceSplitting<>(simulationManagerFactory, model::createSimulationCursor, importance, condition, goal, deadline)
+				.fixedEffort(monitor, random, state, levels, effort);
+	}
+
+	/**
+	 * Estimates, by adaptive multilevel splitting, the probability to reach a state satisfying the given
+	 * goal predicate within the given deadline while traversing only states satisfying a given condition.
+	 * Levels of the importance function are selected from the simulated runs.
+	 *
+	 * @param monitor          monitor used to control simulation.
+	 * @param random           random generator used in the simulation.
+	 * @param deadline         reachability deadline.
+	 * @param model            model to simulate.
+	 * @param state            initial state
+	 * @param condition        condition predicate.
+	 * @param goal             goal predicate.
+	 * @param importance       importance function, increasing while approaching the goal.
+	 * @param particles        number of runs.
+	 * @param discarded        minimal number of runs discarded, and branched, at each iteration.
+	 * @return the estimated probability.
+	 * @throws InterruptedException is thrown when simulation is interrupted.
+	 */
+	public <S extends State> RareEventEstimate adaptiveSplitting(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			double deadline,
+			Model<S> model,
+			Function<RandomGenerator,S> state,
+			StatePredicate<? super S> condition,
+			StatePredicate<? super S> goal,
+			Measure<? super S> importance,
+			int particles,
+			int discarded) throws InterruptedException {
+		return new ImportanceSplitting<>(simulationManagerFactory, model::createSimulationCursor, importance, condition, goal, deadline)
+				.adaptive(monitor, random, state, particles, discarded);
+	}
+
+	/*
+	 * Runs the groups of simulations requested by the given test, until the test is concluded or the monitor
+	 * is cancelled. When a campaign is given, groups are split according to its interval and the counters,
+	 * together with the state of the test, are stored after each of them.
+	 */
+	private <S extends State> ReachabilityChecker<S> runSequentially(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			double deadline,
+			BiFunction<RandomGenerator, Function<RandomGenerator, S>, SimulatorCursor<S>> cursorSupplier,
+			Function<RandomGenerator,S> state,
+			StatePredicate<? super S> condition,
+			StatePredicate<? super S> goal,
+			SequentialTest test,
+			SimulationCampaign campaign) throws InterruptedException {
+		ReachabilityChecker<S> reachabilityChecker = new ReachabilityChecker<S>(condition, goal, deadline);
 		SimulationUnit<S> unit = new SimulationUnit<>(cursorSupplier, state, reachabilityChecker,
 				(t, s) -> (t > deadline) || goal.check(s) || !condition.check(s), goal);
-		SimulationManager<S> simulationManager = simulationManagerFactory.getSimulationManager(random, monitor);
-
-		for (int i = 0; i < n; i++) {
-			simulationManager.simulate(unit);
+		SequentialProgress<S> progress = new SequentialProgress<>(reachabilityChecker, test);
+		SplittableRandomGenerator streams = null;
+		if (campaign != null) {
+			streams = loadCheckpoint(campaign, progress).map(SimulationCampaign.Checkpoint::getStreams)
+					.orElseGet(() -> SplittableRandomGenerator.of(random));
+		}
+		SimulationManager<S> simulationManager = simulationManagerFactory.getSimulationManager((campaign == null ? random : streams), monitor);
+		if (campaign != null) {
+			simulationManager.skip(reachabilityChecker.numberOfRuns());
+		}
+		long runs;
+		while (((monitor == null) || (!monitor.isCancelled()))
+				&& ((runs = test.nextRuns(reachabilityChecker.numberOfSuccessful(), reachabilityChecker.numberOfRuns())) > 0)) {
+			simulationManager.simulate(unit, (campaign == null ? runs : Math.min(runs, campaign.getInterval())));
+			simulationManager.join();
+			if ((campaign != null) && ((monitor == null) || (!monitor.isCancelled()))) {
+				saveCheckpoint(campaign, streams, reachabilityChecker.numberOfRuns(), progress.getSummary());
+			}
 		}
 		simulationManager.shutdown();
-		return reachabilityChecker.numberOfSuccessful() / n;
+		LOGGER.info("Reachability computed with "+reachabilityChecker.numberOfRuns()+" iterations.");
+		if (monitor != null) {
+			monitor.endSimulation();
+		}
+		return reachabilityChecker;
 	}
 
 	public void setSimulationManagerFactory(SimulationManagerFactory simulationManagerFactory) {
@@ -335,27 +643,78 @@ public class SimulationEnvironment implements Serializable {
 	}
 
 
-	private static class ReachabilityChecker<S extends State> implements Supplier<SamplingHandler<S>> {
+	/*
+	 * The progress of a sequential test stored in checkpoints: the counters of the runs and the state of the test.
+	 */
+	private static class SequentialProgress<S extends State> implements Summarizable {
+
+		private final ReachabilityChecker<S> reachabilityChecker;
+		private final SequentialTest test;
+
+		private SequentialProgress(ReachabilityChecker<S> reachabilityChecker, SequentialTest test) {
+			this.reachabilityChecker = reachabilityChecker;
+			this.test = test;
+		}
+
+		@Override
+		public Serializable getSummary() {
+			return new Serializable[] { reachabilityChecker.getSummary(), test.getState() };
+		}
+
+		@Override
+		public void mergeSummary(Serializable summary) {
+			if (!(summary instanceof Serializable[])||(((Serializable[]) summary).length != 2)) {
+				throw new IllegalArgumentException("The summary does not describe the progress of a sequential test!");
+			}
+			reachabilityChecker.mergeSummary(((Serializable[]) summary)[0]);
+			test.restoreState(((Serializable[]) summary)[1]);
+		}
+	}
 
-		private int counter = 0;
+	private static class ReachabilityChecker<S extends State> implements Supplier<SamplingHandler<S>>, Summarizable {
+
+		private long counter = 0;
+		private long runs = 0;
 		private final StatePredicate<? super S> goal;
 		private final StatePredicate<? super S> condition;
 
-		public ReachabilityChecker(StatePredicate<? super S> condition, StatePredicate<? super S> goal) {
+		private final double deadline;
+
+		public ReachabilityChecker(StatePredicate<? super S> condition, StatePredicate<? super S> goal, double deadline) {
 			this.condition = condition;
 			this.goal = goal;
+			this.deadline = deadline;
 		}
 
 		private synchronized void record(boolean doReach) {
 			if (doReach) {
 				counter++;
 			}
+			runs++;
+		}
+
+		@Override
+		public synchronized Serializable getSummary() {
+			return new long[] { counter, runs };
 		}
 
-		public synchronized double numberOfSuccessful() {
+		@Override
+		public synchronized void mergeSummary(Serializable summary) {
+			if (!(summary instanceof long[])||(((long[]) summary).length != 2)) {
+				throw new IllegalArgumentException("The summary does not contain the counters of successful and performed runs!");
+			}
+			counter += ((long[]) summary)[0];
+			runs += ((long[]) summary)[1];
+		}
+
+		public synchronized long numberOfSuccessful() {
 			return counter;
 		}
 
+		public synchronized long numberOfRuns() {
+			return runs;
+		}
+
 		@Override
 		public SamplingHandler<S> get() {
 			return new SamplingHandler<S>() {
@@ -370,8 +729,10 @@ public class SimulationEnvironment implements Serializable {
 
 				@Override
 				public void sample(double time, S state) {
-					failed = failed || (!condition.check(state)&&!goal.check(state));
-					reached = reached || goal.check(state);
+					if (time <= deadline) {
+						failed = failed || (!condition.check(state)&&!goal.check(state));
+						reached = reached || (!failed&&goal.check(state));
+					}
 				}
 
 				@Override
@@ -38,6 +38,42 @@ public interface SimulationManager<S extends State> {
      */
      void simulate(SimulationUnit<S> unit);
 
+    /**
+     * Schedules the execution of the given number of replicas of a {@link SimulationUnit}. Replicas are not
+     * scheduled after this manager has been shut down or after its monitor has been cancelled.
+     *
+     * @param unit simulation unit to execute.
+     * @param replicas number of replicas to execute.
+     */
+    default void simulate(SimulationUnit<S> unit, long replicas) {
+        SimulationMonitor monitor = getMonitor();
+        for (long i = 0; (i < replicas) && isRunning() && ((monitor == null) || !monitor.isCancelled()); i++) {
+            simulate(unit);
+        }
+    }
+
+    /**
+     * Returns the monitor used to follow and cancel the simulations of this manager, or <code>null</code> if
+     * this manager is not monitored.
+     *
+     * @return the monitor used to follow and cancel the simulations of this manager.
+     */
+    default SimulationMonitor getMonitor() {
+        return null;
+    }
+
+    /**
+     * Skips the given number of tasks, together with the random streams associated with them, so that the next
+     * scheduled task uses the same random stream it would have used if the skipped tasks had been executed.
+     * This is used to resume a simulation campaign without simulating again the same trajectories.
+     *
+     * @param tasks number of tasks to skip.
+     * @throws UnsupportedOperationException if this manager does not support this operation.
+     */
+    default void skip(long tasks) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Returns the number of simulation tasks that are currently executed and are
      * not yet terminated.
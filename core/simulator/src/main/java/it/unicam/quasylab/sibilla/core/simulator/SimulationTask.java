@@ -74,9 +74,10 @@ public class SimulationTask<S extends State> implements Supplier<Long>, Serializ
 		SimulatorCursor<S> cursor = this.unit.getSimulationCursor(this.random);
 		cursor.start();
 		handler.start();
-		handler.sample(cursor.time(), cursor.currentState());
-		while (!unit.getStoppingPredicate().test(cursor.time(),cursor.currentState())&&(!isCancelled())) {
-			step(handler, cursor);
+		S state = cursor.currentView();
+		handler.sample(cursor.time(), state);
+		while (!unit.getStoppingPredicate().test(cursor.time(),state)&&(!isCancelled())) {
+			state = step(handler, cursor, state);
 		}
 		handler.end(cursor.time());
 		completed(true);
@@ -98,11 +99,19 @@ public class SimulationTask<S extends State> implements Supplier<Long>, Serializ
 		elapsedTime = System.nanoTime() - startTime;
 	}
 
-	private void step(SamplingHandler<S> handler, SimulatorCursor<S> cursor) {
+	/**
+	 * Performs a step of the given cursor and samples the reached state. The state is obtained once per step,
+	 * as a view (see {@link SimulatorCursor#currentView()}), and it is shared by the handler and the stopping
+	 * predicate. Handlers that retain sampled states have to take a snapshot of them.
+	 */
+	private S step(SamplingHandler<S> handler, SimulatorCursor<S> cursor, S state) {
 		if (cursor.step()) {
-			handler.sample(cursor.time(), cursor.currentState());
+			S next = cursor.currentView();
+			handler.sample(cursor.time(), next);
+			return next;
 		} else {
 			cancel();
+			return state;
 		}
 	}
 
@@ -131,4 +140,15 @@ public class SimulationTask<S extends State> implements Supplier<Long>, Serializ
 	public SimulationUnit<S> getUnit() {
 		return unit;
 	}
+
+	/**
+	 * Returns a new task, with the same index and random generator of this one, that samples the simulated
+	 * trajectory with a handler provided by the given supplier.
+	 *
+	 * @param handlerSupplier supplier of the handler used to sample the simulated trajectory
+	 * @return a new task that samples the trajectory of this one with the given handler
+	 */
+	public SimulationTask<S> withSamplingHandler(Supplier<SamplingHandler<S>> handlerSupplier) {
+		return new SimulationTask<>(index, random, unit.withSamplingHandler(handlerSupplier));
+	}
 }
@@ -83,6 +83,17 @@ public class SimulationUnit<S extends State> implements Serializable {
 		return handlerSupplier.get();
 	}
 
+	/**
+	 * Returns a unit that simulates the same trajectories of this one but that samples them with the handlers
+	 * provided by the given supplier.
+	 *
+	 * @param handlerSupplier supplier of the handlers used to sample the simulated trajectories
+	 * @return a unit that samples the trajectories of this one with the given handlers
+	 */
+	public SimulationUnit<S> withSamplingHandler(Supplier<SamplingHandler<S>> handlerSupplier) {
+		return new SimulationUnit<>(simulationCursorSupplier, stateSupplier, handlerSupplier, stoppingPredicate, reachPredicate);
+	}
+
 	/**
 	 * @return the stoppingPredicate
 	 */
@@ -38,6 +38,19 @@ public interface SimulatorCursor<S extends State> {
      */
     void start();
 
+    /**
+     * This method is invoked when the simulation run starts from the given state at the given time
+     * instead of the initial configuration. This is used to branch a trajectory from a state that has
+     * been reached by a different run. An {@link UnsupportedOperationException} is thrown if the cursor
+     * cannot be started from an arbitrary state.
+     *
+     * @param state the state from which the simulation starts.
+     * @param time the time at which the simulation starts.
+     */
+    default void start(S state, double time) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Returns the next simulation step. An {@link IllegalStateException} is thrown
      * if the simulation is not started (see {@link SimulatorCursor#start()}).
@@ -54,6 +67,18 @@ public interface SimulatorCursor<S extends State> {
      */
     S currentState();
 
+    /**
+     * Returns a view of the current state that is only valid until the next step of this cursor. Views let
+     * a run be observed without building a new state at each step: a view must not be retained, and
+     * {@link State#snapshot()} has to be used to obtain a state that is not affected by the following steps.
+     * By default this method returns {@link #currentState()}.
+     *
+     * @return a view of the current state that is only valid until the next step.
+     */
+    default S currentView() {
+        return currentState();
+    }
+
     /**
      * Returns current time. A {@link Double#NaN} is returned
      * if the simulation is not started (see {@link SimulatorCursor#start()}).
@@ -0,0 +1,183 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import org.apache.commons.math3.random.AbstractRandomGenerator;
+
+import java.io.Serializable;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * A random generator that can produce independent, reproducible streams. The generator is identified by
+ * an algorithm name and a seed; the stream with index <code>i</code> is obtained by mixing the seed with
+ * <code>i</code>, so that the same (seed, index) pair always yields the same sequence of values regardless
+ * of the thread, or of the order, in which streams are requested. Only the algorithm name and the seed are
+ * serialised: a deserialised generator restarts its sequence from the beginning.
+ */
+public class SplittableRandomGenerator extends AbstractRandomGenerator implements Serializable {
+
+    private static final long serialVersionUID = 2187652386235093470L;
+
+    /**
+     * Name of the algorithm used by default. It belongs to the LXM family, whose members are designed to
+     * be used as independent parallel streams.
+     */
+    public static final String DEFAULT_ALGORITHM = "L64X128MixRandom";
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final String algorithm;
+    private long seed;
+    private transient java.util.random.RandomGenerator generator;
+
+    /**
+     * Creates a new generator using the default algorithm and a random seed.
+     */
+    public SplittableRandomGenerator() {
+        this(DEFAULT_ALGORITHM, RandomGeneratorFactory.of(DEFAULT_ALGORITHM).create().nextLong());
+    }
+
+    /**
+     * Creates a new generator using the default algorithm and the given seed.
+     *
+     * @param seed generator seed.
+     */
+    public SplittableRandomGenerator(long seed) {
+        this(DEFAULT_ALGORITHM, seed);
+    }
+
+    /**
+     * Creates a new generator using the given algorithm and seed.
+     *
+     * @param algorithm name of a {@link java.util.random.RandomGenerator} algorithm available in this JVM.
+     * @param seed generator seed.
+     * @throws IllegalArgumentException if the algorithm is not available.
+     */
+    public SplittableRandomGenerator(String algorithm, long seed) {
+        super();
+        RandomGeneratorFactory.of(algorithm);
+        this.algorithm = algorithm;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns a splittable generator whose streams are determined by <code>random</code>. If <code>random</code>
+     * is a {@link SplittableRandomGenerator}, its streams are used. Otherwise, a single value is drawn from
+     * <code>random</code> and used as seed of a new splittable generator; this keeps the streams reproducible
+     * whenever <code>random</code> is.
+     *
+     * @param random a random generator.
+     * @return a splittable generator derived from <code>random</code>.
+     */
+    public static SplittableRandomGenerator of(org.apache.commons.math3.random.RandomGenerator random) {
+        if (random instanceof SplittableRandomGenerator) {
+            return ((SplittableRandomGenerator) random).getStream(0);
+        }
+        return new SplittableRandomGenerator(random.nextLong());
+    }
+
+    /**
+     * Returns the generator associated with the stream with the given index. The returned generator does
+     * not share any state with this one.
+     *
+     * @param index stream index.
+     * @return the generator associated with the stream with the given index.
+     */
+    public SplittableRandomGenerator getStream(long index) {
+        return new SplittableRandomGenerator(algorithm, streamSeed(seed, index));
+    }
+
+    /**
+     * Returns the seed of this generator.
+     *
+     * @return the seed of this generator.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the name of the algorithm used by this generator.
+     *
+     * @return the name of the algorithm used by this generator.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        clear();
+        this.seed = seed;
+        this.generator = null;
+    }
+
+    @Override
+    public double nextDouble() {
+        return getGenerator().nextDouble();
+    }
+
+    @Override
+    public int nextInt() {
+        return getGenerator().nextInt();
+    }
+
+    @Override
+    public int nextInt(int n) {
+        return getGenerator().nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        return getGenerator().nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return getGenerator().nextBoolean();
+    }
+
+    @Override
+    public float nextFloat() {
+        return getGenerator().nextFloat();
+    }
+
+    private java.util.random.RandomGenerator getGenerator() {
+        if (generator == null) {
+            generator = RandomGeneratorFactory.of(algorithm).create(seed);
+        }
+        return generator;
+    }
+
+    private static long streamSeed(long seed, long index) {
+        return mix(seed ^ mix((index + 1) * GOLDEN_GAMMA));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
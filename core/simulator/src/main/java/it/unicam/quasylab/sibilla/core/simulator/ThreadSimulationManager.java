@@ -86,8 +86,27 @@ public class ThreadSimulationManager<S extends State> extends AbstractSimulation
 
     @Override
     protected synchronized void handleTask(SimulationTask<S> simulationTask) {
+        execute(simulationTask);
+    }
+
+    /**
+     * Schedules the execution of a task that has been already built, for instance by a remote master. Differently
+     * from {@link #simulate(SimulationUnit)}, the task is executed with its own random generator.
+     *
+     * @param simulationTask the task to execute
+     * @return a future that is completed when the execution of the task terminates
+     * @throws IllegalStateException if this manager has been shut down
+     */
+    public synchronized CompletableFuture<Long> submit(SimulationTask<S> simulationTask) {
+        if (!isRunning()) {
+            throw new IllegalStateException();
+        }
+        return execute(simulationTask);
+    }
+
+    private synchronized CompletableFuture<Long> execute(SimulationTask<S> simulationTask) {
         this.pendingTasks++;
-        CompletableFuture.supplyAsync(simulationTask, executor).whenComplete(
+        return CompletableFuture.supplyAsync(simulationTask, executor).whenComplete(
                 (t, e) -> {
                     if (e != null) {
                         LOGGER.warning(e.getLocalizedMessage());
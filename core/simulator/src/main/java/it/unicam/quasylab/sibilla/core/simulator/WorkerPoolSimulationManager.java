@@ -0,0 +1,273 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * A simulation manager that executes tasks on a fixed number of worker loops. Scheduled units are collected in
+ * a bounded queue of jobs: when the queue is full, {@link #simulate(SimulationUnit)} blocks until a job is
+ * completed. A job can describe any number of replicas of the same unit, see
+ * {@link #simulate(SimulationUnit, long)}, so that tasks are created only when a worker claims the index of a
+ * replica from the atomic counter of the job. Completed tasks are counted with a {@link LongAdder}, and waiting
+ * threads are notified only when a job is completed.
+ */
+public class WorkerPoolSimulationManager<S extends State> extends AbstractSimulationManager<S> {
+
+    private static final Logger LOGGER = Logger.getLogger(WorkerPoolSimulationManager.class.getName());
+
+    /**
+     * Default number of jobs that can be waiting for execution
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final ArrayDeque<Job> jobs = new ArrayDeque<>();
+    private final int queueCapacity;
+    private final LongAdder scheduledTasks = new LongAdder();
+    private final LongAdder completedTasks = new LongAdder();
+    private int unfinishedJobs = 0;
+    private boolean terminated = false;
+
+    public WorkerPoolSimulationManager(RandomGenerator random, SimulationMonitor monitor) {
+        this(Runtime.getRuntime().availableProcessors(), random, monitor);
+    }
+
+    public WorkerPoolSimulationManager(int workers, RandomGenerator random, SimulationMonitor monitor) {
+        this(workers, DEFAULT_QUEUE_CAPACITY, getPlatformThreadFactory(), random, monitor);
+    }
+
+    /**
+     * Creates a new manager that executes tasks on the given number of workers.
+     *
+     * @param workers       number of worker loops.
+     * @param queueCapacity number of jobs that can be waiting for execution.
+     * @param threadFactory factory used to create the threads running the worker loops.
+     * @param random        random generator used to create the random streams of the tasks.
+     * @param monitor       monitor used to control simulation.
+     */
+    public WorkerPoolSimulationManager(int workers, int queueCapacity, ThreadFactory threadFactory, RandomGenerator random, SimulationMonitor monitor) {
+        super(random, monitor);
+        if ((workers <= 0) || (queueCapacity <= 0)) {
+            throw new IllegalArgumentException();
+        }
+        this.queueCapacity = queueCapacity;
+        for (int i = 0; i < workers; i++) {
+            threadFactory.newThread(this::work).start();
+        }
+    }
+
+    public static SimulationManagerFactory getWorkerPoolSimulationManagerFactory() {
+        return getWorkerPoolSimulationManagerFactory(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static SimulationManagerFactory getWorkerPoolSimulationManagerFactory(int workers) {
+        return new SimulationManagerFactory() {
+            @Override
+            public <S extends State> SimulationManager<S> getSimulationManager(RandomGenerator random, SimulationMonitor monitor) {
+                return new WorkerPoolSimulationManager<>(workers, random, monitor);
+            }
+        };
+    }
+
+    /**
+     * Returns a factory of managers whose worker loops run on virtual threads.
+     *
+     * @param workers number of worker loops.
+     * @return a factory of managers whose worker loops run on virtual threads.
+     * @throws UnsupportedOperationException if virtual threads are not supported by the running JVM.
+     */
+    public static SimulationManagerFactory getVirtualThreadSimulationManagerFactory(int workers) {
+        ThreadFactory threadFactory = getVirtualThreadFactory();
+        return new SimulationManagerFactory() {
+            @Override
+            public <S extends State> SimulationManager<S> getSimulationManager(RandomGenerator random, SimulationMonitor monitor) {
+                return new WorkerPoolSimulationManager<>(workers, DEFAULT_QUEUE_CAPACITY, threadFactory, random, monitor);
+            }
+        };
+    }
+
+    /**
+     * Returns true if the running JVM supports virtual threads.
+     *
+     * @return true if the running JVM supports virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        try {
+            getVirtualThreadFactory();
+            return true;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static ThreadFactory getPlatformThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "sibilla-simulation-worker");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /*
+     * Virtual threads are looked up via reflection, since the project is compiled for a Java release where
+     * they are not available.
+     */
+    private static ThreadFactory getVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) builder.getClass().getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM", e);
+        }
+    }
+
+    @Override
+    protected void handleTask(SimulationTask<S> simulationTask) {
+        schedule(new Job(i -> simulationTask, 1));
+    }
+
+    @Override
+    public void simulate(SimulationUnit<S> unit, long replicas) {
+        if (replicas > 0) {
+            int first = reserveIndexes(replicas);
+            schedule(new Job(i -> new SimulationTask<>(first + i, getRandomStream(first + i), unit), replicas));
+        }
+    }
+
+    private synchronized void schedule(Job job) {
+        while (isRunning() && (jobs.size() >= queueCapacity)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the execution of scheduled tasks", e);
+            }
+        }
+        if (!isRunning()) {
+            throw new IllegalStateException();
+        }
+        jobs.add(job);
+        unfinishedJobs++;
+        scheduledTasks.add(job.size);
+        notifyAll();
+    }
+
+    private void work() {
+        Job job;
+        while ((job = nextJob()) != null) {
+            long index;
+            while (!isCancelled() && ((index = job.next.getAndIncrement()) < job.size)) {
+                try {
+                    job.tasks.apply((int) index).get();
+                } catch (RuntimeException e) {
+                    LOGGER.warning(e.getLocalizedMessage());
+                }
+                job.completed.increment();
+                completedTasks.increment();
+            }
+            jobExhausted(job);
+        }
+    }
+
+    private synchronized Job nextJob() {
+        while (jobs.isEmpty() && !terminated) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+        return jobs.peekFirst();
+    }
+
+    private synchronized void jobExhausted(Job job) {
+        jobs.remove(job);
+        if (isCancelled()) {
+            jobs.clear();
+        }
+        if (!job.concluded && (job.completed.sum() == job.size)) {
+            job.concluded = true;
+            unfinishedJobs--;
+        }
+        notifyAll();
+    }
+
+    private boolean isCancelled() {
+        SimulationMonitor monitor = getMonitor();
+        return (monitor != null) && monitor.isCancelled();
+    }
+
+    @Override
+    public int pendingTasks() {
+        return (int) Math.min(Integer.MAX_VALUE, scheduledTasks.sum() - completedTasks.sum());
+    }
+
+    /**
+     * Returns the number of tasks completed by this manager.
+     *
+     * @return the number of tasks completed by this manager.
+     */
+    public long completedTasks() {
+        return completedTasks.sum();
+    }
+
+    @Override
+    public synchronized void join() throws InterruptedException {
+        while (isRunning() && !isCancelled() && (unfinishedJobs != 0)) {
+            wait();
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() throws InterruptedException {
+        super.shutdown();
+        this.terminated = true;
+        notifyAll();
+    }
+
+    /**
+     * A group of tasks whose indexes are claimed by the workers via an atomic counter.
+     */
+    private class Job {
+
+        private final IntFunction<SimulationTask<S>> tasks;
+        private final long size;
+        private final AtomicLong next = new AtomicLong();
+        private final LongAdder completed = new LongAdder();
+        private boolean concluded = false;
+
+        private Job(IntFunction<SimulationTask<S>> tasks, long size) {
+            this.tasks = tasks;
+            this.size = size;
+        }
+    }
+}
@@ -31,7 +31,10 @@ import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -42,7 +45,9 @@ import java.util.function.Function;
  */
 public class DescriptiveStatisticSampling<S extends State> extends StatisticSampling<S> {
 
-	private final DescriptiveStatistics[] data;
+	private final int samples;
+
+	private ThreadLocalAccumulators<ArrayList<double[]>> data;
 
 	public static <S extends State> StatisticSampling<S> measure(String name, int samplings, double deadline, MeasureFunction<S> m) {
 		return new DescriptiveStatisticSampling<>(samplings, deadline / samplings,
@@ -66,73 +71,121 @@ public class DescriptiveStatisticSampling<S extends State> extends StatisticSamp
 
 	public DescriptiveStatisticSampling(int samples, double dt, Measure<? super S> measure) {
 		super(measure, dt);
-		this.data = new DescriptiveStatistics[samples];
+		this.samples = samples;
 		init();
 	}
 
 	@Override
 	protected void init() {
-		for (int i = 0; i < data.length; i++) {
-			data[i] = new DescriptiveStatistics();
+		this.data = new ThreadLocalAccumulators<>(ArrayList::new, DescriptiveStatisticSampling::append);
+	}
+
+	/**
+	 * Returns the statistics of the values collected, by all the threads, at each sampling time.
+	 */
+	private DescriptiveStatistics[] getStatistics() {
+		DescriptiveStatistics[] statistics = new DescriptiveStatistics[samples];
+		for (int i = 0; i < samples; i++) {
+			statistics[i] = new DescriptiveStatistics();
 		}
+		for (List<double[]> rows : data.getAll()) {
+			for (double[] row : rows) {
+				for (int i = 0; i < samples; i++) {
+					statistics[i].addValue(row[i]);
+				}
+			}
+		}
+		return statistics;
 	}
 
 
 
 
 	@Override
-	public synchronized void printTimeSeries(Function<String, String> nameFunction, char separator, double significance) throws FileNotFoundException {
+	public void printTimeSeries(Function<String, String> nameFunction, char separator, double significance) throws FileNotFoundException {
 
 		String fileName = nameFunction.apply(this.getName());
 		PrintStream out = new PrintStream(fileName);
 		double time = 0.0;
-		for (int i = 0; i < this.data.length; i++) {
+		DescriptiveStatistics[] data = getStatistics();
+		for (int i = 0; i < data.length; i++) {
 			out.printf("%f",time);//Print time
-			out.printf("%c%f",separator, this.data[i].getMin());//Print min value
-			out.printf("%c%f",separator, this.data[i].getPercentile(25));//Print first quartile
-			out.printf("%c%f",separator, this.data[i].getMean());//Print mean
-			out.printf("%c%f",separator, getMedian(i));//Print median
-			out.printf("%c%f",separator, this.data[i].getPercentile(25));//Print third quartile
-			out.printf("%c%f\n",separator, this.data[i].getMax());//Print first quartile
+			out.printf("%c%f",separator, data[i].getMin());//Print min value
+			out.printf("%c%f",separator, data[i].getPercentile(25));//Print first quartile
+			out.printf("%c%f",separator, data[i].getMean());//Print mean
+			out.printf("%c%f",separator, data[i].getPercentile(50));//Print median
+			out.printf("%c%f",separator, data[i].getPercentile(75));//Print third quartile
+			out.printf("%c%f\n",separator, data[i].getMax());//Print max value
 			time += dt;
 		}
 		out.close();
 	}
 
-	private double getMedian(int i) {
-		long n = this.data[i].getN();
-		if (n == 0) {
-			return Double.NaN;
-		}
-		int idx = (int) n/2;
-		if (n%2==0) {
-			double v1 = this.data[i].getElement(idx);
-			double v2 = this.data[i].getElement(idx-1);
-			return (v1+v2)/2;
-		} else {
-			return this.data[i].getElement(idx+1);
-		}
-	}
 
 
+	@Override
+	public int getSize() {
+		return samples;
+	}
 
+	/**
+	 * Values are recorded in the buffer of the calling thread. Buffers of the different threads are
+	 * combined only when the collected statistics are read.
+	 */
 	@Override
-	public synchronized int getSize() {
-		return data.length;
+	protected void recordValues(double[] values) {
+		if (values.length != samples) {
+			throw new IllegalArgumentException();//TODO: Add Message!
+		}
+		data.get().add(values.clone());
 	}
 
+	/**
+	 * The summary of this sampling consists of all the collected rows, since quantiles cannot be combined
+	 * exactly. Use {@link QuantileStatisticSampling} to get summaries whose size does not depend on the
+	 * number of trajectories.
+	 */
 	@Override
-	protected synchronized void recordValues(double[] values) {
-		if (values.length != data.length) {
+	public Serializable getSummary() {
+		ArrayList<double[]> rows = new ArrayList<>();
+		data.getAll().forEach(rows::addAll);
+		return rows;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void mergeSummary(Serializable summary) {
+		if (!(summary instanceof ArrayList)) {
 			throw new IllegalArgumentException();//TODO: Add Message!
 		}
-		for(int i=0; i<values.length; i++) {
-			data[i].addValue(values[i]);
+		ArrayList<double[]> rows = (ArrayList<double[]>) summary;
+		if (rows.stream().anyMatch(r -> r.length != samples)) {
+			throw new IllegalArgumentException();//TODO: Add Message!
+		}
+		data.add(rows);
+	}
+
+	private static ArrayList<double[]> append(ArrayList<double[]> rows, ArrayList<double[]> other) {
+		rows.addAll(other);
+		return rows;
+	}
+
+	@Override
+	public double[][] getData() {
+		DescriptiveStatistics[] data = getStatistics();
+		double[][] result = new double[samples][];
+		for(int i=0; i<samples; i++) {
+			result[i] = getDataRow(data, i);
 		}
+		return result;
 	}
 
 	@Override
-	protected synchronized double[] getDataRow(int i) {
+	protected double[] getDataRow(int i) {
+		return getDataRow(getStatistics(), i);
+	}
+
+	private double[] getDataRow(DescriptiveStatistics[] data, int i) {
 		return new double[] {getTimeOfIndex(i),
 				data[i].getMin(),
 				data[i].getPercentile(25),
@@ -27,11 +27,12 @@ import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 
+import java.io.Serializable;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
-public class FirstPassageTime<S extends State> implements Supplier<SamplingHandler<S>> {
+public class FirstPassageTime<S extends State> implements Supplier<SamplingHandler<S>>, Summarizable {
 
     private final String name;
     private final Predicate<? super S> condition;
@@ -48,6 +49,37 @@ public class FirstPassageTime<S extends State> implements Supplier<SamplingHandl
         return new FirstPassageTimeResults(tests, values);
     }
 
+    /**
+     * Returns the number of performed tests together with the collected passage times.
+     *
+     * @return a summary of the data collected so far.
+     */
+    @Override
+    public synchronized Serializable getSummary() {
+        return new Summary(tests, values.getValues());
+    }
+
+    @Override
+    public synchronized void mergeSummary(Serializable summary) {
+        if (!(summary instanceof Summary)) {
+            throw new IllegalArgumentException();//TODO: Add Message!
+        }
+        this.tests += ((Summary) summary).tests;
+        for (double v : ((Summary) summary).values) {
+            this.values.addValue(v);
+        }
+    }
+
+    @Override
+    public synchronized void restoreSummary(Serializable summary) {
+        if (!(summary instanceof Summary)) {
+            throw new IllegalArgumentException("The summary has not been computed by a first passage time!");
+        }
+        this.tests = 0;
+        this.values.clear();
+        mergeSummary(summary);
+    }
+
     private synchronized void testStart() {
         this.tests++;
     }
@@ -79,4 +111,17 @@ public class FirstPassageTime<S extends State> implements Supplier<SamplingHandl
             public void end(double time) {}
         };
     }
+
+    private static final class Summary implements Serializable {
+
+        private static final long serialVersionUID = -3081529474958212427L;
+
+        private final int tests;
+        private final double[] values;
+
+        private Summary(int tests, double[] values) {
+            this.tests = tests;
+            this.values = values;
+        }
+    }
 }
@@ -0,0 +1,313 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A KLL sketch (Karnin, Lang and Liberty) used to estimate the quantiles of a stream of values in bounded
+ * memory. Values are stored in a hierarchy of compactors where an element at level <code>h</code> stands for
+ * <code>2^h</code> values of the stream. When a compactor is full, its elements are sorted and one every two
+ * is promoted to the next level. With the default parameter, the rank error is about 1% while the number of
+ * stored values grows only logarithmically with the length of the stream. Minimum and maximum are exact.
+ *
+ * The coin used to select the elements promoted by a compaction is drawn from a generator seeded at creation.
+ * Sketches created without an explicit seed use independent seeds, so that the errors introduced by the
+ * compactions of different sketches are not correlated.
+ *
+ * Sketches can be merged, hence values collected by different threads, or by different nodes, can be combined.
+ */
+public final class QuantileSketch implements Serializable {
+
+    private static final long serialVersionUID = -6035914779318736545L;
+
+    /**
+     * Default value of the parameter controlling the accuracy of the sketch.
+     */
+    public static final int DEFAULT_K = 200;
+
+    private static final double DECAY = 2.0 / 3.0;
+
+    private final int k;
+
+    private double[][] levels;
+
+    private int[] sizes;
+
+    private long n;
+
+    private double min = Double.NaN;
+
+    private double max = Double.NaN;
+
+    private long coins;
+
+    /**
+     * Creates an empty sketch with the default accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty sketch where the capacity of the top compactor is <code>k</code>.
+     *
+     * @param k parameter controlling the accuracy of the sketch.
+     */
+    public QuantileSketch(int k) {
+        this(k, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates an empty sketch where the capacity of the top compactor is <code>k</code> and whose compaction
+     * coins are generated from the given seed. Sketches created with the same seed and fed with the same
+     * values are identical.
+     *
+     * @param k parameter controlling the accuracy of the sketch.
+     * @param seed seed of the compaction coins.
+     */
+    public QuantileSketch(int k, long seed) {
+        if (k < 8) {
+            throw new IllegalArgumentException("Sketch parameter must be at least 8!");
+        }
+        this.k = k;
+        this.levels = new double[][] { new double[capacity(0, 1)] };
+        this.sizes = new int[1];
+        this.coins = (seed == 0 ? 0x2545F4914F6CDD1DL : seed);
+    }
+
+    /**
+     * Adds the given value to the sketch.
+     *
+     * @param value the value to add.
+     */
+    public void add(double value) {
+        if (n == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        n++;
+        append(0, value);
+        compress();
+    }
+
+    /**
+     * Adds to this sketch all the values summarised by the given one.
+     *
+     * @param other the sketch to merge in this one.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.n == 0) {
+            return;
+        }
+        if (n == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        n += other.n;
+        while (levels.length < other.levels.length) {
+            grow();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        compress();
+    }
+
+    /**
+     * Returns a new sketch summarising the values of the two given sketches.
+     *
+     * @param a first sketch.
+     * @param b second sketch.
+     * @return a new sketch summarising the values of the two given sketches.
+     */
+    public static QuantileSketch combine(QuantileSketch a, QuantileSketch b) {
+        QuantileSketch result = new QuantileSketch(a.k, a.coins ^ Long.rotateLeft(b.coins, 32));
+        result.merge(a);
+        result.merge(b);
+        return result;
+    }
+
+    /**
+     * Returns an estimation of the quantile of order <code>q</code> of the values added to this sketch.
+     * {@link Double#NaN} is returned if the sketch is empty.
+     *
+     * @param q a value in [0,1].
+     * @return an estimation of the quantile of order <code>q</code>.
+     */
+    public double getQuantile(double q) {
+        if ((q < 0)||(q > 1)) {
+            throw new IllegalArgumentException("Quantile order must be in [0,1]!");
+        }
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+        int count = 0;
+        for (int size : sizes) {
+            count += size;
+        }
+        double[] values = new double[count];
+        long[] weights = new long[count];
+        Integer[] order = new Integer[count];
+        int idx = 0;
+        long total = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[idx] = levels[h][i];
+                weights[idx] = 1L << h;
+                order[idx] = idx;
+                total += weights[idx];
+                idx++;
+            }
+        }
+        Arrays.sort(order, (i, j) -> Double.compare(values[i], values[j]));
+        double target = q * total;
+        long cumulative = 0;
+        for (int i : order) {
+            cumulative += weights[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of values added to this sketch.
+     *
+     * @return the number of values added to this sketch.
+     */
+    public long getN() {
+        return n;
+    }
+
+    /**
+     * Returns the smallest value added to this sketch.
+     *
+     * @return the smallest value added to this sketch.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value added to this sketch.
+     *
+     * @return the largest value added to this sketch.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the number of values currently stored in this sketch.
+     *
+     * @return the number of values currently stored in this sketch.
+     */
+    public int getRetained() {
+        int count = 0;
+        for (int size : sizes) {
+            count += size;
+        }
+        return count;
+    }
+
+    private int capacity(int h, int height) {
+        return (int) Math.ceil(Math.pow(DECAY, height - h - 1) * k) + 1;
+    }
+
+    private void append(int h, double value) {
+        if (sizes[h] == levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], Math.max(2, 2 * levels[h].length));
+        }
+        levels[h][sizes[h]++] = value;
+    }
+
+    private void grow() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        levels[levels.length - 1] = new double[capacity(levels.length - 1, levels.length)];
+    }
+
+    private void compress() {
+        boolean compacted = true;
+        while (compacted) {
+            compacted = false;
+            for (int h = 0; h < levels.length; h++) {
+                if (sizes[h] >= capacity(h, levels.length)) {
+                    if (h + 1 == levels.length) {
+                        grow();
+                    }
+                    compact(h);
+                    compacted = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the given level and promotes one element every two to the next level. When the number of
+     * elements is odd, the largest one remains at the current level.
+     */
+    private void compact(int h) {
+        double[] level = levels[h];
+        int size = sizes[h];
+        Arrays.sort(level, 0, size);
+        int even = size - (size % 2);
+        for (int i = nextCoin(); i < even; i += 2) {
+            append(h + 1, level[i]);
+        }
+        if (even < size) {
+            level[0] = level[size - 1];
+            sizes[h] = 1;
+        } else {
+            sizes[h] = 0;
+        }
+    }
+
+    private int nextCoin() {
+        coins ^= coins << 13;
+        coins ^= coins >>> 7;
+        coins ^= coins << 17;
+        return (int) (coins & 1);
+    }
+
+}
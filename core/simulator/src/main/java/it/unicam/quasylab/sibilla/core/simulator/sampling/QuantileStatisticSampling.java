@@ -0,0 +1,246 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import it.unicam.quasylab.sibilla.core.models.MeasureFunction;
+import it.unicam.quasylab.sibilla.core.models.State;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * A statistic sampling that reports, for each sampling time, min value, first quartile, mean, median, third
+ * quartile and max value of the collected measures, as {@link DescriptiveStatisticSampling} does. Differently
+ * from the latter, quantiles are estimated by {@link QuantileSketch}es, so that the memory used does not depend
+ * on the number of simulated trajectories.
+ *
+ * @param <S> type of states.
+ */
+public class QuantileStatisticSampling<S extends State> extends StatisticSampling<S> {
+
+	/**
+	 * Seed of the sketches of samplings created without an explicit seed.
+	 */
+	public static final long DEFAULT_SEED = 0x5DEECE66DL;
+
+	private final int samples;
+
+	private final int k;
+
+	private final long seed;
+
+	private ThreadLocalAccumulators<Accumulator> data;
+
+	public static <S extends State> StatisticSampling<S> measure(String name, int samplings, double deadline, MeasureFunction<S> m) {
+		return new QuantileStatisticSampling<>(samplings, deadline / samplings,
+				new Measure<>() {
+
+					@Override
+					public double measure(S t) {
+						return m.apply(t);
+					}
+
+					@Override
+					public String getName() {
+						return name;
+					}
+
+				});
+
+	}
+
+	public QuantileStatisticSampling(int samples, double dt, Measure<? super S> measure) {
+		this(samples, dt, measure, QuantileSketch.DEFAULT_K);
+	}
+
+	/**
+	 * Creates a new sampling whose sketches have the given accuracy parameter.
+	 *
+	 * @param samples number of samples.
+	 * @param dt time between two samples.
+	 * @param measure measure to sample.
+	 * @param k parameter controlling the accuracy of the sketches (see {@link QuantileSketch}).
+	 */
+	public QuantileStatisticSampling(int samples, double dt, Measure<? super S> measure, int k) {
+		this(samples, dt, measure, k, DEFAULT_SEED);
+	}
+
+	/**
+	 * Creates a new sampling whose sketches have the given accuracy parameter and draw their compaction coins
+	 * from the given seed. Samplings created with the same seed and fed with the same values, in the same order,
+	 * report the same quantiles.
+	 *
+	 * @param samples number of samples.
+	 * @param dt time between two samples.
+	 * @param measure measure to sample.
+	 * @param k parameter controlling the accuracy of the sketches (see {@link QuantileSketch}).
+	 * @param seed seed of the sketches.
+	 */
+	public QuantileStatisticSampling(int samples, double dt, Measure<? super S> measure, int k, long seed) {
+		super(measure, dt);
+		this.samples = samples;
+		this.k = k;
+		this.seed = seed;
+		init();
+	}
+
+	@Override
+	protected void init() {
+		int size = samples;
+		int k = this.k;
+		long seed = this.seed;
+		this.data = new ThreadLocalAccumulators<>(() -> new Accumulator(size, k, seed), Accumulator::combine);
+	}
+
+	@Override
+	protected void recordValues(double[] values) {
+		data.get().add(values);
+	}
+
+	/**
+	 * Adds to this sampling all the values collected by the given one. This method is used to combine
+	 * data collected on different nodes.
+	 *
+	 * @param other a sampling of the same measure and with the same number of samples.
+	 */
+	public void merge(QuantileStatisticSampling<?> other) {
+		mergeSummary(other.getSummary());
+	}
+
+	@Override
+	public Serializable getSummary() {
+		return getAccumulator();
+	}
+
+	@Override
+	public void mergeSummary(Serializable summary) {
+		if (!(summary instanceof Accumulator)) {
+			throw new IllegalArgumentException(String.format("Illegal summary! Expected %s are %s", Accumulator.class.getSimpleName(), (summary == null ? null : summary.getClass().getSimpleName())));
+		}
+		if (((Accumulator) summary).sketches.length != samples) {
+			throw new IllegalArgumentException(String.format("Illegal number of samples! Expected %d are %d", samples, ((Accumulator) summary).sketches.length));
+		}
+		data.add((Accumulator) summary);
+	}
+
+	private Accumulator getAccumulator() {
+		return data.getAll().parallelStream().reduce(new Accumulator(samples, k, seed), Accumulator::combine);
+	}
+
+	@Override
+	public void printTimeSeries(Function<String, String> nameFunction, char separator, double significance) throws FileNotFoundException {
+		String fileName = nameFunction.apply(this.getName());
+		PrintStream out = new PrintStream(fileName);
+		double[][] data = getData();
+		for (double[] row : data) {
+			out.printf("%f", row[0]);
+			for (int j = 1; j < row.length; j++) {
+				out.printf("%c%f", separator, row[j]);
+			}
+			out.println();
+		}
+		out.close();
+	}
+
+	@Override
+	public int getSize() {
+		return samples;
+	}
+
+	@Override
+	public double[][] getData() {
+		Accumulator accumulator = getAccumulator();
+		double[][] result = new double[samples][];
+		for(int i=0; i<samples; i++) {
+			result[i] = getDataRow(accumulator, i);
+		}
+		return result;
+	}
+
+	@Override
+	protected double[] getDataRow(int i) {
+		return getDataRow(getAccumulator(), i);
+	}
+
+	private double[] getDataRow(Accumulator accumulator, int i) {
+		QuantileSketch sketch = accumulator.sketches[i];
+		return new double[] {getTimeOfIndex(i),
+				sketch.getMin(),
+				sketch.getQuantile(0.25),
+				accumulator.moments.getMean(i),
+				sketch.getQuantile(0.5),
+				sketch.getQuantile(0.75),
+				sketch.getMax()
+		};
+	}
+
+	/**
+	 * Data collected by a single thread: a sketch for each sampling time and the moments used to compute means.
+	 * The sketches of an accumulator are seeded with the splits of a {@link SplittableRandom} created from the
+	 * seed of the sampling, so that the sketch of each sampling time is seeded by the seed and its index only.
+	 * Different sampling times use independent compaction coins, and a sampling fed by a single thread is
+	 * reproducible.
+	 */
+	private static final class Accumulator implements Serializable {
+
+		private static final long serialVersionUID = 3092371938475638122L;
+
+		private final StreamingMoments moments;
+
+		private final QuantileSketch[] sketches;
+
+		private Accumulator(int size, int k, long seed) {
+			this(new StreamingMoments(size), new QuantileSketch[size]);
+			SplittableRandom seeds = new SplittableRandom(seed);
+			for (int i = 0; i < size; i++) {
+				sketches[i] = new QuantileSketch(k, seeds.split().nextLong());
+			}
+		}
+
+		private Accumulator(StreamingMoments moments, QuantileSketch[] sketches) {
+			this.moments = moments;
+			this.sketches = sketches;
+		}
+
+		private void add(double[] values) {
+			moments.add(values);
+			for (int i = 0; i < values.length; i++) {
+				sketches[i].add(values[i]);
+			}
+		}
+
+		private static Accumulator combine(Accumulator a, Accumulator b) {
+			QuantileSketch[] sketches = new QuantileSketch[a.sketches.length];
+			for (int i = 0; i < sketches.length; i++) {
+				sketches[i] = QuantileSketch.combine(a.sketches[i], b.sketches[i]);
+			}
+			return new Accumulator(StreamingMoments.combine(a.moments, b.moments), sketches);
+		}
+
+	}
+
+}
@@ -26,6 +26,7 @@ package it.unicam.quasylab.sibilla.core.simulator.sampling;
 import it.unicam.quasylab.sibilla.core.models.State;
 
 import java.io.FileNotFoundException;
+import java.io.Serializable;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -78,6 +79,36 @@ public class SamplingCollection<S extends State> implements SamplingFunction<S>
 		return toReturn;
 	}
 
+	/**
+	 * The summary of a collection is the list of the summaries of its functions.
+	 */
+	@Override
+	public Serializable getSummary() {
+		return functions.stream().map(SamplingFunction::getSummary).collect(Collectors.toCollection(ArrayList::new));
+	}
+
+	@Override
+	public void mergeSummary(Serializable summary) {
+		if (!(summary instanceof List)||(((List<?>) summary).size() != functions.size())) {
+			throw new IllegalArgumentException();//TODO: Add Message!
+		}
+		Iterator<?> summaries = ((List<?>) summary).iterator();
+		for (SamplingFunction<S> f : functions) {
+			f.mergeSummary((Serializable) summaries.next());
+		}
+	}
+
+	@Override
+	public void restoreSummary(Serializable summary) {
+		if (!(summary instanceof List)||(((List<?>) summary).size() != functions.size())) {
+			throw new IllegalArgumentException("The summary does not match the functions of this collection!");
+		}
+		Iterator<?> summaries = ((List<?>) summary).iterator();
+		for (SamplingFunction<S> f : functions) {
+			f.restoreSummary((Serializable) summaries.next());
+		}
+	}
+
 	public void add(SamplingFunction<S> f) {
 		functions.add(f);
 	}
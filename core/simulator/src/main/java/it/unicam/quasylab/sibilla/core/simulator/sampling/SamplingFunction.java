@@ -34,7 +34,7 @@ import java.util.function.Function;
  * @author loreti
  *
  */
-public interface SamplingFunction<S> extends Serializable {
+public interface SamplingFunction<S> extends Serializable, Summarizable {
 
 	SamplingHandler<S> getSamplingHandler();
 
@@ -66,4 +66,29 @@ public interface SamplingFunction<S> extends Serializable {
 
 	Map<String, double[][]> getSimulationTimeSeries();
 
+	/**
+	 * Returns a serializable summary of the data collected so far by this function. The summary can be added,
+	 * via {@link #mergeSummary(Serializable)}, to another function of the same kind. In this way data can be
+	 * aggregated where trajectories are simulated, and only summaries have to be moved around.
+	 *
+	 * @return a serializable summary of the data collected so far by this function.
+	 * @throws UnsupportedOperationException if this function does not support summaries.
+	 */
+	@Override
+	default Serializable getSummary() {
+		throw new UnsupportedOperationException(getClass().getName()+" does not support summaries");
+	}
+
+	/**
+	 * Adds to this function the data described by the given summary, that has been computed by
+	 * {@link #getSummary()} on a function of the same kind. The summary must not be modified afterwards.
+	 *
+	 * @param summary a summary of the data collected by a function of the same kind.
+	 * @throws UnsupportedOperationException if this function does not support summaries.
+	 */
+	@Override
+	default void mergeSummary(Serializable summary) {
+		throw new UnsupportedOperationException(getClass().getName()+" does not support summaries");
+	}
+
 }
@@ -41,7 +41,9 @@ public interface SamplingHandler<S> {
 
     /**
      * Records a simulation step performed ending at time <code>time</code> and
-     * leading to state <code>state</code>.
+     * leading to state <code>state</code>. The given state can be a view that is updated
+     * by the following simulation steps: handlers that retain sampled states have to
+     * store their snapshots (see {@link it.unicam.quasylab.sibilla.core.models.State#snapshot()}).
      *
      * @param time simulation time.
      * @param state reached state.
@@ -26,6 +26,7 @@ package it.unicam.quasylab.sibilla.core.simulator.sampling;
 import it.unicam.quasylab.sibilla.core.models.State;
 
 import java.io.FileNotFoundException;
+import java.io.Serializable;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -40,6 +41,12 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
 
     protected abstract void init();
 
+    @Override
+    public void restoreSummary(Serializable summary) {
+        init();
+        mergeSummary(summary);
+    }
+
     public String getName() {
         return measure.getName();
     }
@@ -87,6 +94,10 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
 
     protected abstract double[] getDataRow(int i);
 
+    /**
+     * Handler used to collect the measures of a single trajectory. Each handler is confined in the
+     * thread that simulates its trajectory.
+     */
     protected class StatisticsCollector implements SamplingHandler<S> {
             private final double[] values = new double[getSize()];
             private double last_measure = Double.NaN;
@@ -95,7 +106,7 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
             private double new_measure = Double.NaN;
 
         @Override
-            public synchronized void sample(double time, S context) {
+            public void sample(double time, S context) {
                 this.new_measure = measure.measure(context);
                 if ((time >= this.next_time) && (this.current_index < getSize())) {
                     recordMeasure(time);
@@ -120,7 +131,7 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
             }
 
             @Override
-            public synchronized void end(double time) {
+            public void end(double time) {
                 while (this.current_index < getSize()) {
                     recordSample();
                 }
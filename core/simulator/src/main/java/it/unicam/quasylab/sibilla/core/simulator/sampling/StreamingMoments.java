@@ -0,0 +1,154 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import java.io.Serializable;
+
+/**
+ * Streaming mean and variance of a sequence of vectors, computed element-wise with the Welford algorithm.
+ * Values are updated as in {@link org.apache.commons.math3.stat.descriptive.SummaryStatistics}, hence a
+ * single instance gives exactly the same results. Instances are combined with the pairwise formula of
+ * Chan, Golub and LeVeque.
+ */
+final class StreamingMoments implements Serializable {
+
+    private static final long serialVersionUID = 4186927315806745212L;
+
+    private long n;
+
+    private final double[] mean;
+
+    private final double[] m2;
+
+    /**
+     * Creates new moments for vectors of the given size.
+     *
+     * @param size size of collected vectors.
+     */
+    StreamingMoments(int size) {
+        this.mean = new double[size];
+        this.m2 = new double[size];
+    }
+
+    /**
+     * Adds the given vector to the collected ones.
+     *
+     * @param values the vector to add.
+     */
+    void add(double[] values) {
+        if (values.length != mean.length) {
+            throw new IllegalArgumentException(String.format("Illegal number of values! Expected %d are %d", mean.length, values.length));
+        }
+        n++;
+        double n0 = n;
+        for (int i = 0; i < values.length; i++) {
+            double dev = values[i] - mean[i];
+            double nDev = dev / n0;
+            mean[i] += nDev;
+            m2[i] += (n0 - 1) * dev * nDev;
+        }
+    }
+
+    /**
+     * Returns the moments of the union of the vectors collected by the two given instances.
+     *
+     * @param a first moments.
+     * @param b second moments.
+     * @return the moments of the union of the vectors collected by the two given instances.
+     */
+    static StreamingMoments combine(StreamingMoments a, StreamingMoments b) {
+        StreamingMoments result = new StreamingMoments(a.mean.length);
+        result.n = a.n + b.n;
+        if ((a.n == 0)||(b.n == 0)) {
+            StreamingMoments source = (a.n == 0 ? b : a);
+            System.arraycopy(source.mean, 0, result.mean, 0, result.mean.length);
+            System.arraycopy(source.m2, 0, result.m2, 0, result.m2.length);
+            return result;
+        }
+        double na = a.n;
+        double nb = b.n;
+        double n = result.n;
+        for (int i = 0; i < result.mean.length; i++) {
+            double delta = b.mean[i] - a.mean[i];
+            result.mean[i] = a.mean[i] + delta * nb / n;
+            result.m2[i] = a.m2[i] + b.m2[i] + delta * delta * na * nb / n;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of collected vectors.
+     *
+     * @return the number of collected vectors.
+     */
+    long getN() {
+        return n;
+    }
+
+    /**
+     * Returns the size of collected vectors.
+     *
+     * @return the size of collected vectors.
+     */
+    int size() {
+        return mean.length;
+    }
+
+    /**
+     * Returns the mean of the i-th element of collected vectors.
+     *
+     * @param i element index.
+     * @return the mean of the i-th element of collected vectors.
+     */
+    double getMean(int i) {
+        return (n == 0 ? Double.NaN : mean[i]);
+    }
+
+    /**
+     * Returns the (bias corrected) variance of the i-th element of collected vectors.
+     *
+     * @param i element index.
+     * @return the variance of the i-th element of collected vectors.
+     */
+    double getVariance(int i) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return 0.0;
+        }
+        return m2[i] / (n - 1.0);
+    }
+
+    /**
+     * Returns the standard deviation of the i-th element of collected vectors.
+     *
+     * @param i element index.
+     * @return the standard deviation of the i-th element of collected vectors.
+     */
+    double getStandardDeviation(int i) {
+        return Math.sqrt(getVariance(i));
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import java.io.Serializable;
+
+/**
+ * Instances of this interface collect data from simulation runs that can be summarised in a serializable
+ * object and later merged into another collector of the same kind. Summaries are used to move data collected
+ * on different hosts and to store checkpoints of long simulation campaigns.
+ */
+public interface Summarizable {
+
+    /**
+     * Returns a serializable summary of the data collected so far.
+     *
+     * @return a serializable summary of the data collected so far.
+     * @throws UnsupportedOperationException if summaries are not supported.
+     */
+    Serializable getSummary();
+
+    /**
+     * Adds the data described by the given summary, that has been computed by {@link #getSummary()} on a
+     * collector of the same kind. The summary must not be modified afterwards.
+     *
+     * @param summary a summary of the data collected by a collector of the same kind.
+     * @throws UnsupportedOperationException if summaries are not supported.
+     * @throws IllegalArgumentException if the summary has not been computed by a collector of the same kind.
+     */
+    void mergeSummary(Serializable summary);
+
+    /**
+     * Discards the data collected so far and replaces them with the ones described by the given summary, that
+     * has been computed by {@link #getSummary()} on a collector of the same kind. This is used to roll back
+     * to the last checkpoint the data of a campaign whose replicas have been interrupted.
+     *
+     * @param summary a summary of the data collected by a collector of the same kind.
+     * @throws UnsupportedOperationException if summaries cannot be restored.
+     * @throws IllegalArgumentException if the summary has not been computed by a collector of the same kind.
+     */
+    default void restoreSummary(Serializable summary) {
+        throw new UnsupportedOperationException(getClass().getName()+" does not support restoring summaries");
+    }
+
+}
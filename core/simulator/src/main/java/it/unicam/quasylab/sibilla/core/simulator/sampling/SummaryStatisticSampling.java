@@ -26,10 +26,10 @@ package it.unicam.quasylab.sibilla.core.simulator.sampling;
 import it.unicam.quasylab.sibilla.core.models.MeasureFunction;
 import it.unicam.quasylab.sibilla.core.models.State;
 import org.apache.commons.math3.distribution.TDistribution;
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.function.Function;
 
@@ -40,7 +40,9 @@ import java.util.function.Function;
  */
 public class SummaryStatisticSampling<S extends State> extends StatisticSampling<S> {
 
-	private final SummaryStatistics[] data;
+	private final int samples;
+
+	private ThreadLocalAccumulators<StreamingMoments> data;
 
 	public static <S extends State> StatisticSampling<S> measure(String name, int samplings, double deadline, MeasureFunction<S> m) {
 		return new SummaryStatisticSampling<>(samplings, deadline / samplings,
@@ -64,25 +66,43 @@ public class SummaryStatisticSampling<S extends State> extends StatisticSampling
 
 	public SummaryStatisticSampling(int samples, double dt, Measure<? super S> measure) {
 		super(measure, dt);
-		this.data = new SummaryStatistics[samples];
+		this.samples = samples;
 		init();
 	}
 
 	@Override
 	protected void init() {
-		for (int i = 0; i < data.length; i++) {
-			data[i] = new SummaryStatistics();
-		}
+		int size = samples;
+		this.data = new ThreadLocalAccumulators<>(() -> new StreamingMoments(size), StreamingMoments::combine);
+	}
+
+	/**
+	 * Values are recorded in the accumulator of the calling thread. Accumulators of the different
+	 * threads are combined only when the collected statistics are read.
+	 */
+	@Override
+	protected void recordValues(double[] values) {
+		data.get().add(values);
+	}
+
+	@Override
+	public Serializable getSummary() {
+		return getMoments();
 	}
 
 	@Override
-	protected synchronized void recordValues(double[] values) {
-		if (values.length != data.length) {
-			throw new IllegalArgumentException();//TODO: Add Message!
+	public void mergeSummary(Serializable summary) {
+		if (!(summary instanceof StreamingMoments)) {
+			throw new IllegalArgumentException(String.format("Illegal summary! Expected %s are %s", StreamingMoments.class.getSimpleName(), (summary == null ? null : summary.getClass().getSimpleName())));
 		}
-		for(int i=0; i<values.length; i++) {
-			data[i].addValue(values[i]);
+		if (((StreamingMoments) summary).size() != samples) {
+			throw new IllegalArgumentException(String.format("Illegal number of samples! Expected %d are %d", samples, ((StreamingMoments) summary).size()));
 		}
+		data.add((StreamingMoments) summary);
+	}
+
+	private StreamingMoments getMoments() {
+		return data.getAll().parallelStream().reduce(new StreamingMoments(samples), StreamingMoments::combine);
 	}
 
 
@@ -92,10 +112,11 @@ public class SummaryStatisticSampling<S extends State> extends StatisticSampling
 		String fileName = nameFunction.apply(this.getName());
 		PrintStream out = new PrintStream(fileName);
 		double time = 0.0;
-		for (int i = 0; i < this.data.length; i++) {
-			double ci = getConfidenceInterval(i,significance);
+		StreamingMoments moments = getMoments();
+		for (int i = 0; i < samples; i++) {
+			double ci = getConfidenceInterval(moments,i,significance);
 			out.println(""+time + separator 
-					+ this.data[i].getMean() 
+					+ moments.getMean(i)
 					+ separator + ci);
 			time += dt;
 		}
@@ -103,20 +124,34 @@ public class SummaryStatisticSampling<S extends State> extends StatisticSampling
 	}
 	
 	
-	private double getConfidenceInterval(int i, double significance) {
-		TDistribution tDist = new TDistribution(this.data[i].getN());
+	private double getConfidenceInterval(StreamingMoments moments, int i, double significance) {
+		TDistribution tDist = new TDistribution(moments.getN());
 		double a = tDist.inverseCumulativeProbability(1.0 -significance/2);
-		return a*this.data[i].getStandardDeviation() / Math.sqrt(this.data[i].getN());
+		return a*moments.getStandardDeviation(i) / Math.sqrt(moments.getN());
 	}
 
 	@Override
 	public int getSize() {
-		return data.length;
+		return samples;
+	}
+
+	@Override
+	public double[][] getData() {
+		StreamingMoments moments = getMoments();
+		double[][] data = new double[samples][];
+		for(int i=0; i<samples; i++) {
+			data[i] = getDataRow(moments, i);
+		}
+		return data;
 	}
 
 	@Override
 	protected double[] getDataRow(int i) {
-		return new double[] { getTimeOfIndex(i), data[i].getMean(), data[i].getStandardDeviation(), getConfidenceInterval(i, 0.05)};
+		return getDataRow(getMoments(), i);
+	}
+
+	private double[] getDataRow(StreamingMoments moments, int i) {
+		return new double[] { getTimeOfIndex(i), moments.getMean(i), moments.getStandardDeviation(i), getConfidenceInterval(moments, i, 0.05)};
 	}
 
 }
\ No newline at end of file
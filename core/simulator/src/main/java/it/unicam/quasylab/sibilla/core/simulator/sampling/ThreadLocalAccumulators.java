@@ -0,0 +1,146 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * A set of accumulators, one for each thread that uses it. Each accumulator is only updated by the thread
+ * that created it, hence no synchronisation is needed while data are collected. Accumulators are
+ * combined when results are requested, after all the threads have completed their work.
+ *
+ * Accumulators filled elsewhere, for instance by other nodes, are folded into a single accumulator as soon
+ * as they are received, so that the memory used does not grow with the number of received accumulators.
+ *
+ * @param <T> type of accumulators.
+ */
+class ThreadLocalAccumulators<T extends Serializable> implements Serializable {
+
+    private static final long serialVersionUID = -2870592352366380721L;
+
+    private final ConcurrentLinkedQueue<T> accumulators = new ConcurrentLinkedQueue<>();
+
+    private final SerializableSupplier<T> factory;
+
+    private final SerializableBinaryOperator<T> combiner;
+
+    private T merged;
+
+    private transient volatile ThreadLocal<T> local;
+
+    /**
+     * Creates a new set of accumulators built by the given factory. Received accumulators are folded with
+     * the given combiner, whose first argument is always an accumulator built by the factory, or the result
+     * of a previous combination, and that may be updated in place.
+     *
+     * @param factory function used to build the accumulator of a thread.
+     * @param combiner function used to fold received accumulators.
+     */
+    ThreadLocalAccumulators(SerializableSupplier<T> factory, SerializableBinaryOperator<T> combiner) {
+        this.factory = factory;
+        this.combiner = combiner;
+    }
+
+    /**
+     * Returns the accumulator of the current thread.
+     *
+     * @return the accumulator of the current thread.
+     */
+    T get() {
+        ThreadLocal<T> result = local;
+        if (result == null) {
+            result = createThreadLocal();
+        }
+        return result.get();
+    }
+
+    private synchronized ThreadLocal<T> createThreadLocal() {
+        if (local == null) {
+            local = ThreadLocal.withInitial(() -> {
+                T accumulator = factory.get();
+                accumulators.add(accumulator);
+                return accumulator;
+            });
+        }
+        return local;
+    }
+
+    /**
+     * Folds an accumulator that has been filled elsewhere, for instance by another node, into the one
+     * collecting all the received data. The given accumulator is not retained.
+     *
+     * @param accumulator the accumulator to add.
+     */
+    synchronized void add(T accumulator) {
+        if (merged == null) {
+            merged = factory.get();
+        }
+        merged = combiner.apply(merged, accumulator);
+    }
+
+    /**
+     * Returns the accumulators of the threads that used this set, together with the one collecting
+     * received data, if any.
+     *
+     * @return all the accumulators created so far.
+     */
+    Collection<T> getAll() {
+        T received;
+        synchronized (this) {
+            received = merged;
+        }
+        if (received == null) {
+            return Collections.unmodifiableCollection(accumulators);
+        }
+        List<T> result = new ArrayList<>(accumulators);
+        result.add(received);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * A serializable supplier of accumulators.
+     *
+     * @param <T> type of accumulators.
+     */
+    @FunctionalInterface
+    interface SerializableSupplier<T> extends Supplier<T>, Serializable {
+    }
+
+    /**
+     * A serializable function combining two accumulators.
+     *
+     * @param <T> type of accumulators.
+     */
+    @FunctionalInterface
+    interface SerializableBinaryOperator<T> extends BinaryOperator<T>, Serializable {
+    }
+
+}
@@ -23,13 +23,14 @@
 
 package it.unicam.quasylab.sibilla.core.simulator.sampling;
 
+import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
 
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Supplier;
 
-public class TrajectoryCollector<S> implements Supplier<SamplingHandler<S>> {
+public class TrajectoryCollector<S extends State> implements Supplier<SamplingHandler<S>> {
 
     private final LinkedList<Trajectory<S>> trajectories;
 
@@ -63,9 +64,10 @@ public class TrajectoryCollector<S> implements Supplier<SamplingHandler<S>> {
                 this.trajectory = new Trajectory<>();
             }
 
+            @SuppressWarnings("unchecked")
             @Override
             public void sample(double time, S state) {
-                this.trajectory.add(time, state);
+                this.trajectory.add(time, (S) state.snapshot());
             }
 
             @Override
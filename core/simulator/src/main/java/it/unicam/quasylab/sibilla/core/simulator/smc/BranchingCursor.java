@@ -0,0 +1,97 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * A cursor that starts the simulation from a state reached by another run, at the time when that state has been
+ * reached, instead of from the initial configuration of the wrapped cursor.
+ *
+ * @param <S> the type of process states.
+ */
+class BranchingCursor<S extends State> implements SimulatorCursor<S> {
+
+    private final SimulatorCursor<S> cursor;
+    private final S state;
+    private final double time;
+
+    BranchingCursor(SimulatorCursor<S> cursor, S state, double time) {
+        this.cursor = cursor;
+        this.state = state;
+        this.time = time;
+    }
+
+    @Override
+    public void start() {
+        cursor.start(state, time);
+    }
+
+    @Override
+    public void start(S state, double time) {
+        cursor.start(state, time);
+    }
+
+    @Override
+    public boolean step() {
+        return cursor.step();
+    }
+
+    @Override
+    public S currentState() {
+        return cursor.currentState();
+    }
+
+    @Override
+    public S currentView() {
+        return cursor.currentView();
+    }
+
+    @Override
+    public double time() {
+        return cursor.time();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return cursor.isTerminated();
+    }
+
+    @Override
+    public boolean isStarted() {
+        return cursor.isStarted();
+    }
+
+    @Override
+    public void restart(RandomGenerator rg) {
+        cursor.restart(rg);
+    }
+
+    @Override
+    public void restart() {
+        cursor.restart();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import org.apache.commons.math3.distribution.BetaDistribution;
+import org.apache.commons.math3.distribution.NormalDistribution;
+
+/**
+ * Methods used to estimate the probability of an event from the outcome of a sequence of runs.
+ */
+public enum EstimationMethod {
+
+    /**
+     * A fixed number of runs is performed, that is given by the Chernoff-Hoeffding bound.
+     */
+    CHERNOFF_HOEFFDING {
+        @Override
+        public double[] interval(long successes, long runs, double errorProbability) {
+            double delta = Math.sqrt(Math.log(2 / errorProbability) / (2 * runs));
+            double p = ((double) successes) / runs;
+            return new double[] { Math.max(0, p - delta), Math.min(1, p + delta) };
+        }
+    },
+
+    /**
+     * Runs stop as soon as the Wilson score interval is narrow enough.
+     */
+    WILSON {
+        @Override
+        public double[] interval(long successes, long runs, double errorProbability) {
+            double z = new NormalDistribution(0, 1).inverseCumulativeProbability(1 - errorProbability / 2);
+            double p = ((double) successes) / runs;
+            double z2 = z * z / runs;
+            double centre = (p + z2 / 2) / (1 + z2);
+            double width = z / (1 + z2) * Math.sqrt(p * (1 - p) / runs + z2 / (4 * runs));
+            return new double[] { Math.max(0, centre - width), Math.min(1, centre + width) };
+        }
+    },
+
+    /**
+     * Runs stop as soon as the (exact) Clopper-Pearson interval is narrow enough.
+     */
+    CLOPPER_PEARSON {
+        @Override
+        public double[] interval(long successes, long runs, double errorProbability) {
+            double lower = (successes == 0 ? 0 :
+                    new BetaDistribution(successes, runs - successes + 1).inverseCumulativeProbability(errorProbability / 2));
+            double upper = (successes == runs ? 1 :
+                    new BetaDistribution(successes + 1, runs - successes).inverseCumulativeProbability(1 - errorProbability / 2));
+            return new double[] { lower, upper };
+        }
+    };
+
+    /**
+     * Returns the interval that contains the exact probability with a probability that is at least
+     * <code>1-errorProbability</code>.
+     *
+     * @param successes number of successful runs.
+     * @param runs number of runs.
+     * @param errorProbability error probability.
+     * @return the lower and the upper bounds of the interval.
+     */
+    public abstract double[] interval(long successes, long runs, double errorProbability);
+
+}
@@ -0,0 +1,430 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.models.StatePredicate;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationManager;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationUnit;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Estimates the probability of rare reachability events by importance splitting. An importance function, given
+ * as a {@link Measure} over states, identifies a sequence of increasing levels that a trajectory crosses on its way
+ * to the goal. Trajectories that cross a level are branched, by restarting the simulation from the state and the
+ * time of the crossing, so that the effort is spent on the runs that approach the goal. The probability to reach
+ * the goal is the product of the conditional probabilities to cross each level starting from the previous one.
+ * All the branches of a stage are simulated by the same {@link SimulationManager}, hence in parallel when a
+ * multithreaded manager is used.
+ *
+ * Both fixed effort splitting, where levels are given, and adaptive multilevel splitting, where levels are
+ * selected from the simulated runs, are provided. The model cursors must support
+ * {@link SimulatorCursor#start(State, double)}.
+ *
+ * @param <S> the type of process states.
+ */
+public class ImportanceSplitting<S extends State> {
+
+    private final SimulationManagerFactory simulationManagerFactory;
+    private final BiFunction<RandomGenerator, Function<RandomGenerator, S>, SimulatorCursor<S>> cursorSupplier;
+    private final Measure<? super S> importance;
+    private final StatePredicate<? super S> condition;
+    private final StatePredicate<? super S> goal;
+    private final double deadline;
+
+    /**
+     * Creates a new splitting engine for the probability to reach a state satisfying <code>goal</code> within the
+     * given deadline while traversing only states satisfying <code>condition</code>.
+     *
+     * @param simulationManagerFactory factory used to create the managers that simulate the branches.
+     * @param cursorSupplier function used to create simulation cursors.
+     * @param importance importance function, it is expected to increase while approaching the goal.
+     * @param condition condition predicate.
+     * @param goal goal predicate.
+     * @param deadline reachability deadline.
+     */
+    public ImportanceSplitting(SimulationManagerFactory simulationManagerFactory,
+                               BiFunction<RandomGenerator, Function<RandomGenerator, S>, SimulatorCursor<S>> cursorSupplier,
+                               Measure<? super S> importance,
+                               StatePredicate<? super S> condition,
+                               StatePredicate<? super S> goal,
+                               double deadline) {
+        this.simulationManagerFactory = simulationManagerFactory;
+        this.cursorSupplier = cursorSupplier;
+        this.importance = importance;
+        this.condition = condition;
+        this.goal = goal;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Estimates the reachability probability by fixed effort splitting. At each stage <code>effort</code> runs are
+     * simulated until they cross the next level. The first stage starts from the initial state, while each run of
+     * the following stages starts from a crossing of the previous level, chosen uniformly at random. The last
+     * stage estimates the probability to reach the goal from the last level.
+     *
+     * @param monitor monitor used to control simulation.
+     * @param random random generator used in the simulation.
+     * @param initialState initial state.
+     * @param levels increasing levels of the importance function.
+     * @param effort number of runs simulated at each stage.
+     * @return the estimated probability.
+     * @throws InterruptedException is thrown when simulation is interrupted.
+     */
+    public RareEventEstimate fixedEffort(SimulationMonitor monitor, RandomGenerator random,
+                                         Function<RandomGenerator, S> initialState, double[] levels, int effort)
+            throws InterruptedException {
+        if (effort <= 0) {
+            throw new IllegalArgumentException("The effort must be positive");
+        }
+        for (int i = 1; i < levels.length; i++) {
+            if (levels[i] <= levels[i - 1]) {
+                throw new IllegalArgumentException("Levels must be increasing");
+            }
+        }
+        SimulationManager<S> manager = simulationManagerFactory.getSimulationManager(random, monitor);
+        double[] probabilities = new double[levels.length + 1];
+        List<Crossing<S>> entries = null;
+        long runs = 0;
+        int stage = 0;
+        boolean concluded = true;
+        try {
+            while (stage <= levels.length) {
+                if (isCancelled(monitor)) {
+                    concluded = false;
+                    break;
+                }
+                double level = (stage < levels.length ? levels[stage] : Double.POSITIVE_INFINITY);
+                AtomicReferenceArray<Crossing<S>> crossings = new AtomicReferenceArray<>(effort);
+                for (int i = 0; i < effort; i++) {
+                    Crossing<S> start = (entries == null ? null : entries.get(random.nextInt(entries.size())));
+                    if ((start != null) && start.goal) {
+                        crossings.set(i, start);
+                    } else {
+                        int index = i;
+                        simulate(manager, initialState, start, level, () -> new CrossingRecorder(crossings, index, level));
+                        runs++;
+                    }
+                }
+                manager.join();
+                entries = new ArrayList<>();
+                for (int i = 0; i < effort; i++) {
+                    if (crossings.get(i) != null) {
+                        entries.add(crossings.get(i));
+                    }
+                }
+                probabilities[stage++] = ((double) entries.size()) / effort;
+                if (entries.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            end(manager, monitor);
+        }
+        return new RareEventEstimate(Arrays.copyOf(levels, Math.min(stage, levels.length)),
+                Arrays.copyOf(probabilities, stage), effort, runs, concluded);
+    }
+
+    /**
+     * Estimates the reachability probability by adaptive multilevel splitting. A set of <code>particles</code>
+     * runs is simulated until the deadline, the goal or a state violating the condition is reached. At each
+     * iteration the next level is the <code>discarded</code>-th smallest maximum of the importance function along
+     * the runs: the runs that do not go beyond this level are discarded and replaced by branches of the others,
+     * started from the state where they first crossed the level. Iterations stop when at least
+     * <code>particles-discarded+1</code> runs reach the goal.
+     *
+     * @param monitor monitor used to control simulation.
+     * @param random random generator used in the simulation.
+     * @param initialState initial state.
+     * @param particles number of runs.
+     * @param discarded minimal number of runs discarded at each iteration.
+     * @return the estimated probability.
+     * @throws InterruptedException is thrown when simulation is interrupted.
+     */
+    public RareEventEstimate adaptive(SimulationMonitor monitor, RandomGenerator random,
+                                      Function<RandomGenerator, S> initialState, int particles, int discarded)
+            throws InterruptedException {
+        if ((discarded <= 0) || (discarded >= particles)) {
+            throw new IllegalArgumentException("The number of discarded runs must be positive and less than the number of runs");
+        }
+        SimulationManager<S> manager = simulationManagerFactory.getSimulationManager(random, monitor);
+        List<Double> levels = new LinkedList<>();
+        List<Double> probabilities = new LinkedList<>();
+        AtomicReferenceArray<Path<S>> paths = new AtomicReferenceArray<>(particles);
+        long runs = particles;
+        boolean concluded = true;
+        boolean extinct = false;
+        try {
+            for (int i = 0; i < particles; i++) {
+                int index = i;
+                simulate(manager, initialState, null, Double.POSITIVE_INFINITY, () -> new PathRecorder(paths, index, null));
+            }
+            manager.join();
+            while (true) {
+                if (isCancelled(monitor)) {
+                    concluded = false;
+                    break;
+                }
+                double[] maxima = new double[particles];
+                for (int i = 0; i < particles; i++) {
+                    maxima[i] = paths.get(i).max();
+                }
+                double[] sorted = maxima.clone();
+                Arrays.sort(sorted);
+                double level = sorted[discarded - 1];
+                if (level == Double.POSITIVE_INFINITY) {
+                    break;
+                }
+                List<Integer> survivors = new ArrayList<>();
+                List<Integer> killed = new ArrayList<>();
+                for (int i = 0; i < particles; i++) {
+                    (maxima[i] > level ? survivors : killed).add(i);
+                }
+                levels.add(level);
+                probabilities.add(((double) survivors.size()) / particles);
+                if (survivors.isEmpty()) {
+                    extinct = true;
+                    break;
+                }
+                for (int i : killed) {
+                    Crossing<S> start = paths.get(survivors.get(random.nextInt(survivors.size()))).firstAbove(level);
+                    if (start.goal) {
+                        paths.set(i, new Path<>(start));
+                    } else {
+                        int index = i;
+                        simulate(manager, initialState, start, Double.POSITIVE_INFINITY, () -> new PathRecorder(paths, index, start));
+                        runs++;
+                    }
+                }
+                manager.join();
+            }
+        } finally {
+            end(manager, monitor);
+        }
+        if (!extinct) {
+            int reached = 0;
+            for (int i = 0; i < particles; i++) {
+                if (paths.get(i).reached) {
+                    reached++;
+                }
+            }
+            probabilities.add(((double) reached) / particles);
+        }
+        return new RareEventEstimate(levels.stream().mapToDouble(Double::doubleValue).toArray(),
+                probabilities.stream().mapToDouble(Double::doubleValue).toArray(), particles, runs, concluded);
+    }
+
+    private void simulate(SimulationManager<S> manager, Function<RandomGenerator, S> initialState, Crossing<S> start,
+                          double level, Supplier<SamplingHandler<S>> handlerSupplier) {
+        BiFunction<RandomGenerator, Function<RandomGenerator, S>, SimulatorCursor<S>> branchSupplier = cursorSupplier;
+        if (start != null) {
+            branchSupplier = (rg, sf) -> new BranchingCursor<>(cursorSupplier.apply(rg, sf), start.state, start.time);
+        }
+        manager.simulate(new SimulationUnit<S>(branchSupplier, initialState, handlerSupplier,
+                (t, s) -> (t > deadline) || goal.check(s) || !condition.check(s) || (importance.measure(s) >= level)));
+    }
+
+    /**
+     * Returns a copy of a sampled state that is not affected by the following steps of the run, so that branches
+     * can be started from it.
+     */
+    @SuppressWarnings("unchecked")
+    private static <S extends State> S retain(S state) {
+        return (S) state.snapshot();
+    }
+
+    private static boolean isCancelled(SimulationMonitor monitor) {
+        return (monitor != null) && monitor.isCancelled();
+    }
+
+    private static void end(SimulationManager<?> manager, SimulationMonitor monitor) throws InterruptedException {
+        manager.shutdown();
+        if (monitor != null) {
+            monitor.endSimulation();
+        }
+    }
+
+    /**
+     * A state reached by a run, together with the time when it has been reached and its importance.
+     */
+    private static final class Crossing<S> {
+
+        private final S state;
+        private final double time;
+        private final double value;
+        private final boolean goal;
+
+        private Crossing(S state, double time, double value, boolean goal) {
+            this.state = state;
+            this.time = time;
+            this.value = value;
+            this.goal = goal;
+        }
+    }
+
+    /**
+     * The crossings of a run where the importance function reaches a new maximum.
+     */
+    private static final class Path<S> {
+
+        private final List<Crossing<S>> crossings = new ArrayList<>();
+        private boolean reached = false;
+
+        private Path(Crossing<S> start) {
+            if (start != null) {
+                add(start);
+            }
+        }
+
+        private void add(Crossing<S> crossing) {
+            crossings.add(crossing);
+            reached = crossing.goal;
+        }
+
+        private double max() {
+            if (reached) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (crossings.isEmpty()) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            return crossings.get(crossings.size() - 1).value;
+        }
+
+        private Crossing<S> firstAbove(double level) {
+            for (Crossing<S> c : crossings) {
+                if (c.value > level) {
+                    return c;
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Records the first crossing of a level, or the goal, along a run.
+     */
+    private class CrossingRecorder implements SamplingHandler<S> {
+
+        private final AtomicReferenceArray<Crossing<S>> crossings;
+        private final int index;
+        private final double level;
+        private Crossing<S> crossing;
+        private boolean failed;
+
+        private CrossingRecorder(AtomicReferenceArray<Crossing<S>> crossings, int index, double level) {
+            this.crossings = crossings;
+            this.index = index;
+            this.level = level;
+        }
+
+        @Override
+        public void start() {
+            this.crossing = null;
+            this.failed = false;
+        }
+
+        @Override
+        public void sample(double time, S state) {
+            if ((crossing != null) || failed || (time > deadline)) {
+                return;
+            }
+            if (goal.check(state)) {
+                crossing = new Crossing<>(retain(state), time, Double.POSITIVE_INFINITY, true);
+            } else if (!condition.check(state)) {
+                failed = true;
+            } else {
+                double value = importance.measure(state);
+                if (value >= level) {
+                    crossing = new Crossing<>(retain(state), time, value, false);
+                }
+            }
+        }
+
+        @Override
+        public void end(double time) {
+            crossings.set(index, crossing);
+        }
+    }
+
+    /**
+     * Records the crossings of a run where the importance function reaches a new maximum.
+     */
+    private class PathRecorder implements SamplingHandler<S> {
+
+        private final AtomicReferenceArray<Path<S>> paths;
+        private final int index;
+        private final Crossing<S> branch;
+        private Path<S> path;
+        private boolean failed;
+
+        private PathRecorder(AtomicReferenceArray<Path<S>> paths, int index, Crossing<S> branch) {
+            this.paths = paths;
+            this.index = index;
+            this.branch = branch;
+        }
+
+        @Override
+        public void start() {
+            this.path = new Path<>(branch);
+            this.failed = false;
+        }
+
+        @Override
+        public void sample(double time, S state) {
+            if (path.reached || failed || (time > deadline)) {
+                return;
+            }
+            if (goal.check(state)) {
+                path.add(new Crossing<>(retain(state), time, Double.POSITIVE_INFINITY, true));
+            } else if (!condition.check(state)) {
+                failed = true;
+            } else {
+                double value = importance.measure(state);
+                if (value > path.max()) {
+                    path.add(new Crossing<>(retain(state), time, value, false));
+                }
+            }
+        }
+
+        @Override
+        public void end(double time) {
+            paths.set(index, path);
+        }
+    }
+}
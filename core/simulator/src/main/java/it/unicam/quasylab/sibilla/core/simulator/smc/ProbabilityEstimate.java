@@ -0,0 +1,98 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import java.io.Serializable;
+
+/**
+ * The estimate of a probability computed from a sequence of runs, together with an interval that contains the
+ * exact value with the requested confidence.
+ */
+public final class ProbabilityEstimate implements Serializable {
+
+    private static final long serialVersionUID = -1405127736584862125L;
+
+    private final long successes;
+    private final long runs;
+    private final double lowerBound;
+    private final double upperBound;
+    private final boolean concluded;
+
+    /**
+     * Creates a new estimate.
+     *
+     * @param successes number of successful runs.
+     * @param runs number of runs.
+     * @param lowerBound lower bound of the confidence interval.
+     * @param upperBound upper bound of the confidence interval.
+     * @param concluded true if the requested precision has been reached.
+     */
+    public ProbabilityEstimate(long successes, long runs, double lowerBound, double upperBound, boolean concluded) {
+        this.successes = successes;
+        this.runs = runs;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.concluded = concluded;
+    }
+
+    /**
+     * Returns the estimated probability, that is the frequency of successful runs.
+     *
+     * @return the estimated probability.
+     */
+    public double getProbability() {
+        return (runs == 0 ? Double.NaN : ((double) successes) / runs);
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Returns false if runs have been stopped, for instance by a monitor, before the requested precision has
+     * been reached.
+     *
+     * @return true if the requested precision has been reached.
+     */
+    public boolean isConcluded() {
+        return concluded;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%f [%f, %f] (%d runs)", getProbability(), lowerBound, upperBound, runs);
+    }
+}
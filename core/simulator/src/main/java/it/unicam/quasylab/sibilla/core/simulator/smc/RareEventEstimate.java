@@ -0,0 +1,121 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The estimate of a rare event probability computed by importance splitting. The probability is the product of
+ * the conditional probabilities to move from one level of the importance function to the next one.
+ */
+public final class RareEventEstimate implements Serializable {
+
+    private static final long serialVersionUID = 5926843413373213208L;
+
+    private final double[] levels;
+    private final double[] stageProbabilities;
+    private final int effort;
+    private final long runs;
+    private final boolean concluded;
+
+    /**
+     * Creates a new estimate.
+     *
+     * @param levels levels of the importance function crossed by the runs.
+     * @param stageProbabilities conditional probabilities to cross each level, the last one is the probability
+     *                           to reach the goal from the last level.
+     * @param effort number of runs used to estimate each conditional probability.
+     * @param runs total number of simulated runs.
+     * @param concluded true if the estimation has not been stopped before reaching the goal or a zero probability.
+     */
+    public RareEventEstimate(double[] levels, double[] stageProbabilities, int effort, long runs, boolean concluded) {
+        this.levels = levels;
+        this.stageProbabilities = stageProbabilities;
+        this.effort = effort;
+        this.runs = runs;
+        this.concluded = concluded;
+    }
+
+    /**
+     * Returns the estimated probability, that is the product of the conditional probabilities of all the stages.
+     *
+     * @return the estimated probability.
+     */
+    public double getProbability() {
+        double result = 1.0;
+        for (double p : stageProbabilities) {
+            result *= p;
+        }
+        return result;
+    }
+
+    /**
+     * Returns an approximation of the relative standard error of the estimate, computed as if the stages were
+     * independent. Infinite is returned when the estimated probability is zero.
+     *
+     * @return the approximated relative standard error of the estimate.
+     */
+    public double getRelativeError() {
+        double variance = 0.0;
+        for (double p : stageProbabilities) {
+            if (p == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            variance += (1 - p) / (effort * p);
+        }
+        return Math.sqrt(variance);
+    }
+
+    public double[] getLevels() {
+        return levels.clone();
+    }
+
+    public double[] getStageProbabilities() {
+        return stageProbabilities.clone();
+    }
+
+    public int getEffort() {
+        return effort;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns false if runs have been stopped, for instance by a monitor, before the estimation is completed.
+     *
+     * @return true if the estimation is completed.
+     */
+    public boolean isConcluded() {
+        return concluded;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%e (relative error %f, %d levels, %d runs)", getProbability(), getRelativeError(),
+                levels.length, runs);
+    }
+}
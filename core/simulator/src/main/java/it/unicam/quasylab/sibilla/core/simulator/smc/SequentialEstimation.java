@@ -0,0 +1,148 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import java.io.Serializable;
+
+/**
+ * Estimates a probability so that the exact value lays in <code>[p-delta, p+delta]</code> with a probability
+ * that is at least <code>1-errorProbability</code>. Apart from {@link EstimationMethod#CHERNOFF_HOEFFDING}, the
+ * confidence interval is checked at increasing numbers of runs, and runs stop as soon as it is included in
+ * <code>[p-delta, p+delta]</code>. Since the interval is checked many times, half of the error probability is split among
+ * the checks (the <code>k</code>-th one uses <code>3 errorProbability/(pi k)^2</code>), while the other half is
+ * used by the Chernoff-Hoeffding bound, that limits the number of runs. Far from <code>0.5</code> the requested
+ * precision is usually reached with a small fraction of the runs required by the Chernoff-Hoeffding bound.
+ */
+public class SequentialEstimation implements SequentialTest {
+
+    /**
+     * Ratio between the number of runs of two consecutive checks
+     */
+    private static final double GROWTH = 1.5;
+
+    private final EstimationMethod method;
+    private final double errorProbability;
+    private final double delta;
+    private final long maxRuns;
+    private int checks = 0;
+    private double[] interval;
+    private boolean concluded = false;
+
+    public SequentialEstimation(EstimationMethod method, double errorProbability, double delta) {
+        this.method = method;
+        this.errorProbability = errorProbability;
+        this.delta = delta;
+        if (method == EstimationMethod.CHERNOFF_HOEFFDING) {
+            this.maxRuns = SequentialTest.chernoffHoeffdingRuns(errorProbability, delta);
+        } else {
+            this.maxRuns = SequentialTest.chernoffHoeffdingRuns(errorProbability / 2, delta);
+        }
+    }
+
+    @Override
+    public long nextRuns(long successes, long runs) {
+        if (concluded) {
+            return 0;
+        }
+        if (runs >= maxRuns) {
+            concluded = true;
+            interval = new double[] { Math.max(0, ((double) successes) / runs - delta), Math.min(1, ((double) successes) / runs + delta) };
+            return 0;
+        }
+        if ((runs > 0) && (method != EstimationMethod.CHERNOFF_HOEFFDING)) {
+            checks++;
+            interval = method.interval(successes, runs, 3 * errorProbability / Math.pow(Math.PI * checks, 2));
+            double p = ((double) successes) / runs;
+            if ((p - interval[0] <= delta) && (interval[1] - p <= delta)) {
+                concluded = true;
+                return 0;
+            }
+        }
+        if (method == EstimationMethod.CHERNOFF_HOEFFDING) {
+            return maxRuns - runs;
+        }
+        long next = (runs == 0 ? (long) Math.ceil(1 / delta) : (long) Math.ceil(runs * GROWTH));
+        return Math.min(next, maxRuns) - runs;
+    }
+
+    /**
+     * Returns the number of checks performed so far, that determines the error probability of the next
+     * check, together with the outcome of the estimation if it is concluded.
+     */
+    @Override
+    public Serializable getState() {
+        return new Progress(checks, interval, concluded);
+    }
+
+    @Override
+    public void restoreState(Serializable state) {
+        if (!(state instanceof Progress)) {
+            throw new IllegalArgumentException("The state has not been computed by a sequential estimation!");
+        }
+        Progress progress = (Progress) state;
+        this.checks = progress.checks;
+        this.interval = (progress.interval == null ? null : progress.interval.clone());
+        this.concluded = progress.concluded;
+    }
+
+    /**
+     * Returns the maximal number of runs performed by this estimation.
+     *
+     * @return the maximal number of runs performed by this estimation.
+     */
+    public long getMaxRuns() {
+        return maxRuns;
+    }
+
+    /**
+     * Returns the estimate computed from the given runs. If this estimation is not concluded, the interval is
+     * computed with the whole error probability.
+     *
+     * @param successes number of successful runs.
+     * @param runs number of runs.
+     * @return the estimate computed from the given runs.
+     */
+    public ProbabilityEstimate getResult(long successes, long runs) {
+        if (runs == 0) {
+            return new ProbabilityEstimate(0, 0, 0, 1, false);
+        }
+        double[] bounds = (concluded ? interval : method.interval(successes, runs, errorProbability));
+        return new ProbabilityEstimate(successes, runs, bounds[0], bounds[1], concluded);
+    }
+
+    private static final class Progress implements Serializable {
+
+        private static final long serialVersionUID = 6354098127394857112L;
+
+        private final int checks;
+        private final double[] interval;
+        private final boolean concluded;
+
+        private Progress(int checks, double[] interval, boolean concluded) {
+            this.checks = checks;
+            this.interval = (interval == null ? null : interval.clone());
+            this.concluded = concluded;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+/**
+ * Wald's sequential probability ratio test checking whether the probability of an event is at least a threshold
+ * <code>theta</code>. The test decides between <code>p &gt;= theta+delta</code> and <code>p &lt;= theta-delta</code>:
+ * the former is wrongly rejected with probability at most <code>alpha</code>, the latter is wrongly rejected
+ * with probability at most <code>beta</code>. Inside the indifference region both answers are acceptable. The
+ * test is truncated at the number of runs given by the Chernoff-Hoeffding bound, where the frequency of
+ * successful runs is compared with the threshold.
+ */
+public class SequentialProbabilityRatioTest implements SequentialTest {
+
+    private final double theta;
+    private final long batch;
+    private final long maxRuns;
+    private final double successRatio;
+    private final double failureRatio;
+    private final double acceptBelow;
+    private final double acceptAbove;
+    private ThresholdTestResult.Outcome outcome = ThresholdTestResult.Outcome.UNDECIDED;
+
+    /**
+     * Creates a new test.
+     *
+     * @param theta the threshold.
+     * @param delta half width of the indifference region.
+     * @param alpha probability to wrongly reject that the probability is at least the threshold.
+     * @param beta probability to wrongly accept that the probability is at least the threshold.
+     * @param batch number of runs performed between two checks.
+     */
+    public SequentialProbabilityRatioTest(double theta, double delta, double alpha, double beta, long batch) {
+        if ((theta - delta <= 0) || (theta + delta >= 1)) {
+            throw new IllegalArgumentException("The indifference region must be included in (0,1)");
+        }
+        if ((alpha <= 0) || (alpha >= 1) || (beta <= 0) || (beta >= 1) || (batch <= 0)) {
+            throw new IllegalArgumentException();
+        }
+        double above = theta + delta;
+        double below = theta - delta;
+        this.theta = theta;
+        this.batch = batch;
+        this.maxRuns = SequentialTest.chernoffHoeffdingRuns(Math.min(alpha, beta), delta);
+        this.successRatio = Math.log(below / above);
+        this.failureRatio = Math.log((1 - below) / (1 - above));
+        this.acceptBelow = Math.log((1 - beta) / alpha);
+        this.acceptAbove = Math.log(beta / (1 - alpha));
+    }
+
+    @Override
+    public long nextRuns(long successes, long runs) {
+        if (outcome != ThresholdTestResult.Outcome.UNDECIDED) {
+            return 0;
+        }
+        double ratio = successes * successRatio + (runs - successes) * failureRatio;
+        if (ratio >= acceptBelow) {
+            outcome = ThresholdTestResult.Outcome.BELOW;
+        } else if (ratio <= acceptAbove) {
+            outcome = ThresholdTestResult.Outcome.ABOVE;
+        } else if (runs >= maxRuns) {
+            outcome = (successes >= theta * runs ? ThresholdTestResult.Outcome.ABOVE : ThresholdTestResult.Outcome.BELOW);
+        } else {
+            return Math.min(batch, maxRuns - runs);
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the outcome of this test after the given runs.
+     *
+     * @param successes number of successful runs.
+     * @param runs number of runs.
+     * @return the outcome of this test after the given runs.
+     */
+    public ThresholdTestResult getResult(long successes, long runs) {
+        return new ThresholdTestResult(theta, outcome, successes, runs);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import java.io.Serializable;
+
+/**
+ * A statistical test whose outcome is computed from a sequence of Bernoulli experiments, for instance the
+ * simulation runs that satisfy, or not, a given property. After each group of runs the test decides whether
+ * other runs are needed. Tests keep track of the checks already performed, hence each instance must be used
+ * for a single sequence of experiments.
+ */
+public interface SequentialTest {
+
+    /**
+     * Returns the number of runs to perform before the next check of this test. When zero is returned the
+     * test is concluded.
+     *
+     * @param successes number of successful runs performed so far.
+     * @param runs number of runs performed so far.
+     * @return the number of runs to perform before the next check of this test.
+     */
+    long nextRuns(long successes, long runs);
+
+    /**
+     * Returns the part of the state of this test that cannot be recomputed from the counters of the runs,
+     * for instance the checks already performed. This is stored in checkpoints, together with the counters,
+     * so that a test resumed by {@link #restoreState(Serializable)} behaves as the interrupted one. By default,
+     * tests have no such state and <code>null</code> is returned.
+     *
+     * @return the state of this test that cannot be recomputed from the counters of the runs.
+     */
+    default Serializable getState() {
+        return null;
+    }
+
+    /**
+     * Restores the state returned by {@link #getState()} on a test of the same kind. This must be invoked
+     * before the first invocation of {@link #nextRuns(long, long)}.
+     *
+     * @param state a state returned by {@link #getState()}.
+     * @throws IllegalArgumentException if the state has not been computed by a test of the same kind.
+     */
+    default void restoreState(Serializable state) {
+        if (state != null) {
+            throw new IllegalArgumentException("This test has no state to restore!");
+        }
+    }
+
+    /**
+     * Returns the number of runs that guarantees the Chernoff-Hoeffding bound: the frequency of successes
+     * computed on these runs differs from the exact probability by more than <code>delta</code> with a
+     * probability that is at most <code>errorProbability</code>.
+     *
+     * @param errorProbability error probability.
+     * @param delta error gap.
+     * @return the number of runs that guarantees the Chernoff-Hoeffding bound.
+     */
+    static long chernoffHoeffdingRuns(double errorProbability, double delta) {
+        if ((errorProbability <= 0) || (errorProbability >= 1) || (delta <= 0) || (delta >= 1)) {
+            throw new IllegalArgumentException("Error probability and gap must be in (0,1)");
+        }
+        return (long) Math.ceil(Math.log(2 / errorProbability) / (2 * delta * delta));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of a test checking whether the probability of an event is at least a given threshold.
+ */
+public final class ThresholdTestResult implements Serializable {
+
+    private static final long serialVersionUID = 4316880214380536622L;
+
+    /**
+     * Possible outcomes of a threshold test.
+     */
+    public enum Outcome {
+        /**
+         * The probability is at least the threshold.
+         */
+        ABOVE,
+        /**
+         * The probability is less than the threshold.
+         */
+        BELOW,
+        /**
+         * Runs have been stopped before a decision was taken.
+         */
+        UNDECIDED
+    }
+
+    private final double threshold;
+    private final Outcome outcome;
+    private final long successes;
+    private final long runs;
+
+    public ThresholdTestResult(double threshold, Outcome outcome, long successes, long runs) {
+        this.threshold = threshold;
+        this.outcome = outcome;
+        this.successes = successes;
+        this.runs = runs;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the frequency of successful runs.
+     *
+     * @return the frequency of successful runs.
+     */
+    public double getProbability() {
+        return (runs == 0 ? Double.NaN : ((double) successes) / runs);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %f (%d runs, frequency %f)", outcome, threshold, runs, getProbability());
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A weighted structure backed by a Fenwick tree (binary indexed tree). Elements and their weights are stored in
+ * arrays indexed by insertion order, weights are primitive doubles and no {@link WeightedElement} is allocated to
+ * store an entry. Selection of an element and update of the weight of an element both require O(log n) time.
+ *
+ * @param <S> type of elements in the structure.
+ */
+public class WeightedFenwickTree<S> implements WeightedStructure<S> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private Object[] elements;
+
+	private double[] weights;
+
+	/**
+	 * Fenwick tree of weights. Position <code>i</code> (starting from 1) contains the sum of the weights of
+	 * elements in the interval <code>(i-lowbit(i), i]</code>.
+	 */
+	private double[] tree;
+
+	private int size;
+
+	/**
+	 * Creates an empty structure.
+	 */
+	public WeightedFenwickTree() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty structure that can store the given number of elements before resizing.
+	 *
+	 * @param capacity initial capacity.
+	 */
+	public WeightedFenwickTree(int capacity) {
+		capacity = Math.max(capacity, 1);
+		this.elements = new Object[capacity];
+		this.weights = new double[capacity];
+		this.tree = new double[capacity + 1];
+		this.size = 0;
+	}
+
+	@Override
+	public double getTotalWeight() {
+		return prefixWeight(size);
+	}
+
+	/**
+	 * Returns the sum of the weights of the first <code>n</code> elements.
+	 *
+	 * @param n number of elements.
+	 * @return the sum of the weights of the first <code>n</code> elements.
+	 */
+	public double prefixWeight(int n) {
+		double sum = 0.0;
+		for (int i = Math.min(n, size); i > 0; i -= Integer.lowestOneBit(i)) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	@Override
+	public WeightedElement<S> select(double w) {
+		int idx = selectIndex(w);
+		if (idx < 0) {
+			return null;
+		}
+		return new WeightedElement<>(weights[idx], getElement(idx));
+	}
+
+	/**
+	 * Returns the index of the first element such that the sum of the weights of the elements up to it
+	 * is greater than or equal to <code>w</code>. Elements with weight 0 are never selected when <code>w</code>
+	 * is positive. The value -1 is returned if <code>w</code> is greater than the total weight.
+	 *
+	 * @param w a value between 0 and the total weight.
+	 * @return the index of the selected element, or -1 if <code>w</code> is greater than the total weight.
+	 */
+	public int selectIndex(double w) {
+		if (size == 0) {
+			return -1;
+		}
+		int pos = 0;
+		double residual = w;
+		for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+			int next = pos + step;
+			if ((next <= size) && (tree[next] < residual)) {
+				pos = next;
+				residual -= tree[next];
+			}
+		}
+		if (pos >= size) {
+			return -1;
+		}
+		return pos;
+	}
+
+	@Override
+	public WeightedStructure<S> add(double w, S s) {
+		if (size == elements.length) {
+			grow();
+		}
+		elements[size] = s;
+		weights[size] = w;
+		size++;
+		double value = w;
+		int lowbit = Integer.lowestOneBit(size);
+		for (int k = 1; k < lowbit; k <<= 1) {
+			value += tree[size - k];
+		}
+		tree[size] = value;
+		return this;
+	}
+
+	@Override
+	public WeightedStructure<S> add(WeightedStructure<S> s) {
+		for (WeightedElement<S> e : s.getAll()) {
+			add(e.getWeight(), e.getElement());
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the weight of the element at the given index.
+	 *
+	 * @param idx element index.
+	 * @param w new weight.
+	 */
+	public void setWeight(int idx, double w) {
+		checkIndex(idx);
+		double delta = w - weights[idx];
+		weights[idx] = w;
+		for (int i = idx + 1; i <= size; i += Integer.lowestOneBit(i)) {
+			tree[i] += delta;
+		}
+	}
+
+	/**
+	 * Recomputes the partial sums of the tree from the weights of the elements in O(n). This discards the
+	 * rounding errors accumulated by a long sequence of {@link #setWeight(int, double)}.
+	 */
+	public void rebuild() {
+		for (int i = 1; i <= size; i++) {
+			tree[i] = weights[i - 1];
+		}
+		for (int i = 1; i <= size; i++) {
+			int parent = i + Integer.lowestOneBit(i);
+			if (parent <= size) {
+				tree[parent] += tree[i];
+			}
+		}
+	}
+
+	/**
+	 * Returns the weight of the element at the given index.
+	 *
+	 * @param idx element index.
+	 * @return the weight of the element at the given index.
+	 */
+	public double getWeight(int idx) {
+		checkIndex(idx);
+		return weights[idx];
+	}
+
+	/**
+	 * Returns the element at the given index.
+	 *
+	 * @param idx element index.
+	 * @return the element at the given index.
+	 */
+	@SuppressWarnings("unchecked")
+	public S getElement(int idx) {
+		checkIndex(idx);
+		return (S) elements[idx];
+	}
+
+	/**
+	 * Returns the number of elements in the structure.
+	 *
+	 * @return the number of elements in the structure.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all the elements from the structure. Allocated memory is kept so that the structure can be reused.
+	 */
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		Arrays.fill(weights, 0, size, 0.0);
+		Arrays.fill(tree, 0, size + 1, 0.0);
+		size = 0;
+	}
+
+	@Override
+	public List<WeightedElement<S>> getAll() {
+		List<WeightedElement<S>> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(new WeightedElement<>(weights[i], getElement(i)));
+		}
+		return list;
+	}
+
+	private void checkIndex(int idx) {
+		if ((idx < 0) || (idx >= size)) {
+			throw new IndexOutOfBoundsException(idx);
+		}
+	}
+
+	private void grow() {
+		int capacity = elements.length * 2;
+		elements = Arrays.copyOf(elements, capacity);
+		weights = Arrays.copyOf(weights, capacity);
+		tree = Arrays.copyOf(tree, capacity + 1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				builder.append(" - ");
+			}
+			builder.append(elements[i]).append(":").append(weights[i]);
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,300 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.util.datastructures;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Optional;
+
+/**
+ * A mutable scheduler that stores scheduled elements in an array based 4-ary heap ordered by time and, for elements
+ * scheduled at the same time, by their natural ordering. Scheduling an element costs O(log n) and allocates a single
+ * heap entry. Elements are unscheduled lazily: the entry is marked as cancelled and discarded when it reaches the
+ * top of the heap, while the heap is compacted when cancelled entries outnumber the scheduled ones.
+ *
+ * @param <T> type of scheduled elements.
+ */
+public class HeapScheduler<T extends Comparable<T>> implements Scheduler<T> {
+
+    private static final int ARITY = 4;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final HashMap<T, Entry<T>> index;
+
+    private Entry<T>[] heap;
+
+    private int size;
+
+    private int live;
+
+    private long counter;
+
+    public HeapScheduler() {
+        this(newHeap(INITIAL_CAPACITY), 0, 0, 0);
+    }
+
+    private HeapScheduler(Entry<T>[] heap, int size, int live, long counter) {
+        this.heap = heap;
+        this.size = size;
+        this.live = live;
+        this.counter = counter;
+        this.index = new HashMap<>();
+    }
+
+    /**
+     * Returns a new mutable scheduler containing the elements currently scheduled in the given one. The given
+     * scheduler is not affected by the operations on the returned one.
+     *
+     * @param scheduler a scheduler.
+     * @param <T> type of scheduled elements.
+     * @return a new mutable scheduler containing the elements currently scheduled in the given one.
+     */
+    public static <T extends Comparable<T>> HeapScheduler<T> copyOf(Scheduler<T> scheduler) {
+        if (scheduler instanceof HeapScheduler) {
+            return ((HeapScheduler<T>) scheduler).snapshot();
+        }
+        HeapScheduler<T> result = new HeapScheduler<>();
+        Optional<Pair<ScheduledElements<T>, Scheduler<T>>> next = scheduler.snapshot().scheduleNext();
+        while (next.isPresent()) {
+            ScheduledElements<T> elements = next.get().getKey();
+            for (T element : elements.getScheduledElements()) {
+                result.schedule(element, elements.getTime());
+            }
+            next = next.get().getValue().scheduleNext();
+        }
+        return result;
+    }
+
+    @Override
+    public HeapScheduler<T> schedule(T element, double time) {
+        Entry<T> entry = new Entry<>(element, time, counter++);
+        entry.next = index.put(element, entry);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        siftUp(size++, entry);
+        live++;
+        return this;
+    }
+
+    @Override
+    public double getNextTime() {
+        purge();
+        return (size == 0 ? Double.NaN : heap[0].time);
+    }
+
+    @Override
+    public double getLastTime() {
+        double last = Double.NaN;
+        for (int i = 0; i < size; i++) {
+            if (!heap[i].cancelled && !(heap[i].time <= last)) {
+                last = heap[i].time;
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public Optional<Pair<ScheduledElements<T>, Scheduler<T>>> scheduleNext() {
+        purge();
+        if (size == 0) {
+            return Optional.empty();
+        }
+        double time = heap[0].time;
+        SibillaSet<T> elements = null;
+        while ((size > 0) && (heap[0].time == time)) {
+            Entry<T> entry = poll();
+            if (!entry.cancelled) {
+                release(entry);
+                elements = (elements == null ? SibillaSet.of(entry.element) : elements.add(entry.element));
+            }
+        }
+        return Optional.of(Pair.of(new ScheduledElements<>(time, elements), this));
+    }
+
+    @Override
+    public HeapScheduler<T> unscheduled(double time, T activity) {
+        for (Entry<T> entry = index.get(activity); entry != null; entry = entry.next) {
+            if (entry.time == time) {
+                entry.cancelled = true;
+                release(entry);
+                if ((size > INITIAL_CAPACITY) && (size - live > live)) {
+                    compact();
+                }
+                return this;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return live == 0;
+    }
+
+    /**
+     * Returns the number of elements currently scheduled.
+     *
+     * @return the number of elements currently scheduled.
+     */
+    public int size() {
+        return live;
+    }
+
+    @Override
+    public HeapScheduler<T> snapshot() {
+        Entry<T>[] copy = newHeap(Math.max(INITIAL_CAPACITY, live));
+        int copySize = 0;
+        for (int i = 0; i < size; i++) {
+            if (!heap[i].cancelled) {
+                copy[copySize++] = new Entry<>(heap[i].element, heap[i].time, heap[i].order);
+            }
+        }
+        HeapScheduler<T> result = new HeapScheduler<>(copy, copySize, copySize, counter);
+        result.heapify();
+        for (int i = 0; i < copySize; i++) {
+            copy[i].next = result.index.put(copy[i].element, copy[i]);
+        }
+        return result;
+    }
+
+    private void purge() {
+        while ((size > 0) && heap[0].cancelled) {
+            poll();
+        }
+    }
+
+    private void release(Entry<T> entry) {
+        live--;
+        Entry<T> first = index.get(entry.element);
+        if (first == entry) {
+            if (entry.next == null) {
+                index.remove(entry.element);
+            } else {
+                index.put(entry.element, entry.next);
+            }
+        } else {
+            Entry<T> previous = first;
+            while (previous.next != entry) {
+                previous = previous.next;
+            }
+            previous.next = entry.next;
+        }
+        entry.next = null;
+    }
+
+    private void compact() {
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (!heap[i].cancelled) {
+                heap[j++] = heap[i];
+            }
+        }
+        Arrays.fill(heap, j, size, null);
+        size = j;
+        heapify();
+    }
+
+    private void heapify() {
+        for (int i = (size - 2) / ARITY; i >= 0; i--) {
+            siftDown(i, heap[i]);
+        }
+    }
+
+    private Entry<T> poll() {
+        Entry<T> result = heap[0];
+        Entry<T> last = heap[--size];
+        heap[size] = null;
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return result;
+    }
+
+    private void siftUp(int i, Entry<T> entry) {
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            if (heap[parent].compareTo(entry) <= 0) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    private void siftDown(int i, Entry<T> entry) {
+        while (true) {
+            int first = ARITY * i + 1;
+            if (first >= size) {
+                break;
+            }
+            int min = first;
+            for (int c = first + 1; (c < first + ARITY) && (c < size); c++) {
+                if (heap[c].compareTo(heap[min]) < 0) {
+                    min = c;
+                }
+            }
+            if (entry.compareTo(heap[min]) <= 0) {
+                break;
+            }
+            heap[i] = heap[min];
+            i = min;
+        }
+        heap[i] = entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> Entry<T>[] newHeap(int capacity) {
+        return (Entry<T>[]) new Entry[capacity];
+    }
+
+    /**
+     * An element scheduled at a given time. Entries scheduled for the same element are linked in the index.
+     */
+    private static final class Entry<T extends Comparable<T>> implements Comparable<Entry<T>> {
+
+        private final T element;
+        private final double time;
+        private final long order;
+        private boolean cancelled;
+        private Entry<T> next;
+
+        private Entry(T element, double time, long order) {
+            this.element = element;
+            this.time = time;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Entry<T> other) {
+            int result = Double.compare(this.time, other.time);
+            if (result == 0) {
+                result = this.element.compareTo(other.element);
+            }
+            return (result != 0 ? result : Long.compare(this.order, other.order));
+        }
+    }
+}
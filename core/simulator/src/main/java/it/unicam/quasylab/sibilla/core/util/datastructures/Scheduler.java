@@ -26,7 +26,9 @@ package it.unicam.quasylab.sibilla.core.util.datastructures;
 import java.util.Optional;
 
 /**
- * A scheduler is used to schedulate elements over time.
+ * A scheduler is used to schedulate elements over time. A scheduler can be either persistent, like
+ * {@link MapScheduler}, when each operation returns a new scheduler and leaves this one unchanged, or mutable, like
+ * {@link HeapScheduler}, when operations update this scheduler and return it.
  */
 public interface Scheduler<T extends Comparable<T>> {
 
@@ -66,4 +68,14 @@ public interface Scheduler<T extends Comparable<T>> {
     Scheduler<T> unscheduled(double time, T activity);
 
     boolean isEmpty();
+
+    /**
+     * Returns a scheduler containing the elements currently scheduled in this one that is not affected by the
+     * following operations on this scheduler. Persistent schedulers return themselves.
+     *
+     * @return a scheduler containing the elements currently scheduled in this one.
+     */
+    default Scheduler<T> snapshot() {
+        return this;
+    }
 }
@@ -0,0 +1,544 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.util.datastructures;
+
+import it.unicam.quasylab.sibilla.core.util.values.SibillaBoolean;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaInteger;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.WeakHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * An immutable record associating values with keys that are identified by a dense integer index, like the
+ * variables produced by a registry. The keys of a record are laid out in a {@link Layout} that assigns a slot to
+ * each of them, in increasing order of index, and that is shared by all the records with the same keys, like the
+ * agents of the same type. Doubles, integers and booleans are stored in a primitive <code>double[]</code>, tagged
+ * with their kind so that the original value can be rebuilt, while other values are stored in a separate array
+ * that is allocated only when needed. Numeric reads neither allocate nor depend on the number of keys in the
+ * registry, and an update only copies the arrays it changes. Storing a <code>null</code> value removes the key.
+ *
+ * @param <K> type of keys.
+ */
+public final class SlotRecord<K> {
+
+    private static final byte UNDEFINED = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte INTEGER = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte OTHER = 4;
+
+    private final Layout<K> layout;
+
+    private final byte[] kinds;
+
+    private final double[] numbers;
+
+    /**
+     * Values of the slots of kind OTHER, <code>null</code> if no such value has ever been stored.
+     */
+    private final SibillaValue[] others;
+
+    private final int size;
+
+    /**
+     * Creates an empty record whose keys are laid out according to the index given by the given function.
+     * Records obtained from the same empty record share the layouts of their keys.
+     *
+     * @param indexOf function returning the index of each key.
+     */
+    public SlotRecord(ToIntFunction<? super K> indexOf) {
+        this(new Layout<>(indexOf), new byte[0], new double[0], null, 0);
+    }
+
+    private SlotRecord(Layout<K> layout, byte[] kinds, double[] numbers, SibillaValue[] others, int size) {
+        this.layout = layout;
+        this.kinds = kinds;
+        this.numbers = numbers;
+        this.others = others;
+        this.size = size;
+    }
+
+    /**
+     * Returns the record containing the assignments in the given map.
+     *
+     * @param indexOf function returning the index of each key.
+     * @param map assignments to store in the record.
+     * @return the record containing the assignments in the given map.
+     * @param <K> type of keys.
+     */
+    public static <K> SlotRecord<K> of(ToIntFunction<? super K> indexOf, Map<K, ? extends SibillaValue> map) {
+        return new SlotRecord<K>(indexOf).setAll(map);
+    }
+
+    /**
+     * Returns true if the given key is defined in this record.
+     *
+     * @param key a key.
+     * @return true if the given key is defined in this record.
+     */
+    public boolean isDefined(K key) {
+        int slot = layout.slotOf(key);
+        return (slot >= 0) && (kinds[slot] != UNDEFINED);
+    }
+
+    /**
+     * Returns the value associated with the given key, or the given default value if the key is not defined.
+     * Doubles and integers are rebuilt from their slot.
+     *
+     * @param key a key.
+     * @param defaultValue value returned when the key is not defined.
+     * @return the value associated with the given key, or the given default value if the key is not defined.
+     */
+    public SibillaValue getOrDefault(K key, SibillaValue defaultValue) {
+        int slot = layout.slotOf(key);
+        if ((slot < 0) || (kinds[slot] == UNDEFINED)) {
+            return defaultValue;
+        }
+        return valueAt(slot);
+    }
+
+    /**
+     * Returns the numeric value associated with the given key, or the given default value if the key is not
+     * defined. Doubles, integers and booleans are read from their slot without allocating any value.
+     *
+     * @param key a key.
+     * @param defaultValue value returned when the key is not defined.
+     * @return the numeric value associated with the given key, or the given default value if the key is not
+     * defined.
+     */
+    public double getDouble(K key, double defaultValue) {
+        int slot = layout.slotOf(key);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        byte kind = kinds[slot];
+        if (kind == OTHER) {
+            return others[slot].doubleOf();
+        }
+        return (kind == UNDEFINED ? defaultValue : numbers[slot]);
+    }
+
+    /**
+     * Returns the record obtained from this one by associating the given value with the given key.
+     *
+     * @param key a key.
+     * @param value the value to associate with the key.
+     * @return the record obtained from this one by associating the given value with the given key.
+     */
+    public SlotRecord<K> set(K key, SibillaValue value) {
+        int slot = layout.slotOf(key);
+        if (slot < 0) {
+            if (value == null) {
+                return this;
+            }
+            Layout<K> target = layout.extend(key);
+            Builder<K> builder = builderIn(target);
+            builder.set(target.slotOf(key), value);
+            return builder.build();
+        }
+        byte kind = kindOf(value);
+        if ((kind == kinds[slot]) && (kind != UNDEFINED) && (kind != OTHER)) {
+            // a number replacing one of the same kind only changes the array of numbers
+            double number = numberOf(kind, value);
+            if (Double.doubleToLongBits(numbers[slot]) == Double.doubleToLongBits(number)) {
+                return this;
+            }
+            double[] newNumbers = numbers.clone();
+            newNumbers[slot] = number;
+            return new SlotRecord<>(layout, kinds, newNumbers, others, size);
+        }
+        if (holds(slot, value)) {
+            return this;
+        }
+        Builder<K> builder = new Builder<>(this);
+        builder.set(slot, value);
+        return builder.build();
+    }
+
+    /**
+     * Returns the record obtained from this one by performing all the assignments in the given map.
+     *
+     * @param map assignments to perform.
+     * @return the record obtained from this one by performing all the assignments in the given map.
+     */
+    public SlotRecord<K> setAll(Map<K, ? extends SibillaValue> map) {
+        List<K> missing = new ArrayList<>();
+        boolean changed = false;
+        for (Map.Entry<K, ? extends SibillaValue> e : map.entrySet()) {
+            int slot = layout.slotOf(e.getKey());
+            if (slot < 0) {
+                if (e.getValue() != null) {
+                    missing.add(e.getKey());
+                }
+            } else {
+                changed |= !holds(slot, e.getValue());
+            }
+        }
+        if (!changed && missing.isEmpty()) {
+            return this;
+        }
+        // keys are added in increasing order of index, so that records with the same keys share their layout
+        missing.sort(Comparator.comparingInt(layout.indexOf));
+        Layout<K> target = layout;
+        for (K key : missing) {
+            target = target.extend(key);
+        }
+        Builder<K> builder = (target == layout ? new Builder<>(this) : builderIn(target));
+        for (Map.Entry<K, ? extends SibillaValue> e : map.entrySet()) {
+            int slot = target.slotOf(e.getKey());
+            if (slot >= 0) {
+                builder.set(slot, e.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the record obtained from this one by replacing the value of each defined key with the result of
+     * the given function.
+     *
+     * @param function function computing the new value of each key from the key and its current value.
+     * @return the record obtained from this one by applying the given function to each defined key.
+     */
+    public SlotRecord<K> apply(BiFunction<K, SibillaValue, SibillaValue> function) {
+        Builder<K> builder = new Builder<>(layout);
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] != UNDEFINED) {
+                builder.set(i, function.apply(layout.keyOf(i), valueAt(i)));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the record obtained from this one by removing the given key.
+     *
+     * @param key the key to remove.
+     * @return the record obtained from this one by removing the given key.
+     */
+    public SlotRecord<K> remove(K key) {
+        return set(key, null);
+    }
+
+    /**
+     * Applies the given consumer to each key defined in this record, in increasing order of index.
+     *
+     * @param consumer the consumer to apply.
+     */
+    public void forEach(BiConsumer<K, SibillaValue> consumer) {
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] != UNDEFINED) {
+                consumer.accept(layout.keyOf(i), valueAt(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys defined in this record.
+     *
+     * @return the number of keys defined in this record.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        forEach((k, v) -> joiner.add(k + "=" + v));
+        return joiner.toString();
+    }
+
+    private SibillaValue valueAt(int slot) {
+        switch (kinds[slot]) {
+            case DOUBLE:
+                return new SibillaDouble(numbers[slot]);
+            case INTEGER:
+                return new SibillaInteger((int) numbers[slot]);
+            case BOOLEAN:
+                return SibillaBoolean.of(numbers[slot] != 0);
+            case OTHER:
+                return others[slot];
+            default:
+                return null;
+        }
+    }
+
+    private boolean holds(int slot, SibillaValue value) {
+        byte kind = kindOf(value);
+        if (kinds[slot] != kind) {
+            return false;
+        }
+        switch (kind) {
+            case UNDEFINED:
+                return true;
+            case OTHER:
+                // values that are not stored in a primitive slot are compared by reference
+                return others[slot] == value;
+            default:
+                return Double.doubleToLongBits(numbers[slot]) == Double.doubleToLongBits(numberOf(kind, value));
+        }
+    }
+
+    /*
+     * Returns a builder of a record laid out according to the given layout, that contains all the keys of the
+     * layout of this record, initialised with the values of this record.
+     */
+    private Builder<K> builderIn(Layout<K> target) {
+        Builder<K> builder = new Builder<>(target);
+        for (int i = 0; i < kinds.length; i++) {
+            int slot = target.slotOf(layout.keyOf(i));
+            builder.kinds[slot] = kinds[i];
+            builder.numbers[slot] = numbers[i];
+            if (kinds[i] == OTHER) {
+                builder.others()[slot] = others[i];
+            }
+        }
+        builder.size = size;
+        return builder;
+    }
+
+    private static byte kindOf(SibillaValue value) {
+        if (value == null) {
+            return UNDEFINED;
+        }
+        if (value instanceof SibillaDouble) {
+            return DOUBLE;
+        }
+        if (value instanceof SibillaInteger) {
+            return INTEGER;
+        }
+        if (value instanceof SibillaBoolean) {
+            return BOOLEAN;
+        }
+        return OTHER;
+    }
+
+    private static double numberOf(byte kind, SibillaValue value) {
+        switch (kind) {
+            case INTEGER:
+                return value.intOf();
+            case BOOLEAN:
+                return (value.booleanOf() ? 1 : 0);
+            default:
+                return value.doubleOf();
+        }
+    }
+
+    private static int count(byte kind) {
+        return (kind == UNDEFINED ? 0 : 1);
+    }
+
+    /**
+     * Collects the updates of a record. The arrays of the original record are shared until they are changed, so
+     * that, for instance, updating a numeric value only copies the array of numbers.
+     *
+     * @param <K> type of keys.
+     */
+    private static final class Builder<K> {
+
+        private final Layout<K> layout;
+
+        private byte[] kinds;
+
+        private double[] numbers;
+
+        private SibillaValue[] others;
+
+        private boolean ownsKinds;
+
+        private boolean ownsNumbers;
+
+        private boolean ownsOthers;
+
+        private int size;
+
+        private Builder(Layout<K> layout) {
+            this.layout = layout;
+            this.kinds = new byte[layout.size()];
+            this.numbers = new double[layout.size()];
+            this.ownsKinds = true;
+            this.ownsNumbers = true;
+        }
+
+        private Builder(SlotRecord<K> record) {
+            this.layout = record.layout;
+            this.kinds = record.kinds;
+            this.numbers = record.numbers;
+            this.others = record.others;
+            this.size = record.size;
+        }
+
+        private void set(int slot, SibillaValue value) {
+            byte kind = kindOf(value);
+            byte current = kinds[slot];
+            if ((current == OTHER) && (kind != OTHER)) {
+                others()[slot] = null;
+            }
+            if (current != kind) {
+                kinds()[slot] = kind;
+                size += count(kind) - count(current);
+            }
+            if (kind == OTHER) {
+                others()[slot] = value;
+            } else if (kind != UNDEFINED) {
+                double number = numberOf(kind, value);
+                if (Double.doubleToLongBits(numbers[slot]) != Double.doubleToLongBits(number)) {
+                    numbers()[slot] = number;
+                }
+            }
+        }
+
+        private byte[] kinds() {
+            if (!ownsKinds) {
+                kinds = kinds.clone();
+                ownsKinds = true;
+            }
+            return kinds;
+        }
+
+        private double[] numbers() {
+            if (!ownsNumbers) {
+                numbers = numbers.clone();
+                ownsNumbers = true;
+            }
+            return numbers;
+        }
+
+        private SibillaValue[] others() {
+            if (others == null) {
+                others = new SibillaValue[kinds.length];
+                ownsOthers = true;
+            } else if (!ownsOthers) {
+                others = others.clone();
+                ownsOthers = true;
+            }
+            return others;
+        }
+
+        private SlotRecord<K> build() {
+            return new SlotRecord<>(layout, kinds, numbers, others, size);
+        }
+    }
+
+    /**
+     * Assigns a slot to each key of a set, in increasing order of index. Layouts are immutable and the layouts
+     * obtained by adding a key to a layout are cached, so that records with the same keys share the same layout.
+     * The cache holds both its keys and its layouts weakly, while each layout holds the one it extends, so that
+     * layouts are kept as long as a record uses them and are released with the keys of an unloaded model.
+     *
+     * @param <K> type of keys.
+     */
+    private static final class Layout<K> {
+
+        private final ToIntFunction<? super K> indexOf;
+
+        /**
+         * Layout extended by this one, that is only referenced to keep it as long as this layout is used.
+         */
+        private final Layout<K> parent;
+
+        private final Object[] keys;
+
+        /**
+         * Slot of each index plus one, zero for the indexes of keys that do not belong to this layout.
+         */
+        private final int[] slots;
+
+        private final Map<K, WeakReference<Layout<K>>> extensions = Collections.synchronizedMap(new WeakHashMap<>());
+
+        private Layout(ToIntFunction<? super K> indexOf) {
+            this(indexOf, null, new Object[0], new int[0]);
+        }
+
+        private Layout(ToIntFunction<? super K> indexOf, Layout<K> parent, Object[] keys, int[] slots) {
+            this.indexOf = indexOf;
+            this.parent = parent;
+            this.keys = keys;
+            this.slots = slots;
+        }
+
+        private int size() {
+            return keys.length;
+        }
+
+        private int slotOf(K key) {
+            int index = indexOf.applyAsInt(key);
+            return (index < slots.length ? slots[index] - 1 : -1);
+        }
+
+        @SuppressWarnings("unchecked")
+        private K keyOf(int slot) {
+            return (K) keys[slot];
+        }
+
+        private Layout<K> extend(K key) {
+            WeakReference<Layout<K>> reference = extensions.get(key);
+            Layout<K> extended = (reference == null ? null : reference.get());
+            // keys of different registries may be equal, a cached layout is used only if it holds the very same key
+            if ((extended == null) || (extended.keys[extended.slotOf(key)] != key)) {
+                extended = create(key);
+                extensions.put(key, new WeakReference<>(extended));
+            }
+            return extended;
+        }
+
+        private Layout<K> create(K key) {
+            int index = indexOf.applyAsInt(key);
+            if (index < 0) {
+                throw new IllegalArgumentException(String.format("Key %s has a negative index", key));
+            }
+            int position = 0;
+            while ((position < keys.length) && (indexOf.applyAsInt(keyOf(position)) < index)) {
+                position++;
+            }
+            Object[] newKeys = new Object[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            newKeys[position] = key;
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            int[] newSlots = new int[Math.max(slots.length, index + 1)];
+            for (int i = 0; i < newKeys.length; i++) {
+                @SuppressWarnings("unchecked")
+                int keyIndex = indexOf.applyAsInt((K) newKeys[i]);
+                if (newSlots[keyIndex] != 0) {
+                    throw new IllegalArgumentException(String.format("Keys %s and %s have the same index", newKeys[newSlots[keyIndex] - 1], newKeys[i]));
+                }
+                newSlots[keyIndex] = i + 1;
+            }
+            return new Layout<>(indexOf, this, newKeys, newSlots);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.markov;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseMatrixTest {
+
+	@Test
+	void shouldStoreOnlyIndexedEntries() {
+		Map<String,Integer> index = new HashMap<>();
+		index.put("a", 0);
+		index.put("b", 1);
+		SparseMatrix m = SparseMatrix.generate(index, s -> {
+			Map<String,Double> row = new HashMap<>();
+			row.put("b", (s.equals("a")?2.0:3.0));
+			row.put("c", 5.0);
+			return row.entrySet().stream();
+		});
+		assertEquals(2, m.size());
+		assertEquals(2, m.getNonZeros());
+		assertEquals(2.0, m.getEntry(0, 1));
+		assertEquals(3.0, m.getEntry(1, 1));
+		assertEquals(0.0, m.getEntry(1, 0));
+	}
+
+	@Test
+	void transposeShouldSwapEntries() {
+		SparseMatrix m = ring(10);
+		SparseMatrix t = m.transpose();
+		for( int i=0 ; i<10 ; i++ ) {
+			for( int j=0 ; j<10 ; j++ ) {
+				assertEquals(m.getEntry(i, j), t.getEntry(j, i));
+			}
+		}
+	}
+
+	@Test
+	void preMultiplyShouldBeEqualToMultiplyByTranspose() {
+		SparseMatrix m = ring(50);
+		double[] x = IntStream.range(0, 50).mapToDouble(i -> i+1.0).toArray();
+		double[] y1 = new double[50];
+		double[] y2 = new double[50];
+		m.preMultiply(x, y1);
+		m.transpose().multiply(x, y2, false);
+		assertArrayEquals(y1, y2, 1E-12);
+	}
+
+	@Test
+	void parallelMultiplyShouldBeEqualToSequentialMultiply() {
+		int size = 100000;
+		SparseMatrix m = ring(size);
+		double[] x = IntStream.range(0, size).mapToDouble(i -> 1.0/(i+1)).toArray();
+		double[] y1 = new double[size];
+		double[] y2 = new double[size];
+		m.multiply(x, y1, false);
+		m.multiply(x, y2, true);
+		assertArrayEquals(y1, y2);
+	}
+
+	@Test
+	void parallelTransientShouldBeEqualToSequentialTransient() {
+		int size = 200;
+		ContinuousTimeMarkovChain<Integer> ctmc = new ContinuousTimeMarkovChain<>();
+		for( int i=0 ; i<size ; i++ ) {
+			Map<Integer,Double> row = new HashMap<>();
+			row.put((i+1)%size, 1.0+i%3);
+			if (i>0) {
+				row.put(i-1, 0.5);
+			}
+			ctmc.add(i, row);
+		}
+		TransientProbabilityContinuousSolver<Integer> sequential = new TransientProbabilityContinuousSolver<>(ctmc, 1.0E-8, 0);
+		TransientProbabilityContinuousSolver<Integer> parallel = new TransientProbabilityContinuousSolver<>(ctmc, 1.0E-8, 0, true);
+		for (double t: new double[] { 5.0, 1.0, 10.0, 20.0 }) {
+			Map<Integer,Double> p1 = sequential.compute(t);
+			Map<Integer,Double> p2 = parallel.compute(t);
+			assertEquals(1.0, p1.values().stream().mapToDouble(Double::doubleValue).sum(), 1.0E-6);
+			for( int i=0 ; i<size ; i++ ) {
+				assertEquals(p1.get(i), p2.get(i), 1.0E-12);
+			}
+		}
+	}
+
+	private SparseMatrix ring(int size) {
+		Map<Integer,Integer> index = new HashMap<>();
+		IntStream.range(0, size).forEach(i -> index.put(i, i));
+		return SparseMatrix.generate(index, i -> {
+			Map<Integer,Double> row = new HashMap<>();
+			row.put((i+1)%size, 0.25);
+			row.put((i+2)%size, 0.75*(i%2));
+			return row.entrySet().stream();
+		});
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.markov;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateSpaceExplorerTest {
+
+	private static final int SIZE = 5000;
+
+	private Map<Integer,Double> step(Integer s) {
+		Map<Integer,Double> next = new HashMap<>();
+		if (s<SIZE-1) {
+			next.put(s+1, 1.0+s%7);
+			next.put((s*31+17)%SIZE, 0.5);
+		}
+		if (s>0) {
+			next.put(s-1, 2.0);
+		}
+		return next;
+	}
+
+	@Test
+	void shouldGenerateTheSameChainOfGenerateMarkovChain() {
+		ContinuousTimeMarkovChain<Integer> chain = MarkovChain.generateMarkovChain(ContinuousTimeMarkovChain::new, 0, this::step);
+		StateSpace<Integer> space = StateSpaceExplorer.explore(0, this::step, false);
+		assertEquals(chain.numberOfStates(), space.size());
+		assertEquals(0, space.indexOf(0));
+		assertEquals(chain.getMaxRate(), space.getMaxRate(), 1E-12);
+		for( int i=0 ; i<space.size() ; i++ ) {
+			Integer s = space.getState(i);
+			assertEquals(i, space.indexOf(s));
+			assertEquals(chain.sumOfRow(s), space.getExitRate(i), 1E-12);
+			space.getRateMatrix().forEachInRow(i, (j, v) -> assertEquals(chain.rate(s, space.getState(j)), v, 1E-12));
+		}
+	}
+
+	@Test
+	void parallelExplorationShouldGenerateTheSameChain() {
+		StateSpace<Integer> sequential = StateSpaceExplorer.explore(0, this::step, false);
+		StateSpace<Integer> parallel = StateSpaceExplorer.explore(0, this::step, true);
+		assertEquals(sequential.size(), parallel.size());
+		for( int i=0 ; i<sequential.size() ; i++ ) {
+			Integer s = sequential.getState(i);
+			int k = parallel.indexOf(s);
+			assertTrue(k>=0);
+			assertEquals(sequential.getExitRate(i), parallel.getExitRate(k), 1E-12);
+			sequential.getRateMatrix().forEachInRow(i, (j, v) -> assertEquals(v, parallel.getRateMatrix().getEntry(k, parallel.indexOf(sequential.getState(j))), 1E-12));
+		}
+	}
+
+	@Test
+	void transientSolverShouldAgreeOnStateSpaceAndChain() {
+		StateSpace<Integer> space = StateSpaceExplorer.explore(0, this::step);
+		TransientProbabilityContinuousSolver<Integer> fromChain = new TransientProbabilityContinuousSolver<>(space.toContinuousTimeMarkovChain(), 1E-8, 0);
+		TransientProbabilityContinuousSolver<Integer> fromSpace = new TransientProbabilityContinuousSolver<>(space, 1E-8, 0, true);
+		Map<Integer,Double> p1 = fromChain.compute(3.0);
+		Map<Integer,Double> p2 = fromSpace.compute(3.0);
+		for( int i=0 ; i<space.size() ; i++ ) {
+			assertEquals(p1.get(space.getState(i)), p2.get(space.getState(i)), 1E-10);
+		}
+	}
+
+	@Test
+	void shouldExplorePopulationModels() {
+		int n = 30;
+		List<PopulationRule> rules = List.of(
+				new ReactionRule("AtoB", null, new Population[] { new Population(0) }, new Population[] { new Population(1) },
+						(t, s) -> new SibillaDouble(s.getOccupancy(0))),
+				new ReactionRule("BtoC", null, new Population[] { new Population(1) }, new Population[] { new Population(2) },
+						(t, s) -> new SibillaDouble(2*s.getOccupancy(1)))
+		);
+		PopulationModel model = new PopulationModel(PopulationRegistry.createRegistry("A", "B", "C"), rules, new HashMap<>(), new HashMap<>());
+		StateSpace<PopulationState> space = model.exploreStateSpace(new PopulationState(new int[] { n, 0, 0 }), true);
+		assertEquals((n+1)*(n+2)/2, space.size());
+		int i = space.indexOf(new PopulationState(new int[] { n-1, 1, 0 }));
+		int j = space.indexOf(new PopulationState(new int[] { n-1, 0, 1 }));
+		assertEquals(2.0, space.getRateMatrix().getEntry(i, j));
+		assertEquals(n-1+2.0, space.getExitRate(i));
+		assertEquals(0.0, space.getExitRate(space.indexOf(new PopulationState(new int[] { 0, 0, n }))));
+	}
+
+}
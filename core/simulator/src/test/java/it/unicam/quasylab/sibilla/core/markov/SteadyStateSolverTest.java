@@ -0,0 +1,113 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.markov;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SteadyStateSolverTest {
+
+	private static final double TOLERANCE = 1.0E-12;
+
+	private ContinuousTimeMarkovChain<Integer> birthDeath(int size, double birth, double death) {
+		return MarkovChain.generateMarkovChain(ContinuousTimeMarkovChain::new, 0, s -> {
+			Map<Integer,Double> next = new HashMap<>();
+			if (s<size-1) {
+				next.put(s+1, birth);
+			}
+			if (s>0) {
+				next.put(s-1, death);
+			}
+			return next;
+		});
+	}
+
+	@Test
+	void shouldComputeSteadyStateOfBirthDeathChain() {
+		int size = 50;
+		ContinuousTimeMarkovChain<Integer> chain = birthDeath(size, 1.0, 2.0);
+		double normalisation = (1-Math.pow(0.5, size))/0.5;
+		for (SteadyStateMethod method: SteadyStateMethod.values()) {
+			SteadyStateSolver<Integer> solver = new SteadyStateSolver<>(chain, 0, method, TOLERANCE, SteadyStateSolver.DEFAULT_MAX_ITERATIONS, true);
+			Map<Integer,Double> result = solver.compute();
+			for( int i=0 ; i<size ; i++ ) {
+				assertEquals(Math.pow(0.5, i)/normalisation, result.get(i), 1.0E-8, method.name());
+			}
+			assertEquals(1, solver.getBSCC().size());
+		}
+	}
+
+	@Test
+	void shouldConvergeOnPeriodicChains() {
+		ContinuousTimeMarkovChain<Integer> chain = MarkovChain.generateMarkovChain(ContinuousTimeMarkovChain::new, 0, s -> Map.of((s+1)%3, 1.0));
+		for (SteadyStateMethod method: SteadyStateMethod.values()) {
+			Map<Integer,Double> result = new SteadyStateSolver<>(chain, 0, method, TOLERANCE, SteadyStateSolver.DEFAULT_MAX_ITERATIONS, false).compute();
+			for( int i=0 ; i<3 ; i++ ) {
+				assertEquals(1.0/3, result.get(i), 1.0E-8, method.name());
+			}
+		}
+	}
+
+	@Test
+	void shouldWeightBSCCByReachabilityProbabilities() {
+		ContinuousTimeMarkovChain<Integer> chain = new ContinuousTimeMarkovChain<>();
+		chain.add(0, Map.of(1, 1.0, 2, 3.0));
+		chain.add(1, Map.of(3, 2.0));
+		chain.add(3, Map.of(1, 6.0));
+		chain.add(2, Map.of());
+		for (SteadyStateMethod method: SteadyStateMethod.values()) {
+			SteadyStateSolver<Integer> solver = new SteadyStateSolver<>(chain, 0, method, TOLERANCE, SteadyStateSolver.DEFAULT_MAX_ITERATIONS, false);
+			List<Set<Integer>> bscc = solver.getBSCC();
+			assertEquals(2, bscc.size());
+			int cycle = (bscc.get(0).contains(1)?0:1);
+			assertEquals(Set.of(1, 3), bscc.get(cycle));
+			assertEquals(Set.of(2), bscc.get(1-cycle));
+			assertEquals(0.25, solver.getReachabilityProbability(cycle), 1.0E-10);
+			assertEquals(0.75, solver.getReachabilityProbability(1-cycle), 1.0E-10);
+			assertEquals(0.75, solver.getBSCCDistribution(cycle).get(1), 1.0E-8);
+			Map<Integer,Double> result = solver.compute();
+			assertEquals(0.0, result.get(0));
+			assertEquals(0.25*0.75, result.get(1), 1.0E-8);
+			assertEquals(0.25*0.25, result.get(3), 1.0E-8);
+			assertEquals(0.75, result.get(2), 1.0E-8);
+			assertEquals(0.25, solver.compute(s -> s%2 == 1), 1.0E-8);
+		}
+	}
+
+	@Test
+	void shouldNotOverflowTheStackOnDeepChains() {
+		int size = 200000;
+		StateSpace<Integer> space = StateSpaceExplorer.explore(0, s -> (s<size-1?Map.of(s+1, 1.0+s%3):Map.of()), false);
+		SteadyStateSolver<Integer> solver = new SteadyStateSolver<>(space, 0, SteadyStateMethod.GAUSS_SEIDEL, TOLERANCE, SteadyStateSolver.DEFAULT_MAX_ITERATIONS, false);
+		assertEquals(List.of(Set.of(size-1)), solver.getBSCC());
+		assertEquals(1.0, solver.compute(s -> s == size-1), 1.0E-10);
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationUnit;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Sample;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.TrajectoryCollector;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InPlaceSimulationCursorTest {
+
+    private final static int A = 0;
+    private final static int B = 1;
+    private final static int C = 2;
+    private final static int SIZE = 100;
+    private final static int REPLICAS = 1000;
+
+    private static PopulationModel chainModel(PopulationSimulationMode mode) {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("AtoB", null, new Population[] { new Population(A) }, new Population[] { new Population(B) },
+                        (t, s) -> new SibillaDouble(s.getOccupancy(A)), PopulationDependencies.of(A)),
+                new ReactionRule("BtoC", null, new Population[] { new Population(B) }, new Population[] { new Population(C) },
+                        (t, s) -> new SibillaDouble(s.getOccupancy(B)), PopulationDependencies.of(B))
+        );
+        return new PopulationModel(PopulationRegistry.createRegistry("A", "B", "C"), rules, new HashMap<>(), new HashMap<>(), mode);
+    }
+
+    @Test
+    void shouldCreateInPlaceCursor() {
+        assertTrue(chainModel(PopulationSimulationMode.IN_PLACE).createSimulationCursor(new DefaultRandomGenerator(), rg -> new PopulationState(new int[] { SIZE, 0, 0 })) instanceof InPlaceSimulationCursor);
+    }
+
+    @Test
+    void shouldNotModifyReturnedStates() {
+        PopulationState initial = new PopulationState(new int[] { 2, 0, 0 });
+        SimulatorCursor<PopulationState> cursor = chainModel(PopulationSimulationMode.IN_PLACE).createSimulationCursor(new DefaultRandomGenerator(), rg -> initial);
+        cursor.start();
+        PopulationState first = cursor.currentState();
+        assertTrue(cursor.step());
+        PopulationState second = cursor.currentState();
+        assertSame(second, cursor.currentState());
+        assertTrue(cursor.step());
+        assertArrayEquals(new int[] { 2, 0, 0 }, initial.getPopulationVector());
+        assertArrayEquals(new int[] { 2, 0, 0 }, first.getPopulationVector());
+        assertArrayEquals(new int[] { 1, 1, 0 }, second.getPopulationVector());
+        assertEquals(2.0, cursor.currentState().population());
+    }
+
+    @Test
+    void shouldExposeTheStateUpdatedInPlaceAsView() {
+        SimulatorCursor<PopulationState> cursor = chainModel(PopulationSimulationMode.IN_PLACE).createSimulationCursor(new DefaultRandomGenerator(), rg -> new PopulationState(new int[] { 2, 0, 0 }));
+        cursor.start();
+        PopulationState view = cursor.currentView();
+        PopulationState first = view.snapshot();
+        assertNotSame(view, first);
+        assertTrue(cursor.step());
+        assertSame(view, cursor.currentView());
+        assertArrayEquals(new int[] { 1, 1, 0 }, view.getPopulationVector());
+        assertArrayEquals(new int[] { 2, 0, 0 }, first.getPopulationVector());
+        assertEquals(cursor.currentState(), view);
+        assertSame(cursor.currentState(), cursor.currentState().snapshot());
+    }
+
+    @Test
+    void shouldRecordSnapshotsOfSampledViews() {
+        TrajectoryCollector<PopulationState> collector = new TrajectoryCollector<>();
+        SimulationUnit<PopulationState> unit = new SimulationUnit<>(chainModel(PopulationSimulationMode.IN_PLACE)::createSimulationCursor,
+                new PopulationState(new int[] { 2, 0, 0 }), collector, SamplePredicate.timeDeadlinePredicate(Double.POSITIVE_INFINITY));
+        new SimulationTask<>(new DefaultRandomGenerator(), unit).get();
+        List<Sample<PopulationState>> samples = collector.getTrajectory().getData();
+        assertEquals(5, samples.size());
+        assertArrayEquals(new int[] { 2, 0, 0 }, samples.get(0).getValue().getPopulationVector());
+        assertArrayEquals(new int[] { 1, 1, 0 }, samples.get(1).getValue().getPopulationVector());
+        assertArrayEquals(new int[] { 0, 0, 2 }, samples.get(4).getValue().getPopulationVector());
+        for (int i = 1; i < samples.size(); i++) {
+            assertNotSame(samples.get(i - 1).getValue(), samples.get(i).getValue());
+            assertEquals(2.0, samples.get(i).getValue().population());
+        }
+    }
+
+    @Test
+    void shouldTerminateWhenNoRuleIsEnabled() {
+        SimulatorCursor<PopulationState> cursor = chainModel(PopulationSimulationMode.IN_PLACE).createSimulationCursor(new DefaultRandomGenerator(), rg -> new PopulationState(new int[] { 2, 0, 0 }));
+        cursor.start();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(cursor.step());
+        }
+        assertFalse(cursor.step());
+        assertTrue(cursor.isTerminated());
+        assertArrayEquals(new int[] { 0, 0, 2 }, cursor.currentState().getPopulationVector());
+    }
+
+    @Test
+    void shouldUpdateOnlyAffectedRatesAlongLongChains() {
+        int species = 50;
+        String[] names = new String[species];
+        List<PopulationRule> rules = new ArrayList<>();
+        for (int i = 0; i < species; i++) {
+            names[i] = "S" + i;
+        }
+        for (int i = 0; i < species - 1; i++) {
+            int from = i;
+            rules.add(new ReactionRule("R" + i, null, new Population[] { new Population(from) }, new Population[] { new Population(from + 1) },
+                    (t, s) -> new SibillaDouble(0.1 * (from + 1) * s.getOccupancy(from)), PopulationDependencies.of(from)));
+        }
+        PopulationModel model = new PopulationModel(PopulationRegistry.createRegistry(names), rules, new HashMap<>(), new HashMap<>(), PopulationSimulationMode.IN_PLACE);
+        int[] initial = new int[species];
+        initial[0] = SIZE;
+        SimulatorCursor<PopulationState> cursor = model.createSimulationCursor(new DefaultRandomGenerator(7), rg -> new PopulationState(initial));
+        cursor.start();
+        int steps = 0;
+        while (cursor.step()) {
+            steps++;
+        }
+        int[] expected = new int[species];
+        expected[species - 1] = SIZE;
+        assertEquals(SIZE * (species - 1), steps);
+        assertTrue(cursor.isTerminated());
+        assertArrayEquals(expected, cursor.currentState().getPopulationVector());
+    }
+
+    @Test
+    void shouldAgreeWithDirectMethod() {
+        RandomGenerator rg = new DefaultRandomGenerator(42);
+        double[] inPlace = averageAt(chainModel(PopulationSimulationMode.IN_PLACE), rg, 1.0);
+        double[] direct = averageAt(chainModel(PopulationSimulationMode.DIRECT), rg, 1.0);
+        double expected = SIZE * Math.exp(-1.0);
+        assertEquals(expected, inPlace[A], 1.5);
+        assertEquals(expected, inPlace[B], 1.5);
+        assertEquals(direct[A], inPlace[A], 2.0);
+        assertEquals(direct[B], inPlace[B], 2.0);
+        assertEquals(direct[C], inPlace[C], 2.0);
+    }
+
+    private static double[] averageAt(PopulationModel model, RandomGenerator rg, double time) {
+        double[] result = new double[3];
+        SimulatorCursor<PopulationState> cursor = model.createSimulationCursor(rg, r -> new PopulationState(new int[] { SIZE, 0, 0 }));
+        for (int i = 0; i < REPLICAS; i++) {
+            cursor.restart();
+            cursor.start();
+            PopulationState state = cursor.currentState();
+            while (cursor.step()&&(cursor.time() <= time)) {
+                state = cursor.currentState();
+            }
+            for (int j = 0; j < result.length; j++) {
+                result[j] += state.getOccupancy(j) / REPLICAS;
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NextReactionSimulationCursorTest {
+
+    private final static int A = 0;
+    private final static int B = 1;
+    private final static int C = 2;
+    private final static int SIZE = 100;
+    private final static int REPLICAS = 1000;
+
+    private static List<PopulationRule> chainRules() {
+        return List.of(
+                new ReactionRule("AtoB", null, new Population[] { new Population(A) }, new Population[] { new Population(B) },
+                        (t, s) -> new SibillaDouble(s.getOccupancy(A)), PopulationDependencies.of(A)),
+                new ReactionRule("BtoC", null, new Population[] { new Population(B) }, new Population[] { new Population(C) },
+                        (t, s) -> new SibillaDouble(s.getOccupancy(B)), PopulationDependencies.of(B))
+        );
+    }
+
+    private static PopulationModel chainModel(PopulationSimulationMode mode) {
+        return new PopulationModel(PopulationRegistry.createRegistry("A", "B", "C"), chainRules(), new HashMap<>(), new HashMap<>(), mode);
+    }
+
+    @Test
+    void shouldReevaluateOnlyDependentRules() {
+        PopulationDependencyGraph graph = new PopulationDependencyGraph(3, chainRules());
+        assertArrayEquals(new int[] { 0, 1 }, graph.getAffectedRules(0, null));
+        assertArrayEquals(new int[] { 1 }, graph.getAffectedRules(1, null));
+        assertArrayEquals(new int[] { 0 }, graph.getRulesDependingOn(A));
+        assertArrayEquals(new int[0], graph.getRulesDependingOn(C));
+    }
+
+    @Test
+    void shouldAlwaysReevaluateRulesWithUnknownDependencies() {
+        List<PopulationRule> rules = List.of(
+                chainRules().get(0),
+                new ReactionRule("CtoA", new Population[] { new Population(C) }, new Population[] { new Population(A) },
+                        (t, s) -> new SibillaDouble(s.getFraction(C)))
+        );
+        PopulationDependencyGraph graph = new PopulationDependencyGraph(3, rules);
+        assertArrayEquals(new int[] { 0, 1 }, graph.getAffectedRules(0, null));
+        assertArrayEquals(new int[] { 0, 1 }, graph.getAffectedRules(1, null));
+    }
+
+    @Test
+    void shouldReevaluateRulesDependingOnPopulationSize() {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("death", null, new Population[] { new Population(A) }, new Population[0],
+                        (t, s) -> new SibillaDouble(s.getOccupancy(A)), PopulationDependencies.of(A)),
+                new ReactionRule("BtoC", null, new Population[] { new Population(B) }, new Population[] { new Population(C) },
+                        (t, s) -> new SibillaDouble(s.getFraction(C)), PopulationDependencies.fractionOf(C))
+        );
+        PopulationDependencyGraph graph = new PopulationDependencyGraph(3, rules);
+        assertArrayEquals(new int[] { 0, 1 }, graph.getAffectedRules(0, null));
+        assertArrayEquals(new int[] { 1 }, graph.getAffectedRules(1, null));
+    }
+
+    @Test
+    void shouldCreateNextReactionCursor() {
+        assertTrue(chainModel(PopulationSimulationMode.NEXT_REACTION).createSimulationCursor(new DefaultRandomGenerator(), rg -> new PopulationState(new int[] { SIZE, 0, 0 })) instanceof NextReactionSimulationCursor);
+        assertFalse(chainModel(PopulationSimulationMode.DIRECT).createSimulationCursor(new DefaultRandomGenerator(), rg -> new PopulationState(new int[] { SIZE, 0, 0 })) instanceof NextReactionSimulationCursor);
+    }
+
+    @Test
+    void shouldTerminateWhenNoRuleIsEnabled() {
+        SimulatorCursor<PopulationState> cursor = chainModel(PopulationSimulationMode.NEXT_REACTION).createSimulationCursor(new DefaultRandomGenerator(), rg -> new PopulationState(new int[] { 2, 0, 0 }));
+        cursor.start();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(cursor.step());
+        }
+        assertFalse(cursor.step());
+        assertTrue(cursor.isTerminated());
+        assertArrayEquals(new int[] { 0, 0, 2 }, cursor.currentState().getPopulationVector());
+    }
+
+    @Test
+    void shouldAgreeWithDirectMethod() {
+        RandomGenerator rg = new DefaultRandomGenerator(42);
+        double[] nextReaction = averageAt(chainModel(PopulationSimulationMode.NEXT_REACTION), rg, 1.0);
+        double[] direct = averageAt(chainModel(PopulationSimulationMode.DIRECT), rg, 1.0);
+        double expected = SIZE * Math.exp(-1.0);
+        assertEquals(expected, nextReaction[A], 1.5);
+        assertEquals(expected, nextReaction[B], 1.5);
+        assertEquals(direct[A], nextReaction[A], 2.0);
+        assertEquals(direct[B], nextReaction[B], 2.0);
+        assertEquals(direct[C], nextReaction[C], 2.0);
+    }
+
+    private static double[] averageAt(PopulationModel model, RandomGenerator rg, double time) {
+        double[] result = new double[3];
+        SimulatorCursor<PopulationState> cursor = model.createSimulationCursor(rg, r -> new PopulationState(new int[] { SIZE, 0, 0 }));
+        for (int i = 0; i < REPLICAS; i++) {
+            cursor.restart();
+            cursor.start();
+            PopulationState state = cursor.currentState();
+            while (cursor.step()&&(cursor.time() <= time)) {
+                state = cursor.currentState();
+            }
+            for (int j = 0; j < result.length; j++) {
+                result[j] += state.getOccupancy(j) / REPLICAS;
+            }
+        }
+        return result;
+    }
+
+}
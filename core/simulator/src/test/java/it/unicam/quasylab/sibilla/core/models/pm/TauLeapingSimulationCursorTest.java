@@ -0,0 +1,150 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationUnit;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Sample;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.TrajectoryCollector;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TauLeapingSimulationCursorTest {
+
+    private final static int S = 0;
+    private final static int I = 1;
+    private final static int R = 2;
+
+    private static PopulationModel sirModel(PopulationSimulationMode mode) {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("infection", null, new Population[] { new Population(S), new Population(I) }, new Population[] { new Population(I, 2) },
+                        (t, s) -> new SibillaDouble(2.0 * s.getOccupancy(S) * s.getFraction(I)), PopulationDependencies.fractionOf(S, I)),
+                new ReactionRule("recovery", null, new Population[] { new Population(I) }, new Population[] { new Population(R) },
+                        (t, s) -> new SibillaDouble(s.getOccupancy(I)), PopulationDependencies.of(I))
+        );
+        return new PopulationModel(PopulationRegistry.createRegistry("S", "I", "R"), rules, new HashMap<>(), new HashMap<>(), mode);
+    }
+
+    @Test
+    void shouldSamplePoissonDistribution() {
+        RandomGenerator rg = new DefaultRandomGenerator(42);
+        for (double mean : new double[] { 0.5, 3.0, 50.0, 5000.0 }) {
+            double sum = 0.0;
+            double squares = 0.0;
+            int samples = 20000;
+            for (int i = 0; i < samples; i++) {
+                long value = TauLeapingSimulationCursor.samplePoisson(mean, rg);
+                assertTrue(value >= 0);
+                sum += value;
+                squares += (double) value * value;
+            }
+            double average = sum / samples;
+            double variance = squares / samples - average * average;
+            assertEquals(mean, average, 0.05 * mean + 0.02);
+            assertEquals(mean, variance, 0.1 * mean + 0.05);
+        }
+    }
+
+    @Test
+    void shouldCreateTauLeapingCursor() {
+        assertTrue(sirModel(PopulationSimulationMode.TAU_LEAPING).createSimulationCursor(new DefaultRandomGenerator(), rg -> new PopulationState(new int[] { 99, 1, 0 })) instanceof TauLeapingSimulationCursor);
+    }
+
+    @Test
+    void shouldTerminateAndPreservePopulation() {
+        SimulatorCursor<PopulationState> cursor = sirModel(PopulationSimulationMode.TAU_LEAPING).createSimulationCursor(new DefaultRandomGenerator(1), rg -> new PopulationState(new int[] { 990, 10, 0 }));
+        cursor.start();
+        while (cursor.step()) {
+            PopulationState state = cursor.currentState();
+            assertEquals(1000.0, state.population());
+            for (int i = 0; i < 3; i++) {
+                assertTrue(state.getOccupancy(i) >= 0);
+            }
+        }
+        assertTrue(cursor.isTerminated());
+        assertEquals(0.0, cursor.currentState().getOccupancy(I));
+    }
+
+    @Test
+    void shouldRecordSnapshotsOfSampledViews() {
+        TrajectoryCollector<PopulationState> collector = new TrajectoryCollector<>();
+        SimulationUnit<PopulationState> unit = new SimulationUnit<>(sirModel(PopulationSimulationMode.TAU_LEAPING)::createSimulationCursor,
+                new PopulationState(new int[] { 9900, 100, 0 }), collector, SamplePredicate.timeDeadlinePredicate(1.0));
+        new SimulationTask<>(new DefaultRandomGenerator(1), unit).get();
+        List<Sample<PopulationState>> samples = collector.getTrajectory().getData();
+        assertTrue(samples.size() > 2);
+        assertArrayEquals(new int[] { 9900, 100, 0 }, samples.get(0).getValue().getPopulationVector());
+        for (int i = 1; i < samples.size(); i++) {
+            PopulationState previous = samples.get(i - 1).getValue();
+            PopulationState current = samples.get(i).getValue();
+            assertNotSame(previous, current);
+            assertEquals(10000.0, current.population());
+            assertTrue(current.getOccupancy(S) <= previous.getOccupancy(S));
+            assertTrue(current.getOccupancy(R) >= previous.getOccupancy(R));
+        }
+    }
+
+    @Test
+    void shouldLeapOverLargePopulations() {
+        int size = 100000;
+        RandomGenerator rg = new DefaultRandomGenerator(42);
+        double[] exact = averageAt(sirModel(PopulationSimulationMode.IN_PLACE), rg, size, 2.0, 20);
+        double[] leaping = averageAt(sirModel(PopulationSimulationMode.TAU_LEAPING), rg, size, 2.0, 20);
+        assertTrue(leaping[3] * 20 < exact[3]);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(exact[i], leaping[i], 0.02 * size);
+        }
+    }
+
+    private static double[] averageAt(PopulationModel model, RandomGenerator rg, int size, double time, int replicas) {
+        double[] result = new double[4];
+        SimulatorCursor<PopulationState> cursor = model.createSimulationCursor(rg, r -> new PopulationState(new int[] { size - size / 100, size / 100, 0 }));
+        for (int i = 0; i < replicas; i++) {
+            cursor.restart();
+            cursor.start();
+            PopulationState state = cursor.currentState();
+            int steps = 0;
+            while (cursor.step()&&(cursor.time() <= time)) {
+                state = cursor.currentState();
+                steps++;
+            }
+            for (int j = 0; j < 3; j++) {
+                result[j] += state.getOccupancy(j) / replicas;
+            }
+            result[3] += ((double) steps) / replicas;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.slam;
+
+import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
+import it.unicam.quasylab.sibilla.core.models.slam.data.AgentStore;
+import it.unicam.quasylab.sibilla.core.models.slam.data.AgentVariable;
+import it.unicam.quasylab.sibilla.core.util.datastructures.MapScheduler;
+import it.unicam.quasylab.sibilla.core.util.datastructures.SibillaMap;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlamAggregateEvaluatorTest {
+
+    private static final AgentVariable X = new AgentVariable("x", 0);
+
+    @Test
+    void shouldAggregateAllAgentsButThePerceivingOne() {
+        Random random = new Random(1);
+        SibillaMap<Integer, SlamAgent> agents = new SibillaMap<>();
+        for (int i = 0; i < 50; i++) {
+            agents = agents.add(i, agent(i, random.nextInt(10)));
+        }
+        SlamState state = new SlamState(new Activity.ActivityFactory(), 0.0, agents, new MapScheduler<>(), new SibillaMap<>());
+        ToDoubleFunction<AgentStore> expression = s -> s.getValue(X).doubleOf();
+        Predicate<SlamAgent> filter = a -> a.getAgentMemory().getValue(X).doubleOf() > 3;
+        SlamAggregate aggregate = new SlamAggregate(1, expression, filter);
+        SlamAggregateEvaluator evaluator = new SlamAggregateEvaluator(agents);
+        agents.streamOfValues().forEach(a -> {
+            assertEquals(state.getMinOf(a, expression, filter), evaluator.getMinOf(a, aggregate));
+            assertEquals(state.getMaxOf(a, expression, filter), evaluator.getMaxOf(a, aggregate));
+            assertEquals(state.getSumOf(a, expression, filter), evaluator.getSumOf(a, aggregate), 1.0E-9);
+            assertEquals(state.getMeanOf(a, expression, filter), evaluator.getMeanOf(a, aggregate), 1.0E-9);
+            assertEquals(state.count(a, filter), evaluator.count(a, aggregate));
+            assertEquals(state.exists(a, filter), evaluator.exists(a, aggregate));
+            assertEquals(state.forAll(a, filter), evaluator.forAll(a, aggregate));
+        });
+    }
+
+    @Test
+    void shouldHandleAggregatesWithOneSelectedAgent() {
+        SibillaMap<Integer, SlamAgent> agents = new SibillaMap<Integer, SlamAgent>().add(0, agent(0, 5)).add(1, agent(1, 1));
+        SlamAggregate aggregate = new SlamAggregate(0, s -> s.getValue(X).doubleOf(), a -> a.agentId() == 0);
+        SlamAggregateEvaluator evaluator = new SlamAggregateEvaluator(agents);
+        SlamAgent selected = agents.get(0).orElseThrow();
+        SlamAgent other = agents.get(1).orElseThrow();
+        assertTrue(Double.isNaN(evaluator.getMinOf(selected, aggregate)));
+        assertTrue(Double.isNaN(evaluator.getMeanOf(selected, aggregate)));
+        assertFalse(evaluator.exists(selected, aggregate));
+        assertFalse(evaluator.forAll(selected, aggregate));
+        assertEquals(5.0, evaluator.getMaxOf(other, aggregate));
+        assertEquals(5.0, evaluator.getSumOf(other, aggregate));
+        assertTrue(evaluator.forAll(other, aggregate));
+    }
+
+    @Test
+    void shouldAgreeWithStreamingEvaluationOnRandomStates() {
+        Random random = new Random(42);
+        ToDoubleFunction<AgentStore> expression = s -> s.getValue(X).doubleOf();
+        for (int round = 0; round < 100; round++) {
+            SibillaMap<Integer, SlamAgent> agents = new SibillaMap<>();
+            int size = 1 + random.nextInt(50);
+            for (int i = 0; i < size; i++) {
+                agents = agents.add(i, agent(i, randomValue(random)));
+            }
+            SlamState state = new SlamState(new Activity.ActivityFactory(), 0.0, agents, new MapScheduler<>(), new SibillaMap<>());
+            SlamAggregateEvaluator evaluator = new SlamAggregateEvaluator(agents);
+            double threshold = randomValue(random);
+            List<Predicate<SlamAgent>> filters = List.of(
+                    a -> true,
+                    a -> false,
+                    a -> a.agentId() % 2 == 0,
+                    a -> a.getAgentMemory().getValue(X).doubleOf() > threshold
+            );
+            for (int i = 0; i < filters.size(); i++) {
+                Predicate<SlamAgent> filter = filters.get(i);
+                SlamAggregate aggregate = new SlamAggregate(i, expression, filter);
+                agents.streamOfValues().forEach(a -> {
+                    assertEquals(state.getMinOf(a, expression, filter), evaluator.getMinOf(a, aggregate));
+                    assertEquals(state.getMaxOf(a, expression, filter), evaluator.getMaxOf(a, aggregate));
+                    assertEquals(state.count(a, filter), evaluator.count(a, aggregate));
+                    assertEquals(state.exists(a, filter), evaluator.exists(a, aggregate));
+                    assertEquals(state.forAll(a, filter), evaluator.forAll(a, aggregate));
+                    BigDecimal exact = state.stream().filter(b -> !b.equals(a)).filter(filter)
+                            .map(b -> new BigDecimal(b.eval(expression))).reduce(BigDecimal.ZERO, BigDecimal::add);
+                    assertCloseTo(exact, state.getSumOf(a, expression, filter), evaluator.getSumOf(a, aggregate));
+                    int count = state.count(a, filter);
+                    if (count > 0) {
+                        BigDecimal mean = exact.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
+                        assertCloseTo(mean, state.getMeanOf(a, expression, filter), evaluator.getMeanOf(a, aggregate));
+                    } else {
+                        assertTrue(Double.isNaN(evaluator.getMeanOf(a, aggregate)));
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Checks that the given value is as close to the exact one as the value computed by the streaming evaluation,
+     * up to a few units in the last place.
+     */
+    private static void assertCloseTo(BigDecimal exact, double streaming, double actual) {
+        double expected = exact.doubleValue();
+        double tolerance = Math.abs(streaming - expected) + 4 * Math.ulp(expected);
+        assertEquals(expected, actual, tolerance);
+    }
+
+    /**
+     * Values span many orders of magnitude and have mixed signs, so that removing the value of a single agent
+     * from the sum of all the values cancels most of its digits.
+     */
+    private static double randomValue(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return (random.nextDouble() - 0.5) * 1.0E16;
+            case 1:
+                return random.nextInt(100) - 50;
+            default:
+                return (random.nextDouble() - 0.5) * 1.0E-3;
+        }
+    }
+
+    private static SlamAgent agent(int id, double x) {
+        return new SlamAgent(null, id, null, AgentStore.of(new AgentVariable[] { X }, new SibillaValue[] { SibillaValue.of(x) }));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.slam;
+
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationUnit;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Sample;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.TrajectoryCollector;
+import it.unicam.quasylab.sibilla.core.util.datastructures.HeapScheduler;
+import it.unicam.quasylab.sibilla.core.util.datastructures.SibillaMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlamSimulationCursorTest {
+
+    private static final int STEPS = 5;
+
+    @Test
+    void shouldNotChangeRecordedStatesAfterFurtherSteps() {
+        TrajectoryCollector<SlamState> collector = new TrajectoryCollector<>();
+        SimulationUnit<SlamState> unit = new SimulationUnit<>(SlamSimulationCursor::new, idleState(), collector,
+                SamplePredicate.timeDeadlinePredicate(Double.POSITIVE_INFINITY));
+        new SimulationTask<>(new DefaultRandomGenerator(), unit).get();
+        List<Sample<SlamState>> samples = collector.getTrajectory().getData();
+        assertEquals(STEPS + 1, samples.size());
+        for (int i = 0; i <= STEPS; i++) {
+            assertEquals(i, samples.get(i).getTime());
+            assertEquals(STEPS - i, remainingSteps(samples.get(i).getValue()));
+        }
+    }
+
+    @Test
+    void shouldReturnStatesThatAreNotAffectedByTheFollowingSteps() {
+        SlamSimulationCursor cursor = new SlamSimulationCursor(new DefaultRandomGenerator(), rg -> idleState());
+        cursor.start();
+        SlamState first = cursor.currentState();
+        assertSame(first, cursor.currentState());
+        assertTrue(cursor.step());
+        assertTrue(cursor.step());
+        assertEquals(STEPS, remainingSteps(first));
+        assertEquals(STEPS - 2, remainingSteps(cursor.currentState()));
+        assertEquals(STEPS - 2, remainingSteps(cursor.currentView()));
+    }
+
+    private static int remainingSteps(SlamState state) {
+        SlamSimulationCursor cursor = new SlamSimulationCursor(new DefaultRandomGenerator(), rg -> state);
+        cursor.start(state, state.now());
+        int steps = 0;
+        while (cursor.step()) {
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * A state without agents where one step is scheduled at each time unit. Steps of missing agents leave
+     * the state unchanged.
+     */
+    private static SlamState idleState() {
+        Activity.ActivityFactory factory = new Activity.ActivityFactory();
+        HeapScheduler<Activity> scheduler = new HeapScheduler<>();
+        for (int i = 1; i <= STEPS; i++) {
+            scheduler.schedule(factory.agentStepActivity(i, 0), i);
+        }
+        return new SlamState(factory, 0.0, new SibillaMap<>(), scheduler, new SibillaMap<>());
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.yoda;
+
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YodaSpatialIndexTest {
+
+    private final YodaVariable x = new YodaVariable(0, "x");
+
+    private final YodaVariable y = new YodaVariable(1, "y");
+
+    private final YodaVariable v = new YodaVariable(2, "v");
+
+    private final YodaElementNameRegistry registry = new YodaElementNameRegistry();
+
+    private final YodaElementName robot = registry.newInstance("Robot");
+
+    private final YodaElementName obstacle = registry.newInstance("Obstacle");
+
+    @Test
+    void shouldReturnAllAndOnlyTheElementsInRange() {
+        RandomGenerator rg = new DefaultRandomGenerator(1);
+        List<YodaSceneElement> elements = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            elements.add(element(i, Math.floor(rg.nextDouble() * 50), rg.nextDouble() * 50));
+        }
+        elements.add(new YodaSceneElement(obstacle, 2000, new YodaVariableMapping(Map.of(x, SibillaValue.of(1.0)))));
+        YodaSpatialIndex index = new YodaSpatialIndex(elements, x, y);
+        assertEquals(2000, index.size());
+        for (int i = 0; i < 100; i++) {
+            double cx = rg.nextDouble() * 50;
+            double cy = rg.nextDouble() * 50;
+            double radius = rg.nextDouble() * 5;
+            List<YodaSceneElement> expected = elements.stream().filter(e -> distance(e, cx, cy) <= radius).collect(Collectors.toList());
+            assertEquals(expected, index.within(cx, cy, radius).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void shouldComputeRangeRestrictedAggregatesAsBruteForce() {
+        RandomGenerator rg = new DefaultRandomGenerator(2);
+        List<YodaAgent> agents = new ArrayList<>();
+        List<YodaSceneElement> sceneElements = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            agents.add(agent(i, rg.nextDouble() * 20, rg.nextDouble() * 20, rg.nextDouble()));
+            sceneElements.add(element(i, rg.nextDouble() * 20, rg.nextDouble() * 20));
+        }
+        YodaSystemState state = new YodaSystemState(agents, sceneElements);
+        YodaSpatialRange range = new YodaSpatialRange(x, y, 2.5);
+        Set<YodaElementName> robots = Set.of(robot);
+        ToDoubleFunction<YodaVariableMapping> f = m -> m.getValue(x).doubleOf() + m.getValue(v).doubleOf();
+        for (YodaAgent agent : agents) {
+            List<YodaSceneElement> neighbours = Stream.concat(agents.stream(), sceneElements.stream())
+                    .filter(e -> e != agent)
+                    .filter(e -> distance(e, agent.get(x).doubleOf(), agent.get(y).doubleOf()) <= 2.5)
+                    .collect(Collectors.toList());
+            assertEquals(neighbours.stream().anyMatch(e -> e.test(m -> m.getValue(v).doubleOf() > 0.9)),
+                    state.exists(agent, range, m -> m.getValue(v).doubleOf() > 0.9));
+            assertEquals(neighbours.stream().filter(e -> e.getName().equals(robot)).allMatch(e -> e.test(m -> m.getValue(v).doubleOf() > 0.1)),
+                    state.forall(agent, range, robots, m -> m.getValue(v).doubleOf() > 0.1));
+            assertEquals(neighbours.stream().mapToDouble(e -> e.eval(f)).min().orElse(Double.POSITIVE_INFINITY),
+                    state.min(agent, range, f).doubleOf());
+            assertEquals(neighbours.stream().filter(e -> e.getName().equals(robot)).mapToDouble(e -> e.eval(f)).max().orElse(Double.NEGATIVE_INFINITY),
+                    state.max(agent, range, robots, f).doubleOf());
+            assertEquals(neighbours.stream().mapToDouble(e -> e.eval(f)).average().orElse(0.0),
+                    state.mean(agent, range, f).doubleOf());
+        }
+        assertSame(state.getSpatialIndex(x, y), state.getSpatialIndex(x, y));
+    }
+
+    private double distance(YodaSceneElement e, double cx, double cy) {
+        if (!e.test(m -> m.isDefined(x) && m.isDefined(y))) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.hypot(e.getEnvironmentalAttributeValue(x).doubleOf() - cx, e.getEnvironmentalAttributeValue(y).doubleOf() - cy);
+    }
+
+    private YodaSceneElement element(int id, double px, double py) {
+        return new YodaSceneElement(obstacle, id, new YodaVariableMapping(Map.of(x, SibillaValue.of(px), y, SibillaValue.of(py), v, SibillaValue.of(0.5))));
+    }
+
+    private YodaAgent agent(int id, double px, double py, double value) {
+        return new YodaAgent(id, robot, new YodaVariableMapping(),
+                new YodaVariableMapping(Map.of(x, SibillaValue.of(px), y, SibillaValue.of(py), v, SibillaValue.of(value))),
+                new YodaVariableMapping(), null, null, null);
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.yoda;
+
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SplittableRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.util.WeightedLinkedList;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YodaStepEngineTest {
+
+    private final YodaVariable x = new YodaVariable(0, "x");
+
+    private final YodaVariable y = new YodaVariable(1, "y");
+
+    private final YodaVariable near = new YodaVariable(2, "near");
+
+    private final YodaElementName walker = new YodaElementNameRegistry().newInstance("Walker");
+
+    @Test
+    void shouldNotDependOnTheNumberOfThreads() {
+        double[] expected = run(new YodaStepEngine(new ForkJoinPool(1), 1), new SplittableRandomGenerator(42));
+        for (int threads : new int[] { 2, 3, 8 }) {
+            assertArrayEquals(expected, run(new YodaStepEngine(new ForkJoinPool(threads), 7), new SplittableRandomGenerator(42)));
+        }
+        assertArrayEquals(expected, run(new YodaStepEngine(), new SplittableRandomGenerator(42)));
+    }
+
+    @Test
+    void shouldBeReproducibleWithNonSplittableGenerators() {
+        double[] expected = run(new YodaStepEngine(new ForkJoinPool(1), 1), new DefaultRandomGenerator(7));
+        assertArrayEquals(expected, run(new YodaStepEngine(new ForkJoinPool(4), 3), new DefaultRandomGenerator(7)));
+    }
+
+    @Test
+    void shouldUseDifferentStreamsAtEachStep() {
+        YodaSystemState state = new YodaSystemState(List.of(walker(0, 0.0, 0.0)), List.of());
+        YodaStepEngine engine = new YodaStepEngine();
+        SplittableRandomGenerator rg = new SplittableRandomGenerator(1);
+        YodaSystemState first = state.next(rg, engine);
+        YodaSystemState second = first.next(rg, engine);
+        assertEquals(2, second.getStep());
+        double firstMove = first.get(0).get(x).doubleOf();
+        double secondMove = second.get(0).get(x).doubleOf() - firstMove;
+        assertNotEquals(firstMove, secondMove);
+    }
+
+    private double[] run(YodaStepEngine engine, RandomGenerator rg) {
+        List<YodaAgent> agents = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            agents.add(walker(i, i % 25, i / 25));
+        }
+        YodaSystemState state = new YodaSystemState(agents, List.of());
+        for (int i = 0; i < 10; i++) {
+            state = state.next(rg, engine);
+        }
+        double[] result = new double[3 * state.numberOfAgents()];
+        for (int i = 0; i < state.numberOfAgents(); i++) {
+            result[3 * i] = state.get(i).get(x).doubleOf();
+            result[3 * i + 1] = state.get(i).get(y).doubleOf();
+            result[3 * i + 2] = state.get(i).get(near).doubleOf();
+        }
+        return result;
+    }
+
+    private YodaAgent walker(int id, double px, double py) {
+        YodaSpatialRange range = new YodaSpatialRange(x, y, 2.0);
+        return new YodaAgent(id, walker, new YodaVariableMapping(),
+                new YodaVariableMapping(Map.of(x, SibillaValue.of(px), y, SibillaValue.of(py))),
+                new YodaVariableMapping(Map.of(near, SibillaValue.of(0))),
+                (attributes, observations) -> new WeightedLinkedList<>(),
+                (rg, system, agent) -> new YodaVariableMapping(Map.of(near, system.mean(agent, range, m -> m.getValue(x).doubleOf() + rg.nextDouble()))),
+                (rg, knowledge, attributes) -> attributes
+                        .setValue(x, SibillaValue.of(attributes.getValue(x).doubleOf() + rg.nextDouble() - 0.5))
+                        .setValue(y, SibillaValue.of(attributes.getValue(y).doubleOf() + rg.nextDouble() - 0.5)));
+    }
+
+}
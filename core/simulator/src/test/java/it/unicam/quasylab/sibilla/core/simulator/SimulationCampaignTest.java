@@ -0,0 +1,196 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTime;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.StatisticSampling;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SummaryStatisticSampling;
+import it.unicam.quasylab.sibilla.core.simulator.smc.EstimationMethod;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ProbabilityEstimate;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.junit.jupiter.api.Test;
+
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationCampaignTest {
+
+    @Test
+    void shouldResumeCampaignFromCheckpoint() throws IOException, InterruptedException {
+        Path folder = Files.createTempDirectory("campaign");
+        SimulationCampaign campaign = new SimulationCampaign(folder.resolve("test.ckpt"), "test", 300);
+        StatisticSampling<PopulationState> first = sampling();
+        assertEquals(1000, simulate(first, 1000, campaign, 1));
+        assertTrue(Files.exists(campaign.getFile()));
+        assertEquals(1000, campaign.load().orElseThrow().getReplicas());
+
+        StatisticSampling<PopulationState> resumed = sampling();
+        assertEquals(1000, simulate(resumed, 1000, campaign, 2));
+        assertArrayEquals(first.getData()[10], resumed.getData()[10], 1.0E-9);
+    }
+
+    @Test
+    void shouldExtendCampaignWithTheFollowingRandomStreams() throws IOException, InterruptedException {
+        Path folder = Files.createTempDirectory("campaign");
+        SimulationCampaign extended = new SimulationCampaign(folder.resolve("extended.ckpt"), "test", 250);
+        simulate(sampling(), 1000, extended, 1);
+        StatisticSampling<PopulationState> sampling = sampling();
+        assertEquals(2000, simulate(sampling, 2000, extended, 2));
+
+        StatisticSampling<PopulationState> uninterrupted = sampling();
+        simulate(uninterrupted, 2000, new SimulationCampaign(folder.resolve("uninterrupted.ckpt"), "test", 250), 1);
+        for (int i = 0; i < uninterrupted.getSize(); i++) {
+            assertArrayEquals(uninterrupted.getData()[i], sampling.getData()[i], 1.0E-9);
+        }
+    }
+
+    @Test
+    void shouldRejectCheckpointsOfOtherCampaigns() throws IOException, InterruptedException {
+        Path file = Files.createTempDirectory("campaign").resolve("test.ckpt");
+        simulate(sampling(), 10, new SimulationCampaign(file, "test"), 1);
+        assertThrows(IOException.class, () -> new SimulationCampaign(file, "other").load());
+    }
+
+    @Test
+    void shouldMergeFirstPassageTimeSummaries() {
+        FirstPassageTime<PopulationState> fpt = new FirstPassageTime<>("B", s -> s.getOccupancy(1) > 0);
+        FirstPassageTime<PopulationState> other = new FirstPassageTime<>("B", s -> s.getOccupancy(1) > 0);
+        for (FirstPassageTime<PopulationState> f : List.of(fpt, other)) {
+            for (double t = 1; t <= 3; t++) {
+                var handler = f.get();
+                handler.start();
+                handler.sample(t, new PopulationState(new int[] { 0, 1 }));
+                handler.end(t);
+            }
+        }
+        fpt.mergeSummary(other.getSummary());
+        assertEquals(6, fpt.getResults().getTests());
+        assertEquals(2.0, fpt.getResults().getMean(), 1.0E-9);
+    }
+
+    @Test
+    void shouldResumeReachabilityCounters() throws IOException, InterruptedException {
+        Path file = Files.createTempDirectory("campaign").resolve("reach.ckpt");
+        SimulationEnvironment environment = new SimulationEnvironment();
+        ProbabilityEstimate estimate = environment.estimateReachability(null, new DefaultRandomGenerator(1),
+                EstimationMethod.CHERNOFF_HOEFFDING, 0.05, 0.05, 1.0, model(), rg -> new PopulationState(new int[] { 1, 0 }),
+                s -> true, s -> s.getOccupancy(1) > 0, new SimulationCampaign(file, "reach", 200));
+        assertEquals(estimate.getRuns(), new SimulationCampaign(file, "reach").load().orElseThrow().getReplicas());
+        ProbabilityEstimate resumed = environment.estimateReachability(null, new DefaultRandomGenerator(2),
+                EstimationMethod.CHERNOFF_HOEFFDING, 0.05, 0.05, 1.0, model(), rg -> new PopulationState(new int[] { 1, 0 }),
+                s -> true, s -> s.getOccupancy(1) > 0, new SimulationCampaign(file, "reach", 200));
+        assertEquals(estimate.getSuccesses(), resumed.getSuccesses());
+        assertEquals(estimate.getRuns(), resumed.getRuns());
+        assertEquals(1 - Math.exp(-1), resumed.getProbability(), 0.05);
+    }
+
+    @Test
+    void shouldResumeTheChecksOfSequentialEstimations() throws IOException, InterruptedException {
+        Path file = Files.createTempDirectory("campaign").resolve("sequential.ckpt");
+        SimulationEnvironment environment = new SimulationEnvironment();
+        ProbabilityEstimate estimate = environment.estimateReachability(null, new DefaultRandomGenerator(1),
+                EstimationMethod.WILSON, 0.05, 0.05, 0.01, model(), rg -> new PopulationState(new int[] { 1, 0 }),
+                s -> true, s -> s.getOccupancy(1) > 0, new SimulationCampaign(file, "sequential", 100));
+        assertTrue(estimate.isConcluded());
+        ProbabilityEstimate resumed = environment.estimateReachability(null, new DefaultRandomGenerator(2),
+                EstimationMethod.WILSON, 0.05, 0.05, 0.01, model(), rg -> new PopulationState(new int[] { 1, 0 }),
+                s -> true, s -> s.getOccupancy(1) > 0, new SimulationCampaign(file, "sequential", 100));
+        assertEquals(estimate.getRuns(), resumed.getRuns());
+        assertEquals(estimate.getLowerBound(), resumed.getLowerBound());
+        assertEquals(estimate.getUpperBound(), resumed.getUpperBound());
+        assertTrue(resumed.isConcluded());
+    }
+
+    @Test
+    void shouldDiscardTheReplicasOfAnInterruptedGroup() throws IOException, InterruptedException {
+        Path file = Files.createTempDirectory("campaign").resolve("interrupted.ckpt");
+        FirstPassageTime<PopulationState> fpt = new FirstPassageTime<>("B", s -> s.getOccupancy(1) > 0);
+        CancellingMonitor monitor = new CancellingMonitor(250);
+        long completed = new SimulationEnvironment().simulate(monitor, new DefaultRandomGenerator(1), model(),
+                rg -> new PopulationState(new int[] { 10, 0 }), fpt, fpt, 1000, 5.0, new SimulationCampaign(file, "fpt", 100));
+        assertEquals(200, completed);
+        assertEquals(200, fpt.getResults().getTests());
+        assertEquals(200, new SimulationCampaign(file, "fpt").load().orElseThrow().getReplicas());
+    }
+
+    private static long simulate(StatisticSampling<PopulationState> sampling, long replicas, SimulationCampaign campaign,
+                                 long seed) throws InterruptedException {
+        return new SimulationEnvironment().simulate(null, new DefaultRandomGenerator(seed), model(),
+                rg -> new PopulationState(new int[] { 10, 0 }), sampling::getSamplingHandler, sampling, replicas, 5.0, campaign);
+    }
+
+    private static StatisticSampling<PopulationState> sampling() {
+        return SummaryStatisticSampling.measure("B", 50, 5.0, s -> s.getOccupancy(1));
+    }
+
+    private static PopulationModel model() {
+        return new PopulationModel(PopulationRegistry.createRegistry("A", "B"),
+                List.of(new ReactionRule("AtoB", new Population[] { new Population(0) }, new Population[] { new Population(1) },
+                        (t, s) -> new SibillaDouble(s.getOccupancy(0)))), new HashMap<>(), new HashMap<>());
+    }
+
+    /*
+     * A monitor that is cancelled after the given number of replicas.
+     */
+    private static class CancellingMonitor implements SimulationMonitor {
+
+        private final int limit;
+        private final AtomicInteger replicas = new AtomicInteger();
+
+        private CancellingMonitor(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void startIteration(int i) {
+        }
+
+        @Override
+        public void endIteration(int i) {
+            replicas.incrementAndGet();
+        }
+
+        @Override
+        public void endSimulation() {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return replicas.get() >= limit;
+        }
+
+        @Override
+        public void registerPropertyChangeListener(PropertyChangeListener l) {
+        }
+    }
+}
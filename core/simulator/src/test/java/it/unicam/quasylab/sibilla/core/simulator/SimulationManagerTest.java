@@ -0,0 +1,119 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import org.junit.jupiter.api.Test;
+
+import java.beans.PropertyChangeListener;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationManagerTest {
+
+    @Test
+    void shouldStopSchedulingReplicasWhenTheMonitorIsCancelled() {
+        CancellableMonitor monitor = new CancellableMonitor();
+        CountingManager manager = new CountingManager(monitor, 3);
+        manager.simulate(null, 100);
+        assertEquals(3, manager.scheduled);
+    }
+
+    @Test
+    void shouldScheduleAllReplicasWithoutMonitor() {
+        CountingManager manager = new CountingManager(null, 3);
+        manager.simulate(null, 100);
+        assertEquals(100, manager.scheduled);
+    }
+
+    private static class CountingManager implements SimulationManager<State> {
+
+        private final CancellableMonitor monitor;
+        private final int cancelAfter;
+        private int scheduled = 0;
+
+        private CountingManager(CancellableMonitor monitor, int cancelAfter) {
+            this.monitor = monitor;
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void simulate(SimulationUnit<State> unit) {
+            scheduled++;
+            if ((monitor != null) && (scheduled == cancelAfter)) {
+                monitor.cancelled = true;
+            }
+        }
+
+        @Override
+        public SimulationMonitor getMonitor() {
+            return monitor;
+        }
+
+        @Override
+        public int pendingTasks() {
+            return 0;
+        }
+
+        @Override
+        public void join() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+    }
+
+    private static class CancellableMonitor implements SimulationMonitor {
+
+        private boolean cancelled = false;
+
+        @Override
+        public void startIteration(int i) {
+        }
+
+        @Override
+        public void endIteration(int i) {
+        }
+
+        @Override
+        public void endSimulation() {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void registerPropertyChangeListener(PropertyChangeListener l) {
+        }
+    }
+
+}
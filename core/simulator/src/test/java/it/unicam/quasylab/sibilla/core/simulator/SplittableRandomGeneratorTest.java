@@ -0,0 +1,110 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplittableRandomGeneratorTest {
+
+    private final static int SIZE = 50;
+    private final static int REPLICAS = 200;
+
+    @Test
+    void shouldProduceSameStreamFromSameSeed() {
+        SplittableRandomGenerator first = new SplittableRandomGenerator(42).getStream(7);
+        SplittableRandomGenerator second = new SplittableRandomGenerator(42).getStream(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextDouble(), second.nextDouble());
+        }
+    }
+
+    @Test
+    void shouldProduceDifferentStreamsForDifferentIndexes() {
+        SplittableRandomGenerator random = new SplittableRandomGenerator(42);
+        assertNotEquals(random.getStream(1).nextLong(), random.getStream(2).nextLong());
+        assertNotEquals(random.getStream(1).getSeed(), random.getStream(2).getSeed());
+    }
+
+    @Test
+    void shouldRestartSequenceAfterSerialization() throws IOException, ClassNotFoundException {
+        SplittableRandomGenerator random = new SplittableRandomGenerator(17);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        }
+        double expected = random.nextDouble();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            SplittableRandomGenerator copy = (SplittableRandomGenerator) in.readObject();
+            assertEquals(expected, copy.nextDouble());
+        }
+    }
+
+    @Test
+    void shouldNotDependOnNumberOfThreads() throws InterruptedException {
+        assertEquals(simulate(SequentialSimulationManager::new),
+                simulate(ThreadSimulationManager.getFixedThreadSimulationManagerFactory(4)));
+    }
+
+    private static List<Double> simulate(SimulationManagerFactory factory) throws InterruptedException {
+        PopulationModel model = new PopulationModel(PopulationRegistry.createRegistry("A", "B"),
+                List.of(
+                        new ReactionRule("AtoB", new Population[] { new Population(0) }, new Population[] { new Population(1) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(0))),
+                        new ReactionRule("BtoA", new Population[] { new Population(1) }, new Population[] { new Population(0) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(1)))
+                ), new HashMap<>(), new HashMap<>());
+        List<Double> result = Collections.synchronizedList(new ArrayList<>());
+        SimulationEnvironment environment = new SimulationEnvironment(factory);
+        environment.simulate(new DefaultRandomGenerator(1234), model, rg -> new PopulationState(new int[] { SIZE, 0 }),
+                () -> new SamplingHandler<>() {
+                    private PopulationState last;
+
+                    @Override
+                    public void start() {
+                    }
+
+                    @Override
+                    public void sample(double time, PopulationState state) {
+                        last = state;
+                    }
+
+                    @Override
+                    public void end(double time) {
+                        result.add(last.getOccupancy(1));
+                    }
+                }, REPLICAS, 1.0);
+        result.sort(Double::compare);
+        return result;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadSimulationManagerTest {
+
+    private final static int SIZE = 50;
+    private final static int REPLICAS = 100;
+
+    @Test
+    void shouldExecuteSubmittedTasksWithTheirOwnRandomGenerators() throws InterruptedException {
+        List<Double> expected = Collections.synchronizedList(new ArrayList<>());
+        List<SimulationTask<PopulationState>> tasks = getTasks(finalOccupancy(expected));
+        tasks.forEach(SimulationTask::get);
+        List<Double> actual = Collections.synchronizedList(new ArrayList<>());
+        ThreadSimulationManager<PopulationState> manager = new ThreadSimulationManager<>(Executors.newFixedThreadPool(4),
+                new DefaultRandomGenerator(), null);
+        CompletableFuture<?>[] futures = getTasks(finalOccupancy(new ArrayList<>())).stream()
+                .map(t -> manager.submit(t.withSamplingHandler(finalOccupancy(actual))))
+                .toArray(CompletableFuture<?>[]::new);
+        CompletableFuture.allOf(futures).join();
+        assertEquals(0, manager.pendingTasks());
+        manager.shutdown();
+        expected.sort(Double::compare);
+        actual.sort(Double::compare);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldRejectTasksAfterShutdown() throws InterruptedException {
+        ThreadSimulationManager<PopulationState> manager = new ThreadSimulationManager<>(Executors.newSingleThreadExecutor(),
+                new DefaultRandomGenerator(), null);
+        manager.shutdown();
+        assertThrows(IllegalStateException.class, () -> manager.submit(getTasks(finalOccupancy(new ArrayList<>())).get(0)));
+    }
+
+    private static List<SimulationTask<PopulationState>> getTasks(Supplier<SamplingHandler<PopulationState>> handlerSupplier) {
+        PopulationModel model = new PopulationModel(PopulationRegistry.createRegistry("A", "B"),
+                List.of(
+                        new ReactionRule("AtoB", new Population[] { new Population(0) }, new Population[] { new Population(1) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(0))),
+                        new ReactionRule("BtoA", new Population[] { new Population(1) }, new Population[] { new Population(0) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(1)))
+                ), new HashMap<>(), new HashMap<>());
+        SimulationUnit<PopulationState> unit = new SimulationUnit<>(model::createSimulationCursor,
+                new PopulationState(new int[] { SIZE, 0 }), handlerSupplier, SamplePredicate.timeDeadlinePredicate(1.0));
+        SplittableRandomGenerator random = new SplittableRandomGenerator(1234);
+        List<SimulationTask<PopulationState>> tasks = new ArrayList<>();
+        for (int i = 1; i <= REPLICAS; i++) {
+            tasks.add(new SimulationTask<>(i, random.getStream(i), unit));
+        }
+        return tasks;
+    }
+
+    private static Supplier<SamplingHandler<PopulationState>> finalOccupancy(List<Double> result) {
+        return () -> new SamplingHandler<>() {
+            private PopulationState last;
+
+            @Override
+            public void start() {
+            }
+
+            @Override
+            public void sample(double time, PopulationState state) {
+                last = state;
+            }
+
+            @Override
+            public void end(double time) {
+                result.add(last.getOccupancy(1));
+            }
+        };
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerPoolSimulationManagerTest {
+
+    private final static int SIZE = 50;
+    private final static int REPLICAS = 200;
+
+    @Test
+    void shouldProduceSameResultsOfSequentialManager() throws InterruptedException {
+        assertEquals(simulate(SequentialSimulationManager::new),
+                simulate(WorkerPoolSimulationManager.getWorkerPoolSimulationManagerFactory(4)));
+    }
+
+    @Test
+    void shouldExecuteUnitsScheduledOneByOneWithBoundedQueue() throws InterruptedException {
+        List<Double> result = Collections.synchronizedList(new ArrayList<>());
+        WorkerPoolSimulationManager<PopulationState> manager = new WorkerPoolSimulationManager<>(3, 1,
+                Executors.defaultThreadFactory(), new DefaultRandomGenerator(1234), null);
+        SimulationUnit<PopulationState> unit = getUnit(result);
+        for (int i = 0; i < REPLICAS; i++) {
+            manager.simulate(unit);
+        }
+        manager.join();
+        assertEquals(0, manager.pendingTasks());
+        assertEquals(REPLICAS, manager.completedTasks());
+        assertEquals(REPLICAS, result.size());
+        manager.shutdown();
+    }
+
+    @Test
+    void shouldRejectUnitsAfterShutdown() throws InterruptedException {
+        WorkerPoolSimulationManager<PopulationState> manager = new WorkerPoolSimulationManager<>(1, new DefaultRandomGenerator(), null);
+        manager.shutdown();
+        assertThrows(IllegalStateException.class, () -> manager.simulate(getUnit(new ArrayList<>()), 10));
+    }
+
+    private static List<Double> simulate(SimulationManagerFactory factory) throws InterruptedException {
+        List<Double> result = Collections.synchronizedList(new ArrayList<>());
+        SimulationManager<PopulationState> manager = factory.getSimulationManager(new DefaultRandomGenerator(1234), null);
+        manager.simulate(getUnit(result), REPLICAS);
+        manager.join();
+        manager.shutdown();
+        result.sort(Double::compare);
+        return result;
+    }
+
+    private static SimulationUnit<PopulationState> getUnit(List<Double> result) {
+        PopulationModel model = new PopulationModel(PopulationRegistry.createRegistry("A", "B"),
+                List.of(
+                        new ReactionRule("AtoB", new Population[] { new Population(0) }, new Population[] { new Population(1) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(0))),
+                        new ReactionRule("BtoA", new Population[] { new Population(1) }, new Population[] { new Population(0) },
+                                (t, s) -> new SibillaDouble(s.getOccupancy(1)))
+                ), new HashMap<>(), new HashMap<>());
+        return new SimulationUnit<>(model::createSimulationCursor, new PopulationState(new int[] { SIZE, 0 }),
+                () -> new SamplingHandler<>() {
+                    private PopulationState last;
+
+                    @Override
+                    public void start() {
+                    }
+
+                    @Override
+                    public void sample(double time, PopulationState state) {
+                        last = state;
+                    }
+
+                    @Override
+                    public void end(double time) {
+                        result.add(last.getOccupancy(1));
+                    }
+                }, SamplePredicate.timeDeadlinePredicate(1.0));
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void shouldEstimateQuantilesInBoundedMemory() {
+        QuantileSketch sketch = new QuantileSketch();
+        Random random = new Random(42);
+        int size = 1000000;
+        for (int i = 0; i < size; i++) {
+            sketch.add(random.nextDouble());
+        }
+        assertEquals(size, sketch.getN());
+        assertTrue(sketch.getRetained() < 1000);
+        assertEquals(0.25, sketch.getQuantile(0.25), 0.02);
+        assertEquals(0.5, sketch.getQuantile(0.5), 0.02);
+        assertEquals(0.75, sketch.getQuantile(0.75), 0.02);
+        assertTrue(sketch.getMin() >= 0.0);
+        assertTrue(sketch.getMax() < 1.0);
+        assertEquals(sketch.getMin(), sketch.getQuantile(0));
+        assertEquals(sketch.getMax(), sketch.getQuantile(1));
+    }
+
+    @Test
+    void shouldBeExactOnSmallStreams() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+        for (int i = 1; i <= 9; i++) {
+            sketch.add(10 - i);
+        }
+        assertEquals(1.0, sketch.getMin());
+        assertEquals(9.0, sketch.getMax());
+        assertEquals(5.0, sketch.getQuantile(0.5));
+    }
+
+    @Test
+    void shouldMergeSketches() {
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+        for (int i = 0; i < 100000; i++) {
+            low.add(i);
+            high.add(100000 + i);
+        }
+        QuantileSketch merged = QuantileSketch.combine(low, high);
+        assertEquals(200000, merged.getN());
+        assertEquals(0.0, merged.getMin());
+        assertEquals(199999.0, merged.getMax());
+        assertEquals(100000, merged.getQuantile(0.5), 4000);
+        assertEquals(50000, merged.getQuantile(0.25), 4000);
+        assertEquals(100000, low.getN());
+    }
+
+    @Test
+    void shouldDrawCompactionCoinsFromTheSeed() {
+        QuantileSketch first = new QuantileSketch(QuantileSketch.DEFAULT_K, 17);
+        QuantileSketch second = new QuantileSketch(QuantileSketch.DEFAULT_K, 17);
+        QuantileSketch other = new QuantileSketch(QuantileSketch.DEFAULT_K, 18);
+        QuantileSketch unseeded = new QuantileSketch();
+        for (int i = 0; i < 100000; i++) {
+            first.add(i);
+            second.add(i);
+            other.add(i);
+            unseeded.add(i);
+        }
+        int differentFromOther = 0;
+        int differentFromUnseeded = 0;
+        for (int i = 1; i < 100; i++) {
+            double q = i / 100.0;
+            assertEquals(first.getQuantile(q), second.getQuantile(q));
+            assertEquals(i * 1000, other.getQuantile(q), 2000);
+            if (first.getQuantile(q) != other.getQuantile(q)) {
+                differentFromOther++;
+            }
+            if (first.getQuantile(q) != unseeded.getQuantile(q)) {
+                differentFromUnseeded++;
+            }
+        }
+        assertTrue(differentFromOther > 0);
+        assertTrue(differentFromUnseeded > 0);
+    }
+
+    @Test
+    void shouldCollectQuartilesFromManyThreads() throws InterruptedException {
+        QuantileStatisticSampling<PopulationState> sampling = new QuantileStatisticSampling<>(1, 1.0, new SimpleMeasure<>("value", s -> 1.0));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i <= 10000; i++) {
+            int value = i;
+            executor.execute(() -> sampling.recordValues(new double[] { value }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        double[] row = sampling.getData()[0];
+        assertEquals(0.0, row[1]);
+        assertEquals(2500, row[2], 200);
+        assertEquals(5000, row[3], 1E-9);
+        assertEquals(5000, row[4], 200);
+        assertEquals(7500, row[5], 200);
+        assertEquals(10000.0, row[6]);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingSummaryTest {
+
+    private static final int SAMPLES = 10;
+
+    private static final Measure<PopulationState> MEASURE = new SimpleMeasure<>("X", s -> s.getOccupancy(0));
+
+    @Test
+    void mergedSummariesShouldGiveTheStatisticsOfAllTheData() throws Exception {
+        SamplingCollection<PopulationState> all = collection();
+        SamplingCollection<PopulationState> master = collection();
+        Random random = new Random(17);
+        for (int node = 0; node < 3; node++) {
+            SamplingCollection<PopulationState> slave = collection();
+            for (int i = 0; i < 200; i++) {
+                double[] row = random.doubles(SAMPLES).toArray();
+                record(all, row);
+                record(slave, row);
+            }
+            master.mergeSummary(copy(slave.getSummary()));
+        }
+        double[][] expectedSummary = all.get(0).getSimulationTimeSeries().get("X");
+        double[][] actualSummary = master.get(0).getSimulationTimeSeries().get("X");
+        for (int i = 0; i < SAMPLES; i++) {
+            assertEquals(expectedSummary[i][1], actualSummary[i][1], 1E-12);
+            assertEquals(expectedSummary[i][2], actualSummary[i][2], 1E-12);
+        }
+        double[][] expectedDescriptive = all.get(1).getSimulationTimeSeries().get("X");
+        double[][] actualDescriptive = master.get(1).getSimulationTimeSeries().get("X");
+        for (int i = 0; i < SAMPLES; i++) {
+            assertArrayEquals(expectedDescriptive[i], actualDescriptive[i], 1E-12);
+        }
+        double[][] expectedQuantiles = all.get(2).getSimulationTimeSeries().get("X");
+        double[][] actualQuantiles = master.get(2).getSimulationTimeSeries().get("X");
+        for (int i = 0; i < SAMPLES; i++) {
+            assertEquals(expectedQuantiles[i][1], actualQuantiles[i][1]);
+            assertEquals(expectedQuantiles[i][3], actualQuantiles[i][3], 1E-12);
+            assertEquals(expectedQuantiles[i][6], actualQuantiles[i][6]);
+        }
+    }
+
+    @Test
+    void receivedSummariesShouldBeFoldedOnArrival() throws InterruptedException {
+        ThreadLocalAccumulators<StreamingMoments> accumulators = new ThreadLocalAccumulators<>(() -> new StreamingMoments(SAMPLES), StreamingMoments::combine);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int batch = 0; batch < 1000; batch++) {
+            executor.execute(() -> {
+                StreamingMoments moments = new StreamingMoments(SAMPLES);
+                moments.add(new double[SAMPLES]);
+                moments.add(new double[SAMPLES]);
+                accumulators.add(moments);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        accumulators.get().add(new double[SAMPLES]);
+        assertEquals(2, accumulators.getAll().size());
+        assertEquals(2001, accumulators.getAll().stream().mapToLong(StreamingMoments::getN).sum());
+    }
+
+    @Test
+    void shouldRejectSummariesOfDifferentSize() {
+        SummaryStatisticSampling<PopulationState> sampling = new SummaryStatisticSampling<>(SAMPLES, 1.0, MEASURE);
+        SummaryStatisticSampling<PopulationState> other = new SummaryStatisticSampling<>(SAMPLES + 1, 1.0, MEASURE);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sampling.mergeSummary(other.getSummary()));
+        assertEquals("Illegal number of samples! Expected 10 are 11", e.getMessage());
+        assertThrows(UnsupportedOperationException.class, () -> new SamplingLog<PopulationState>(1.0).getSummary());
+    }
+
+    @Test
+    void samplingsWithTheSameSeedShouldReportTheSameQuantiles() {
+        Random random = new Random(23);
+        QuantileStatisticSampling<PopulationState> first = new QuantileStatisticSampling<>(SAMPLES, 1.0, MEASURE, 8);
+        QuantileStatisticSampling<PopulationState> second = new QuantileStatisticSampling<>(SAMPLES, 1.0, MEASURE, 8);
+        for (int i = 0; i < 5000; i++) {
+            double[] row = random.doubles(SAMPLES).toArray();
+            first.recordValues(row);
+            second.recordValues(row);
+        }
+        double[][] expected = first.getSimulationTimeSeries().get("X");
+        double[][] actual = second.getSimulationTimeSeries().get("X");
+        for (int i = 0; i < SAMPLES; i++) {
+            assertArrayEquals(expected[i], actual[i]);
+        }
+    }
+
+    @Test
+    void shouldRejectQuantileSummariesOfDifferentSize() {
+        QuantileStatisticSampling<PopulationState> sampling = new QuantileStatisticSampling<>(SAMPLES, 1.0, MEASURE);
+        QuantileStatisticSampling<PopulationState> other = new QuantileStatisticSampling<>(SAMPLES + 1, 1.0, MEASURE);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sampling.mergeSummary(other.getSummary()));
+        assertEquals("Illegal number of samples! Expected 10 are 11", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> sampling.mergeSummary(new StreamingMoments(SAMPLES)));
+    }
+
+    private SamplingCollection<PopulationState> collection() {
+        return new SamplingCollection<>(
+                new SummaryStatisticSampling<>(SAMPLES, 1.0, MEASURE),
+                new DescriptiveStatisticSampling<>(SAMPLES, 1.0, MEASURE),
+                new QuantileStatisticSampling<>(SAMPLES, 1.0, MEASURE));
+    }
+
+    private void record(SamplingCollection<PopulationState> collection, double[] row) {
+        for (int i = 0; i < collection.size(); i++) {
+            ((StatisticSampling<PopulationState>) collection.get(i)).recordValues(row);
+        }
+    }
+
+    private Serializable copy(Serializable summary) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(summary);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Serializable) in.readObject();
+        }
+    }
+
+}
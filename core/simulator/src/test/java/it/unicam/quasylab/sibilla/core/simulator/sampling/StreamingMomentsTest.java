@@ -0,0 +1,102 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingMomentsTest {
+
+    @Test
+    void shouldComputeMeanAndVariance() {
+        double[][] rows = { { 1.0, 10.0 }, { 2.0, 20.0 }, { 4.0, 40.0 }, { 7.0, 70.0 } };
+        StreamingMoments moments = new StreamingMoments(2);
+        for (double[] row : rows) {
+            moments.add(row);
+        }
+        assertEquals(4, moments.getN());
+        assertEquals(3.5, moments.getMean(0), 1E-12);
+        assertEquals(35.0, moments.getMean(1), 1E-12);
+        assertEquals(7.0, moments.getVariance(0), 1E-12);
+        assertEquals(700.0, moments.getVariance(1), 1E-9);
+    }
+
+    @Test
+    void shouldHandleDegenerateCases() {
+        StreamingMoments moments = new StreamingMoments(1);
+        assertTrue(Double.isNaN(moments.getMean(0)));
+        assertTrue(Double.isNaN(moments.getVariance(0)));
+        moments.add(new double[] { 3.0 });
+        assertEquals(3.0, moments.getMean(0));
+        assertEquals(0.0, moments.getVariance(0));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> moments.add(new double[2]));
+        assertEquals("Illegal number of values! Expected 1 are 2", e.getMessage());
+    }
+
+    @Test
+    void shouldCombineMoments() {
+        Random random = new Random(42);
+        StreamingMoments all = new StreamingMoments(3);
+        StreamingMoments first = new StreamingMoments(3);
+        StreamingMoments second = new StreamingMoments(3);
+        for (int i = 0; i < 1000; i++) {
+            double[] row = { random.nextGaussian(), 100 + random.nextDouble(), i };
+            all.add(row);
+            (i % 3 == 0 ? first : second).add(row);
+        }
+        StreamingMoments combined = StreamingMoments.combine(first, second);
+        assertEquals(all.getN(), combined.getN());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(all.getMean(i), combined.getMean(i), 1E-9);
+            assertEquals(all.getVariance(i), combined.getVariance(i), 1E-9);
+        }
+        StreamingMoments copy = StreamingMoments.combine(new StreamingMoments(3), all);
+        assertEquals(all.getMean(2), copy.getMean(2));
+        assertEquals(all.getVariance(2), copy.getVariance(2));
+    }
+
+    @Test
+    void shouldCollectValuesFromManyThreads() throws InterruptedException {
+        SummaryStatisticSampling<PopulationState> sampling = new SummaryStatisticSampling<>(2, 1.0, new SimpleMeasure<>("one", s -> 1.0));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            executor.execute(() -> sampling.recordValues(new double[] { value, 1.0 }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        double[][] data = sampling.getData();
+        assertEquals(499.5, data[0][1], 1E-9);
+        assertEquals(1.0, data[1][1], 1E-12);
+        assertEquals(0.0, data[1][2], 1E-12);
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
+import it.unicam.quasylab.sibilla.core.simulator.ThreadSimulationManager;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SimpleMeasure;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportanceSplittingTest {
+
+    private static final int N = 20;
+
+    /**
+     * Probability that a walk moving up with rate 1 and down with rate 2 reaches N before 0 starting from 1.
+     */
+    private static final double EXPECTED = 1.0 / (Math.pow(2, N) - 1);
+
+    @Test
+    void shouldEstimateRareReachabilityWithFixedEffort() throws InterruptedException {
+        for (PopulationSimulationMode mode : new PopulationSimulationMode[] { PopulationSimulationMode.DIRECT,
+                PopulationSimulationMode.NEXT_REACTION, PopulationSimulationMode.IN_PLACE }) {
+            RareEventEstimate estimate = new SimulationEnvironment().fixedEffortSplitting(null, new DefaultRandomGenerator(1),
+                    Double.POSITIVE_INFINITY, walk(mode), rg -> new PopulationState(new int[] { 1 }), s -> s.getOccupancy(0) > 0,
+                    s -> s.getOccupancy(0) >= N, new SimpleMeasure<>("X", s -> s.getOccupancy(0)),
+                    IntStream.range(2, N).asDoubleStream().toArray(), 1000);
+            assertTrue(estimate.isConcluded());
+            assertEquals(N - 2, estimate.getLevels().length);
+            assertEquals(N - 1, estimate.getStageProbabilities().length);
+            assertEquals(EXPECTED, estimate.getProbability(), EXPECTED / 2);
+        }
+    }
+
+    @Test
+    void shouldEstimateRareReachabilityWithAdaptiveLevels() throws InterruptedException {
+        RareEventEstimate estimate = new SimulationEnvironment().adaptiveSplitting(null, new DefaultRandomGenerator(1),
+                Double.POSITIVE_INFINITY, walk(PopulationSimulationMode.NEXT_REACTION), rg -> new PopulationState(new int[] { 1 }),
+                s -> s.getOccupancy(0) > 0, s -> s.getOccupancy(0) >= N, new SimpleMeasure<>("X", s -> s.getOccupancy(0)),
+                1000, 100);
+        assertTrue(estimate.isConcluded());
+        assertEquals(EXPECTED, estimate.getProbability(), EXPECTED / 2);
+    }
+
+    @Test
+    void shouldBranchInParallel() throws InterruptedException {
+        SimulationEnvironment environment = new SimulationEnvironment(ThreadSimulationManager.getFixedThreadSimulationManagerFactory(4));
+        RareEventEstimate estimate = environment.adaptiveSplitting(null, new DefaultRandomGenerator(1),
+                Double.POSITIVE_INFINITY, walk(PopulationSimulationMode.IN_PLACE), rg -> new PopulationState(new int[] { 1 }),
+                s -> s.getOccupancy(0) > 0, s -> s.getOccupancy(0) >= N, new SimpleMeasure<>("X", s -> s.getOccupancy(0)),
+                1000, 100);
+        assertEquals(EXPECTED, estimate.getProbability(), EXPECTED / 2);
+    }
+
+    @Test
+    void shouldEstimateZeroWhenGoalIsNotReachedWithinDeadline() throws InterruptedException {
+        RareEventEstimate estimate = new SimulationEnvironment().fixedEffortSplitting(null, new DefaultRandomGenerator(1),
+                0.0, walk(PopulationSimulationMode.DIRECT), rg -> new PopulationState(new int[] { 1 }), s -> s.getOccupancy(0) > 0,
+                s -> s.getOccupancy(0) >= N, new SimpleMeasure<>("X", s -> s.getOccupancy(0)), new double[] { 2, 3 }, 100);
+        assertEquals(0.0, estimate.getProbability());
+        assertEquals(1, estimate.getStageProbabilities().length);
+    }
+
+    private static PopulationModel walk(PopulationSimulationMode mode) {
+        return new PopulationModel(PopulationRegistry.createRegistry("X"),
+                List.of(new ReactionRule("up", new Population[0], new Population[] { new Population(0) },
+                                (t, s) -> new SibillaDouble(1.0)),
+                        new ReactionRule("down", new Population[] { new Population(0) }, new Population[0],
+                                (t, s) -> new SibillaDouble(2.0))),
+                new HashMap<>(), new HashMap<>(), mode);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.smc;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticalModelCheckingTest {
+
+    @Test
+    void shouldComputeChernoffHoeffdingRunsFromErrorProbabilityAndGap() {
+        assertEquals((long) Math.ceil(Math.log(2 / 0.05) / (2 * 0.01 * 0.01)), SequentialTest.chernoffHoeffdingRuns(0.05, 0.01));
+    }
+
+    @Test
+    void shouldComputeExactClopperPearsonBoundsWithoutSuccesses() {
+        double[] interval = EstimationMethod.CLOPPER_PEARSON.interval(0, 10, 0.05);
+        assertEquals(0.0, interval[0]);
+        assertEquals(1 - Math.pow(0.025, 0.1), interval[1], 1.0E-6);
+    }
+
+    @Test
+    void shouldIncludeFrequencyInIntervals() {
+        for (EstimationMethod method : EstimationMethod.values()) {
+            double[] interval = method.interval(30, 100, 0.05);
+            assertTrue(interval[0] < 0.3);
+            assertTrue(interval[1] > 0.3);
+        }
+    }
+
+    @Test
+    void shouldPerformAllRunsWithChernoffHoeffding() {
+        SequentialEstimation estimation = new SequentialEstimation(EstimationMethod.CHERNOFF_HOEFFDING, 0.05, 0.01);
+        ProbabilityEstimate estimate = run(estimation, new DefaultRandomGenerator(1), 0.02);
+        assertEquals(SequentialTest.chernoffHoeffdingRuns(0.05, 0.01), estimate.getRuns());
+        assertTrue(estimate.isConcluded());
+    }
+
+    @Test
+    void shouldStopEarlyFarFromOneHalf() {
+        for (EstimationMethod method : new EstimationMethod[] { EstimationMethod.WILSON, EstimationMethod.CLOPPER_PEARSON }) {
+            SequentialEstimation estimation = new SequentialEstimation(method, 0.05, 0.01);
+            ProbabilityEstimate estimate = run(estimation, new DefaultRandomGenerator(1), 0.001);
+            assertTrue(estimate.isConcluded());
+            assertTrue(estimate.getRuns() * 10 < SequentialTest.chernoffHoeffdingRuns(0.05, 0.01));
+            assertTrue(estimate.getUpperBound() - estimate.getProbability() <= 0.01);
+            assertTrue(estimate.getProbability() - estimate.getLowerBound() <= 0.01);
+        }
+    }
+
+    @Test
+    void shouldNotExceedChernoffHoeffdingBoundWithHalfErrorProbability() {
+        SequentialEstimation estimation = new SequentialEstimation(EstimationMethod.WILSON, 0.05, 0.01);
+        ProbabilityEstimate estimate = run(estimation, new DefaultRandomGenerator(1), 0.5);
+        assertTrue(estimate.getRuns() <= SequentialTest.chernoffHoeffdingRuns(0.025, 0.01));
+        assertEquals(0.5, estimate.getProbability(), 0.01);
+    }
+
+    @Test
+    void shouldResumeEstimationFromItsState() {
+        SequentialEstimation interrupted = new SequentialEstimation(EstimationMethod.WILSON, 0.05, 0.01);
+        SequentialEstimation uninterrupted = new SequentialEstimation(EstimationMethod.WILSON, 0.05, 0.01);
+        long runs = 0;
+        for (int i = 0; i < 5; i++) {
+            long next = interrupted.nextRuns(runs / 10, runs);
+            assertEquals(next, uninterrupted.nextRuns(runs / 10, runs));
+            runs += next;
+        }
+        SequentialEstimation resumed = new SequentialEstimation(EstimationMethod.WILSON, 0.05, 0.01);
+        resumed.restoreState(interrupted.getState());
+        long[] expected = conclude(uninterrupted, runs);
+        assertArrayEquals(expected, conclude(resumed, runs));
+        assertEquals(uninterrupted.getResult(expected[0] / 10, expected[0]).getLowerBound(),
+                resumed.getResult(expected[0] / 10, expected[0]).getLowerBound());
+        SequentialEstimation restarted = new SequentialEstimation(EstimationMethod.WILSON, 0.05, 0.01);
+        long[] restartedRuns = conclude(restarted, runs);
+        assertTrue(restarted.getResult(restartedRuns[0] / 10, restartedRuns[0]).getLowerBound()
+                > uninterrupted.getResult(expected[0] / 10, expected[0]).getLowerBound());
+        assertThrows(IllegalArgumentException.class, () -> resumed.restoreState(new long[] { 1 }));
+    }
+
+    /*
+     * Performs the checks of the given estimation, with a frequency of successes equal to 0.1, and returns the
+     * number of runs and of checks needed to conclude it.
+     */
+    private static long[] conclude(SequentialEstimation estimation, long runs) {
+        long checks = 0;
+        long next;
+        while ((next = estimation.nextRuns(runs / 10, runs)) > 0) {
+            runs += next;
+            checks++;
+        }
+        return new long[] { runs, checks };
+    }
+
+    @Test
+    void shouldDecideThresholdQueriesOutsideIndifferenceRegion() {
+        assertEquals(ThresholdTestResult.Outcome.ABOVE,
+                run(new SequentialProbabilityRatioTest(0.5, 0.05, 0.01, 0.01, 1), new DefaultRandomGenerator(1), 0.7).getOutcome());
+        assertEquals(ThresholdTestResult.Outcome.BELOW,
+                run(new SequentialProbabilityRatioTest(0.5, 0.05, 0.01, 0.01, 1), new DefaultRandomGenerator(1), 0.3).getOutcome());
+        ThresholdTestResult result = run(new SequentialProbabilityRatioTest(0.5, 0.05, 0.01, 0.01, 1), new DefaultRandomGenerator(1), 0.9);
+        assertTrue(result.getRuns() * 10 < SequentialTest.chernoffHoeffdingRuns(0.01, 0.05));
+    }
+
+    @Test
+    void shouldRejectIndifferenceRegionOutsideUnitInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new SequentialProbabilityRatioTest(0.99, 0.05, 0.01, 0.01, 1));
+    }
+
+    @Test
+    void shouldEstimateReachabilityOfPopulationModel() throws InterruptedException {
+        PopulationModel model = new PopulationModel(PopulationRegistry.createRegistry("A", "B"),
+                List.of(new ReactionRule("AtoB", new Population[] { new Population(0) }, new Population[] { new Population(1) },
+                        (t, s) -> new SibillaDouble(s.getOccupancy(0)))), new HashMap<>(), new HashMap<>());
+        SimulationEnvironment environment = new SimulationEnvironment();
+        ProbabilityEstimate estimate = environment.estimateReachability(null, new DefaultRandomGenerator(1),
+                EstimationMethod.CLOPPER_PEARSON, 0.01, 0.02, 1.0, model, rg -> new PopulationState(new int[] { 1, 0 }),
+                s -> true, s -> s.getOccupancy(1) > 0);
+        assertTrue(estimate.isConcluded());
+        assertEquals(1 - Math.exp(-1), estimate.getProbability(), 0.02);
+        ThresholdTestResult result = environment.testReachability(null, new DefaultRandomGenerator(1), 0.5, 0.05,
+                0.01, 0.01, 1.0, model, rg -> new PopulationState(new int[] { 1, 0 }), s -> true, s -> s.getOccupancy(1) > 0);
+        assertEquals(ThresholdTestResult.Outcome.ABOVE, result.getOutcome());
+        assertEquals(1 - Math.exp(-1), environment.reachability(new DefaultRandomGenerator(1), 0.05, 0.02, 1.0, model,
+                rg -> new PopulationState(new int[] { 1, 0 }), s -> true, s -> s.getOccupancy(1) > 0), 0.02);
+    }
+
+    private static ProbabilityEstimate run(SequentialEstimation estimation, RandomGenerator random, double p) {
+        long[] outcome = run((SequentialTest) estimation, random, p);
+        return estimation.getResult(outcome[0], outcome[1]);
+    }
+
+    private static ThresholdTestResult run(SequentialProbabilityRatioTest test, RandomGenerator random, double p) {
+        long[] outcome = run((SequentialTest) test, random, p);
+        return test.getResult(outcome[0], outcome[1]);
+    }
+
+    private static long[] run(SequentialTest test, RandomGenerator random, double p) {
+        long successes = 0;
+        long runs = 0;
+        long next;
+        while ((next = test.nextRuns(successes, runs)) > 0) {
+            for (long i = 0; i < next; i++) {
+                if (random.nextDouble() < p) {
+                    successes++;
+                }
+            }
+            runs += next;
+        }
+        return new long[] { successes, runs };
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedFenwickTreeTest {
+
+    private static WeightedFenwickTree<Integer> treeOf(double ... weights) {
+        WeightedFenwickTree<Integer> tree = new WeightedFenwickTree<>(2);
+        for (int i = 0; i < weights.length; i++) {
+            tree.add(weights[i], i);
+        }
+        return tree;
+    }
+
+    @Test
+    void shouldComputeTotalWeight() {
+        WeightedFenwickTree<Integer> tree = treeOf(1.0, 2.0, 3.0, 4.0, 5.0);
+        assertEquals(5, tree.size());
+        assertEquals(15.0, tree.getTotalWeight(), 1E-10);
+        assertEquals(6.0, tree.prefixWeight(3), 1E-10);
+    }
+
+    @Test
+    void shouldSelectLikeWeightedLinkedList() {
+        double[] weights = new double[100];
+        WeightedLinkedList<Integer> list = new WeightedLinkedList<>();
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (i % 3 == 0 ? 0.0 : i + 0.5);
+            list.add(weights[i], i);
+        }
+        WeightedFenwickTree<Integer> tree = treeOf(weights);
+        assertEquals(list.getTotalWeight(), tree.getTotalWeight(), 1E-8);
+        for (double w = 0.25; w < list.getTotalWeight(); w += 0.5) {
+            assertEquals(list.select(w).getElement(), tree.select(w).getElement());
+        }
+        assertNull(tree.select(tree.getTotalWeight() + 1.0));
+    }
+
+    @Test
+    void shouldUpdateWeightsInPlace() {
+        WeightedFenwickTree<Integer> tree = treeOf(1.0, 1.0, 1.0, 1.0);
+        tree.setWeight(1, 0.0);
+        tree.setWeight(3, 5.0);
+        assertEquals(7.0, tree.getTotalWeight(), 1E-10);
+        assertEquals(0, tree.selectIndex(0.5));
+        assertEquals(2, tree.selectIndex(1.5));
+        assertEquals(3, tree.selectIndex(2.5));
+        assertEquals(5.0, tree.getWeight(3));
+    }
+
+    @Test
+    void shouldRebuildPartialSumsFromWeights() {
+        WeightedFenwickTree<Integer> tree = treeOf(0.1, 0.2, 0.3, 0.4, 0.5);
+        for (int i = 0; i < 1000; i++) {
+            tree.setWeight(i % 5, 0.1 * (i % 7));
+        }
+        for (int i = 0; i < 5; i++) {
+            tree.setWeight(i, 0.0);
+        }
+        tree.setWeight(2, 1.0);
+        tree.rebuild();
+        assertEquals(1.0, tree.getTotalWeight());
+        assertEquals(0.0, tree.prefixWeight(2));
+        assertEquals(2, tree.selectIndex(Double.MIN_VALUE));
+        assertEquals(2, tree.selectIndex(1.0));
+        assertEquals(-1, tree.selectIndex(1.5));
+    }
+
+    @Test
+    void shouldBeReusableAfterClear() {
+        WeightedFenwickTree<Integer> tree = treeOf(1.0, 2.0, 3.0);
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertEquals(0.0, tree.getTotalWeight());
+        assertEquals(-1, tree.selectIndex(0.5));
+        tree.add(2.0, 7);
+        assertEquals(7, tree.select(1.0).getElement());
+    }
+
+}
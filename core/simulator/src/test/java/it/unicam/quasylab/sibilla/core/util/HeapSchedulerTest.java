@@ -0,0 +1,129 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.util;
+
+import it.unicam.quasylab.sibilla.core.util.datastructures.HeapScheduler;
+import it.unicam.quasylab.sibilla.core.util.datastructures.MapScheduler;
+import it.unicam.quasylab.sibilla.core.util.datastructures.Pair;
+import it.unicam.quasylab.sibilla.core.util.datastructures.ScheduledElements;
+import it.unicam.quasylab.sibilla.core.util.datastructures.Scheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapSchedulerTest {
+
+    @Test
+    void shouldScheduleElementsInTimeOrder() {
+        Random random = new Random(1);
+        HeapScheduler<Integer> scheduler = new HeapScheduler<>();
+        TreeMap<Double, List<Integer>> expected = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            double time = random.nextInt(100);
+            scheduler.schedule(i, time);
+            if (i % 3 == 0) {
+                scheduler.unscheduled(time, i);
+            } else {
+                expected.computeIfAbsent(time, t -> new ArrayList<>()).add(i);
+            }
+        }
+        List<Pair<Double, List<Integer>>> result = drain(scheduler);
+        assertEquals(expected.size(), result.size());
+        for (Pair<Double, List<Integer>> p : result) {
+            assertEquals(expected.pollFirstEntry(), Map.entry(p.getKey(), p.getValue()));
+        }
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    void shouldIgnoreElementsThatAreNotScheduled() {
+        HeapScheduler<Integer> scheduler = new HeapScheduler<Integer>().schedule(1, 1.0).schedule(2, 2.0);
+        scheduler.unscheduled(2.0, 1).unscheduled(3.0, 3);
+        assertEquals(2, scheduler.size());
+        assertEquals(1.0, scheduler.getNextTime());
+        assertEquals(2.0, scheduler.getLastTime());
+        scheduler.unscheduled(1.0, 1);
+        assertEquals(2.0, scheduler.getNextTime());
+    }
+
+    @Test
+    void shouldGroupElementsScheduledAtTheSameTime() {
+        HeapScheduler<Integer> scheduler = new HeapScheduler<Integer>().schedule(3, 1.0).schedule(1, 1.0).schedule(2, 0.5);
+        Optional<Pair<ScheduledElements<Integer>, Scheduler<Integer>>> next = scheduler.scheduleNext();
+        assertTrue(next.isPresent());
+        assertEquals(List.of(2), elements(next.get().getKey()));
+        next = scheduler.scheduleNext();
+        assertTrue(next.isPresent());
+        assertEquals(1.0, next.get().getKey().getTime());
+        assertEquals(List.of(1, 3), elements(next.get().getKey()));
+        assertTrue(scheduler.scheduleNext().isEmpty());
+    }
+
+    @Test
+    void shouldNotAffectSnapshots() {
+        HeapScheduler<Integer> scheduler = new HeapScheduler<>();
+        for (int i = 0; i < 100; i++) {
+            scheduler.schedule(i, i);
+        }
+        Scheduler<Integer> snapshot = scheduler.snapshot();
+        scheduler.unscheduled(0.0, 0).scheduleNext();
+        scheduler.schedule(100, 0.0);
+        assertEquals(0.0, snapshot.getNextTime());
+        List<Pair<Double, List<Integer>>> elements = drain(snapshot);
+        assertEquals(100, elements.size());
+        assertEquals(List.of(0), elements.get(0).getValue());
+        assertEquals(99, scheduler.size());
+        assertEquals(drain(HeapScheduler.copyOf(new MapScheduler<Integer>().schedule(1, 2.0).schedule(0, 2.0))),
+                List.of(Pair.of(2.0, List.of(0, 1))));
+    }
+
+    private static List<Pair<Double, List<Integer>>> drain(Scheduler<Integer> scheduler) {
+        List<Pair<Double, List<Integer>>> result = new ArrayList<>();
+        Optional<Pair<ScheduledElements<Integer>, Scheduler<Integer>>> next = scheduler.scheduleNext();
+        while (next.isPresent()) {
+            List<Integer> elements = elements(next.get().getKey());
+            if (!elements.isEmpty()) {
+                result.add(Pair.of(next.get().getKey().getTime(), elements));
+            }
+            next = next.get().getValue().scheduleNext();
+        }
+        return result;
+    }
+
+    private static List<Integer> elements(ScheduledElements<Integer> scheduledElements) {
+        List<Integer> result = new ArrayList<>();
+        scheduledElements.getScheduledElements().forEach(result::add);
+        Collections.sort(result);
+        return result;
+    }
+
+}
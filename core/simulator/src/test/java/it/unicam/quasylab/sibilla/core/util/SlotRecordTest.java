@@ -0,0 +1,185 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.util;
+
+import it.unicam.quasylab.sibilla.core.util.datastructures.SlotRecord;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaBoolean;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaInteger;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaRecord;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotRecordTest {
+
+    private final SlotRecord<Integer> empty = new SlotRecord<>(i -> i);
+
+    @Test
+    void shouldPreserveTheKindOfValues() {
+        SibillaValue record = new SibillaRecord(Map.of("a", SibillaValue.of(1.0)));
+        SlotRecord<Integer> slots = empty.set(0, SibillaValue.of(2.5)).set(3, SibillaValue.of(7)).set(5, SibillaValue.of(true)).set(1, record);
+        assertEquals(SibillaValue.of(2.5), slots.getOrDefault(0, null));
+        assertEquals(new SibillaInteger(7), slots.getOrDefault(3, null));
+        assertSame(SibillaBoolean.TRUE, slots.getOrDefault(5, null));
+        assertSame(record, slots.getOrDefault(1, null));
+        assertNull(slots.getOrDefault(2, null));
+        assertNull(slots.getOrDefault(10, null));
+        assertEquals(7.0, slots.getDouble(3, Double.NaN));
+        assertTrue(Double.isNaN(slots.getDouble(2, Double.NaN)));
+        assertEquals(4, slots.size());
+    }
+
+    @Test
+    void shouldLeaveTheOriginalRecordUnchanged() {
+        SlotRecord<Integer> first = empty.set(1, SibillaValue.of(1.0));
+        SlotRecord<Integer> second = first.set(1, SibillaValue.of(2.0)).set(4, SibillaValue.of(3.0));
+        assertEquals(1.0, first.getDouble(1, Double.NaN));
+        assertFalse(first.isDefined(4));
+        assertEquals(2.0, second.getDouble(1, Double.NaN));
+        assertSame(second, second.set(4, SibillaValue.of(3.0)));
+        assertSame(second, second.setAll(Map.of(1, SibillaValue.of(2.0))));
+        SlotRecord<Integer> third = second.remove(1);
+        assertFalse(third.isDefined(1));
+        assertTrue(second.isDefined(1));
+        assertEquals(1, third.size());
+    }
+
+    @Test
+    void shouldIterateInSlotOrder() {
+        SlotRecord<Integer> slots = SlotRecord.of(i -> i, Map.of(4, SibillaValue.of(4), 0, SibillaValue.of(0), 2, SibillaValue.of(2)));
+        List<Integer> keys = new ArrayList<>();
+        slots.forEach((k, v) -> {
+            keys.add(k);
+            assertEquals(k, v.intOf());
+        });
+        assertEquals(List.of(0, 2, 4), keys);
+        SlotRecord<Integer> doubled = slots.apply((k, v) -> SibillaValue.of(2 * v.intOf()));
+        assertEquals(new SibillaInteger(8), doubled.getOrDefault(4, null));
+        assertEquals("[0=0, 2=2, 4=4]", slots.toString());
+    }
+
+    @Test
+    void shouldReturnTheStoredValues() {
+        SibillaValue value = new SibillaRecord(Map.of("a", SibillaValue.of(1.0)));
+        SlotRecord<Integer> slots = empty.set(2, value).set(7, SibillaValue.of(3));
+        assertSame(value, slots.getOrDefault(2, null));
+        assertSame(value, slots.set(7, SibillaValue.of(4)).getOrDefault(2, null));
+        assertEquals(new SibillaInteger(4), slots.set(2, SibillaValue.of(4)).getOrDefault(2, null));
+        assertSame(value, slots.set(2, SibillaValue.of(4)).set(2, value).getOrDefault(2, null));
+        assertSame(slots, slots.set(2, value).set(7, SibillaValue.of(3)));
+        assertEquals(-0.0, empty.set(0, SibillaValue.of(0.0)).set(0, SibillaValue.of(-0.0)).getDouble(0, Double.NaN));
+    }
+
+    @Test
+    void shouldOnlyHoldTheSlotsOfItsKeys() {
+        SlotRecord<Integer> slots = empty.set(1_000_000, SibillaValue.of(1)).set(3, SibillaValue.of(2));
+        assertEquals(2, slots.size());
+        assertEquals(1.0, slots.getDouble(1_000_000, Double.NaN));
+        assertFalse(slots.isDefined(999_999));
+        assertFalse(slots.isDefined(2_000_000));
+        assertEquals("[3=2, 1000000=1]", slots.toString());
+    }
+
+    @Test
+    void recordsWithTheSameKeysShouldAgreeOnTheirSlots() {
+        SlotRecord<Integer> first = empty.set(5, SibillaValue.of(5)).set(1, SibillaValue.of(1));
+        SlotRecord<Integer> second = empty.set(1, SibillaValue.of(1)).set(5, SibillaValue.of(5));
+        SlotRecord<Integer> third = empty.setAll(Map.of(5, SibillaValue.of(5), 1, SibillaValue.of(1)));
+        for (SlotRecord<Integer> slots : List.of(first, second, third)) {
+            assertEquals("[1=1, 5=5]", slots.toString());
+            assertEquals(5.0, slots.set(1, SibillaValue.of(0)).getDouble(5, Double.NaN));
+        }
+    }
+
+    @Test
+    void shouldKeepTheKeysThatHaveBeenStored() {
+        Key first = new Key(0, "first");
+        Key other = new Key(0, "other");
+        SlotRecord<Key> record = new SlotRecord<Key>(k -> k.index).set(first, SibillaValue.of(1));
+        SlotRecord<Key> otherRecord = new SlotRecord<Key>(k -> k.index).set(other, SibillaValue.of(1));
+        List<String> names = new ArrayList<>();
+        record.set(other, SibillaValue.of(2)).forEach((k, v) -> names.add(k.name));
+        otherRecord.forEach((k, v) -> names.add(k.name));
+        assertEquals(List.of("first", "other"), names);
+    }
+
+    @Test
+    void nullValuesShouldRemoveKeys() {
+        SlotRecord<Integer> slots = empty.setAll(Map.of(0, SibillaValue.of(0), 1, SibillaValue.of(1)));
+        Map<Integer, SibillaValue> updates = new HashMap<>();
+        updates.put(0, null);
+        updates.put(2, null);
+        updates.put(3, SibillaValue.of(3));
+        SlotRecord<Integer> updated = slots.setAll(updates);
+        assertEquals("[1=1, 3=3]", updated.toString());
+        assertEquals(2, updated.size());
+        assertSame(updated, updated.set(2, null));
+        assertEquals(1, updated.set(1, null).size());
+        assertEquals(1, slots.apply((k, v) -> (k == 0 ? null : v)).size());
+    }
+
+    @Test
+    void layoutsShouldNotRetainTheirKeys() throws InterruptedException {
+        SlotRecord<Key> record = new SlotRecord<Key>(k -> k.index).set(new Key(0, "first"), SibillaValue.of(1));
+        Key key = new Key(1, "second");
+        WeakReference<Key> reference = new WeakReference<>(key);
+        assertEquals(2, record.set(key, SibillaValue.of(2)).size());
+        key = null;
+        for (int i = 0; (i < 100) && (reference.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        assertEquals(1, record.size());
+    }
+
+    private static final class Key {
+
+        private final int index;
+        private final String name;
+
+        private Key(int index, String name) {
+            this.index = index;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof Key) && (((Key) o).index == index);
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+    }
+
+}
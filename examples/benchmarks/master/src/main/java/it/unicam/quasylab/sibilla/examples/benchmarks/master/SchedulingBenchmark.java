@@ -0,0 +1,40 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.examples.benchmarks.master;
+
+import it.unicam.quasylab.sibilla.core.network.benchmark.scheduling.SchedulingBenchmarkEnvironment;
+
+public class SchedulingBenchmark {
+
+    public static void main(String[] args) {
+        // tasks per second of each stand-in slave: two fast, one average and two slow slaves
+        double[] throughputs = new double[]{400, 400, 200, 100, 25};
+
+        SchedulingBenchmarkEnvironment env = new SchedulingBenchmarkEnvironment("heterogeneous", throughputs,
+                2000000L, 5000, 10);
+
+        env.run();
+    }
+
+}
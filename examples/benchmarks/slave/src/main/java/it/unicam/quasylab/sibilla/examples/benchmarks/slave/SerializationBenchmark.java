@@ -6,7 +6,10 @@ import it.unicam.quasylab.sibilla.core.models.pm.PopulationModel;
 import it.unicam.quasylab.sibilla.core.models.pm.PopulationModelDefinition;
 import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
 import it.unicam.quasylab.sibilla.core.network.ComputationResult;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodec;
+import it.unicam.quasylab.sibilla.core.network.compression.CompressionCodecType;
 import it.unicam.quasylab.sibilla.core.network.compression.Compressor;
+import it.unicam.quasylab.sibilla.core.network.serialization.ColumnarComputationResultSerializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
@@ -18,6 +21,7 @@ import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
 import it.unicam.quasylab.sibilla.examples.pm.crowds.ChordModel;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -54,8 +58,11 @@ public class SerializationBenchmark {
         byte[] apacheBytesCompressed = Compressor.compress(apacheBytes);
         byte[] fstBytes = Serializer.getSerializer(SerializerType.FST).serialize(result);
         byte[] fstBytesCompressed = Compressor.compress(fstBytes);
+        ByteBuffer columnarBuffer = ColumnarComputationResultSerializer.serialize(result, model);
+        int columnarBytes = columnarBuffer.remaining();
+        byte[] columnarBytesCompressed = CompressionCodec.getCodec(CompressionCodecType.DEFLATE).compress(columnarBuffer);
 
-        System.out.printf("\nCustom bytes: %d\nApache bytes: %d\nFst bytes: %d", customBytes.length, apacheBytes.length, fstBytes.length);
-        System.out.printf("\nCustom bytes compressed: %d\nApache bytes compressed: %d\nFst bytes compressed: %d", customBytesCompressed.length, apacheBytesCompressed.length, fstBytesCompressed.length);
+        System.out.printf("\nCustom bytes: %d\nApache bytes: %d\nFst bytes: %d\nColumnar bytes: %d", customBytes.length, apacheBytes.length, fstBytes.length, columnarBytes);
+        System.out.printf("\nCustom bytes compressed: %d\nApache bytes compressed: %d\nFst bytes compressed: %d\nColumnar bytes compressed: %d", customBytesCompressed.length, apacheBytesCompressed.length, fstBytesCompressed.length, columnarBytesCompressed.length);
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationDependencies;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * This visitor is used to collect the species that are read while evaluating a rate or a guard expression.
+ */
+public class PopulationDependenciesCollector extends PopulationModelBaseVisitor<PopulationDependencies> {
+
+    private final Function<String, Optional<SibillaValue>> resolver;
+    private final PopulationRegistry registry;
+
+    public PopulationDependenciesCollector(Function<String, Optional<SibillaValue>> resolver, PopulationRegistry registry) {
+        this.resolver = resolver;
+        this.registry = registry;
+    }
+
+    @Override
+    protected PopulationDependencies defaultResult() {
+        return PopulationDependencies.NONE;
+    }
+
+    @Override
+    protected PopulationDependencies aggregateResult(PopulationDependencies aggregate, PopulationDependencies nextResult) {
+        return aggregate.combine(nextResult);
+    }
+
+    @Override
+    public PopulationDependencies visitPopulationFractionExpression(PopulationModelParser.PopulationFractionExpressionContext ctx) {
+        return PopulationDependencies.fractionOf(PopulationModelGenerator.getIndexes(resolver, registry, ctx.agent));
+    }
+
+    @Override
+    public PopulationDependencies visitPopulationSizeExpression(PopulationModelParser.PopulationSizeExpressionContext ctx) {
+        return PopulationDependencies.of(PopulationModelGenerator.getIndexes(resolver, registry, ctx.agent));
+    }
+
+}
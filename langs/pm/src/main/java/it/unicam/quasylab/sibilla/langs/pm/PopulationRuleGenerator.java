@@ -24,6 +24,7 @@
 package it.unicam.quasylab.sibilla.langs.pm;
 
 import it.unicam.quasylab.sibilla.core.models.EvaluationEnvironment;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationDependencies;
 import it.unicam.quasylab.sibilla.core.models.pm.PopulationRule;
 import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
 import it.unicam.quasylab.sibilla.core.models.pm.RatePopulationFunction;
@@ -73,18 +74,23 @@ public class PopulationRuleGenerator extends PopulationModelBaseVisitor<List<Pop
     }
 
     public PopulationRule getRule(String name, Function<String,Optional<SibillaValue>> evaluator, Map<String,SibillaValue> map, PopulationModelParser.Rule_bodyContext body) {
-        RateExpressionEvaluator expressionEvaluator =  new RateExpressionEvaluator(PopulationModelGenerator.combine(evaluator,map), registry);
+        Function<String, Optional<SibillaValue>> resolver = PopulationModelGenerator.combine(evaluator,map);
+        RateExpressionEvaluator expressionEvaluator =  new RateExpressionEvaluator(resolver, registry);
+        PopulationDependenciesCollector dependenciesCollector = new PopulationDependenciesCollector(resolver, registry);
         RatePopulationFunction biPredicate = (body.guard==null?null:body.guard.accept(expressionEvaluator));
         Predicate<PopulationState> predicate = null;
+        PopulationDependencies dependencies = body.rate.accept(dependenciesCollector);
         if (biPredicate != null) {
             predicate = s -> biPredicate.apply(0.0,s).booleanOf();
+            dependencies = dependencies.combine(body.guard.accept(dependenciesCollector));
         }
         return new ReactionRule(
                 name+(map.isEmpty()?"":map.toString()),
                 predicate,
                 PopulationModelGenerator.getPopulationArray(registry, evaluator, map, body.pre.species_pattern_element()),
                 PopulationModelGenerator.getPopulationArray(registry, evaluator, map, body.post.species_pattern_element()),
-                body.rate.accept(expressionEvaluator)
+                body.rate.accept(expressionEvaluator),
+                dependencies
         );
     }
 
@@ -0,0 +1,133 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.slam;
+
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * This visitor is used to check if an aggregate over agents can be registered in the agent definitions, so that it
+ * is evaluated once for each state instead of once for each perceiving agent. This is the case when the aggregated
+ * expression does not contain random or nested agent expressions and the guards of the agent pattern only refer to
+ * the attributes of the selected agent.
+ */
+public class AggregateRegistrationChecker extends SlamModelBaseVisitor<Boolean> {
+
+    private final Function<String, Optional<SibillaValue>> globalAssignments;
+
+    private boolean inPattern = false;
+
+    public AggregateRegistrationChecker(Function<String, Optional<SibillaValue>> globalAssignments) {
+        this.globalAssignments = globalAssignments;
+    }
+
+    /**
+     * Returns true if the aggregate of the given expression over the agents matching the given pattern can be
+     * registered.
+     *
+     * @param expr the aggregated expression, or null if only agents are counted.
+     * @param pattern the agent pattern.
+     * @return true if the aggregate can be registered.
+     */
+    public boolean isRegistrable(SlamModelParser.ExprContext expr, SlamModelParser.AgentPatternContext pattern) {
+        inPattern = false;
+        if ((expr != null) && expr.accept(this)) {
+            return false;
+        }
+        inPattern = true;
+        return !pattern.accept(this);
+    }
+
+    @Override
+    protected Boolean defaultResult() {
+        return false;
+    }
+
+    @Override
+    protected Boolean aggregateResult(Boolean aggregate, Boolean nextResult) {
+        return aggregate || nextResult;
+    }
+
+    @Override
+    public Boolean visitExpressionReference(SlamModelParser.ExpressionReferenceContext ctx) {
+        return inPattern && globalAssignments.apply(ctx.reference.getText()).isEmpty();
+    }
+
+    @Override
+    public Boolean visitExpressionNow(SlamModelParser.ExpressionNowContext ctx) {
+        return inPattern;
+    }
+
+    @Override
+    public Boolean visitExpressionSamplingNormal(SlamModelParser.ExpressionSamplingNormalContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionSamplingUniform(SlamModelParser.ExpressionSamplingUniformContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionRandomValue(SlamModelParser.ExpressionRandomValueContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionMinAgents(SlamModelParser.ExpressionMinAgentsContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionMaxAgents(SlamModelParser.ExpressionMaxAgentsContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionMeanAgents(SlamModelParser.ExpressionMeanAgentsContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionSumAgents(SlamModelParser.ExpressionSumAgentsContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionCountAgents(SlamModelParser.ExpressionCountAgentsContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionExistsAgent(SlamModelParser.ExpressionExistsAgentContext ctx) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionForAllAgents(SlamModelParser.ExpressionForAllAgentsContext ctx) {
+        return true;
+    }
+}
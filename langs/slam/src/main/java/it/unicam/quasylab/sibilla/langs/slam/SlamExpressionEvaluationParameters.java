@@ -23,6 +23,7 @@
 
 package it.unicam.quasylab.sibilla.langs.slam;
 
+import it.unicam.quasylab.sibilla.core.models.slam.SlamAggregate;
 import it.unicam.quasylab.sibilla.core.models.slam.StateExpressionEvaluator;
 import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
 import it.unicam.quasylab.sibilla.core.models.slam.data.AgentStore;
@@ -121,8 +122,8 @@ public class SlamExpressionEvaluationParameters {
     }
 
     public SibillaValue getFromPatternElement(AgentVariable var) {
-        if (agentStore != null) {
-            return agentStore.getValue(var);
+        if (patternStore != null) {
+            return patternStore.getValue(var);
         }
         return SibillaValue.ERROR_VALUE;
     }
@@ -152,21 +153,32 @@ public class SlamExpressionEvaluationParameters {
         if (evaluator == null) {
             return SibillaValue.ERROR_VALUE;
         }
-        return SibillaValue.of(evaluator.getMinOf(a -> evalAgentPatternExpression(patternStore, a, exp), a -> guard.test(agentStore, a)));
+        return SibillaValue.of(evaluator.getMinOf(a -> evalAggregatedExpression(a, exp), a -> guard.test(agentStore, a)));
     }
 
     public SibillaValue getMinOf(Function<SlamExpressionEvaluationParameters, SibillaValue> exp) {
         if (evaluator == null) {
             return SibillaValue.ERROR_VALUE;
         }
-        return SibillaValue.of(evaluator.getMinOf(a -> evalAgentPatternExpression(agentStore, a, exp)));
+        return SibillaValue.of(evaluator.getMinOf(a -> evalAggregatedExpression(a, exp)));
     }
 
     public SibillaValue getMaxOf(Function<SlamExpressionEvaluationParameters, SibillaValue> exp, BiPredicate<AgentStore, SlamAgent> guard) {
         if (evaluator == null) {
             return SibillaValue.ERROR_VALUE;
         }
-        return SibillaValue.of(evaluator.getMaxOf(a -> evalAgentPatternExpression(agentStore, a, exp), a -> guard.test(agentStore, a)));
+        return SibillaValue.of(evaluator.getMaxOf(a -> evalAggregatedExpression(a, exp), a -> guard.test(agentStore, a)));
+    }
+
+    /**
+     * Evaluates an expression occurring in an aggregate on the store of an aggregated agent.
+     *
+     * @param store the store of the aggregated agent.
+     * @param exp the expression to evaluate.
+     * @return the value of the expression evaluated on the store of the aggregated agent.
+     */
+    public static double evalAggregatedExpression(AgentStore store, Function<SlamExpressionEvaluationParameters, SibillaValue> exp) {
+        return evalAgentExpression(null, store, exp).doubleOf();
     }
 
     public static double evalAgentPatternExpression(AgentStore agentStore, AgentStore patternStore, Function<SlamExpressionEvaluationParameters, SibillaValue> exp) {
@@ -177,35 +189,35 @@ public class SlamExpressionEvaluationParameters {
         if (evaluator == null) {
             return SibillaValue.ERROR_VALUE;
         }
-        return SibillaValue.of(evaluator.getMaxOf(a -> evalAgentPatternExpression(agentStore, a, exp)));
+        return SibillaValue.of(evaluator.getMaxOf(a -> evalAggregatedExpression(a, exp)));
     }
 
     public SibillaValue getSumOf(Function<SlamExpressionEvaluationParameters, SibillaValue> exp, BiPredicate<AgentStore, SlamAgent> guard) {
         if (evaluator == null) {
             return SibillaValue.ERROR_VALUE;
         }
-        return SibillaValue.of(evaluator.getSumOf(a -> evalAgentPatternExpression(agentStore, a, exp), a -> guard.test(agentStore, a)));
+        return SibillaValue.of(evaluator.getSumOf(a -> evalAggregatedExpression(a, exp), a -> guard.test(agentStore, a)));
     }
 
     public SibillaValue getSumOf(Function<SlamExpressionEvaluationParameters, SibillaValue> exp) {
         if (evaluator == null) {
             return SibillaValue.ERROR_VALUE;
         }
-        return SibillaValue.of(evaluator.getSumOf(a -> evalAgentPatternExpression(agentStore, a, exp)));
+        return SibillaValue.of(evaluator.getSumOf(a -> evalAggregatedExpression(a, exp)));
     }
 
     public SibillaValue getMeanOf(Function<SlamExpressionEvaluationParameters, SibillaValue> exp, BiPredicate<AgentStore, SlamAgent> guard) {
         if (evaluator == null) {
             return SibillaValue.ERROR_VALUE;
         }
-        return SibillaValue.of(evaluator.getMeanOf(a -> evalAgentPatternExpression(agentStore, a, exp), a -> guard.test(agentStore, a)));
+        return SibillaValue.of(evaluator.getMeanOf(a -> evalAggregatedExpression(a, exp), a -> guard.test(agentStore, a)));
     }
 
     public SibillaValue getMeanOf(Function<SlamExpressionEvaluationParameters, SibillaValue> exp) {
         if (evaluator == null) {
             return SibillaValue.ERROR_VALUE;
         }
-        return SibillaValue.of(evaluator.getMeanOf(a -> evalAgentPatternExpression(agentStore, a, exp)));
+        return SibillaValue.of(evaluator.getMeanOf(a -> evalAggregatedExpression(a, exp)));
     }
 
 
@@ -216,6 +228,55 @@ public class SlamExpressionEvaluationParameters {
         return SibillaValue.of(evaluator.count(a -> guard.test(agentStore, a)));
     }
 
+    public SibillaValue getMinOf(SlamAggregate aggregate) {
+        if (evaluator == null) {
+            return SibillaValue.ERROR_VALUE;
+        }
+        return SibillaValue.of(evaluator.getMinOf(aggregate));
+    }
+
+    public SibillaValue getMaxOf(SlamAggregate aggregate) {
+        if (evaluator == null) {
+            return SibillaValue.ERROR_VALUE;
+        }
+        return SibillaValue.of(evaluator.getMaxOf(aggregate));
+    }
+
+    public SibillaValue getSumOf(SlamAggregate aggregate) {
+        if (evaluator == null) {
+            return SibillaValue.ERROR_VALUE;
+        }
+        return SibillaValue.of(evaluator.getSumOf(aggregate));
+    }
+
+    public SibillaValue getMeanOf(SlamAggregate aggregate) {
+        if (evaluator == null) {
+            return SibillaValue.ERROR_VALUE;
+        }
+        return SibillaValue.of(evaluator.getMeanOf(aggregate));
+    }
+
+    public SibillaValue count(SlamAggregate aggregate) {
+        if (evaluator == null) {
+            return SibillaValue.ERROR_VALUE;
+        }
+        return SibillaValue.of(evaluator.count(aggregate));
+    }
+
+    public SibillaValue forAll(SlamAggregate aggregate) {
+        if (evaluator == null) {
+            return SibillaValue.ERROR_VALUE;
+        }
+        return SibillaValue.of(evaluator.forAll(aggregate));
+    }
+
+    public SibillaValue exists(SlamAggregate aggregate) {
+        if (evaluator == null) {
+            return SibillaValue.ERROR_VALUE;
+        }
+        return SibillaValue.of(evaluator.exists(aggregate));
+    }
+
     public SibillaValue now() {
         if (agentStore == null) {
             return SibillaValue.ERROR_VALUE;
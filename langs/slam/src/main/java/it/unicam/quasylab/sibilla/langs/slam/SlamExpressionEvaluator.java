@@ -23,6 +23,7 @@
 
 package it.unicam.quasylab.sibilla.langs.slam;
 
+import it.unicam.quasylab.sibilla.core.models.slam.SlamAggregate;
 import it.unicam.quasylab.sibilla.core.models.slam.SlamInternalRuntimeException;
 import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
 import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgentDefinitions;
@@ -95,6 +96,10 @@ public class SlamExpressionEvaluator extends SlamModelBaseVisitor<Function<SlamE
         if (context.agentExpressionAllowed()) {
             Function<SlamExpressionEvaluationParameters, SibillaValue> expr = ctx.expr().accept(this);
             BiPredicate<AgentStore, SlamAgent> filter = ctx.agentPattern().accept(new AgentPatternGenerator(globalAssignments, registry, agentDefinitions));
+            if (isRegistrable(ctx.expr(), ctx.agentPattern())) {
+                SlamAggregate aggregate = registerAggregate(expr, filter);
+                return arg -> arg.getMaxOf(aggregate);
+            }
             return arg -> arg.getMaxOf(expr, filter);
         }
         throw new SlamInternalRuntimeException(ParseUtil.illegalAgentExpressionMessage(ctx.start));
@@ -123,6 +128,10 @@ public class SlamExpressionEvaluator extends SlamModelBaseVisitor<Function<SlamE
     public Function<SlamExpressionEvaluationParameters,SibillaValue> visitExpressionForAllAgents(SlamModelParser.ExpressionForAllAgentsContext ctx) {
         if (context.agentExpressionAllowed()) {
             BiPredicate<AgentStore, SlamAgent> predicate = ctx.agentPattern().accept(new AgentPatternGenerator(globalAssignments, registry, agentDefinitions));
+            if (isRegistrable(null, ctx.agentPattern())) {
+                SlamAggregate aggregate = registerAggregate(arg -> SibillaValue.of(1.0), predicate);
+                return arg -> arg.forAll(aggregate);
+            }
             return arg -> arg.forAll(predicate);
         }
         throw new SlamInternalRuntimeException(ParseUtil.illegalAgentExpressionMessage(ctx.start));
@@ -212,6 +221,10 @@ public class SlamExpressionEvaluator extends SlamModelBaseVisitor<Function<SlamE
         if (context.agentExpressionAllowed()) {
             Function<SlamExpressionEvaluationParameters, SibillaValue> expr = ctx.expr().accept(this);
             BiPredicate<AgentStore, SlamAgent> filter = ctx.agentPattern().accept(new AgentPatternGenerator(globalAssignments, registry, agentDefinitions));
+            if (isRegistrable(ctx.expr(), ctx.agentPattern())) {
+                SlamAggregate aggregate = registerAggregate(expr, filter);
+                return arg -> arg.getMeanOf(aggregate);
+            }
             return arg -> arg.getMeanOf(expr, filter);
         }
         throw new SlamInternalRuntimeException(ParseUtil.illegalAgentExpressionMessage(ctx.start));
@@ -227,6 +240,10 @@ public class SlamExpressionEvaluator extends SlamModelBaseVisitor<Function<SlamE
     public Function<SlamExpressionEvaluationParameters,SibillaValue> visitExpressionExistsAgent(SlamModelParser.ExpressionExistsAgentContext ctx) {
         if (context.agentExpressionAllowed()) {
             BiPredicate<AgentStore, SlamAgent> predicate = ctx.agentPattern().accept(new AgentPatternGenerator(globalAssignments, registry, agentDefinitions));
+            if (isRegistrable(null, ctx.agentPattern())) {
+                SlamAggregate aggregate = registerAggregate(arg -> SibillaValue.of(1.0), predicate);
+                return arg -> arg.exists(aggregate);
+            }
             return arg -> arg.exists(predicate);
         }
         throw new SlamInternalRuntimeException(ParseUtil.illegalAgentExpressionMessage(ctx.start));
@@ -242,6 +259,10 @@ public class SlamExpressionEvaluator extends SlamModelBaseVisitor<Function<SlamE
         if (context.agentExpressionAllowed()) {
             Function<SlamExpressionEvaluationParameters, SibillaValue> expr = ctx.expr().accept(this);
             BiPredicate<AgentStore, SlamAgent> filter = ctx.agentPattern().accept(new AgentPatternGenerator(globalAssignments, registry, agentDefinitions));
+            if (isRegistrable(ctx.expr(), ctx.agentPattern())) {
+                SlamAggregate aggregate = registerAggregate(expr, filter);
+                return arg -> arg.getMinOf(aggregate);
+            }
             return arg -> arg.getMinOf(expr, filter);
         }
         throw new SlamInternalRuntimeException(ParseUtil.illegalAgentExpressionMessage(ctx.start));
@@ -296,6 +317,10 @@ public class SlamExpressionEvaluator extends SlamModelBaseVisitor<Function<SlamE
     public Function<SlamExpressionEvaluationParameters, SibillaValue> visitExpressionCountAgents(SlamModelParser.ExpressionCountAgentsContext ctx) {
         if (context.agentExpressionAllowed()) {
             BiPredicate<AgentStore, SlamAgent> filter = ctx.agentPattern().accept(new AgentPatternGenerator(globalAssignments, registry, agentDefinitions));
+            if (isRegistrable(null, ctx.agentPattern())) {
+                SlamAggregate aggregate = registerAggregate(arg -> SibillaValue.of(1.0), filter);
+                return arg -> arg.count(aggregate);
+            }
             return arg -> arg.count(filter);
         }
         throw new SlamInternalRuntimeException(ParseUtil.illegalAgentExpressionMessage(ctx.start));
@@ -316,6 +341,10 @@ public class SlamExpressionEvaluator extends SlamModelBaseVisitor<Function<SlamE
         if (context.agentExpressionAllowed()) {
             Function<SlamExpressionEvaluationParameters, SibillaValue> expr = ctx.expr().accept(this);
             BiPredicate<AgentStore, SlamAgent> filter = ctx.agentPattern().accept(new AgentPatternGenerator(globalAssignments, registry, agentDefinitions));
+            if (isRegistrable(ctx.expr(), ctx.agentPattern())) {
+                SlamAggregate aggregate = registerAggregate(expr, filter);
+                return arg -> arg.getSumOf(aggregate);
+            }
             return arg -> arg.getSumOf(expr, filter);
         }
         throw new SlamInternalRuntimeException(ParseUtil.illegalAgentExpressionMessage(ctx.start));
@@ -390,4 +419,14 @@ public class SlamExpressionEvaluator extends SlamModelBaseVisitor<Function<SlamE
         }
         throw new SlamInternalRuntimeException(ParseUtil.illegalUseOfTimedExpressionMessage(ctx.start));
     }
+
+    private boolean isRegistrable(SlamModelParser.ExprContext expr, SlamModelParser.AgentPatternContext pattern) {
+        return new AggregateRegistrationChecker(globalAssignments).isRegistrable(expr, pattern);
+    }
+
+    private SlamAggregate registerAggregate(Function<SlamExpressionEvaluationParameters, SibillaValue> expr, BiPredicate<AgentStore, SlamAgent> filter) {
+        return agentDefinitions.registerAggregate(
+                store -> SlamExpressionEvaluationParameters.evalAggregatedExpression(store, expr),
+                agent -> filter.test(null, agent));
+    }
 }
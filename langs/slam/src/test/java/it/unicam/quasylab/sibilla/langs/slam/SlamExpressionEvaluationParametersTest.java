@@ -0,0 +1,143 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.slam;
+
+import it.unicam.quasylab.sibilla.core.models.slam.Activity;
+import it.unicam.quasylab.sibilla.core.models.slam.SlamAggregate;
+import it.unicam.quasylab.sibilla.core.models.slam.SlamState;
+import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
+import it.unicam.quasylab.sibilla.core.models.slam.data.AgentStore;
+import it.unicam.quasylab.sibilla.core.models.slam.data.AgentVariable;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.util.datastructures.MapScheduler;
+import it.unicam.quasylab.sibilla.core.util.datastructures.SibillaMap;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the semantics of the aggregated expressions and of the patterns of SLAM models. Expressions are built as the
+ * ones generated by {@link SlamExpressionEvaluator} and {@link AgentPatternGenerator}: in <code>sum{ x : p }</code>,
+ * <code>min{ x : p }</code> and <code>count{ p }</code>, <code>x</code> refers to the aggregated agent, while in the
+ * guard of pattern <code>p</code> the aggregated agent is referred as <code>it</code>.
+ */
+class SlamExpressionEvaluationParametersTest {
+
+    private static final AgentVariable X = new AgentVariable("x", 0);
+
+    private static final double[] VALUES = new double[] { 2.0, 5.0, -3.0, 1.0 };
+
+    /**
+     * The value of <code>x</code> in the store of the perceiving agent, that is never aggregated.
+     */
+    private static final double PERCEIVER_VALUE = 100.0;
+
+    /**
+     * Expression <code>x</code>.
+     */
+    private static final Function<SlamExpressionEvaluationParameters, SibillaValue> ATTRIBUTE = arg -> arg.get(X);
+
+    /**
+     * Pattern <code>_</code>.
+     */
+    private static final BiPredicate<AgentStore, SlamAgent> ANY = (store, agent) -> true;
+
+    /**
+     * Pattern <code>[ it.x > 0 ]</code>.
+     */
+    private static final BiPredicate<AgentStore, SlamAgent> POSITIVE = pattern(arg -> SibillaValue.of(arg.getFromPatternElement(X).doubleOf() > 0));
+
+    /**
+     * Pattern <code>[ it.x < 0 ]</code>.
+     */
+    private static final BiPredicate<AgentStore, SlamAgent> NEGATIVE = pattern(arg -> SibillaValue.of(arg.getFromPatternElement(X).doubleOf() < 0));
+
+    @Test
+    void shouldSumTheAttributesOfTheAggregatedAgents() {
+        assertEquals(5.0, perceive().getSumOf(ATTRIBUTE).doubleOf());
+        assertEquals(8.0, perceive().getSumOf(ATTRIBUTE, POSITIVE).doubleOf());
+        assertEquals(-3.0, perceive().getSumOf(ATTRIBUTE, NEGATIVE).doubleOf());
+    }
+
+    @Test
+    void shouldSelectTheMinimumAmongTheAggregatedAgents() {
+        assertEquals(-3.0, perceive().getMinOf(ATTRIBUTE).doubleOf());
+        assertEquals(1.0, perceive().getMinOf(ATTRIBUTE, POSITIVE).doubleOf());
+        assertEquals(5.0, perceive().getMaxOf(ATTRIBUTE, POSITIVE).doubleOf());
+    }
+
+    @Test
+    void shouldCountTheAgentsMatchingThePattern() {
+        assertEquals(4, perceive().count(ANY).intOf());
+        assertEquals(3, perceive().count(POSITIVE).intOf());
+        assertEquals(1, perceive().count(NEGATIVE).intOf());
+    }
+
+    @Test
+    void shouldEvaluatePatternsOnTheMatchedAgent() {
+        assertTrue(perceive().exists(NEGATIVE).booleanOf());
+        assertFalse(perceive().forAll(POSITIVE).booleanOf());
+        assertTrue(SlamExpressionEvaluationParameters.evalAgentPredicate(store(PERCEIVER_VALUE), store(-1.0),
+                arg -> SibillaValue.of(arg.getFromPatternElement(X).doubleOf() < 0)));
+    }
+
+    @Test
+    void shouldEvaluateRegisteredAggregatesAsTheStreamingOnes() {
+        SlamAggregate sum = new SlamAggregate(0, store -> SlamExpressionEvaluationParameters.evalAggregatedExpression(store, ATTRIBUTE),
+                agent -> POSITIVE.test(null, agent));
+        SlamAggregate count = new SlamAggregate(1, store -> 1.0, agent -> NEGATIVE.test(null, agent));
+        assertEquals(perceive().getSumOf(ATTRIBUTE, POSITIVE).doubleOf(), perceive().getSumOf(sum).doubleOf());
+        assertEquals(perceive().getMinOf(ATTRIBUTE, POSITIVE).doubleOf(), perceive().getMinOf(sum).doubleOf());
+        assertEquals(perceive().count(NEGATIVE).intOf(), perceive().count(count).intOf());
+    }
+
+    /**
+     * Returns the parameters used to evaluate the view of an agent, whose attribute <code>x</code> is
+     * {@link #PERCEIVER_VALUE}, on a state containing an agent for each of the {@link #VALUES}.
+     */
+    private static SlamExpressionEvaluationParameters perceive() {
+        SibillaMap<Integer, SlamAgent> agents = new SibillaMap<>();
+        for (int i = 0; i < VALUES.length; i++) {
+            agents = agents.add(i, new SlamAgent(null, i, null, store(VALUES[i])));
+        }
+        SlamState state = new SlamState(new Activity.ActivityFactory(), 0.0, agents, new MapScheduler<>(), new SibillaMap<>());
+        return new SlamExpressionEvaluationParameters(new DefaultRandomGenerator(), store(PERCEIVER_VALUE), state);
+    }
+
+    /**
+     * Returns the predicate generated for a pattern <code>[ guard ]</code>.
+     */
+    private static BiPredicate<AgentStore, SlamAgent> pattern(Function<SlamExpressionEvaluationParameters, SibillaValue> guard) {
+        return (store, agent) -> SlamExpressionEvaluationParameters.evalAgentPredicate(store, agent.getAgentMemory(), guard);
+    }
+
+    private static AgentStore store(double x) {
+        return AgentStore.of(new AgentVariable[] { X }, new SibillaValue[] { SibillaValue.of(x) });
+    }
+
+}
@@ -125,11 +125,11 @@ expr    : INTEGER                                                          # exp
         | '[' fieldAssignment (',' fieldAssignment)* ']'                   # expressionRecord
         | 'U''['min=expr',' max=expr']'                                    # expressionWeightedRandom
         | 'rnd'                                                            # expressionRandom
-        | 'all' (groupName=ID)? ':' expr                                   # expressionForAll
-        | 'any' (groupName=ID)? ':' expr                                   # expressionExists
-        | 'min' (groupName=ID)? ('[' guard=expr ']' )? '.' value=expr      # expressionMinimum
-        | 'max' (groupName=ID)? ('[' guard=expr ']' )? '.' value=expr      # expressionMaximum
-        | 'mean' (groupName=ID)? ('[' guard=expr ']' )? '.' value=expr     # expressionMean
+        | 'all' (groupName=ID)? range=spatialRange? ':' expr                                   # expressionForAll
+        | 'any' (groupName=ID)? range=spatialRange? ':' expr                                   # expressionExists
+        | 'min' (groupName=ID)? range=spatialRange? ('[' guard=expr ']' )? '.' value=expr      # expressionMinimum
+        | 'max' (groupName=ID)? range=spatialRange? ('[' guard=expr ']' )? '.' value=expr      # expressionMaximum
+        | 'mean' (groupName=ID)? range=spatialRange? ('[' guard=expr ']' )? '.' value=expr     # expressionMean
         |  record=expr '.' fieldName =ID                                   # expressionRecordAccess
         | 'it.' ref=ID                                                     # expressionItselfRef
         | 'sin' '(' argument=expr ')'                                      # expressionSin
@@ -149,6 +149,8 @@ expr    : INTEGER                                                          # exp
 
 fieldAssignment: name=ID '=' value=expr;
 
+spatialRange: 'within' distance=expr 'from' '(' xAttribute=ID ',' yAttribute=ID ')';
+
 type    : 'int'                                                     # typeInteger
         | 'real'                                                    # typeReal
         | 'bool'                                                    # typeBoolean
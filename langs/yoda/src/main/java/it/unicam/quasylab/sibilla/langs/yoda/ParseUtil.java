@@ -56,6 +56,7 @@ public class ParseUtil {
     private static final String DUPLICATED_ELEMENT_DECLARATION = "Another element with the same name %s has been declared at line %d:%d";
     private static final String UNKNOWN_YODA_TYPE = "Type %s is unknown";
     private static final String UNKNOWN_ATTRIBUTE_NAME = "Unknown attribute %s";
+    private static final String ILLEGAL_POSITION_ATTRIBUTE = "Attribute %s can not be used as a position";
     private static final String ILLEGAL_ATTRIBUTE_UPDATE = "Illegal update of attribute %s";
     private static final String DUPLICATED_SYSTEM_DECLARATION = "Duplicated system declaration";
     private static final String DUPLICATED_ATTRIBUTE_DECLARATION = "Attribute %s has been already declared at line %d:%d";
@@ -257,6 +258,14 @@ public class ParseUtil {
         );
     }
 
+    public static ParseError illegalPositionAttribute(Token fieldName) {
+        return new ParseError(
+                String.format(ILLEGAL_POSITION_ATTRIBUTE, fieldName.getText()),
+                fieldName.getLine(),
+                fieldName.getCharPositionInLine()
+        );
+    }
+
     public static ParseError illegalUpdateOfAttribute(Token fieldName) {
         return new ParseError(
                 String.format(ILLEGAL_ATTRIBUTE_UPDATE, fieldName.getText()),
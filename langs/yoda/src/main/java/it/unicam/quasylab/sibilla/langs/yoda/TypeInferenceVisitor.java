@@ -266,16 +266,16 @@ public class TypeInferenceVisitor extends YodaModelBaseVisitor<YodaType>{
     @Override
     public YodaType visitExpressionMinimum(YodaModelParser.ExpressionMinimumContext ctx) {
         if (groupExpressionsAllowed) {
-            return checkGroupExpression(ctx, ctx.groupName, ctx.value, ctx.guard);
+            return checkGroupExpression(ctx, ctx.groupName, ctx.range, ctx.value, ctx.guard);
         }
         return YodaType.NONE_TYPE;
     }
 
-    private YodaType checkGroupExpression(YodaModelParser.ExprContext ctx, Token groupName, YodaModelParser.ExprContext value, YodaModelParser.ExprContext guard) {
+    private YodaType checkGroupExpression(YodaModelParser.ExprContext ctx, Token groupName, YodaModelParser.SpatialRangeContext range, YodaModelParser.ExprContext value, YodaModelParser.ExprContext guard) {
         if (groupExpressionsAllowed) {
             Predicate<String> validAttributePredicate = getValidGroupPredicate(groupName);
             TypeInferenceVisitor visitor = new TypeInferenceVisitor(this.errors, typeFunction, elementAttributeTable, fieldsRecordType, validAttributePredicate, validItAttributePredicates, false, false);
-            if (visitor.checkNumericType(value)&&((guard == null)||(visitor.checkType(YodaType.BOOLEAN_TYPE, guard)))) {
+            if (checkSpatialRange(range, validAttributePredicate)&visitor.checkNumericType(value)&&((guard == null)||(visitor.checkType(YodaType.BOOLEAN_TYPE, guard)))) {
                 return YodaType.REAL_TYPE;
             }
         }
@@ -298,7 +298,7 @@ public class TypeInferenceVisitor extends YodaModelBaseVisitor<YodaType>{
     @Override
     public YodaType visitExpressionMaximum(YodaModelParser.ExpressionMaximumContext ctx) {
         if (groupExpressionsAllowed) {
-            return checkGroupExpression(ctx, ctx.groupName, ctx.value, ctx.guard);
+            return checkGroupExpression(ctx, ctx.groupName, ctx.range, ctx.value, ctx.guard);
         }
         return YodaType.NONE_TYPE;
     }
@@ -306,7 +306,7 @@ public class TypeInferenceVisitor extends YodaModelBaseVisitor<YodaType>{
     @Override
     public YodaType visitExpressionMean(YodaModelParser.ExpressionMeanContext ctx) {
         if (groupExpressionsAllowed) {
-            return checkGroupExpression(ctx, ctx.groupName, ctx.value, ctx.guard);
+            return checkGroupExpression(ctx, ctx.groupName, ctx.range, ctx.value, ctx.guard);
         }
         return YodaType.NONE_TYPE;
     }
@@ -325,21 +325,46 @@ public class TypeInferenceVisitor extends YodaModelBaseVisitor<YodaType>{
     @Override
     public YodaType visitExpressionForAll(YodaModelParser.ExpressionForAllContext ctx) {
         if (groupExpressionsAllowed) {
-            return checkGroupPredicateExpression(ctx, ctx.groupName, ctx.expr());
+            return checkGroupPredicateExpression(ctx, ctx.groupName, ctx.range, ctx.expr());
         }
         return YodaType.NONE_TYPE;
     }
 
-    private YodaType checkGroupPredicateExpression(YodaModelParser.ExprContext ctx, Token groupName, YodaModelParser.ExprContext expr) {
+    private YodaType checkGroupPredicateExpression(YodaModelParser.ExprContext ctx, Token groupName, YodaModelParser.SpatialRangeContext range, YodaModelParser.ExprContext expr) {
         Predicate<String> validAttributePredicate = getValidGroupPredicate(groupName);
         TypeInferenceVisitor visitor = new TypeInferenceVisitor(this.errors, typeFunction, elementAttributeTable, fieldsRecordType, validAttributePredicate, validItAttributePredicates, false, false);
+        if (!checkSpatialRange(range, validAttributePredicate)) {
+            return YodaType.NONE_TYPE;
+        }
         return visitor.checkAndReturn(YodaType.BOOLEAN_TYPE, expr);
     }
 
+    private boolean checkSpatialRange(YodaModelParser.SpatialRangeContext range, Predicate<String> validAttributePredicate) {
+        if (range == null) {
+            return true;
+        }
+        return checkNumericType(range.distance)
+                & checkPositionAttribute(range.xAttribute, validAttributePredicate)
+                & checkPositionAttribute(range.yAttribute, validAttributePredicate);
+    }
+
+    private boolean checkPositionAttribute(Token attribute, Predicate<String> validAttributePredicate) {
+        String name = attribute.getText();
+        if (!validAttributePredicate.test(name)||!validItAttributePredicates.test(name)) {
+            errors.record(ParseUtil.unknownAttributeName(attribute));
+            return false;
+        }
+        if (!elementAttributeTable.getTypeOf(name).isNumericType()) {
+            errors.record(ParseUtil.illegalPositionAttribute(attribute));
+            return false;
+        }
+        return true;
+    }
+
     @Override
     public YodaType visitExpressionExists(YodaModelParser.ExpressionExistsContext ctx) {
         if (groupExpressionsAllowed) {
-            return checkGroupPredicateExpression(ctx, ctx.groupName, ctx.expr());
+            return checkGroupPredicateExpression(ctx, ctx.groupName, ctx.range, ctx.expr());
         }
         return YodaType.NONE_TYPE;
     }
@@ -24,6 +24,7 @@
 package it.unicam.quasylab.sibilla.langs.yoda;
 
 import it.unicam.quasylab.sibilla.core.models.yoda.YodaElementName;
+import it.unicam.quasylab.sibilla.core.models.yoda.YodaSpatialRange;
 import it.unicam.quasylab.sibilla.core.models.yoda.YodaVariable;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 
@@ -124,6 +125,70 @@ public interface YodaExpressionEvaluationContext<T> {
         return SibillaValue.ERROR_VALUE;
     }
 
+    default SibillaValue min(T context, YodaSpatialRange range, Set<YodaElementName> group, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue min(T context, YodaSpatialRange range, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue min(T context, YodaSpatialRange range, Set<YodaElementName> group, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue min(T context, YodaSpatialRange range, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue max(T context, YodaSpatialRange range, Set<YodaElementName> group, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue max(T context, YodaSpatialRange range, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue max(T context, YodaSpatialRange range, Set<YodaElementName> group, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue max(T context, YodaSpatialRange range, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue mean(T context, YodaSpatialRange range, Set<YodaElementName> group, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue mean(T context, YodaSpatialRange range, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue mean(T context, YodaSpatialRange range, Set<YodaElementName> group, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue mean(T context, YodaSpatialRange range, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue exists(T context, YodaSpatialRange range, Set<YodaElementName> group, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue exists(T context, YodaSpatialRange range, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue forAll(T context, YodaSpatialRange range, Set<YodaElementName> group, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
+    default SibillaValue forAll(T context, YodaSpatialRange range, Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate)  {
+        return SibillaValue.ERROR_VALUE;
+    }
+
     default SibillaValue itGet(T arg, YodaVariable name)  {
         return SibillaValue.ERROR_VALUE;
     }
@@ -24,6 +24,7 @@
 package it.unicam.quasylab.sibilla.langs.yoda;
 
 import it.unicam.quasylab.sibilla.core.models.yoda.YodaElementName;
+import it.unicam.quasylab.sibilla.core.models.yoda.YodaSpatialRange;
 import it.unicam.quasylab.sibilla.core.models.yoda.YodaVariable;
 import it.unicam.quasylab.sibilla.core.models.yoda.YodaVariableRegistry;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaBoolean;
@@ -144,8 +145,29 @@ public class YodaFunctionalExpressionEvaluator<T> extends YodaModelBaseVisitor<F
         Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupExpression = ctx.value.accept(
                 new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
         );
+        if (ctx.range != null) {
+            Function<T, YodaSpatialRange> range = getSpatialRange(ctx.range);
+            if (ctx.guard != null) {
+                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupGuard = ctx.guard.accept(
+                        new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
+                );
+                if (ctx.groupName != null) {
+                    Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
+                    return arg -> expressionEvaluationContext.min(arg, range.apply(arg), elements, groupGuard, groupExpression);
+                } else {
+                    return arg -> expressionEvaluationContext.min(arg, range.apply(arg), groupGuard, groupExpression);
+                }
+            } else {
+                if (ctx.groupName != null) {
+                    Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
+                    return arg -> expressionEvaluationContext.min(arg, range.apply(arg), elements, groupExpression);
+                } else {
+                    return arg -> expressionEvaluationContext.min(arg, range.apply(arg), groupExpression);
+                }
+            }
+        }
         if (ctx.guard != null) {
-            Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupGuard = ctx.value.accept(
+            Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupGuard = ctx.guard.accept(
                     new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
             );
             if (ctx.groupName != null) {
@@ -162,6 +184,13 @@ public class YodaFunctionalExpressionEvaluator<T> extends YodaModelBaseVisitor<F
         }
     }
 
+    private Function<T, YodaSpatialRange> getSpatialRange(YodaModelParser.SpatialRangeContext ctx) {
+        Function<T, SibillaValue> distance = ctx.distance.accept(this);
+        YodaVariable xVariable = registry.get(ctx.xAttribute.getText());
+        YodaVariable yVariable = registry.get(ctx.yAttribute.getText());
+        return arg -> new YodaSpatialRange(xVariable, yVariable, distance.apply(arg).doubleOf());
+    }
+
     @Override
     public Function<T, SibillaValue> visitExpressionRelation(YodaModelParser.ExpressionRelationContext ctx) {
         Function<T, SibillaValue> firstArgumentEvaluation = ctx.leftOp.accept(this);
@@ -182,6 +211,15 @@ public class YodaFunctionalExpressionEvaluator<T> extends YodaModelBaseVisitor<F
         Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predExpression = ctx.expr().accept(
                 new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
         );
+        if (ctx.range != null) {
+            Function<T, YodaSpatialRange> range = getSpatialRange(ctx.range);
+            if (ctx.groupName != null) {
+                Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
+                return arg -> expressionEvaluationContext.exists(arg, range.apply(arg), elements, predExpression);
+            } else {
+                return arg -> expressionEvaluationContext.exists(arg, range.apply(arg), predExpression);
+            }
+        }
         if (ctx.groupName != null) {
             Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
             return arg -> expressionEvaluationContext.exists(arg, elements, predExpression);
@@ -213,6 +251,27 @@ public class YodaFunctionalExpressionEvaluator<T> extends YodaModelBaseVisitor<F
         Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupExpression = ctx.value.accept(
                 new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
         );
+        if (ctx.range != null) {
+            Function<T, YodaSpatialRange> range = getSpatialRange(ctx.range);
+            if (ctx.guard != null) {
+                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupGuard = ctx.guard.accept(
+                        new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
+                );
+                if (ctx.groupName != null) {
+                    Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
+                    return arg -> expressionEvaluationContext.mean(arg, range.apply(arg), elements, groupGuard, groupExpression);
+                } else {
+                    return arg -> expressionEvaluationContext.mean(arg, range.apply(arg), groupGuard, groupExpression);
+                }
+            } else {
+                if (ctx.groupName != null) {
+                    Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
+                    return arg -> expressionEvaluationContext.mean(arg, range.apply(arg), elements, groupExpression);
+                } else {
+                    return arg -> expressionEvaluationContext.mean(arg, range.apply(arg), groupExpression);
+                }
+            }
+        }
         if (ctx.guard != null) {
             Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupGuard = ctx.guard.accept(
                     new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
@@ -262,8 +321,29 @@ public class YodaFunctionalExpressionEvaluator<T> extends YodaModelBaseVisitor<F
         Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupExpression = ctx.value.accept(
                 new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
         );
+        if (ctx.range != null) {
+            Function<T, YodaSpatialRange> range = getSpatialRange(ctx.range);
+            if (ctx.guard != null) {
+                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupGuard = ctx.guard.accept(
+                        new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
+                );
+                if (ctx.groupName != null) {
+                    Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
+                    return arg -> expressionEvaluationContext.max(arg, range.apply(arg), elements, groupGuard, groupExpression);
+                } else {
+                    return arg -> expressionEvaluationContext.max(arg, range.apply(arg), groupGuard, groupExpression);
+                }
+            } else {
+                if (ctx.groupName != null) {
+                    Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
+                    return arg -> expressionEvaluationContext.max(arg, range.apply(arg), elements, groupExpression);
+                } else {
+                    return arg -> expressionEvaluationContext.max(arg, range.apply(arg), groupExpression);
+                }
+            }
+        }
         if (ctx.guard != null) {
-            Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupGuard = ctx.value.accept(
+            Function<YodaGroupExpressionEvaluationParameters, SibillaValue> groupGuard = ctx.guard.accept(
                     new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
             );
             if (ctx.groupName != null) {
@@ -296,6 +376,15 @@ public class YodaFunctionalExpressionEvaluator<T> extends YodaModelBaseVisitor<F
         Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predExpression = ctx.expr().accept(
                 new YodaFunctionalExpressionEvaluator<>(this.constantsAndParameters, YodaGroupExpressionEvaluationParameters.EXPRESSION_EVALUATION_CONTEXT, registry, groupSolver)
         );
+        if (ctx.range != null) {
+            Function<T, YodaSpatialRange> range = getSpatialRange(ctx.range);
+            if (ctx.groupName != null) {
+                Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
+                return arg -> expressionEvaluationContext.forAll(arg, range.apply(arg), elements, predExpression);
+            } else {
+                return arg -> expressionEvaluationContext.forAll(arg, range.apply(arg), predExpression);
+            }
+        }
         if (ctx.groupName != null) {
             Set<YodaElementName> elements = groupSolver.apply(ctx.groupName.getText());
             return arg -> expressionEvaluationContext.forAll(arg, elements, predExpression);
@@ -230,8 +230,212 @@ public class YodaSensingFunctionEvaluationParameters {
         @Override
         public SibillaValue forAll(YodaSensingFunctionEvaluationParameters context,
                                    Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate) {
+            return SibillaValue.of(context.systemState.forall(
+                    context.agent,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, predicate))
+            );
+        }
+
+        @Override
+        public SibillaValue min(YodaSensingFunctionEvaluationParameters context,
+                                YodaSpatialRange range,
+                                Set<YodaElementName> group,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.min(
+                    context.agent,
+                    range,
+                    group,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, guard),
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue min(YodaSensingFunctionEvaluationParameters context,
+                                YodaSpatialRange range,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.min(
+                    context.agent,
+                    range,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, guard),
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue min(YodaSensingFunctionEvaluationParameters context,
+                                YodaSpatialRange range,
+                                Set<YodaElementName> group,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.min(
+                    context.agent,
+                    range,
+                    group,
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue min(YodaSensingFunctionEvaluationParameters context,
+                                YodaSpatialRange range,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.min(
+                    context.agent,
+                    range,
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue max(YodaSensingFunctionEvaluationParameters context,
+                                YodaSpatialRange range,
+                                Set<YodaElementName> group,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.max(
+                    context.agent,
+                    range,
+                    group,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, guard),
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue max(YodaSensingFunctionEvaluationParameters context,
+                                YodaSpatialRange range,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.max(
+                    context.agent,
+                    range,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, guard),
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue max(YodaSensingFunctionEvaluationParameters context,
+                                YodaSpatialRange range,
+                                Set<YodaElementName> group,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.max(
+                    context.agent,
+                    range,
+                    group,
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue max(YodaSensingFunctionEvaluationParameters context,
+                                YodaSpatialRange range,
+                                Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.max(
+                    context.agent,
+                    range,
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue mean(YodaSensingFunctionEvaluationParameters context,
+                                 YodaSpatialRange range,
+                                 Set<YodaElementName> group,
+                                 Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard,
+                                 Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.mean(
+                    context.agent,
+                    range,
+                    group,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, guard),
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue mean(YodaSensingFunctionEvaluationParameters context,
+                                 YodaSpatialRange range,
+                                 Function<YodaGroupExpressionEvaluationParameters, SibillaValue> guard,
+                                 Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.mean(
+                    context.agent,
+                    range,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, guard),
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue mean(YodaSensingFunctionEvaluationParameters context,
+                                 YodaSpatialRange range,
+                                 Set<YodaElementName> group,
+                                 Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.mean(
+                    context.agent,
+                    range,
+                    group,
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue mean(YodaSensingFunctionEvaluationParameters context,
+                                 YodaSpatialRange range,
+                                 Function<YodaGroupExpressionEvaluationParameters, SibillaValue> expression) {
+            return context.systemState.mean(
+                    context.agent,
+                    range,
+                    YodaGroupExpressionEvaluationParameters.getDoubleFunction(context.agent, expression)
+            );
+        }
+
+        @Override
+        public SibillaValue exists(YodaSensingFunctionEvaluationParameters context,
+                                   YodaSpatialRange range,
+                                   Set<YodaElementName> group,
+                                   Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate) {
             return SibillaValue.of(context.systemState.exists(
                     context.agent,
+                    range,
+                    group,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, predicate))
+            );
+        }
+
+        @Override
+        public SibillaValue exists(YodaSensingFunctionEvaluationParameters context,
+                                   YodaSpatialRange range,
+                                   Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate) {
+            return SibillaValue.of(context.systemState.exists(
+                    context.agent,
+                    range,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, predicate))
+            );
+        }
+
+        @Override
+        public SibillaValue forAll(YodaSensingFunctionEvaluationParameters context,
+                                   YodaSpatialRange range,
+                                   Set<YodaElementName> group,
+                                   Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate) {
+            return SibillaValue.of(context.systemState.forall(
+                    context.agent,
+                    range,
+                    group,
+                    YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, predicate))
+            );
+        }
+
+        @Override
+        public SibillaValue forAll(YodaSensingFunctionEvaluationParameters context,
+                                   YodaSpatialRange range,
+                                   Function<YodaGroupExpressionEvaluationParameters, SibillaValue> predicate) {
+            return SibillaValue.of(context.systemState.forall(
+                    context.agent,
+                    range,
                     YodaGroupExpressionEvaluationParameters.getPredicate(context.agent, predicate))
             );
         }
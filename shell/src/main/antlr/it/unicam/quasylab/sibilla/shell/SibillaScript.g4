@@ -22,6 +22,9 @@ command : module_command
         | replica_command
         | deadline_command
         | dt_command
+        | mode_command
+        | tolerance_command
+        | checkpoint_command
         | measures_command
         | add_measure_command
         | remove_measure_command
@@ -39,10 +42,12 @@ command : module_command
         | remove_all_measures_command
         | descriptive_statistics
         | summary_statistics
+        | quantile_statistics
         | show_statistics
         | predicates_command
         | first_passage_time
         | reachability_command
+        | threshold_command
         | set_optimization_strategy
         | set_optimization_properties
         | set_surrogate_properties
@@ -58,7 +63,9 @@ command : module_command
 
 trace_command: 'trace' (output=STRING)?;
 
-reachability_command: 'probreach' goal=STRING ('while' condition=STRING)? 'with' 'alpha' '='  alpha=REAL 'and' 'delta' '=' delta=REAL;
+reachability_command: 'probreach' goal=STRING ('while' condition=STRING)? 'with' 'alpha' '='  alpha=REAL 'and' 'delta' '=' delta=REAL ('using' method=STRING)?;
+
+threshold_command: 'probreach' goal=STRING ('while' condition=STRING)? 'above' theta=REAL 'with' 'alpha' '='  alpha=REAL 'and' 'beta' '=' beta=REAL 'and' 'delta' '=' delta=REAL;
 
 first_passage_time: 'fpt' name=STRING;
 
@@ -68,6 +75,8 @@ summary_statistics: 'summary' 'statistics';
 
 descriptive_statistics: 'descriptive' 'statistics';
 
+quantile_statistics: 'quantile' 'statistics';
+
 quit_command: 'quit';
 
 module_command : 'module' name=STRING
@@ -112,6 +121,15 @@ deadline_command : 'deadline' (value=(REAL|INTEGER))?
 dt_command : 'dt' (value=(REAL|INTEGER))?
         ;
 
+mode_command : 'mode' (name=STRING)?
+        ;
+
+tolerance_command : 'tolerance' (value=REAL)?
+        ;
+
+checkpoint_command : 'checkpoint' ((folder=STRING ('every' interval=INTEGER)?)|off='off')?
+        ;
+
 measures_command : 'measures'
         ;
 
@@ -27,6 +27,9 @@ package it.unicam.quasylab.sibilla.shell;
 import it.unicam.quasylab.sibilla.core.runtime.CommandExecutionException;
 import it.unicam.quasylab.sibilla.core.runtime.SibillaRuntime;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTimeResults;
+import it.unicam.quasylab.sibilla.core.simulator.smc.EstimationMethod;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ProbabilityEstimate;
+import it.unicam.quasylab.sibilla.core.simulator.smc.ThresholdTestResult;
 import it.unicam.quasylab.sibilla.langs.util.ParseError;
 import it.unicam.quasylab.sibilla.langs.util.SibillaParseErrorListener;
 import it.unicam.quasylab.sibilla.shell.expression.ArithmeticExpressionVisitor;
@@ -301,6 +304,64 @@ public class SibillaShellInterpreter extends SibillaScriptBaseVisitor<Boolean> {
         return false;
     }
 
+    @Override
+    public Boolean visitMode_command(SibillaScriptParser.Mode_commandContext ctx) {
+        try {
+            if (ctx.name == null) {
+                showMessage(String.format("Current mode=%s, available modes: %s", runtime.getMode(), String.join(", ", runtime.getModes())));
+                return true;
+            }
+            runtime.setMode(getStringContent(ctx.name.getText()));
+            showMessage(OK_MESSAGE);
+            return true;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean visitTolerance_command(SibillaScriptParser.Tolerance_commandContext ctx) {
+        try {
+            if (ctx.value == null) {
+                showMessage(String.format("Current tau-leaping tolerance=%f", runtime.getTauLeapingTolerance()));
+                return true;
+            }
+            runtime.setTauLeapingTolerance(Double.parseDouble(ctx.value.getText()));
+            showMessage(OK_MESSAGE);
+            return true;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean visitCheckpoint_command(SibillaScriptParser.Checkpoint_commandContext ctx) {
+        try {
+            if (ctx.off != null) {
+                runtime.setCheckpointFolder(null);
+            } else if (ctx.folder == null) {
+                if (runtime.getCheckpointFolder() == null) {
+                    showMessage("Checkpoints are disabled");
+                } else {
+                    showMessage(String.format("Checkpoints are stored in %s every %d replicas", runtime.getCheckpointFolder(), runtime.getCheckpointInterval()));
+                }
+                return true;
+            } else {
+                runtime.setCheckpointFolder(getFile(getStringContent(ctx.folder.getText())).getAbsolutePath());
+                if (ctx.interval != null) {
+                    runtime.setCheckpointInterval(Long.parseLong(ctx.interval.getText()));
+                }
+            }
+            showMessage(OK_MESSAGE);
+            return true;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+        }
+        return false;
+    }
+
     @Override
     public Boolean visitMeasures_command(SibillaScriptParser.Measures_commandContext ctx) {
         String[] measures = Arrays.stream(runtime.getMeasures()).map(s -> (runtime.isEnabledMeasure(s) ? s + " *" : s)).toArray(String[]::new);
@@ -509,6 +570,13 @@ public class SibillaShellInterpreter extends SibillaScriptBaseVisitor<Boolean> {
         return true;
     }
 
+    @Override
+    public Boolean visitQuantile_statistics(SibillaScriptParser.Quantile_statisticsContext ctx) {
+        this.runtime.useQuantileStatistics();
+        showMessage(OK_MESSAGE);
+        return true;
+    }
+
     @Override
     public Boolean visitReachability_command(SibillaScriptParser.Reachability_commandContext ctx) {
         ShellSimulationMonitor monitor = null;
@@ -516,20 +584,63 @@ public class SibillaShellInterpreter extends SibillaScriptBaseVisitor<Boolean> {
             monitor = new ShellSimulationMonitor(output);
         }
         String targetPredicate = getStringContent(ctx.goal.getText());
+        String condition = (ctx.condition != null ? getStringContent(ctx.condition.getText()) : null);
         double alpha = Double.parseDouble(ctx.alpha.getText());
         double delta = Double.parseDouble(ctx.delta.getText());
+        EstimationMethod method = EstimationMethod.CLOPPER_PEARSON;
+        if (ctx.method != null) {
+            try {
+                method = EstimationMethod.valueOf(getStringContent(ctx.method).toUpperCase());
+            } catch (IllegalArgumentException e) {
+                showErrorMessage("Unknown estimation method "+getStringContent(ctx.method)+"! Available methods are: "+
+                        Arrays.toString(EstimationMethod.values()));
+                return false;
+            }
+        }
         try {
-            double prob = 0.0;
-            if (ctx.condition != null) {
-                prob = runtime.computeProbReach(monitor, getStringContent(ctx.condition.getText()), targetPredicate, alpha, delta);
-            } else {
-                prob = runtime.computeProbReach(monitor, targetPredicate, alpha, delta);
+            ProbabilityEstimate estimate = runtime.estimateProbReach(monitor, condition, targetPredicate, method, alpha, delta);
+            showMessage("\nProbability: "+estimate.getProbability());
+            showMessage("Confidence interval: ["+estimate.getLowerBound()+", "+estimate.getUpperBound()+"]");
+            showMessage("Runs: "+estimate.getRuns()+(estimate.isConcluded() ? "" : " (interrupted)"));
+            return true;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+            return false;
+        }
+    }
+
+    @Override
+    public Boolean visitThreshold_command(SibillaScriptParser.Threshold_commandContext ctx) {
+        ShellSimulationMonitor monitor = null;
+        if (isInteractive) {
+            monitor = new ShellSimulationMonitor(output);
+        }
+        String targetPredicate = getStringContent(ctx.goal.getText());
+        String condition = (ctx.condition != null ? getStringContent(ctx.condition.getText()) : null);
+        double theta = Double.parseDouble(ctx.theta.getText());
+        double alpha = Double.parseDouble(ctx.alpha.getText());
+        double beta = Double.parseDouble(ctx.beta.getText());
+        double delta = Double.parseDouble(ctx.delta.getText());
+        try {
+            ThresholdTestResult result = runtime.testProbReach(monitor, condition, targetPredicate, theta, alpha, beta, delta);
+            switch (result.getOutcome()) {
+                case ABOVE:
+                    showMessage("\nProbability is above "+theta);
+                    break;
+                case BELOW:
+                    showMessage("\nProbability is below "+theta);
+                    break;
+                default:
+                    showMessage("\nNo decision has been taken");
             }
-            showMessage("\nProbability: "+prob);
+            showMessage("Runs: "+result.getRuns()+" (frequency "+result.getProbability()+")");
             return true;
         } catch (CommandExecutionException e) {
             printErrorMessages(e.getErrorMessages());
             return false;
+        } catch (IllegalArgumentException e) {
+            showErrorMessage(e.getMessage());
+            return false;
         }
     }
 